@@ -0,0 +1,114 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memoria fuera del heap repartida en bloques de tamaño fijo.
+ *
+ * <p>La memoria se pide al sistema en slabs de {@link #BLOQUES_POR_SLAB} bloques
+ * ({@link ByteBuffer#allocateDirect}) a medida que se necesitan, hasta el total
+ * configurado (el último slab puede ser más chico), y nunca se devuelve. Un valor
+ * ocupa los bloques que necesite, no necesariamente contiguos, así que cualquier bloque
+ * libre sirve para cualquier valor y no hay fragmentación por clases de tamaño.</p>
+ *
+ * <p>No es seguro para uso concurrente: {@link CacheFueraDeHeap} lo usa bajo su cerrojo.
+ * Las vistas que entrega {@link #leer} sí pueden leerse fuera de él mientras los bloques
+ * no se liberen.</p>
+ */
+class BloquesFueraDeHeap {
+
+    static final int BLOQUES_POR_SLAB = 2048;
+
+    private final int tamanoBloque;
+    private final int totalBloques;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final int[] libres;
+    private int cantidadLibres;
+    private int asignados;
+
+    BloquesFueraDeHeap(int tamanoBloque, long maxBytes) {
+        this.tamanoBloque = tamanoBloque;
+        this.totalBloques = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, maxBytes / tamanoBloque));
+        this.libres = new int[totalBloques];
+    }
+
+    int tamanoBloque() {
+        return tamanoBloque;
+    }
+
+    int totalBloques() {
+        return totalBloques;
+    }
+
+    int bloquesPara(int bytes) {
+        return Math.max(1, (bytes + tamanoBloque - 1) / tamanoBloque);
+    }
+
+    /**
+     * @return Los bloques reservados, o null si no quedan suficientes
+     */
+    int[] reservar(int cantidad) {
+        if (cantidadLibres + (totalBloques - asignados) < cantidad) {
+            return null;
+        }
+        int[] bloques = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            if (cantidadLibres == 0) {
+                crecer();
+            }
+            bloques[i] = libres[--cantidadLibres];
+        }
+        return bloques;
+    }
+
+    void liberar(int[] bloques) {
+        for (int bloque : bloques) {
+            libres[cantidadLibres++] = bloque;
+        }
+    }
+
+    void escribir(int[] bloques, byte[] datos) {
+        for (int i = 0; i < bloques.length; i++) {
+            int desde = i * tamanoBloque;
+            int largo = Math.min(tamanoBloque, datos.length - desde);
+            vista(bloques[i]).put(datos, desde, largo);
+        }
+    }
+
+    /**
+     * @return Vistas de solo lectura sobre los bloques, sin copiar los datos
+     */
+    ByteBuffer[] leer(int[] bloques, int longitud) {
+        ByteBuffer[] partes = new ByteBuffer[bloques.length];
+        for (int i = 0; i < bloques.length; i++) {
+            int largo = Math.min(tamanoBloque, longitud - i * tamanoBloque);
+            partes[i] = vista(bloques[i]).limit(largo).asReadOnlyBuffer();
+        }
+        return partes;
+    }
+
+    /**
+     * @return Bytes de memoria fuera del heap pedidos al sistema hasta ahora
+     */
+    long bytesReservados() {
+        return (long) asignados * tamanoBloque;
+    }
+
+    private ByteBuffer vista(int bloque) {
+        ByteBuffer slab = slabs.get(bloque / BLOQUES_POR_SLAB);
+        int inicio = (bloque % BLOQUES_POR_SLAB) * tamanoBloque;
+        return slab.duplicate().position(inicio).limit(inicio + tamanoBloque).slice();
+    }
+
+    private void crecer() {
+        int bloques = Math.min(BLOQUES_POR_SLAB, totalBloques - asignados);
+        slabs.add(ByteBuffer.allocateDirect(bloques * tamanoBloque));
+        // Se apilan al revés para entregar primero los bloques bajos del slab
+        for (int i = bloques - 1; i >= 0; i--) {
+            libres[cantidadLibres++] = asignados + i;
+        }
+        asignados += bloques;
+    }
+}
@@ -0,0 +1,29 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Segundo nivel de caché, compartido por todas las réplicas del gateway.
+ *
+ * <p>Una réplica recién desplegada encuentra aquí lo que las demás ya consultaron, en
+ * lugar de ir a los microservicios con su caché local vacía. Con
+ * {@code gateway.profile-cache.shared.address} se usa {@link CacheCompartidaResp}
+ * (cualquier servidor compatible con el protocolo de Redis); un despliegue puede
+ * registrar otro bean. {@link CacheCompartidaMemoria} sirve para pruebas.</p>
+ *
+ * <p>Es una caché: las implementaciones no propagan errores ni esperan más de lo
+ * configurado, responden vacío y el llamador sigue hacia el microservicio.</p>
+ */
+public interface CacheCompartida {
+
+    /**
+     * @return El valor guardado, o vacío si no está, venció o el almacén no respondió
+     */
+    Mono<byte[]> obtener(String clave);
+
+    Mono<Void> guardar(String clave, byte[] valor, Duration vigencia);
+
+    Mono<Void> invalidar(String clave);
+}
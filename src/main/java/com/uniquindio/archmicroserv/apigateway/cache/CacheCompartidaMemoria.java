@@ -0,0 +1,55 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link CacheCompartida} en memoria del proceso.
+ *
+ * <p>Sirve para pruebas y para una única réplica; no comparte estado entre procesos.</p>
+ */
+public class CacheCompartidaMemoria implements CacheCompartida {
+
+    private static final int MAX_CLAVES = 100_000;
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final LongSupplier reloj;
+
+    public CacheCompartidaMemoria() {
+        this(System::nanoTime);
+    }
+
+    CacheCompartidaMemoria(LongSupplier reloj) {
+        this.reloj = reloj;
+    }
+
+    @Override
+    public Mono<byte[]> obtener(String clave) {
+        return Mono.fromSupplier(() -> {
+            Entrada entrada = entradas.get(clave);
+            return entrada == null || entrada.vence() - reloj.getAsLong() <= 0 ? null : entrada.valor().clone();
+        });
+    }
+
+    @Override
+    public Mono<Void> guardar(String clave, byte[] valor, Duration vigencia) {
+        return Mono.fromRunnable(() -> {
+            long ahora = reloj.getAsLong();
+            entradas.put(clave, new Entrada(valor.clone(), ahora + vigencia.toNanos()));
+            if (entradas.size() > MAX_CLAVES) {
+                entradas.values().removeIf(entrada -> entrada.vence() - ahora <= 0);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> invalidar(String clave) {
+        return Mono.fromRunnable(() -> entradas.remove(clave));
+    }
+
+    private record Entrada(byte[] valor, long vence) {
+    }
+}
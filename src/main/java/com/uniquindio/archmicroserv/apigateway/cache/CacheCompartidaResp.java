@@ -0,0 +1,252 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CacheCompartida} sobre un servidor que habla RESP, el protocolo de Redis
+ * (Redis, Valkey, KeyDB, Dragonfly...).
+ *
+ * <p>Usa solo {@code GET}, {@code SET ... PX} y {@code DEL}, con claves bajo
+ * {@code prefijo}, por conexiones TCP bloqueantes de un pool de {@code conexiones}
+ * que se ejecutan en {@code boundedElastic}. Cada operación, incluida la espera de
+ * una conexión libre, se corta a los {@code tiempoMaximo}; una conexión con error se
+ * descarta. Los errores se registran en {@code debug} y se responden como fallo de
+ * caché.</p>
+ */
+public class CacheCompartidaResp implements CacheCompartida, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheCompartidaResp.class);
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final InetSocketAddress direccion;
+    private final String prefijo;
+    private final String contrasena;
+    private final Duration tiempoMaximo;
+    private final int maxConexiones;
+    private final BlockingQueue<Conexion> libres;
+    private final AtomicInteger abiertas = new AtomicInteger();
+    private volatile boolean cerrada;
+
+    public CacheCompartidaResp(String host, int puerto, String prefijo, String contrasena,
+                               Duration tiempoMaximo, int conexiones) {
+        this.direccion = InetSocketAddress.createUnresolved(host, puerto);
+        this.prefijo = prefijo;
+        this.contrasena = contrasena;
+        this.tiempoMaximo = tiempoMaximo;
+        this.maxConexiones = Math.max(1, conexiones);
+        this.libres = new ArrayBlockingQueue<>(maxConexiones);
+    }
+
+    @Override
+    public Mono<byte[]> obtener(String clave) {
+        return ejecutar("GET", clave, conexion -> (byte[]) conexion.comando("GET", prefijo + clave));
+    }
+
+    @Override
+    public Mono<Void> guardar(String clave, byte[] valor, Duration vigencia) {
+        return ejecutar("SET", clave, conexion -> conexion.comando(
+                "SET".getBytes(StandardCharsets.US_ASCII),
+                (prefijo + clave).getBytes(StandardCharsets.UTF_8),
+                valor,
+                "PX".getBytes(StandardCharsets.US_ASCII),
+                Long.toString(Math.max(1, vigencia.toMillis())).getBytes(StandardCharsets.US_ASCII)))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> invalidar(String clave) {
+        return ejecutar("DEL", clave, conexion -> conexion.comando("DEL", prefijo + clave)).then();
+    }
+
+    @Override
+    public void close() {
+        cerrada = true;
+        Conexion conexion;
+        while ((conexion = libres.poll()) != null) {
+            conexion.cerrar();
+        }
+    }
+
+    private <T> Mono<T> ejecutar(String operacion, String clave, Operacion<T> operacionResp) {
+        return Mono.fromCallable(() -> {
+                    Conexion conexion = tomar();
+                    try {
+                        T resultado = operacionResp.aplicar(conexion);
+                        devolver(conexion);
+                        return resultado;
+                    } catch (IOException | RuntimeException e) {
+                        descartar(conexion);
+                        throw e;
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(tiempoMaximo)
+                .onErrorResume(error -> {
+                    log.debug("Caché compartida: {} {} falló: {}", operacion, clave, error.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Conexion tomar() throws IOException, InterruptedException, TimeoutException {
+        Conexion conexion = libres.poll();
+        if (conexion != null) {
+            return conexion;
+        }
+        if (abiertas.incrementAndGet() <= maxConexiones) {
+            try {
+                return abrir();
+            } catch (IOException | RuntimeException e) {
+                abiertas.decrementAndGet();
+                throw e;
+            }
+        }
+        abiertas.decrementAndGet();
+        conexion = libres.poll(tiempoMaximo.toMillis(), TimeUnit.MILLISECONDS);
+        if (conexion == null) {
+            throw new TimeoutException("Sin conexiones libres");
+        }
+        return conexion;
+    }
+
+    private Conexion abrir() throws IOException {
+        int tiempo = (int) Math.max(1, tiempoMaximo.toMillis());
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(direccion.getHostString(), direccion.getPort()), tiempo);
+            socket.setSoTimeout(tiempo);
+            socket.setTcpNoDelay(true);
+            Conexion conexion = new Conexion(socket);
+            if (contrasena != null && !contrasena.isEmpty()) {
+                conexion.comando("AUTH", contrasena);
+            }
+            return conexion;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void devolver(Conexion conexion) {
+        if (cerrada || !libres.offer(conexion)) {
+            descartar(conexion);
+        }
+    }
+
+    private void descartar(Conexion conexion) {
+        abiertas.decrementAndGet();
+        conexion.cerrar();
+    }
+
+    @FunctionalInterface
+    private interface Operacion<T> {
+        T aplicar(Conexion conexion) throws IOException;
+    }
+
+    /**
+     * Una conexión RESP2: escribe comandos como arreglos de bulk strings y lee una respuesta.
+     */
+    private static final class Conexion {
+
+        private final Socket socket;
+        private final InputStream entrada;
+        private final OutputStream salida;
+
+        private Conexion(Socket socket) throws IOException {
+            this.socket = socket;
+            this.entrada = new BufferedInputStream(socket.getInputStream());
+            this.salida = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        Object comando(String... partes) throws IOException {
+            byte[][] bytes = new byte[partes.length][];
+            for (int i = 0; i < partes.length; i++) {
+                bytes[i] = partes[i].getBytes(StandardCharsets.UTF_8);
+            }
+            return comando(bytes);
+        }
+
+        Object comando(byte[]... partes) throws IOException {
+            salida.write(('*' + Integer.toString(partes.length)).getBytes(StandardCharsets.US_ASCII));
+            salida.write(CRLF);
+            for (byte[] parte : partes) {
+                salida.write(('$' + Integer.toString(parte.length)).getBytes(StandardCharsets.US_ASCII));
+                salida.write(CRLF);
+                salida.write(parte);
+                salida.write(CRLF);
+            }
+            salida.flush();
+            return respuesta();
+        }
+
+        /**
+         * @return String para {@code +}, Long para {@code :}, byte[] o null para {@code $}
+         */
+        private Object respuesta() throws IOException {
+            int tipo = entrada.read();
+            String linea = linea();
+            switch (tipo) {
+                case '+':
+                    return linea;
+                case ':':
+                    return Long.parseLong(linea);
+                case '-':
+                    throw new IOException("Error del servidor: " + linea);
+                case '$':
+                    int largo = Integer.parseInt(linea);
+                    if (largo < 0) {
+                        return null;
+                    }
+                    byte[] valor = entrada.readNBytes(largo);
+                    if (valor.length < largo || entrada.read() != '\r' || entrada.read() != '\n') {
+                        throw new EOFException("Respuesta incompleta");
+                    }
+                    return valor;
+                case -1:
+                    throw new EOFException("Conexión cerrada por el servidor");
+                default:
+                    throw new IOException("Respuesta RESP inesperada: " + (char) tipo);
+            }
+        }
+
+        private String linea() throws IOException {
+            ByteArrayOutputStream linea = new ByteArrayOutputStream();
+            int actual;
+            while ((actual = entrada.read()) != '\r') {
+                if (actual == -1) {
+                    throw new EOFException("Conexión cerrada por el servidor");
+                }
+                linea.write(actual);
+            }
+            entrada.read();
+            return linea.toString(StandardCharsets.UTF_8);
+        }
+
+        void cerrar() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Error cerrando conexión de la caché compartida: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché de valores serializados guardados fuera del heap, con tamaño máximo en bytes y
+ * admisión W-TinyLFU.
+ *
+ * <p>Los bytes viven en {@link BloquesFueraDeHeap}; en el heap queda solo el índice
+ * (clave, bloques, longitud y vencimiento), así que el costo de GC por entrada no
+ * depende del tamaño del valor ni de cuántos objetos tendría deserializado.</p>
+ *
+ * <p>La capacidad, en bloques, se reparte como en W-TinyLFU: una ventana LRU del 1%
+ * que recibe toda entrada nueva y una región principal SLRU (20% de prueba, 80%
+ * protegida). Cuando la ventana se llena, su entrada más antigua solo entra a la
+ * principal si su frecuencia estimada por {@link SketchFrecuencia} supera a la de la
+ * víctima que desplazaría; así un barrido de claves leídas una sola vez no expulsa a
+ * las populares.</p>
+ *
+ * <p>{@link #leer} no copia los bytes: entrega vistas de solo lectura sobre los bloques.
+ * Mientras la {@link Lectura} esté abierta sus bloques no se reutilizan aunque la entrada
+ * se expulse o invalide; deben cerrarse siempre.</p>
+ */
+public class CacheFueraDeHeap {
+
+    private static final double PROPORCION_VENTANA = 0.01;
+    private static final double PROPORCION_PROTEGIDA = 0.8;
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final BloquesFueraDeHeap bloques;
+    private final SketchFrecuencia sketch;
+    private final Map<String, Entrada> indice = new HashMap<>();
+    private final Region ventana;
+    private final Region prueba;
+    private final Region protegida;
+    private final int limitePrincipal;
+    private final int maxBytesEntrada;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    /**
+     * @param maxBytes        Memoria fuera del heap como máximo
+     * @param tamanoBloque    Bytes por bloque; un valor ocupa {@code ceil(longitud / tamanoBloque)}
+     * @param maxBytesEntrada Los valores más grandes no se guardan
+     * @param ttlMs           Vigencia de cada entrada desde que se guarda
+     */
+    public CacheFueraDeHeap(long maxBytes, int tamanoBloque, int maxBytesEntrada, long ttlMs) {
+        this(maxBytes, tamanoBloque, maxBytesEntrada, ttlMs, System::nanoTime);
+    }
+
+    CacheFueraDeHeap(long maxBytes, int tamanoBloque, int maxBytesEntrada, long ttlMs, LongSupplier reloj) {
+        this.bloques = new BloquesFueraDeHeap(Math.max(64, tamanoBloque), maxBytes);
+        int total = bloques.totalBloques();
+        int limiteVentana = Math.max(1, (int) (total * PROPORCION_VENTANA));
+        this.limitePrincipal = Math.max(1, total - limiteVentana);
+        this.ventana = new Region(limiteVentana);
+        this.prueba = new Region(limitePrincipal);
+        this.protegida = new Region((int) (limitePrincipal * PROPORCION_PROTEGIDA));
+        this.sketch = new SketchFrecuencia(total);
+        this.maxBytesEntrada = maxBytesEntrada;
+        this.ttlNanos = Math.max(1, ttlMs) * 1_000_000L;
+        this.reloj = reloj;
+    }
+
+    /**
+     * @return La lectura del valor, que debe cerrarse, o null si no está o venció
+     */
+    public Lectura leer(String clave) {
+        cerrojo.lock();
+        try {
+            sketch.incrementar(clave);
+            Entrada entrada = indice.get(clave);
+            if (entrada == null || entrada.bloques == null) {
+                return null;
+            }
+            if (entrada.vence - reloj.getAsLong() <= 0) {
+                expulsar(entrada);
+                return null;
+            }
+            tocar(entrada);
+            entrada.usos++;
+            return new Lectura(entrada, bloques.leer(entrada.bloques, entrada.longitud));
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Guarda el valor, reemplazando el anterior de la clave.
+     *
+     * @return false si no se guardó: demasiado grande, o no fue admitido frente a
+     *         entradas más frecuentes
+     */
+    public boolean guardar(String clave, byte[] valor) {
+        cerrojo.lock();
+        try {
+            Entrada anterior = indice.get(clave);
+            if (anterior != null) {
+                expulsar(anterior);
+            }
+            if (valor.length > maxBytesEntrada) {
+                return false;
+            }
+            sketch.incrementar(clave);
+            Entrada entrada = new Entrada(clave, bloques.bloquesPara(valor.length), valor.length,
+                    reloj.getAsLong() + ttlNanos);
+            indice.put(clave, entrada);
+            ventana.agregar(entrada);
+            equilibrar();
+            if (entrada.region == null) {
+                return false;
+            }
+            // Con las regiones dentro de su límite quedan bloques libres, salvo los que
+            // retienen lecturas abiertas de entradas ya expulsadas
+            int[] reservados = bloques.reservar(entrada.peso);
+            if (reservados == null) {
+                expulsar(entrada);
+                return false;
+            }
+            bloques.escribir(reservados, valor);
+            entrada.bloques = reservados;
+            return true;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public void invalidar(String clave) {
+        cerrojo.lock();
+        try {
+            Entrada entrada = indice.get(clave);
+            if (entrada != null) {
+                expulsar(entrada);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public int entradas() {
+        cerrojo.lock();
+        try {
+            return indice.size();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * @return Bytes fuera del heap pedidos al sistema hasta ahora; nunca supera el máximo
+     */
+    public long bytesReservados() {
+        cerrojo.lock();
+        try {
+            return bloques.bytesReservados();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private void tocar(Entrada entrada) {
+        if (entrada.region == prueba) {
+            prueba.quitar(entrada);
+            protegida.agregar(entrada);
+            while (protegida.peso > protegida.limite) {
+                Entrada degradada = protegida.masAntigua();
+                protegida.quitar(degradada);
+                prueba.agregar(degradada);
+            }
+        } else {
+            entrada.region.tocar(entrada);
+        }
+    }
+
+    private void equilibrar() {
+        while (ventana.peso > ventana.limite) {
+            Entrada candidata = ventana.masAntigua();
+            ventana.quitar(candidata);
+            admitir(candidata);
+        }
+    }
+
+    private void admitir(Entrada candidata) {
+        long ahora = reloj.getAsLong();
+        while (prueba.peso + protegida.peso + candidata.peso > limitePrincipal) {
+            Entrada victima = prueba.masAntigua() != null ? prueba.masAntigua() : protegida.masAntigua();
+            if (victima == null) {
+                // Más grande que toda la región principal
+                expulsar(candidata);
+                return;
+            }
+            if (victima.vence - ahora <= 0
+                    || sketch.frecuencia(candidata.clave) > sketch.frecuencia(victima.clave)) {
+                expulsar(victima);
+            } else {
+                expulsar(candidata);
+                return;
+            }
+        }
+        prueba.agregar(candidata);
+    }
+
+    private void expulsar(Entrada entrada) {
+        indice.remove(entrada.clave, entrada);
+        if (entrada.region != null) {
+            entrada.region.quitar(entrada);
+        }
+        soltar(entrada);
+    }
+
+    private void soltar(Entrada entrada) {
+        if (--entrada.usos == 0 && entrada.bloques != null) {
+            bloques.liberar(entrada.bloques);
+            entrada.bloques = null;
+        }
+    }
+
+    private void cerrar(Entrada entrada) {
+        cerrojo.lock();
+        try {
+            soltar(entrada);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Vistas sin copia sobre los bytes guardados. Son válidas hasta {@link #close()}.
+     */
+    public final class Lectura implements AutoCloseable {
+
+        private final Entrada entrada;
+        private final ByteBuffer[] partes;
+        private boolean cerrada;
+
+        private Lectura(Entrada entrada, ByteBuffer[] partes) {
+            this.entrada = entrada;
+            this.partes = partes;
+        }
+
+        public int longitud() {
+            return entrada.longitud;
+        }
+
+        /**
+         * @return Los bloques en orden, listos para una escritura con gather
+         *         ({@link java.nio.channels.GatheringByteChannel}); cada uno se consume una vez
+         */
+        public ByteBuffer[] partes() {
+            return partes;
+        }
+
+        /**
+         * @return Un flujo que lee directamente de los bloques, p. ej. para deserializar
+         */
+        public InputStream flujo() {
+            return new FlujoBloques(partes);
+        }
+
+        @Override
+        public void close() {
+            if (!cerrada) {
+                cerrada = true;
+                cerrar(entrada);
+            }
+        }
+    }
+
+    private static final class Entrada {
+        private final String clave;
+        private final int peso;
+        private final int longitud;
+        private final long vence;
+        private int[] bloques;
+        private Region region;
+        // La caché cuenta como un uso; cada lectura abierta suma otro
+        private int usos = 1;
+
+        private Entrada(String clave, int peso, int longitud, long vence) {
+            this.clave = clave;
+            this.peso = peso;
+            this.longitud = longitud;
+            this.vence = vence;
+        }
+    }
+
+    /**
+     * Lista LRU de entradas con su peso total en bloques.
+     */
+    private static final class Region {
+        private final LinkedHashMap<String, Entrada> orden = new LinkedHashMap<>(16, 0.75f, true);
+        private final int limite;
+        private int peso;
+
+        private Region(int limite) {
+            this.limite = limite;
+        }
+
+        void agregar(Entrada entrada) {
+            orden.put(entrada.clave, entrada);
+            entrada.region = this;
+            peso += entrada.peso;
+        }
+
+        void quitar(Entrada entrada) {
+            orden.remove(entrada.clave);
+            entrada.region = null;
+            peso -= entrada.peso;
+        }
+
+        void tocar(Entrada entrada) {
+            orden.get(entrada.clave);
+        }
+
+        Entrada masAntigua() {
+            Iterator<Entrada> iterador = orden.values().iterator();
+            return iterador.hasNext() ? iterador.next() : null;
+        }
+    }
+
+    private static final class FlujoBloques extends InputStream {
+        private final ByteBuffer[] partes;
+        private int actual;
+
+        private FlujoBloques(ByteBuffer[] partes) {
+            this.partes = partes;
+        }
+
+        @Override
+        public int read() {
+            ByteBuffer parte = siguiente();
+            return parte == null ? -1 : parte.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int largo) {
+            if (largo == 0) {
+                return 0;
+            }
+            ByteBuffer parte = siguiente();
+            if (parte == null) {
+                return -1;
+            }
+            int leidos = Math.min(largo, parte.remaining());
+            parte.get(destino, desde, leidos);
+            return leidos;
+        }
+
+        private ByteBuffer siguiente() {
+            while (actual < partes.length && !partes[actual].hasRemaining()) {
+                actual++;
+            }
+            return actual < partes.length ? partes[actual] : null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+/**
+ * Count-Min Sketch con contadores de 4 bits para estimar la frecuencia reciente de
+ * cada clave, como en TinyLFU.
+ *
+ * <p>Tiene {@value #FILAS} filas de {@code ancho} contadores (16 por {@code long}).
+ * Cada {@code 10 × ancho} incrementos todos los contadores se reducen a la mitad, así
+ * las claves que fueron populares hace tiempo pierden peso. No es seguro para uso
+ * concurrente; {@link CacheFueraDeHeap} lo usa bajo su cerrojo.</p>
+ */
+class SketchFrecuencia {
+
+    private static final int FILAS = 4;
+    private static final int MAXIMO_CONTADOR = 15;
+    private static final long[] SEMILLAS = {
+            0x97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final long[] tabla;
+    private final int mascaraAncho;
+    private final int limiteMuestras;
+    private int muestras;
+
+    SketchFrecuencia(int clavesEsperadas) {
+        int ancho = Integer.highestOneBit(Math.max(16, Math.min(1 << 26, clavesEsperadas)) * 2 - 1);
+        this.mascaraAncho = ancho - 1;
+        this.tabla = new long[FILAS * ancho / 16];
+        this.limiteMuestras = 10 * ancho;
+    }
+
+    int frecuencia(String clave) {
+        int hash = mezclar(clave.hashCode());
+        int minimo = MAXIMO_CONTADOR;
+        for (int fila = 0; fila < FILAS; fila++) {
+            minimo = Math.min(minimo, contador(fila, celda(hash, fila)));
+        }
+        return minimo;
+    }
+
+    void incrementar(String clave) {
+        int hash = mezclar(clave.hashCode());
+        boolean incremento = false;
+        for (int fila = 0; fila < FILAS; fila++) {
+            incremento |= sumar(fila, celda(hash, fila));
+        }
+        if (incremento && ++muestras >= limiteMuestras) {
+            envejecer();
+        }
+    }
+
+    private int celda(int hash, int fila) {
+        long h = (hash + SEMILLAS[fila]) * SEMILLAS[fila];
+        return (int) (h ^ (h >>> 32)) & mascaraAncho;
+    }
+
+    private int contador(int fila, int celda) {
+        int indice = fila * (mascaraAncho + 1) + celda;
+        return (int) (tabla[indice >>> 4] >>> ((indice & 15) * 4)) & MAXIMO_CONTADOR;
+    }
+
+    private boolean sumar(int fila, int celda) {
+        int indice = fila * (mascaraAncho + 1) + celda;
+        int desplazamiento = (indice & 15) * 4;
+        if (((tabla[indice >>> 4] >>> desplazamiento) & MAXIMO_CONTADOR) == MAXIMO_CONTADOR) {
+            return false;
+        }
+        tabla[indice >>> 4] += 1L << desplazamiento;
+        return true;
+    }
+
+    private void envejecer() {
+        for (int i = 0; i < tabla.length; i++) {
+            tabla[i] = (tabla[i] >>> 1) & 0x7777777777777777L;
+        }
+        muestras /= 2;
+    }
+
+    private static int mezclar(int hash) {
+        int h = hash * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,86 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import com.uniquindio.archmicroserv.apigateway.loadbalancer.BalanceadorCarga;
+import com.uniquindio.archmicroserv.apigateway.loadbalancer.PoliticaBalanceo;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuración de la conexión hacia un microservicio leída del {@link Environment}.
+ *
+ * <p>Se lee completa en cada recarga para comparar con la aplicada y solo reconstruir
+ * lo que cambió.</p>
+ *
+ * @param instancias URIs base de {@code <servicio>.url}
+ * @param conexion Pool y protocolo hacia las instancias
+ * @param politica Balanceo de {@code gateway.loadbalancer.*} y {@code <servicio>.resolve-dns}
+ */
+record AjustesDownstream(List<URI> instancias, Conexion conexion, PoliticaBalanceo politica) {
+
+    /**
+     * Protocolo hacia el microservicio, {@code <servicio>.protocol}.
+     */
+    enum Protocolo {
+        /** HTTP/1.1: una conexión por solicitud concurrente. */
+        HTTP1,
+        /** HTTP/2 sin TLS, por conocimiento previo (sin upgrade); para destinos dentro del cluster. */
+        H2C,
+        /** HTTP/2 sobre TLS negociado por ALPN, con HTTP/1.1 como alternativa. */
+        H2;
+
+        static Protocolo de(String valor) {
+            return switch (valor.trim().toLowerCase()) {
+                case "http1", "http1.1", "http/1.1" -> HTTP1;
+                case "h2c" -> H2C;
+                case "h2" -> H2;
+                default -> throw new IllegalStateException("Unknown downstream protocol: " + valor);
+            };
+        }
+    }
+
+    /**
+     * @param connectTimeoutMs {@code gateway.downstream.connect-timeout-ms}
+     * @param protocolo {@code <servicio>.protocol}
+     * @param maxConexionesH2 {@code gateway.downstream.http2.max-connections}: conexiones HTTP/2 por instancia
+     * @param maxStreams {@code gateway.downstream.http2.max-concurrent-streams}: solicitudes simultáneas por conexión HTTP/2
+     * @param compresion {@code gateway.downstream.compression}: pedir respuestas gzip y descomprimirlas al leerlas
+     */
+    record Conexion(int connectTimeoutMs, Protocolo protocolo, int maxConexionesH2, int maxStreams, boolean compresion) {
+    }
+
+    /**
+     * @param environment Configuración actual, incluida la recargable
+     * @param servicio Prefijo de las propiedades del servicio, por ejemplo {@code domain.service}
+     */
+    static AjustesDownstream leer(Environment environment, String servicio) {
+        String urls = environment.getProperty(servicio + ".url");
+        if (urls == null || urls.isBlank()) {
+            throw new IllegalStateException(servicio + ".url must not be null");
+        }
+        PoliticaBalanceo politica = new PoliticaBalanceo(
+                environment.getProperty(servicio + ".resolve-dns", Boolean.class, false),
+                Duration.ofMillis(environment.getProperty("gateway.loadbalancer.refresh-interval-ms", Long.class, 30000L)),
+                environment.getProperty("gateway.loadbalancer.outlier.consecutive-failures", Integer.class, 5),
+                Duration.ofMillis(environment.getProperty("gateway.loadbalancer.outlier.ejection-ms", Long.class, 30000L)),
+                environment.getProperty("gateway.loadbalancer.outlier.max-ejection-percent", Integer.class, 50),
+                Duration.ofMillis(environment.getProperty("gateway.loadbalancer.latency-decay-ms", Long.class, 10000L)));
+        List<URI> instancias = BalanceadorCarga.parsear(urls);
+        Protocolo protocolo = Protocolo.de(environment.getProperty(servicio + ".protocol", "http1"));
+        // h2c no negocia TLS y h2 lo requiere: un esquema que no corresponde no usaría HTTP/2
+        String esquema = protocolo == Protocolo.H2 ? "https" : protocolo == Protocolo.H2C ? "http" : null;
+        if (esquema != null && instancias.stream().anyMatch(uri -> !esquema.equalsIgnoreCase(uri.getScheme()))) {
+            throw new IllegalStateException(servicio + ".protocol=" + protocolo.name().toLowerCase()
+                    + " requires " + esquema + " URLs");
+        }
+        Conexion conexion = new Conexion(
+                environment.getProperty("gateway.downstream.connect-timeout-ms", Integer.class, 2000),
+                protocolo,
+                environment.getProperty("gateway.downstream.http2.max-connections", Integer.class, 4),
+                environment.getProperty("gateway.downstream.http2.max-concurrent-streams", Integer.class, 100),
+                environment.getProperty("gateway.downstream.compression", Boolean.class, false));
+        return new AjustesDownstream(instancias, conexion, politica);
+    }
+}
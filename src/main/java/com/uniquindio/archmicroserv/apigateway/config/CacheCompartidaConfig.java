@@ -0,0 +1,47 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import com.uniquindio.archmicroserv.apigateway.cache.CacheCompartidaResp;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Segundo nivel de la caché de perfiles: un servidor compatible con Redis en
+ * {@code gateway.profile-cache.shared.address} ({@code host:puerto}). Sin esa propiedad
+ * no se crea, y un despliegue puede registrar su propia
+ * {@link com.uniquindio.archmicroserv.apigateway.cache.CacheCompartida}.
+ *
+ * <p>Exige la invalidación por eventos ({@code gateway.profile-cache.events.enabled=true} y
+ * {@code spring.rabbitmq.host}): sin ella lo que cambia otra réplica o un microservicio
+ * quedaría en la compartida hasta su TTL y volvería a llenar las cachés locales.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.profile-cache.shared.address")
+public class CacheCompartidaConfig {
+
+    @Bean
+    public CacheCompartidaResp cacheCompartida(
+            @Value("${gateway.profile-cache.shared.address}") String direccion,
+            @Value("${gateway.profile-cache.shared.key-prefix:gateway:perfil:}") String prefijo,
+            @Value("${gateway.profile-cache.shared.password:}") String contrasena,
+            @Value("${gateway.profile-cache.shared.timeout-ms:50}") long tiempoMaximoMs,
+            @Value("${gateway.profile-cache.shared.connections:16}") int conexiones,
+            @Value("${gateway.profile-cache.events.enabled:false}") boolean eventos,
+            @Value("${spring.rabbitmq.host:}") String hostRabbit) {
+        if (!eventos || hostRabbit.isBlank()) {
+            throw new IllegalStateException("gateway.profile-cache.shared.address requiere "
+                    + "gateway.profile-cache.events.enabled=true y spring.rabbitmq.host para invalidar la caché compartida");
+        }
+        int separador = direccion.lastIndexOf(':');
+        if (separador <= 0) {
+            throw new IllegalArgumentException(
+                    "gateway.profile-cache.shared.address debe tener la forma host:puerto: " + direccion);
+        }
+        return new CacheCompartidaResp(direccion.substring(0, separador),
+                Integer.parseInt(direccion.substring(separador + 1)), prefijo, contrasena,
+                Duration.ofMillis(tiempoMaximoMs), conexiones);
+    }
+}
@@ -0,0 +1,100 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Conector de {@code WebClient} cuyo pool de conexiones se puede reemplazar en caliente.
+ *
+ * <p>Cada solicitud toma el conector vigente de una {@link AtomicReference}, sin locks.
+ * Al reemplazarlo, las solicitudes nuevas usan el pool nuevo y el anterior se cierra
+ * tras {@code drenado}, de modo que las solicitudes en curso terminan sobre sus
+ * conexiones y las que apuntaban a un destino retirado no quedan abiertas.</p>
+ *
+ * <p>Con HTTP/2 ({@code h2c} o {@code h2}) las solicitudes se multiplexan: el pool abre hasta
+ * {@code maxConexionesH2} conexiones por instancia con {@code maxStreams} solicitudes
+ * simultáneas cada una, en lugar de una conexión por solicitud concurrente.</p>
+ */
+public class ConectorRecargable implements ClientHttpConnector, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConectorRecargable.class);
+
+    private final String nombre;
+    private final Duration drenado;
+    private final AtomicReference<Conector> actual = new AtomicReference<>();
+
+    ConectorRecargable(String nombre, AjustesDownstream.Conexion conexion, Duration drenado) {
+        this.nombre = nombre;
+        this.drenado = drenado;
+        actual.set(crear(conexion));
+    }
+
+    @Override
+    public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+                                            Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+        return actual.get().conector().connect(method, uri, requestCallback);
+    }
+
+    /**
+     * Crea un pool nuevo para las próximas solicitudes y drena el anterior.
+     *
+     * @param conexion Timeout y protocolo del pool nuevo
+     */
+    void reemplazar(AjustesDownstream.Conexion conexion) {
+        Conector anterior = actual.getAndSet(crear(conexion));
+        log.info("Pool de conexiones de {} reemplazado; el anterior se cierra en {}", nombre, drenado);
+        Mono.delay(drenado)
+                .then(anterior.pool().disposeLater())
+                .subscribe(null, error -> log.warn("Error al cerrar el pool anterior de {}: {}", nombre, error.getMessage()));
+    }
+
+    private Conector crear(AjustesDownstream.Conexion conexion) {
+        // Mismo máximo de conexiones que el pool global de HttpClient.create()
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(nombre)
+                .maxConnections(500)
+                .maxIdleTime(drenado);
+        if (conexion.protocolo() != AjustesDownstream.Protocolo.HTTP1) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(conexion.maxConexionesH2())
+                    .maxConcurrentStreams(conexion.maxStreams())
+                    .build());
+        }
+        ConnectionProvider pool = builder.build();
+        // El timeout de respuesta lo define el deadline de cada solicitud; aquí solo se acota la conexión
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, conexion.connectTimeoutMs())
+                // Envía Accept-Encoding: gzip y descomprime el cuerpo por fragmentos a medida que llega
+                .compress(conexion.compresion());
+        httpClient = switch (conexion.protocolo()) {
+            case HTTP1 -> httpClient;
+            case H2C -> httpClient.protocol(HttpProtocol.H2C);
+            case H2 -> httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        };
+        log.info("Pool de conexiones de {} con protocolo {}", nombre, conexion.protocolo());
+        return new Conector(new ReactorClientHttpConnector(httpClient), pool);
+    }
+
+    @Override
+    public void close() {
+        actual.get().pool().dispose();
+    }
+
+    private record Conector(ReactorClientHttpConnector conector, ConnectionProvider pool) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Endpoint de actuator {@code /actuator/gatewayconfig} para consultar y forzar la
+ * recarga del archivo de {@link RecargaConfiguracion}.
+ *
+ * <p>Debe exponerse explícitamente con {@code management.endpoints.web.exposure.include}.</p>
+ */
+@Component
+@Endpoint(id = "gatewayconfig")
+public class ConfiguracionEndpoint {
+
+    private final RecargaConfiguracion recargaConfiguracion;
+
+    public ConfiguracionEndpoint(RecargaConfiguracion recargaConfiguracion) {
+        this.recargaConfiguracion = recargaConfiguracion;
+    }
+
+    @ReadOperation
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitada", recargaConfiguracion.habilitada());
+        estado.put("archivo", recargaConfiguracion.habilitada() ? recargaConfiguracion.getArchivo().toString() : null);
+        return estado;
+    }
+
+    @WriteOperation
+    public Map<String, Object> recargar() {
+        Set<String> claves = recargaConfiguracion.recargar();
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("habilitada", recargaConfiguracion.habilitada());
+        resultado.put("cambios", claves);
+        return resultado;
+    }
+}
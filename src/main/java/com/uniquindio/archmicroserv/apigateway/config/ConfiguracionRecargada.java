@@ -0,0 +1,26 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import java.util.Set;
+
+/**
+ * Evento publicado por {@link RecargaConfiguracion} cuando cambia alguna propiedad
+ * del archivo recargable. Al recibirlo el {@code Environment} ya tiene los valores nuevos.
+ *
+ * @param claves Propiedades agregadas, modificadas o eliminadas
+ */
+public record ConfiguracionRecargada(Set<String> claves) {
+
+    /**
+     * @return true si cambió alguna propiedad que empieza con alguno de los prefijos
+     */
+    public boolean afecta(String... prefijos) {
+        for (String clave : claves) {
+            for (String prefijo : prefijos) {
+                if (clave.startsWith(prefijo)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
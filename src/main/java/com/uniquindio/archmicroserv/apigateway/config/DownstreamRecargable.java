@@ -0,0 +1,113 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import com.uniquindio.archmicroserv.apigateway.loadbalancer.BalanceadorCarga;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Destinos, balanceo y pool de conexiones de un microservicio, actualizables en caliente.
+ *
+ * <p>Ante una {@link ConfiguracionRecargada} que toca el servicio vuelve a leer sus
+ * {@link AjustesDownstream}: si cambiaron las instancias o la política se actualiza el
+ * {@link BalanceadorCarga}, y si cambiaron las instancias o la conexión (timeout o protocolo) se
+ * reemplaza el pool del {@link ConectorRecargable}, drenando el anterior. Si la
+ * configuración nueva es inválida se conserva la aplicada.</p>
+ */
+public class DownstreamRecargable implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamRecargable.class);
+
+    private final String servicio;
+    private final Environment environment;
+    private final BalanceadorCarga balanceador;
+    private final ConectorRecargable conector;
+    private volatile AjustesDownstream aplicados;
+
+    /**
+     * @param nombre Nombre del microservicio en logs y métricas del pool
+     * @param servicio Prefijo de sus propiedades, por ejemplo {@code domain.service}
+     * @param drenado Tiempo que se mantiene abierto un pool reemplazado
+     */
+    public DownstreamRecargable(String nombre, String servicio, Environment environment, Duration drenado) {
+        this.servicio = servicio;
+        this.environment = environment;
+        this.aplicados = AjustesDownstream.leer(environment, servicio);
+        this.balanceador = new BalanceadorCarga(nombre, aplicados.instancias(), aplicados.politica());
+        this.conector = new ConectorRecargable(nombre, aplicados.conexion(), drenado);
+    }
+
+    public BalanceadorCarga getBalanceador() {
+        return balanceador;
+    }
+
+    public ConectorRecargable getConector() {
+        return conector;
+    }
+
+    AjustesDownstream getAplicados() {
+        return aplicados;
+    }
+
+    /**
+     * Abre de antemano conexiones hacia cada instancia con {@code conexiones} solicitudes
+     * {@code HEAD /} simultáneas; al terminar quedan en el pool para las solicitudes reales.
+     * Con HTTP/2 se multiplexan y abren menos conexiones. Cualquier estado de respuesta sirve
+     * y los errores se ignoran: esa instancia se conectará con la primera solicitud real.
+     *
+     * @return Cantidad de solicitudes que obtuvieron respuesta
+     */
+    public Mono<Long> precalentar(int conexiones) {
+        int porInstancia = Math.max(1, conexiones);
+        return Flux.fromIterable(balanceador.getInstancias())
+                .flatMap(instancia -> Flux.range(0, porInstancia)
+                        .flatMap(i -> conector.connect(HttpMethod.HEAD, instancia.getUri(), solicitud -> {
+                                    if (!instancia.getAutoridad().equals(instancia.getUri().getRawAuthority())) {
+                                        solicitud.getHeaders().set(HttpHeaders.HOST, instancia.getAutoridad());
+                                    }
+                                    return solicitud.setComplete();
+                                })
+                                .flatMap(respuesta -> respuesta.getBody().then(Mono.just(respuesta.getStatusCode())))
+                                .onErrorResume(error -> {
+                                    log.debug("No se pudo precalentar {}: {}", instancia.getUri(), error.getMessage());
+                                    return Mono.empty();
+                                }), porInstancia))
+                .count();
+    }
+
+    @EventListener
+    public synchronized void recargar(ConfiguracionRecargada evento) {
+        if (!evento.afecta(servicio + ".", "gateway.loadbalancer.", "gateway.downstream.")) {
+            return;
+        }
+        AjustesDownstream nuevos;
+        try {
+            nuevos = AjustesDownstream.leer(environment, servicio);
+        } catch (RuntimeException e) {
+            log.error("Configuración de {} inválida, se conserva la anterior: {}", servicio, e.getMessage());
+            return;
+        }
+        AjustesDownstream anteriores = aplicados;
+        boolean otrasInstancias = !nuevos.instancias().equals(anteriores.instancias());
+        if (otrasInstancias || !nuevos.politica().equals(anteriores.politica())) {
+            balanceador.actualizar(nuevos.instancias(), nuevos.politica());
+        }
+        if (otrasInstancias || !nuevos.conexion().equals(anteriores.conexion())) {
+            conector.reemplazar(nuevos.conexion());
+        }
+        aplicados = nuevos;
+    }
+
+    @Override
+    public void close() {
+        balanceador.close();
+        conector.close();
+    }
+}
@@ -1,10 +1,16 @@
 package com.uniquindio.archmicroserv.apigateway.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +34,64 @@ public class RabbitMQConfig {
         return new TopicExchange(DOMINIO_EVENTS_EXCHANGE, true, false);
     }
 
+    /**
+     * Cola propia de cada instancia (anónima, se borra al desconectarse) para mantener
+     * {@code UsuariosRegistrados} con los registros y eliminaciones de {@link #DOMINIO_EVENTS_EXCHANGE}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.known-users.enabled", havingValue = "true")
+    public Queue colaUsuariosRegistrados() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.known-users.enabled", havingValue = "true")
+    public Binding enlaceUsuariosRegistrados(
+            Queue colaUsuariosRegistrados,
+            TopicExchange dominioEventsExchange,
+            @Value("${gateway.known-users.events.binding:auth.#}") String patron) {
+        return BindingBuilder.bind(colaUsuariosRegistrados).to(dominioEventsExchange).with(patron);
+    }
+
+    /**
+     * Cola propia de cada instancia para olvidar los {@code 404} de {@code NoEncontrados}
+     * con los registros de {@link #DOMINIO_EVENTS_EXCHANGE}; existe mientras la caché
+     * negativa esté activa.
+     */
+    @Bean
+    @ConditionalOnExpression("${gateway.negative-cache.ttl-ms:0} > 0")
+    public Queue colaNoEncontrados() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnExpression("${gateway.negative-cache.ttl-ms:0} > 0")
+    public Binding enlaceNoEncontrados(
+            Queue colaNoEncontrados,
+            TopicExchange dominioEventsExchange,
+            @Value("${gateway.negative-cache.events.binding:auth.#}") String patron) {
+        return BindingBuilder.bind(colaNoEncontrados).to(dominioEventsExchange).with(patron);
+    }
+
+    /**
+     * Cola propia de cada instancia para invalidar la caché de perfiles local (y la
+     * compartida) con los eventos de {@link #DOMINIO_EVENTS_EXCHANGE}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.profile-cache.events.enabled", havingValue = "true")
+    public Queue colaCachePerfiles() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.profile-cache.events.enabled", havingValue = "true")
+    public Binding enlaceCachePerfiles(
+            Queue colaCachePerfiles,
+            TopicExchange dominioEventsExchange,
+            @Value("${gateway.profile-cache.events.binding:#}") String patron) {
+        return BindingBuilder.bind(colaCachePerfiles).to(dominioEventsExchange).with(patron);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
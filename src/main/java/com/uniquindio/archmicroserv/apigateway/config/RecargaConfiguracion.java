@@ -0,0 +1,184 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Recarga en caliente las propiedades de {@code gateway.reload.file}.
+ *
+ * <p>El archivo se agrega como la fuente de mayor precedencia del {@code Environment},
+ * se revisa cada {@code gateway.reload.poll-interval-ms} y también se puede recargar con
+ * el endpoint de actuator {@code gatewayconfig}. Cada recarga reemplaza la fuente
+ * completa y publica {@link ConfiguracionRecargada} con las claves que cambiaron; los
+ * componentes recargables arman una instantánea nueva y la publican con una escritura
+ * atómica, por lo que las solicitudes siguen leyendo sin locks.</p>
+ *
+ * <p>Solo se recargan los destinos y el balanceo de los microservicios
+ * ({@code *.service.url}, {@code gateway.loadbalancer.*}, {@code gateway.downstream.*}),
+ * los deadlines ({@code gateway.deadline.*}) y las rutas declarativas ({@code gateway.routes}).
+ * El resto de propiedades del archivo se aplican al reiniciar.</p>
+ */
+@Component
+public class RecargaConfiguracion implements AutoCloseable {
+
+    static final String FUENTE = "gateway-recargable";
+
+    private static final Logger log = LoggerFactory.getLogger(RecargaConfiguracion.class);
+
+    private final ConfigurableEnvironment environment;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path archivo;
+    private final Duration intervalo;
+    private FileTime ultimaModificacion;
+    private Disposable revision;
+
+    public RecargaConfiguracion(
+            ConfigurableEnvironment environment,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${gateway.reload.file:}") String archivo,
+            @Value("${gateway.reload.poll-interval-ms:5000}") long intervaloMs) {
+        this.environment = environment;
+        this.eventPublisher = eventPublisher;
+        this.archivo = archivo.isBlank() ? null : Paths.get(archivo);
+        this.intervalo = Duration.ofMillis(Math.max(100, intervaloMs));
+    }
+
+    /**
+     * @return true si hay un archivo recargable configurado
+     */
+    public boolean habilitada() {
+        return archivo != null;
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Empieza a revisar el archivo cuando los listeners de {@link ConfiguracionRecargada} ya
+     * están registrados; la primera revisión aplica el archivo de inmediato.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        if (archivo == null || revision != null) {
+            return;
+        }
+        log.info("Configuración recargable desde {} cada {}", archivo, intervalo);
+        revision = Flux.interval(Duration.ZERO, intervalo, Schedulers.boundedElastic())
+                .subscribe(tick -> {
+                    try {
+                        recargarSiCambio();
+                    } catch (RuntimeException e) {
+                        log.error("No se pudo recargar la configuración de {}: {}", archivo, e.getMessage());
+                    }
+                });
+    }
+
+    private void recargarSiCambio() {
+        FileTime modificacion = modificacion();
+        if (!Objects.equals(modificacion, ultimaModificacion)) {
+            recargar();
+        }
+    }
+
+    /**
+     * Lee el archivo y aplica sus propiedades.
+     *
+     * @return Claves que cambiaron; vacío si no hubo cambios o la recarga está deshabilitada
+     * @throws UncheckedIOException si el archivo no se puede leer; se conserva la configuración anterior
+     */
+    public synchronized Set<String> recargar() {
+        if (archivo == null) {
+            return Set.of();
+        }
+        FileTime modificacion = modificacion();
+        Properties propiedades = new Properties();
+        if (modificacion != null) {
+            try (InputStream entrada = Files.newInputStream(archivo)) {
+                propiedades.load(entrada);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer " + archivo, e);
+            }
+        }
+        ultimaModificacion = modificacion;
+        Set<String> claves = aplicar(propiedades);
+        if (!claves.isEmpty()) {
+            log.info("Configuración recargada desde {}: {}", archivo, claves);
+            eventPublisher.publishEvent(new ConfiguracionRecargada(Set.copyOf(claves)));
+        }
+        return claves;
+    }
+
+    /**
+     * Reemplaza la fuente recargable y calcula las claves que cambiaron.
+     */
+    Set<String> aplicar(Properties propiedades) {
+        MutablePropertySources fuentes = environment.getPropertySources();
+        PropertySource<?> anterior = fuentes.get(FUENTE);
+        Map<String, Object> previas = anterior instanceof PropertiesPropertySource propiedadesAnteriores
+                ? new HashMap<>(propiedadesAnteriores.getSource())
+                : Map.of();
+        PropertiesPropertySource nueva = new PropertiesPropertySource(FUENTE, propiedades);
+
+        Set<String> claves = new TreeSet<>();
+        Set<String> todas = new HashSet<>(previas.keySet());
+        todas.addAll(nueva.getSource().keySet());
+        for (String clave : todas) {
+            if (!Objects.equals(previas.get(clave), nueva.getSource().get(clave))) {
+                claves.add(clave);
+            }
+        }
+        if (claves.isEmpty()) {
+            return claves;
+        }
+        if (anterior != null) {
+            fuentes.replace(FUENTE, nueva);
+        } else {
+            fuentes.addFirst(nueva);
+        }
+        return claves;
+    }
+
+    private FileTime modificacion() {
+        try {
+            return Files.exists(archivo) ? Files.getLastModifiedTime(archivo) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo revisar " + archivo, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (revision != null) {
+            revision.dispose();
+        }
+    }
+}
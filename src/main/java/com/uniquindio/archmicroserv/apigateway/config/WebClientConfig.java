@@ -1,33 +1,61 @@
 package com.uniquindio.archmicroserv.apigateway.config;
 
+import com.uniquindio.archmicroserv.apigateway.loadbalancer.BalanceoCargaFilter;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePropagationFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.util.Objects;
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
-    @Value("${domain.service.url}")
-    private String domainServiceUrl;
+    @Value("${gateway.reload.file:}")
+    private String reloadFile;
 
-    @Value("${gestion.perfil.service.url}")
-    private String gestionPerfilServiceUrl;
+    @Value("${gateway.reload.drain-ms:30000}")
+    private long drainMs;
 
     @Bean
-    public WebClient domainServiceWebClient() {
-        return WebClient.builder()
-                .baseUrl(Objects.requireNonNull(domainServiceUrl, "domain.service.url must not be null"))
-                .build();
+    public DownstreamRecargable domainServiceDownstream(Environment environment) {
+        return new DownstreamRecargable("domain-service", "domain.service", environment, Duration.ofMillis(drainMs));
     }
 
     @Bean
-    public WebClient gestionPerfilServiceWebClient() {
-        return WebClient.builder()
-                .baseUrl(Objects.requireNonNull(gestionPerfilServiceUrl, "gestion.perfil.service.url must not be null"))
-                .build();
+    public DownstreamRecargable gestionPerfilServiceDownstream(Environment environment) {
+        return new DownstreamRecargable("gestion-perfil-service", "gestion.perfil.service", environment,
+                Duration.ofMillis(drainMs));
     }
-}
 
+    @Bean
+    public WebClient domainServiceWebClient(
+            DeadlinePropagationFilter deadlinePropagationFilter,
+            @Qualifier("domainServiceDownstream") DownstreamRecargable downstream) {
+        return webClient(downstream, deadlinePropagationFilter);
+    }
+
+    @Bean
+    public WebClient gestionPerfilServiceWebClient(
+            DeadlinePropagationFilter deadlinePropagationFilter,
+            @Qualifier("gestionPerfilServiceDownstream") DownstreamRecargable downstream) {
+        return webClient(downstream, deadlinePropagationFilter);
+    }
+
+    private WebClient webClient(DownstreamRecargable downstream, DeadlinePropagationFilter deadlinePropagationFilter) {
+        AjustesDownstream ajustes = downstream.getAplicados();
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl(ajustes.instancias().get(0).toString())
+                .clientConnector(downstream.getConector())
+                .filter(deadlinePropagationFilter);
+        // Con una sola instancia fija no hay nada que balancear; si la configuración es
+        // recargable el destino puede cambiar y el filtro es el que lo aplica
+        if (ajustes.instancias().size() > 1 || ajustes.politica().resolverDns() || !reloadFile.isBlank()) {
+            builder.filter(new BalanceoCargaFilter(downstream.getBalanceador()));
+        }
+        return builder.build();
+    }
+}
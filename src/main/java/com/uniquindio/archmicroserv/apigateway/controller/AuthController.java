@@ -1,7 +1,15 @@
 package com.uniquindio.archmicroserv.apigateway.controller;
 
+import com.uniquindio.archmicroserv.apigateway.dto.RegistroUsuario;
+import com.uniquindio.archmicroserv.apigateway.filter.CadenaFiltros;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.RutaGateway;
+import com.uniquindio.archmicroserv.apigateway.filter.SolicitudGateway;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
 import com.uniquindio.archmicroserv.apigateway.service.DomainServiceClient;
 import com.uniquindio.archmicroserv.apigateway.service.GestionPerfilServiceClient;
+import com.uniquindio.archmicroserv.apigateway.service.RegistroLoteService;
+import com.uniquindio.archmicroserv.apigateway.service.UsuariosRegistrados;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,11 +20,18 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
 
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -29,10 +44,16 @@ import java.util.Map;
  * <p>Endpoints disponibles:
  * <ul>
  *   <li>POST /api/v1/auth/registro - Registro de nuevos usuarios</li>
+ *   <li>POST /api/v1/auth/registro/_batch - Registro de usuarios por lote para importaciones (requiere autenticación)</li>
  *   <li>POST /api/v1/auth/login - Autenticación y obtención de token JWT</li>
+ *   <li>GET /api/v1/auth/disponibilidad - Disponibilidad probable de un nombre de usuario</li>
  *   <li>DELETE /api/v1/auth/usuarios/{usuario} - Eliminación de usuarios (requiere autenticación)</li>
  * </ul>
  * </p>
+ *
+ * <p>Cada endpoint se ejecuta dentro de su {@link CadenaFiltros}: el registro y el login
+ * aplican ahí el límite de tasa por usuario, y la eliminación y el registro por lote exigen
+ * el token.</p>
  */
 @Tag(
     name = "Autenticación",
@@ -44,14 +65,46 @@ import java.util.Map;
 public class AuthController {
 
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+    /** Clave única del límite de tasa del registro por lote: se comparte entre todos los llamadores. */
+    private static final String CLAVE_LIMITE_LOTE = "_batch";
     private final DomainServiceClient domainServiceClient;
     private final GestionPerfilServiceClient gestionPerfilServiceClient;
+    private final DeadlinePolicy deadlinePolicy;
+    private final RegistroLoteService registroLoteService;
+    private final UsuariosRegistrados usuariosRegistrados;
+    private final CadenaFiltros cadenaRegistro;
+    private final CadenaFiltros cadenaLogin;
+    private final CadenaFiltros cadenaEliminar;
+    private final CadenaFiltros cadenaRegistroLote;
+    private final CadenaFiltros cadenaDisponibilidad;
+
+    @Value("${gateway.register.pipelined:false}")
+    private boolean registroEnParalelo;
 
     public AuthController(
             DomainServiceClient domainServiceClient,
-            GestionPerfilServiceClient gestionPerfilServiceClient) {
+            GestionPerfilServiceClient gestionPerfilServiceClient,
+            DeadlinePolicy deadlinePolicy,
+            RegistroLoteService registroLoteService,
+            UsuariosRegistrados usuariosRegistrados,
+            FabricaCadenas fabricaCadenas) {
         this.domainServiceClient = domainServiceClient;
         this.gestionPerfilServiceClient = gestionPerfilServiceClient;
+        this.deadlinePolicy = deadlinePolicy;
+        this.registroLoteService = registroLoteService;
+        this.usuariosRegistrados = usuariosRegistrados;
+        this.cadenaRegistro = fabricaCadenas.cadena(
+                RutaGateway.publica("auth.registro", "Error procesando registro").conLimite("registro"));
+        this.cadenaLogin = fabricaCadenas.cadena(
+                RutaGateway.publica("auth.login", "Credenciales inválidas")
+                        .conEstadoError(HttpStatus.UNAUTHORIZED)
+                        .conLimite("login"));
+        this.cadenaEliminar = fabricaCadenas.cadena(
+                RutaGateway.autenticada("auth.eliminar", "Error eliminando usuario"));
+        this.cadenaRegistroLote = fabricaCadenas.cadena(
+                RutaGateway.autenticada("auth.registro.lote", "Error registrando usuarios").conLimite("registro-lote"));
+        this.cadenaDisponibilidad = fabricaCadenas.cadena(
+                RutaGateway.publica("auth.disponibilidad", "Error consultando disponibilidad"));
     }
 
     /**
@@ -86,6 +139,7 @@ public class AuthController {
      * </p>
      * 
      * @param requestBody Datos del usuario: usuario, correo, clave, numeroTelefono (obligatorios) y campos de perfil opcionales
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
      * @return Respuesta con el resultado del registro (201 si es exitoso, 409 si el usuario ya existe, 500 si hay error)
      */
     @Operation(
@@ -127,6 +181,16 @@ public class AuthController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Límite de solicitudes excedido para la IP o el usuario",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Demasiadas solicitudes, intente más tarde\"}"
+                )
+            )
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Error interno del servidor",
@@ -136,6 +200,16 @@ public class AuthController {
                     value = "{\"error\": true, \"respuesta\": \"Error procesando registro\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "El deadline de la solicitud se agotó antes de completar la operación",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Tiempo de espera agotado procesando la solicitud\"}"
+                )
+            )
         )
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -158,92 +232,128 @@ public class AuthController {
     )
     @PostMapping("/auth/registro")
     public Mono<ResponseEntity<Map<String, Object>>> registrarUsuario(
-            @RequestBody Map<String, Object> requestBody) {
+            @RequestBody Map<String, Object> requestBody,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "5000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
         log.info("API Gateway: Registro de usuario");
         
-        // Extraer datos de seguridad (obligatorios)
-        Map<String, Object> datosSeguridad = new java.util.HashMap<>();
-        datosSeguridad.put("usuario", requestBody.get("usuario"));
-        datosSeguridad.put("correo", requestBody.get("correo"));
-        datosSeguridad.put("clave", requestBody.get("clave"));
-        datosSeguridad.put("numeroTelefono", requestBody.get("numeroTelefono"));
-        
-        // Extraer datos de perfil (opcionales)
-        Map<String, Object> datosPerfil = new java.util.HashMap<>();
-        String[] camposPerfil = {
-            "apodo", "biografia", "urlPaginaPersonal", "informacionContactoPublica",
-            "direccionCorrespondencia", "organizacion", "paisResidencia",
-            "linkFacebook", "linkTwitter", "linkLinkedIn", "linkInstagram", "linkGithub", "linkOtraRed"
-        };
-        for (String campo : camposPerfil) {
-            if (requestBody.containsKey(campo)) {
-                datosPerfil.put(campo, requestBody.get(campo));
-            }
+        RegistroUsuario registroUsuario = RegistroUsuario.de(requestBody);
+        return cadenaRegistro.ejecutar(new SolicitudGateway(null, registroUsuario.usuario()),
+                solicitud -> registrar(registroUsuario, timeoutHeader));
+    }
+
+    /**
+     * Registra la seguridad y, si el cuerpo trae datos de perfil, crea el perfil.
+     *
+     * <p>Si {@link UsuariosRegistrados} indica que el usuario o el correo probablemente ya
+     * existen, el perfil no se crea en paralelo (se evita crearlo y compensarlo) y el Domain
+     * Service decide. Un acierto nunca responde {@code 409} por sí solo: puede ser un falso
+     * positivo, y solo el Domain Service confirma el conflicto.</p>
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> registrar(RegistroUsuario registroUsuario, String timeoutHeader) {
+        Map<String, Object> datosSeguridad = registroUsuario.datosSeguridad();
+        Map<String, Object> datosPerfil = registroUsuario.datosPerfil();
+        String usuario = registroUsuario.usuario();
+
+        boolean usuarioProbable = usuariosRegistrados.usuarioProbable(usuario);
+        boolean correoProbable = usuariosRegistrados.correoProbable(
+                datosSeguridad.get("correo") instanceof String correo ? correo : null);
+        Mono<ResponseEntity<Map<String, Object>>> registro;
+        if (registroEnParalelo && !datosPerfil.isEmpty() && usuario != null && !usuarioProbable && !correoProbable) {
+            registro = registrarConPerfilEnParalelo(usuario, datosSeguridad, datosPerfil);
+        } else {
+            // Primero registrar en Domain Service
+            registro = domainServiceClient.registrarUsuario(datosSeguridad)
+                    .flatMap(seguridadResponse -> {
+                        // Si el registro fue exitoso y hay datos de perfil, crear el perfil
+                        if (!datosPerfil.isEmpty() && usuario != null) {
+                            log.info("Creando perfil para usuario: {}", usuario);
+                            return gestionPerfilServiceClient.crearPerfil(usuario, datosPerfil)
+                                    .map(perfilResponse -> registroConPerfil(seguridadResponse, perfilResponse))
+                                    .onErrorResume(perfilError -> {
+                                        log.warn("Usuario registrado pero error creando perfil: {}", perfilError.getMessage());
+                                        // El usuario ya está registrado, pero el perfil falló
+                                        // Retornamos éxito con advertencia
+                                        return Mono.just(registroSinPerfil(seguridadResponse));
+                                    });
+                        } else {
+                            // Solo registro de seguridad, sin perfil
+                            return Mono.just(ResponseEntity.status(HttpStatus.CREATED).body(seguridadResponse));
+                        }
+                    });
         }
-        
-        String usuario = (String) requestBody.get("usuario");
-        
-        // Primero registrar en Domain Service
-        return domainServiceClient.registrarUsuario(datosSeguridad)
-                .flatMap(seguridadResponse -> {
-                    // Si el registro fue exitoso y hay datos de perfil, crear el perfil
-                    if (!datosPerfil.isEmpty() && usuario != null) {
-                        log.info("Creando perfil para usuario: {}", usuario);
-                        return gestionPerfilServiceClient.crearPerfil(usuario, datosPerfil)
-                                .map(perfilResponse -> {
-                                    Map<String, Object> respuesta = new java.util.HashMap<>();
-                                    respuesta.put("error", false);
-                                    respuesta.put("respuesta", "Usuario y perfil registrados exitosamente");
-                                    respuesta.put("datosSeguridad", seguridadResponse);
-                                    respuesta.put("datosPerfil", perfilResponse);
-                                    return ResponseEntity.status(HttpStatus.CREATED).body(respuesta);
-                                })
-                                .onErrorResume(perfilError -> {
-                                    log.warn("Usuario registrado pero error creando perfil: {}", perfilError.getMessage());
-                                    // El usuario ya está registrado, pero el perfil falló
-                                    // Retornamos éxito con advertencia
-                                    Map<String, Object> respuesta = new java.util.HashMap<>();
-                                    respuesta.put("error", false);
-                                    respuesta.put("respuesta", "Usuario registrado exitosamente. El perfil se puede crear posteriormente.");
-                                    respuesta.put("datosSeguridad", seguridadResponse);
-                                    return Mono.just(ResponseEntity.status(HttpStatus.CREATED).body(respuesta));
-                                });
-                    } else {
-                        // Solo registro de seguridad, sin perfil
-                        return Mono.just(ResponseEntity.status(HttpStatus.CREATED).body(seguridadResponse));
-                    }
-                })
-                .onErrorResume(error -> {
-                    log.error("Error en registro: {}", error.getMessage());
-                    
-                    if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                        org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
-                            (org.springframework.web.reactive.function.client.WebClientResponseException) error;
-                        int statusCode = webClientError.getStatusCode().value();
-                        
-                        String errorMessage = "Error procesando registro";
-                        try {
-                            String responseBody = webClientError.getResponseBodyAsString();
-                            if (responseBody != null && responseBody.contains("\"respuesta\"")) {
-                                var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                                var errorMap = mapper.readValue(responseBody, Map.class);
-                                if (errorMap.containsKey("respuesta")) {
-                                    errorMessage = errorMap.get("respuesta").toString();
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.warn("No se pudo parsear el mensaje de error: {}", e.getMessage());
+
+        return deadlinePolicy.aplicar("auth.registro", timeoutHeader, registro, this::respuestaTiempoAgotado);
+    }
+
+    /**
+     * Registro con la creación del perfil lanzada junto al registro de seguridad
+     * ({@code gateway.register.pipelined=true}), de modo que el caso exitoso tarda lo que
+     * la llamada más lenta.
+     *
+     * <p>Si el Domain Service rechaza el registro con un {@code 4xx} (por ejemplo {@code 409},
+     * usuario existente) y el perfil se llegó a crear, se compensa eliminándolo antes de
+     * responder el error. Si el perfil no se creó (por ejemplo porque ya existía) no se
+     * elimina nada. Ante un {@code 5xx} o un error de red no se compensa: no se sabe si el
+     * usuario quedó registrado, y eliminar el perfil podría dejarlo sin él.</p>
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> registrarConPerfilEnParalelo(
+            String usuario, Map<String, Object> datosSeguridad, Map<String, Object> datosPerfil) {
+        log.info("Registrando usuario {} y creando su perfil en paralelo", usuario);
+        return Mono.zip(
+                        domainServiceClient.registrarUsuario(datosSeguridad).defaultIfEmpty(new HashMap<>()).materialize(),
+                        gestionPerfilServiceClient.crearPerfil(usuario, datosPerfil).defaultIfEmpty(new HashMap<>()).materialize())
+                .flatMap(tuple -> {
+                    Signal<Map<String, Object>> seguridad = tuple.getT1();
+                    Signal<Map<String, Object>> perfil = tuple.getT2();
+
+                    if (seguridad.hasValue()) {
+                        if (perfil.hasValue()) {
+                            return Mono.just(registroConPerfil(seguridad.get(), perfil.get()));
                         }
-                        
-                        return Mono.just(ResponseEntity.status(statusCode)
-                                .body(Map.of("error", true, "respuesta", errorMessage)));
+                        log.warn("Usuario registrado pero error creando perfil: {}", perfil.getThrowable().getMessage());
+                        return Mono.just(registroSinPerfil(seguridad.get()));
                     }
-                    
-                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(Map.of("error", true, "respuesta", "Error procesando registro")));
+
+                    Throwable error = seguridad.getThrowable();
+                    if (!perfil.hasValue()) {
+                        return Mono.error(error);
+                    }
+                    if (!(error instanceof WebClientResponseException webClientError
+                            && webClientError.getStatusCode().is4xxClientError())) {
+                        log.warn("Registro de {} falló sin respuesta definitiva ({}); se conserva el perfil creado",
+                                usuario, error.getMessage());
+                        return Mono.error(error);
+                    }
+                    log.info("Registro de {} rechazado ({}), eliminando el perfil creado", usuario, webClientError.getStatusCode());
+                    return gestionPerfilServiceClient.eliminarPerfil(usuario)
+                            .onErrorResume(compensacionError -> {
+                                log.error("No se pudo eliminar el perfil de {} tras el registro rechazado: {}",
+                                        usuario, compensacionError.getMessage());
+                                return Mono.empty();
+                            })
+                            .then(Mono.error(error));
                 });
     }
 
+    private static ResponseEntity<Map<String, Object>> registroConPerfil(
+            Map<String, Object> seguridadResponse, Map<String, Object> perfilResponse) {
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("error", false);
+        respuesta.put("respuesta", "Usuario y perfil registrados exitosamente");
+        respuesta.put("datosSeguridad", seguridadResponse);
+        respuesta.put("datosPerfil", perfilResponse);
+        return ResponseEntity.status(HttpStatus.CREATED).body(respuesta);
+    }
+
+    private static ResponseEntity<Map<String, Object>> registroSinPerfil(Map<String, Object> seguridadResponse) {
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("error", false);
+        respuesta.put("respuesta", "Usuario registrado exitosamente. El perfil se puede crear posteriormente.");
+        respuesta.put("datosSeguridad", seguridadResponse);
+        return ResponseEntity.status(HttpStatus.CREATED).body(respuesta);
+    }
+
     /**
      * Autentica un usuario y genera un token JWT.
      * 
@@ -254,6 +364,7 @@ public class AuthController {
      * una validez configurada en el Domain Service.</p>
      * 
      * @param requestBody Credenciales: usuario y clave
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
      * @return Respuesta con el token JWT (200 si es exitoso, 401 si las credenciales son inválidas)
      */
     @Operation(
@@ -283,6 +394,16 @@ public class AuthController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Límite de solicitudes excedido para la IP o el usuario",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Demasiadas solicitudes, intente más tarde\"}"
+                )
+            )
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Error interno del servidor",
@@ -292,6 +413,16 @@ public class AuthController {
                     value = "{\"error\": true, \"respuesta\": \"Error en autenticación\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "El deadline de la solicitud se agotó antes de completar la operación",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Tiempo de espera agotado procesando la solicitud\"}"
+                )
+            )
         )
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -307,39 +438,99 @@ public class AuthController {
     )
     @PostMapping("/auth/login")
     public Mono<ResponseEntity<Map<String, Object>>> autenticar(
-            @RequestBody Map<String, Object> requestBody) {
+            @RequestBody Map<String, Object> requestBody,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "5000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
         log.info("API Gateway: Autenticación de usuario");
-        return domainServiceClient.autenticar(requestBody)
-                .map(ResponseEntity::ok)
-                .onErrorResume(error -> {
-                    log.error("Error en autenticación: {}", error.getMessage());
-                    
-                    if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                        org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
-                            (org.springframework.web.reactive.function.client.WebClientResponseException) error;
-                        int statusCode = webClientError.getStatusCode().value();
-                        
-                        String errorMessage = "Credenciales inválidas";
-                        try {
-                            String responseBody = webClientError.getResponseBodyAsString();
-                            if (responseBody != null && responseBody.contains("\"respuesta\"")) {
-                                var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                                var errorMap = mapper.readValue(responseBody, Map.class);
-                                if (errorMap.containsKey("respuesta")) {
-                                    errorMessage = errorMap.get("respuesta").toString();
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.warn("No se pudo parsear el mensaje de error: {}", e.getMessage());
-                        }
-                        
-                        return Mono.just(ResponseEntity.status(statusCode)
-                                .body(Map.of("error", true, "respuesta", errorMessage)));
-                    }
-                    
-                    return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                            .body(Map.of("error", true, "respuesta", "Credenciales inválidas")));
-                });
+
+        Object usuario = requestBody.get("usuario");
+        return cadenaLogin.ejecutar(new SolicitudGateway(null, usuario != null ? usuario.toString() : null), solicitud ->
+                deadlinePolicy.aplicar("auth.login", timeoutHeader,
+                        domainServiceClient.autenticar(requestBody).map(ResponseEntity::ok),
+                        this::respuestaTiempoAgotado));
+    }
+
+    /**
+     * Indica si un nombre de usuario parece disponible, para validar el formulario de
+     * registro mientras se escribe.
+     *
+     * <p>Responde desde {@link UsuariosRegistrados}, sin consultar el Domain Service. El
+     * índice solo conoce los usuarios que este gateway vio desde que arrancó, así que solo
+     * un acierto es una respuesta local: {@code estado=ocupado} y {@code disponible=false}
+     * (puede ser un falso positivo del filtro). Sin acierto responde
+     * {@code estado=desconocido} y {@code disponible=null}: el nombre puede pertenecer a un
+     * usuario que el gateway aún no ha visto. La confirmación es siempre el registro.</p>
+     *
+     * @param usuario Nombre de usuario a consultar
+     * @return Respuesta con {@code estado} y {@code disponible}; 503 si el filtro no está habilitado
+     */
+    @Operation(
+        summary = "Consultar disponibilidad de usuario",
+        description = "Indica si el nombre de usuario está probablemente ocupado, desde el índice local del gateway " +
+                     "(gateway.known-users.enabled). No consulta el Domain Service: un nombre que el gateway no ha " +
+                     "visto responde estado desconocido, y la disponibilidad se confirma al registrarse."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Disponibilidad probable del usuario",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": false, \"usuario\": \"john_doe\", \"estado\": \"ocupado\", \"disponible\": false, \"respuesta\": \"El usuario probablemente ya está en uso\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Falta el parámetro usuario",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"El parámetro usuario es obligatorio\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "El índice de usuarios existentes no está habilitado",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Consulta de disponibilidad no habilitada\"}"
+                )
+            )
+        )
+    })
+    @GetMapping("/auth/disponibilidad")
+    public Mono<ResponseEntity<Map<String, Object>>> consultarDisponibilidad(
+            @Parameter(description = "Nombre de usuario a consultar", required = true, example = "john_doe")
+            @RequestParam(value = "usuario", required = false) String usuario) {
+        return cadenaDisponibilidad.ejecutar(new SolicitudGateway(null, usuario),
+                solicitud -> Mono.just(disponibilidad(usuario)));
+    }
+
+    private ResponseEntity<Map<String, Object>> disponibilidad(String usuario) {
+        Map<String, Object> respuesta = new HashMap<>();
+        if (usuario == null || usuario.isBlank()) {
+            respuesta.put("error", true);
+            respuesta.put("respuesta", "El parámetro usuario es obligatorio");
+            return ResponseEntity.badRequest().body(respuesta);
+        }
+        if (!usuariosRegistrados.habilitado()) {
+            respuesta.put("error", true);
+            respuesta.put("respuesta", "Consulta de disponibilidad no habilitada");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(respuesta);
+        }
+        boolean ocupado = usuariosRegistrados.usuarioProbable(usuario);
+        respuesta.put("error", false);
+        respuesta.put("usuario", usuario);
+        respuesta.put("estado", ocupado ? "ocupado" : "desconocido");
+        respuesta.put("disponible", ocupado ? false : null);
+        respuesta.put("respuesta", ocupado
+                ? "El usuario probablemente ya está en uso"
+                : "No se sabe si el usuario está disponible; se confirma al registrarse");
+        return ResponseEntity.ok(respuesta);
     }
 
     /**
@@ -357,6 +548,7 @@ public class AuthController {
      * 
      * @param usuario Nombre de usuario a eliminar
      * @param authToken Token JWT en el header Authorization
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
      * @return Respuesta con el resultado de la eliminación
      */
     @Operation(
@@ -416,6 +608,16 @@ public class AuthController {
                     value = "{\"error\": true, \"respuesta\": \"Error eliminando usuario\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "El deadline de la solicitud se agotó antes de completar la operación",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Tiempo de espera agotado procesando la solicitud\"}"
+                )
+            )
         )
     })
     @DeleteMapping("/auth/usuarios/{usuario}")
@@ -423,24 +625,26 @@ public class AuthController {
             @Parameter(description = "Nombre de usuario a eliminar", required = true, example = "john_doe")
             @PathVariable String usuario,
             @Parameter(hidden = true)
-            @RequestHeader(value = "Authorization", required = false) String authToken) {
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "5000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
         log.info("API Gateway: Eliminación de usuario {}", usuario);
-        
-        if (authToken == null || !authToken.startsWith("Bearer ")) {
-            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", true, "respuesta", "Token de autenticación requerido")));
-        }
-
-        String token = authToken.substring(7);
+        return cadenaEliminar.ejecutar(SolicitudGateway.de(authToken), solicitud ->
+                eliminar(usuario, solicitud.getToken(), timeoutHeader));
+    }
 
-        return domainServiceClient.eliminarUsuario(usuario, token)
+    /**
+     * Elimina el usuario del Domain Service traduciendo sus rechazos {@code 403} y {@code 404}.
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> eliminar(String usuario, String token, String timeoutHeader) {
+        Mono<ResponseEntity<Map<String, Object>>> eliminacion = domainServiceClient.eliminarUsuario(usuario, token)
                 .map(ResponseEntity::ok)
                 .onErrorResume(error -> {
                     log.error("Error eliminando usuario: {}", error.getMessage());
                     
-                    if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                        org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
-                            (org.springframework.web.reactive.function.client.WebClientResponseException) error;
+                    if (error instanceof WebClientResponseException) {
+                        WebClientResponseException webClientError = 
+                            (WebClientResponseException) error;
                         int statusCode = webClientError.getStatusCode().value();
                         
                         if (statusCode == 403) {
@@ -465,6 +669,97 @@ public class AuthController {
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                             .body(Map.of("error", true, "respuesta", "Error eliminando usuario")));
                 });
+
+        return deadlinePolicy.aplicar("auth.eliminar", timeoutHeader, eliminacion, this::respuestaTiempoAgotado);
+    }
+
+    /**
+     * Registra usuarios por lote para migraciones de usuarios existentes.
+     *
+     * <p>El cuerpo es NDJSON (un registro por línea) o un arreglo JSON con el mismo formato
+     * que {@code POST /api/v1/auth/registro}. Se lee a medida que se procesa y la respuesta
+     * NDJSON trae una línea por registro, en orden de finalización y con su {@code indice}
+     * en el cuerpo, más un resumen final. Ver {@link RegistroLoteService}.</p>
+     *
+     * <p>Exige token y aplica la política {@code registro-lote} con una sola clave para todo
+     * el endpoint, así el límite no depende del token presentado. Deshabilitado responde
+     * {@code 404}, como si no existiera.</p>
+     *
+     * @param cuerpo Cuerpo de la solicitud sin deserializar
+     * @param authToken Token JWT en formato "Bearer {token}"
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
+     * @return Resultado de cada registro y resumen
+     */
+    @Operation(
+        summary = "Registrar usuarios por lote",
+        description = "Importa usuarios desde un cuerpo NDJSON o arreglo JSON. Cada registro crea su usuario en " +
+                     "Domain Service y su perfil en Gestion Perfil Service. Responde application/x-ndjson con el " +
+                     "resultado de cada registro. Requiere token y tiene un límite de tasa global. No existe (404) " +
+                     "salvo que gateway.bulk-register.enabled=true.",
+        security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Resultado de cada registro y resumen final",
+            content = @Content(
+                mediaType = "application/x-ndjson",
+                examples = @ExampleObject(
+                    value = "{\"indice\": 0, \"usuario\": \"john_doe\", \"registrado\": true, \"perfil\": true, \"status\": 201}\n{\"indice\": 1, \"usuario\": \"jane\", \"error\": true, \"status\": 409, \"respuesta\": \"El usuario ya existe\"}\n{\"resumen\": true, \"total\": 2, \"registrados\": 1, \"fallidos\": 1}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Token de autenticación requerido"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Registro por lote deshabilitado"
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Límite de importaciones excedido"
+        )
+    })
+    @PostMapping(
+        value = "/auth/registro/_batch",
+        consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<Flux<Map<String, Object>>> registrarUsuariosLote(
+            InputStream cuerpo,
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "3600000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
+        if (!registroLoteService.habilitado()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Flux.just(Map.of("error", true, "respuesta", "Registro por lote deshabilitado")));
+        }
+        return cadenaRegistroLote.ejecutarFlujo(new SolicitudGateway(authToken, CLAVE_LIMITE_LOTE),
+                solicitud -> registrarLote(cuerpo, timeoutHeader));
+    }
+
+    private ResponseEntity<Flux<Map<String, Object>>> registrarLote(InputStream cuerpo, String timeoutHeader) {
+        log.info("API Gateway: Registro de usuarios por lote");
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(deadlinePolicy.aplicar("auth.registro.lote", timeoutHeader,
+                        registroLoteService.registrarUsuarios(cuerpo),
+                        () -> Map.of("error", true, "status", 504,
+                                "respuesta", "Tiempo de espera agotado procesando la solicitud")));
+    }
+
+    /**
+     * Respuesta retornada cuando la solicitud agota su deadline.
+     *
+     * @return Respuesta 504 con el formato estándar de error
+     */
+    private ResponseEntity<Map<String, Object>> respuestaTiempoAgotado() {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of("error", true, "respuesta", "Tiempo de espera agotado procesando la solicitud"));
     }
 }
 
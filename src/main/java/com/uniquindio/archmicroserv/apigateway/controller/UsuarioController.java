@@ -1,7 +1,19 @@
 package com.uniquindio.archmicroserv.apigateway.controller;
 
+import com.uniquindio.archmicroserv.apigateway.dto.CamposUsuario;
+import com.uniquindio.archmicroserv.apigateway.filter.CadenaFiltros;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.MapeoErroresFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.RutaGateway;
+import com.uniquindio.archmicroserv.apigateway.filter.SolicitudGateway;
 import com.uniquindio.archmicroserv.apigateway.messaging.EventoPublisher;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
+import com.uniquindio.archmicroserv.apigateway.service.AccesosVerificados;
+import com.uniquindio.archmicroserv.apigateway.service.ConsultaLoteService;
 import com.uniquindio.archmicroserv.apigateway.service.DomainServiceClient;
+import com.uniquindio.archmicroserv.apigateway.service.EliminacionDiferida;
+import com.uniquindio.archmicroserv.apigateway.service.EliminacionLoteService;
+import com.uniquindio.archmicroserv.apigateway.service.EtiquetasUsuario;
 import com.uniquindio.archmicroserv.apigateway.service.GestionPerfilServiceClient;
 import com.uniquindio.archmicroserv.apigateway.service.UsuarioUnificadoService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,11 +26,16 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,9 +54,14 @@ import java.util.Map;
  *   <li>GET /api/v1/usuarios/{usuario} - Obtener datos completos del usuario</li>
  *   <li>PUT /api/v1/usuarios/{usuario} - Actualizar datos completos del usuario</li>
  *   <li>DELETE /api/v1/usuarios/{usuario} - Eliminar usuario completo del sistema</li>
+ *   <li>POST /api/v1/usuarios/_batch - Obtener datos completos de varios usuarios (JSON o NDJSON)</li>
+ *   <li>POST /api/v1/usuarios/_delete - Eliminar varios usuarios informando el avance en NDJSON</li>
  * </ul>
  * </p>
  * 
+ * <p>Cada endpoint se ejecuta dentro de su {@link CadenaFiltros}, que exige el token y
+ * convierte los errores no manejados en la respuesta estándar.</p>
+ * 
  * <p><strong>Control de acceso:</strong>
  * <ul>
  *   <li>Los usuarios CLIENTE solo pueden acceder a sus propios datos</li>
@@ -63,16 +85,53 @@ public class UsuarioController {
     private final DomainServiceClient domainServiceClient;
     private final GestionPerfilServiceClient gestionPerfilServiceClient;
     private final EventoPublisher eventoPublisher;
+    private final DeadlinePolicy deadlinePolicy;
+    private final ConsultaLoteService consultaLoteService;
+    private final EliminacionLoteService eliminacionLoteService;
+    private final AccesosVerificados accesosVerificados;
+    private final EliminacionDiferida eliminacionDiferida;
+    private final EtiquetasUsuario etiquetasUsuario;
+    private final CadenaFiltros cadenaObtener;
+    private final CadenaFiltros cadenaActualizar;
+    private final CadenaFiltros cadenaEliminar;
+    private final CadenaFiltros cadenaLote;
+    private final CadenaFiltros cadenaLoteStream;
+    private final CadenaFiltros cadenaEliminarLote;
 
     public UsuarioController(
             UsuarioUnificadoService usuarioUnificadoService,
             DomainServiceClient domainServiceClient,
             GestionPerfilServiceClient gestionPerfilServiceClient,
-            EventoPublisher eventoPublisher) {
+            EventoPublisher eventoPublisher,
+            DeadlinePolicy deadlinePolicy,
+            ConsultaLoteService consultaLoteService,
+            EliminacionLoteService eliminacionLoteService,
+            AccesosVerificados accesosVerificados,
+            EliminacionDiferida eliminacionDiferida,
+            EtiquetasUsuario etiquetasUsuario,
+            FabricaCadenas fabricaCadenas) {
         this.usuarioUnificadoService = usuarioUnificadoService;
         this.domainServiceClient = domainServiceClient;
         this.gestionPerfilServiceClient = gestionPerfilServiceClient;
         this.eventoPublisher = eventoPublisher;
+        this.deadlinePolicy = deadlinePolicy;
+        this.consultaLoteService = consultaLoteService;
+        this.eliminacionLoteService = eliminacionLoteService;
+        this.accesosVerificados = accesosVerificados;
+        this.eliminacionDiferida = eliminacionDiferida;
+        this.etiquetasUsuario = etiquetasUsuario;
+        this.cadenaObtener = fabricaCadenas.cadena(
+                RutaGateway.autenticada("usuarios.obtener", "Error obteniendo datos del usuario"));
+        this.cadenaActualizar = fabricaCadenas.cadena(
+                RutaGateway.autenticada("usuarios.actualizar", "Error actualizando datos del usuario"));
+        this.cadenaEliminar = fabricaCadenas.cadena(
+                RutaGateway.autenticada("usuarios.eliminar", "Error eliminando usuario"));
+        this.cadenaLote = fabricaCadenas.cadena(
+                RutaGateway.autenticada("usuarios.lote", "Error obteniendo datos de los usuarios"));
+        this.cadenaLoteStream = fabricaCadenas.cadena(
+                RutaGateway.autenticada("usuarios.lote.stream", "Error obteniendo datos de los usuarios"));
+        this.cadenaEliminarLote = fabricaCadenas.cadena(
+                RutaGateway.autenticada("usuarios.eliminar.lote", "Error eliminando usuarios"));
     }
 
     /**
@@ -87,6 +146,14 @@ public class UsuarioController {
      * 
      * <p>Los datos se obtienen en paralelo y se combinan en una única respuesta.
      * Si alguno de los servicios falla, se retorna un mapa vacío para ese servicio.</p>
+     *
+     * <p>Con {@code fields} (o {@code include}) se eligen los atributos de la respuesta
+     * y solo se consulta el microservicio de cada uno. Si se pide solo {@code perfil},
+     * el Domain Service se consulta únicamente para autorizar el token, salvo que ya lo
+     * haya autorizado hace poco para el mismo usuario ({@link AccesosVerificados}).</p>
+     *
+     * <p>La respuesta lleva un ETag débil ({@link EtiquetasUsuario}). Si el cliente envía
+     * la misma etiqueta en {@code If-None-Match} se responde {@code 304} sin cuerpo.</p>
      * 
      * <p><strong>Control de acceso:</strong>
      * <ul>
@@ -96,14 +163,19 @@ public class UsuarioController {
      * </p>
      * 
      * @param usuario Nombre de usuario a consultar
+     * @param fields Atributos a incluir separados por comas: {@code datosSeguridad}, {@code perfil} (opcional)
+     * @param include Alias de {@code fields}
      * @param authToken Token JWT en el header Authorization
+     * @param ifNoneMatch ETags que el cliente ya tiene (opcional)
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
      * @return Respuesta con datos de seguridad y perfil combinados
      */
     @Operation(
         summary = "Obtener usuario completo",
         description = "Obtiene los datos completos de un usuario combinando información de seguridad " +
                      "(Domain Service) y perfil (Gestion Perfil Service). " +
-                     "Los datos se obtienen en paralelo y se combinan en una única respuesta.",
+                     "Los datos se obtienen en paralelo y se combinan en una única respuesta. " +
+                     "Con fields=perfil o fields=datosSeguridad solo se consulta el microservicio correspondiente.",
         security = @SecurityRequirement(name = "bearer-jwt")
     )
     @ApiResponses(value = {
@@ -117,6 +189,20 @@ public class UsuarioController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "La vista no cambió respecto del ETag enviado en If-None-Match"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Se pidió un atributo desconocido en fields",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Campo desconocido: correo\"}"
+                )
+            )
+        ),
         @ApiResponse(
             responseCode = "401",
             description = "Token de autenticación requerido, inválido o expirado",
@@ -156,25 +242,63 @@ public class UsuarioController {
                     value = "{\"error\": true, \"respuesta\": \"Error obteniendo datos del usuario\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "El deadline de la solicitud se agotó antes de completar la operación",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Tiempo de espera agotado procesando la solicitud\"}"
+                )
+            )
         )
     })
     @GetMapping("/{usuario}")
     public Mono<ResponseEntity<Map<String, Object>>> obtenerUsuarioCompleto(
             @Parameter(description = "Nombre de usuario a consultar", required = true, example = "john_doe")
             @PathVariable String usuario,
+            @Parameter(description = "Atributos a incluir separados por comas (datosSeguridad, perfil)", example = "perfil")
+            @RequestParam(value = "fields", required = false) String fields,
+            @Parameter(description = "Alias de fields", example = "perfil")
+            @RequestParam(value = "include", required = false) String include,
             @Parameter(hidden = true)
-            @RequestHeader(value = "Authorization", required = false) String authToken) {
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "ETag de una respuesta anterior", example = "W/\"9f2c4a1b7e3d5f60\"")
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "5000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
         log.info("API Gateway: Obteniendo datos completos del usuario {}", usuario);
+        return cadenaObtener.ejecutar(SolicitudGateway.de(authToken), solicitud -> consultarUsuarioCompleto(
+                usuario, fields != null ? fields : include, solicitud.getToken(), ifNoneMatch, timeoutHeader));
+    }
 
-        if (authToken == null || !authToken.startsWith("Bearer ")) {
-            return Mono.just(ResponseEntity.status(401)
-                    .body(Map.of("error", true, "respuesta", "Token de autenticación requerido")));
+    /**
+     * Consulta y combina los atributos pedidos de un usuario, con el token ya validado por la cadena.
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> consultarUsuarioCompleto(
+            String usuario, String atributos, String token, String ifNoneMatch, String timeoutHeader) {
+        CamposUsuario campos;
+        try {
+            campos = CamposUsuario.de(atributos);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(Map.of("error", true, "respuesta", e.getMessage())));
         }
 
-        String token = authToken.replace("Bearer ", "").trim();
-        
-        Mono<Map<String, Object>> datosSeguridad = domainServiceClient
+        // Atajo: la etiqueta se envió hace poco y el token ya fue autorizado para este usuario
+        if (ifNoneMatch != null && accesosVerificados.verificado(token, usuario)) {
+            String vigente = etiquetasUsuario.vigente(usuario, campos);
+            if (EtiquetasUsuario.coincide(ifNoneMatch, vigente)) {
+                return Mono.just(noModificado(vigente));
+            }
+        }
+
+        // Sin datosSeguridad, el Domain Service solo se consulta para autorizar el acceso al perfil
+        boolean consultarSeguridad = campos.datosSeguridad() || !accesosVerificados.verificado(token, usuario);
+        Mono<Map<String, Object>> datosSeguridad = !consultarSeguridad ? Mono.just(Map.of()) : domainServiceClient
                 .obtenerUsuario(usuario, token)
+                .doOnNext(respuesta -> accesosVerificados.registrar(token, usuario))
                 .onErrorResume(error -> {
                     if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
                         org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
@@ -187,20 +311,20 @@ public class UsuarioController {
                     return Mono.just(new HashMap<>());
                 });
         
-        Mono<Map<String, Object>> datosPerfil = gestionPerfilServiceClient
+        Mono<Map<String, Object>> datosPerfil = !campos.perfil() ? Mono.just(Map.of()) : gestionPerfilServiceClient
                 .obtenerPerfil(usuario)
                 .onErrorResume(error -> {
                     log.warn("Error obteniendo perfil: {}", error.getMessage());
                     return Mono.just(new HashMap<>());
                 });
 
-        return Mono.zip(datosSeguridad, datosPerfil)
+        Mono<ResponseEntity<Map<String, Object>>> usuarioCompleto = Mono.zip(datosSeguridad, datosPerfil)
                 .map(tuple -> {
                     Map<String, Object> resultado = new HashMap<>();
                     resultado.put("usuario", usuario);
                     
                     Map<String, Object> seguridad = tuple.getT1();
-                    if (!seguridad.isEmpty()) {
+                    if (campos.datosSeguridad() && !seguridad.isEmpty()) {
                         Object respuesta = seguridad.get("respuesta");
                         if (respuesta instanceof Map) {
                             @SuppressWarnings("unchecked")
@@ -215,36 +339,19 @@ public class UsuarioController {
                     if (!perfil.isEmpty()) {
                         resultado.put("perfil", perfil);
                     }
-                    
-                    return ResponseEntity.ok(resultado);
-                })
-                .onErrorResume(error -> {
-                    log.error("Error obteniendo usuario completo: {}", error.getMessage());
-                    if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                        org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
-                            (org.springframework.web.reactive.function.client.WebClientResponseException) error;
-                        int statusCode = webClientError.getStatusCode().value();
-                        
-                        String errorMessage = "Error obteniendo datos del usuario";
-                        try {
-                            String responseBody = webClientError.getResponseBodyAsString();
-                            if (responseBody != null && responseBody.contains("\"respuesta\"")) {
-                                var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                                var errorMap = mapper.readValue(responseBody, Map.class);
-                                if (errorMap.containsKey("respuesta")) {
-                                    errorMessage = errorMap.get("respuesta").toString();
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.warn("No se pudo parsear el mensaje de error: {}", e.getMessage());
-                        }
-                        
-                        return Mono.just(ResponseEntity.status(statusCode)
-                                .body(Map.of("error", true, "respuesta", errorMessage)));
+
+                    String etiqueta = etiquetasUsuario.calcular(resultado);
+                    etiquetasUsuario.registrar(usuario, campos, etiqueta);
+                    if (EtiquetasUsuario.coincide(ifNoneMatch, etiqueta)) {
+                        return noModificado(etiqueta);
                     }
-                    return Mono.just(ResponseEntity.status(500)
-                            .body(Map.of("error", true, "respuesta", "Error obteniendo datos del usuario")));
+                    return ResponseEntity.ok()
+                            .eTag(etiqueta)
+                            .cacheControl(CacheControl.noCache().cachePrivate())
+                            .body(resultado);
                 });
+
+        return deadlinePolicy.aplicar("usuarios.obtener", timeoutHeader, usuarioCompleto, this::respuestaTiempoAgotado);
     }
 
     /**
@@ -260,9 +367,13 @@ public class UsuarioController {
      * <p><strong>Validación de permisos:</strong>
      * <ul>
      *   <li>Si se actualizan datos de seguridad: El Domain Service valida permisos automáticamente</li>
-     *   <li>Si solo se actualiza el perfil: El API Gateway valida permisos previamente</li>
+     *   <li>Si solo se actualiza el perfil: El API Gateway valida permisos previamente, salvo que
+     *       el token ya haya sido autorizado hace poco para el usuario ({@link AccesosVerificados})</li>
      * </ul>
      * </p>
+     *
+     * <p>Con {@code gateway.update.parallel-writes=true}, una actualización mixta escribe
+     * seguridad y perfil en paralelo; ver {@link UsuarioUnificadoService}.</p>
      * 
      * <p><strong>Control de acceso:</strong>
      * <ul>
@@ -274,6 +385,7 @@ public class UsuarioController {
      * @param usuario Nombre de usuario a actualizar
      * @param requestBody Datos a actualizar (puede incluir campos de seguridad y/o perfil)
      * @param authToken Token JWT en el header Authorization
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
      * @return Respuesta con el resultado de la actualización
      */
     @Operation(
@@ -344,6 +456,16 @@ public class UsuarioController {
                     value = "{\"error\": true, \"respuesta\": \"Error actualizando datos del usuario\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "El deadline de la solicitud se agotó antes de completar la operación",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Tiempo de espera agotado procesando la solicitud\"}"
+                )
+            )
         )
     })
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -375,87 +497,48 @@ public class UsuarioController {
             @PathVariable String usuario,
             @RequestBody Map<String, Object> requestBody,
             @Parameter(hidden = true)
-            @RequestHeader(value = "Authorization", required = false) String authToken) {
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "5000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
         log.info("API Gateway: Actualizando datos completos del usuario {}", usuario);
+        return cadenaActualizar.ejecutar(SolicitudGateway.de(authToken), solicitud ->
+                actualizarUsuario(usuario, requestBody, solicitud.getToken(), timeoutHeader));
+    }
 
-        if (authToken == null || !authToken.startsWith("Bearer ")) {
-            return Mono.just(ResponseEntity.status(401)
-                    .body(Map.of("error", true, "respuesta", "Token de autenticación requerido")));
-        }
-
-        String token = authToken.substring(7);
-
+    /**
+     * Actualiza el usuario con el token ya validado por la cadena. Si solo cambia el perfil,
+     * antes se verifica en el Domain Service que el token pueda acceder al usuario.
+     * Al terminar, con éxito o no, se olvida el ETag del usuario: una escritura fallida pudo
+     * haber llegado a uno de los microservicios.
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> actualizarUsuario(
+            String usuario, Map<String, Object> requestBody, String token, String timeoutHeader) {
         boolean soloPerfil = !requestBody.containsKey("correo") && 
                             !requestBody.containsKey("clave") && 
                             !requestBody.containsKey("numeroTelefono");
         
         if (soloPerfil) {
             log.info("Validando permisos para actualizar perfil de usuario: {}", usuario);
-            return domainServiceClient.obtenerUsuario(usuario, token)
+            Mono<Map<String, Object>> permisos = accesosVerificados.verificado(token, usuario)
+                    ? Mono.just(Map.of())
+                    : domainServiceClient.obtenerUsuario(usuario, token)
+                            .doOnNext(usuarioData -> accesosVerificados.registrar(token, usuario));
+            Mono<ResponseEntity<Map<String, Object>>> actualizacionPerfil = permisos
                     .doOnError(error -> log.error("Error validando permisos: {}", error.getMessage()))
                     .flatMap(usuarioData -> {
                         log.info("Permisos validados, procediendo a actualizar perfil");
                         return usuarioUnificadoService.actualizarUsuarioCompleto(usuario, requestBody, token)
                                 .map(ResponseEntity::ok);
-                    })
-                    .onErrorResume(error -> {
-                        log.error("Error en validación de permisos o actualización: {}", error.getMessage());
-                        if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                            org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
-                                (org.springframework.web.reactive.function.client.WebClientResponseException) error;
-                            int statusCode = webClientError.getStatusCode().value();
-                            
-                            String errorMessage = "Error actualizando datos del usuario";
-                            try {
-                                String responseBody = webClientError.getResponseBodyAsString();
-                                if (responseBody != null && responseBody.contains("\"respuesta\"")) {
-                                    var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                                    var errorMap = mapper.readValue(responseBody, Map.class);
-                                    if (errorMap.containsKey("respuesta")) {
-                                        errorMessage = errorMap.get("respuesta").toString();
-                                    }
-                                }
-                            } catch (Exception e) {
-                                log.warn("No se pudo parsear el mensaje de error: {}", e.getMessage());
-                            }
-                            
-                            return Mono.just(ResponseEntity.status(statusCode)
-                                    .body(Map.of("error", true, "respuesta", errorMessage)));
-                        }
-                        return Mono.just(ResponseEntity.status(500)
-                                .body(Map.of("error", true, "respuesta", "Error actualizando datos del usuario")));
                     });
+            return deadlinePolicy.aplicar("usuarios.actualizar", timeoutHeader, actualizacionPerfil, this::respuestaTiempoAgotado)
+                    .doFinally(senal -> etiquetasUsuario.invalidar(usuario));
         }
 
-        return usuarioUnificadoService.actualizarUsuarioCompleto(usuario, requestBody, token)
-                .map(ResponseEntity::ok)
-                .onErrorResume(error -> {
-                    log.error("Error actualizando usuario completo: {}", error.getMessage());
-                    if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                        org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
-                            (org.springframework.web.reactive.function.client.WebClientResponseException) error;
-                        int statusCode = webClientError.getStatusCode().value();
-                        
-                        String errorMessage = "Error actualizando datos del usuario";
-                        try {
-                            String responseBody = webClientError.getResponseBodyAsString();
-                            if (responseBody != null && responseBody.contains("\"respuesta\"")) {
-                                var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                                var errorMap = mapper.readValue(responseBody, Map.class);
-                                if (errorMap.containsKey("respuesta")) {
-                                    errorMessage = errorMap.get("respuesta").toString();
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.warn("No se pudo parsear el mensaje de error: {}", e.getMessage());
-                        }
-                        
-                        return Mono.just(ResponseEntity.status(statusCode)
-                                .body(Map.of("error", true, "respuesta", errorMessage)));
-                    }
-                    return Mono.just(ResponseEntity.status(500)
-                            .body(Map.of("error", true, "respuesta", "Error actualizando datos del usuario")));
-                });
+        Mono<ResponseEntity<Map<String, Object>>> actualizacion = usuarioUnificadoService.actualizarUsuarioCompleto(usuario, requestBody, token)
+                .map(ResponseEntity::ok);
+
+        return deadlinePolicy.aplicar("usuarios.actualizar", timeoutHeader, actualizacion, this::respuestaTiempoAgotado)
+                .doFinally(senal -> etiquetasUsuario.invalidar(usuario));
     }
 
     /**
@@ -471,6 +554,9 @@ public class UsuarioController {
      * 
      * <p>Si la eliminación del Domain Service es exitosa pero el perfil no existe (404),
      * la operación se considera exitosa ya que el usuario principal fue eliminado.</p>
+     *
+     * <p>Con {@code gateway.delete.async-tail.enabled=true} se responde apenas el Domain
+     * Service confirma, y los pasos 2 y 3 continúan en segundo plano ({@link EliminacionDiferida}).</p>
      * 
      * <p><strong>Control de acceso:</strong>
      * <ul>
@@ -481,6 +567,7 @@ public class UsuarioController {
      * 
      * @param usuario Nombre de usuario a eliminar
      * @param authToken Token JWT en el header Authorization
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
      * @return Respuesta con el resultado de la eliminación
      */
     @Operation(
@@ -542,6 +629,16 @@ public class UsuarioController {
                     value = "{\"error\": true, \"respuesta\": \"Error eliminando usuario\"}"
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "El deadline de la solicitud se agotó antes de completar la operación",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Tiempo de espera agotado procesando la solicitud\"}"
+                )
+            )
         )
     })
     @DeleteMapping("/{usuario}")
@@ -549,46 +646,32 @@ public class UsuarioController {
             @Parameter(description = "Nombre de usuario a eliminar", required = true, example = "john_doe")
             @PathVariable String usuario,
             @Parameter(hidden = true)
-            @RequestHeader(value = "Authorization", required = false) String authToken) {
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "5000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
         log.info("API Gateway: Eliminación completa del usuario {}", usuario);
+        return cadenaEliminar.ejecutar(SolicitudGateway.de(authToken), solicitud ->
+                eliminarUsuario(usuario, solicitud.getToken(), timeoutHeader));
+    }
 
-        if (authToken == null || !authToken.startsWith("Bearer ")) {
-            return Mono.just(ResponseEntity.status(401)
-                    .body(Map.of("error", true, "respuesta", "Token de autenticación requerido")));
-        }
-
-        String token = authToken.substring(7);
-
-        return domainServiceClient
+    /**
+     * Elimina el usuario del Domain Service y luego su perfil y evento, con el token ya
+     * validado por la cadena. Un perfil inexistente no impide informar la eliminación.
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> eliminarUsuario(String usuario, String token, String timeoutHeader) {
+        Mono<ResponseEntity<Map<String, Object>>> eliminacion = domainServiceClient
                 .eliminarUsuario(usuario, token)
                 .doOnSuccess(response -> log.info("Eliminación de seguridad exitosa para usuario: {}", usuario))
                 .doOnError(error -> log.error("Error en eliminación de seguridad: {}", error.getMessage()))
                 .flatMap(seguridadResponse -> {
-                    log.info("Procediendo a eliminar perfil para usuario: {}", usuario);
-                    return gestionPerfilServiceClient
-                            .eliminarPerfil(usuario)
-                            .onErrorResume(error -> {
-                                if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
-                                    org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
-                                        (org.springframework.web.reactive.function.client.WebClientResponseException) error;
-                                    if (webClientError.getStatusCode().value() == 404) {
-                                        log.info("Perfil no encontrado para usuario {} (no crítico)", usuario);
-                                        return Mono.empty();
-                                    }
-                                }
-                                log.warn("Error eliminando perfil (no crítico): {}", error.getMessage());
-                                return Mono.empty();
-                            })
-                            .then(Mono.fromRunnable(() -> {
-                                try {
-                                    String correo = extractCorreo(seguridadResponse);
-                                    eventoPublisher.publicarEventoEliminacion(usuario, correo);
-                                    log.info("Evento de eliminación publicado para usuario: {}", usuario);
-                                } catch (Exception e) {
-                                    log.error("Error publicando evento de eliminación: {}", e.getMessage(), e);
-                                }
-                            }))
-                            .then(Mono.just(ResponseEntity.ok(createResponseMap(false, "Usuario eliminado exitosamente del sistema"))));
+                    if (!eliminacionDiferida.habilitada()) {
+                        return limpiarEliminacion(usuario, seguridadResponse);
+                    }
+                    // El Domain Service ya confirmó: perfil y evento siguen en segundo plano
+                    return eliminacionDiferida.programar(usuario, extractCorreo(seguridadResponse))
+                            .flatMap(programada -> programada
+                                    ? Mono.just(ResponseEntity.ok(createResponseMap(false, "Usuario eliminado exitosamente del sistema")))
+                                    : limpiarEliminacion(usuario, seguridadResponse));
                 })
                 .onErrorResume(error -> {
                     log.error("Error eliminando usuario completo: {}", error.getMessage());
@@ -617,22 +700,8 @@ public class UsuarioController {
                             }
                         }
                         
-                        String errorMessage = "Error eliminando usuario";
-                        try {
-                            String responseBody = webClientError.getResponseBodyAsString();
-                            if (responseBody != null && responseBody.contains("\"respuesta\"")) {
-                                var mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                                var errorMap = mapper.readValue(responseBody, Map.class);
-                                if (errorMap.containsKey("respuesta")) {
-                                    errorMessage = errorMap.get("respuesta").toString();
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.warn("No se pudo parsear el mensaje de error: {}", e.getMessage());
-                        }
-                        
                         return Mono.just(ResponseEntity.status(statusCode)
-                                .body(createResponseMap(true, errorMessage)));
+                                .body(createResponseMap(true, MapeoErroresFiltro.mensajeError(webClientError, "Error eliminando usuario"))));
                     }
                     
                     try {
@@ -643,6 +712,344 @@ public class UsuarioController {
                     return Mono.just(ResponseEntity.status(500)
                             .body(createResponseMap(true, "Error eliminando usuario")));
                 });
+
+        return deadlinePolicy.aplicar("usuarios.eliminar", timeoutHeader, eliminacion, this::respuestaTiempoAgotado)
+                .doFinally(senal -> etiquetasUsuario.invalidar(usuario));
+    }
+
+    /**
+     * Obtiene los datos completos de varios usuarios en una sola solicitud.
+     *
+     * <p>Pensado para los tableros de administración: el token se valida una vez para todo
+     * el lote y los usuarios se consultan en paralelo con concurrencia acotada
+     * (ver {@link ConsultaLoteService}). Cada elemento del resultado trae los datos del
+     * usuario o su propio error, de modo que un usuario inexistente no invalida el lote.</p>
+     *
+     * @param requestBody Cuerpo con la lista {@code usuarios}
+     * @param authToken Token JWT en el header Authorization
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
+     * @return Respuesta con un resultado por usuario
+     */
+    @Operation(
+        summary = "Obtener usuarios por lote",
+        description = "Obtiene los datos completos de varios usuarios. Los errores de cada usuario " +
+                     "se informan en su elemento del resultado.",
+        security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lote procesado; cada resultado puede ser exitoso o un error individual",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": false, \"total\": 2, \"fallidos\": 1, \"resultados\": [{\"usuario\": \"john_doe\", \"datosSeguridad\": {\"correo\": \"john@example.com\"}, \"perfil\": {\"apodo\": \"John\"}}, {\"usuario\": \"jane\", \"error\": true, \"status\": 404, \"respuesta\": \"Usuario no encontrado en el sistema\"}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Lista de usuarios vacía, inválida o demasiado grande",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Debe enviar entre 1 y 100 usuarios\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Token de autenticación requerido, inválido o expirado",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Token de autenticación requerido\"}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "El deadline de la solicitud se agotó antes de completar la operación",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = "{\"error\": true, \"respuesta\": \"Tiempo de espera agotado procesando la solicitud\"}"
+                )
+            )
+        )
+    })
+    @PostMapping(value = "/_batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> obtenerUsuariosLote(
+            @RequestBody Map<String, Object> requestBody,
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "5000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
+        return cadenaLote.ejecutar(SolicitudGateway.de(authToken), solicitud ->
+                consultarLote(requestBody, solicitud.getToken(), timeoutHeader));
+    }
+
+    /**
+     * Valida la lista del cuerpo y consulta el lote completo.
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> consultarLote(
+            Map<String, Object> requestBody, String token, String timeoutHeader) {
+        List<String> usuarios = listaUsuarios(requestBody.get("usuarios"));
+        if (usuarios == null || usuarios.isEmpty() || usuarios.size() > consultaLoteService.maxUsuarios()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(createResponseMap(true,
+                            "Debe enviar entre 1 y " + consultaLoteService.maxUsuarios() + " usuarios")));
+        }
+        log.info("API Gateway: Obteniendo {} usuarios por lote", usuarios.size());
+
+        Mono<ResponseEntity<Map<String, Object>>> lote = consultaLoteService
+                .obtenerUsuarios(usuarios, token)
+                .collectList()
+                .map(resultados -> {
+                    long fallidos = resultados.stream().filter(r -> Boolean.TRUE.equals(r.get("error"))).count();
+                    Map<String, Object> respuesta = new HashMap<>();
+                    respuesta.put("error", false);
+                    respuesta.put("total", resultados.size());
+                    respuesta.put("fallidos", fallidos);
+                    respuesta.put("resultados", resultados);
+                    return ResponseEntity.ok(respuesta);
+                })
+                .onErrorResume(error -> Mono.just(errorLote(error,
+                        "obteniendo usuarios por lote", "Error obteniendo datos de los usuarios")));
+
+        return deadlinePolicy.aplicar("usuarios.lote", timeoutHeader, lote, this::respuestaTiempoAgotado);
+    }
+
+    /**
+     * Variante en streaming de la consulta por lotes ({@code Accept: application/x-ndjson}).
+     *
+     * <p>Cada usuario se escribe como una línea JSON en cuanto sus dos llamadas terminan, en
+     * orden de finalización. Los resultados no se acumulan y la consulta avanza al ritmo en
+     * que el cliente lee, por lo que la memoria por solicitud no depende del tamaño del lote.
+     * Como el estado HTTP ya se envió, un token inválido o el deadline agotado se informan en
+     * una última línea con {@code error} y {@code status}.</p>
+     *
+     * @param requestBody Cuerpo con la lista {@code usuarios}
+     * @param authToken Token JWT en el header Authorization
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
+     * @return Un resultado por usuario
+     */
+    @Operation(
+        summary = "Obtener usuarios por lote en streaming",
+        description = "Igual que la consulta por lotes, pero responde application/x-ndjson con un usuario por línea " +
+                     "a medida que se completan.",
+        security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @PostMapping(value = "/_batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<Map<String, Object>>> transmitirUsuariosLote(
+            @RequestBody Map<String, Object> requestBody,
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "60000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
+        return cadenaLoteStream.ejecutarFlujo(SolicitudGateway.de(authToken), solicitud ->
+                transmitirLote(requestBody, solicitud.getToken(), timeoutHeader));
+    }
+
+    /**
+     * Valida la lista del cuerpo y transmite un resultado por usuario.
+     */
+    private ResponseEntity<Flux<Map<String, Object>>> transmitirLote(
+            Map<String, Object> requestBody, String token, String timeoutHeader) {
+        List<String> usuarios = listaUsuarios(requestBody.get("usuarios"));
+        if (usuarios == null || usuarios.isEmpty() || usuarios.size() > consultaLoteService.maxUsuariosStreaming()) {
+            return ResponseEntity.badRequest()
+                    .body(Flux.just(createResponseMap(true,
+                            "Debe enviar entre 1 y " + consultaLoteService.maxUsuariosStreaming() + " usuarios")));
+        }
+        log.info("API Gateway: Transmitiendo {} usuarios por lote", usuarios.size());
+
+        Flux<Map<String, Object>> resultados = consultaLoteService
+                .transmitirUsuarios(usuarios, token)
+                .onErrorResume(error -> Mono.just(finLoteConError(error,
+                        "transmitiendo usuarios por lote", "Error obteniendo datos de los usuarios")));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(deadlinePolicy.aplicar("usuarios.lote.stream", timeoutHeader, resultados, () -> {
+                    Map<String, Object> fin = createResponseMap(true, "Tiempo de espera agotado procesando la solicitud");
+                    fin.put("status", 504);
+                    return fin;
+                }));
+    }
+
+    /**
+     * Elimina varios usuarios completos, pensado para los procesos de limpieza de datos.
+     *
+     * <p>Los usuarios se eliminan en paralelo (ver {@link EliminacionLoteService}) y los
+     * eventos {@code ELIMINACION_USUARIO} se publican por lotes. La respuesta es NDJSON: una
+     * línea por usuario a medida que termina y una línea final con el resumen. Un usuario
+     * que falla se informa en su línea sin detener el resto.</p>
+     *
+     * @param requestBody Cuerpo con la lista {@code usuarios}
+     * @param authToken Token JWT en el header Authorization
+     * @param timeoutHeader Presupuesto de tiempo solicitado por el cliente en milisegundos (opcional)
+     * @return Avance de la eliminación, un elemento por usuario y el resumen
+     */
+    @Operation(
+        summary = "Eliminar usuarios por lote",
+        description = "Elimina varios usuarios de Domain Service y Gestion Perfil Service y publica sus eventos " +
+                     "ELIMINACION_USUARIO por lotes. Responde application/x-ndjson con el avance de cada usuario " +
+                     "y un resumen final.",
+        security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Avance de la eliminación, una línea por usuario",
+            content = @Content(
+                mediaType = "application/x-ndjson",
+                examples = @ExampleObject(
+                    value = "{\"usuario\": \"john_doe\", \"eliminado\": true}\n{\"usuario\": \"jane\", \"error\": true, \"status\": 404, \"respuesta\": \"Usuario no encontrado\"}\n{\"resumen\": true, \"total\": 2, \"eliminados\": 1, \"fallidos\": 1, \"eventosFallidos\": 0}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Lista de usuarios vacía, inválida o demasiado grande"
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Token de autenticación requerido"
+        )
+    })
+    @PostMapping(value = "/_delete", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<Map<String, Object>>> eliminarUsuariosLote(
+            @RequestBody Map<String, Object> requestBody,
+            @Parameter(hidden = true)
+            @RequestHeader(value = "Authorization", required = false) String authToken,
+            @Parameter(description = "Presupuesto de tiempo de la solicitud en milisegundos", example = "600000")
+            @RequestHeader(value = DeadlinePolicy.HEADER, required = false) String timeoutHeader) {
+        return cadenaEliminarLote.ejecutarFlujo(SolicitudGateway.de(authToken), solicitud ->
+                eliminarLote(requestBody, solicitud.getToken(), timeoutHeader));
+    }
+
+    /**
+     * Valida la lista del cuerpo y transmite el avance de la eliminación.
+     */
+    private ResponseEntity<Flux<Map<String, Object>>> eliminarLote(
+            Map<String, Object> requestBody, String token, String timeoutHeader) {
+        List<String> usuarios = listaUsuarios(requestBody.get("usuarios"));
+        if (usuarios == null || usuarios.isEmpty() || usuarios.size() > eliminacionLoteService.maxUsuarios()) {
+            return ResponseEntity.badRequest()
+                    .body(Flux.just(createResponseMap(true,
+                            "Debe enviar entre 1 y " + eliminacionLoteService.maxUsuarios() + " usuarios")));
+        }
+        log.info("API Gateway: Eliminación por lote de {} usuarios", usuarios.size());
+
+        Flux<Map<String, Object>> avance = eliminacionLoteService
+                .eliminarUsuarios(usuarios, token)
+                .onErrorResume(error -> Mono.just(finLoteConError(error,
+                        "en eliminación por lote", "Error eliminando usuarios")));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(deadlinePolicy.aplicar("usuarios.eliminar.lote", timeoutHeader, avance, () -> {
+                    Map<String, Object> fin = createResponseMap(true, "Tiempo de espera agotado procesando la solicitud");
+                    fin.put("status", 504);
+                    return fin;
+                }));
+    }
+
+    /**
+     * Convierte el campo {@code usuarios} del cuerpo en una lista de nombres.
+     *
+     * @return La lista, o {@code null} si el campo no es una lista de textos no vacíos
+     */
+    private List<String> listaUsuarios(Object valor) {
+        if (!(valor instanceof List<?> elementos)) {
+            return null;
+        }
+        for (Object elemento : elementos) {
+            if (!(elemento instanceof String usuario) || usuario.isBlank()) {
+                return null;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<String> usuarios = (List<String>) elementos;
+        return usuarios;
+    }
+
+    /**
+     * Elimina el perfil y publica el evento de un usuario ya eliminado del Domain Service.
+     * Ambos pasos son no críticos: sus errores se registran sin cambiar la respuesta.
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> limpiarEliminacion(String usuario, Map<String, Object> seguridadResponse) {
+        log.info("Procediendo a eliminar perfil para usuario: {}", usuario);
+        return gestionPerfilServiceClient
+                .eliminarPerfil(usuario)
+                .onErrorResume(error -> {
+                    if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException) {
+                        org.springframework.web.reactive.function.client.WebClientResponseException webClientError = 
+                            (org.springframework.web.reactive.function.client.WebClientResponseException) error;
+                        if (webClientError.getStatusCode().value() == 404) {
+                            log.info("Perfil no encontrado para usuario {} (no crítico)", usuario);
+                            return Mono.empty();
+                        }
+                    }
+                    log.warn("Error eliminando perfil (no crítico): {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.fromRunnable(() -> {
+                    try {
+                        String correo = extractCorreo(seguridadResponse);
+                        eventoPublisher.publicarEventoEliminacion(usuario, correo);
+                        log.info("Evento de eliminación publicado para usuario: {}", usuario);
+                    } catch (Exception e) {
+                        log.error("Error publicando evento de eliminación: {}", e.getMessage(), e);
+                    }
+                }))
+                .then(Mono.just(ResponseEntity.ok(createResponseMap(false, "Usuario eliminado exitosamente del sistema"))));
+    }
+
+    /** Respuesta 304 sin cuerpo para un {@code If-None-Match} que coincide con {@code etiqueta}. */
+    private static ResponseEntity<Map<String, Object>> noModificado(String etiqueta) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etiqueta)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+
+    /**
+     * Respuesta retornada cuando la solicitud agota su deadline.
+     *
+     * @return Respuesta 504 con el formato estándar de error
+     */
+    private ResponseEntity<Map<String, Object>> respuestaTiempoAgotado() {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(createResponseMap(true, "Tiempo de espera agotado procesando la solicitud"));
+    }
+
+    /**
+     * Respuesta de una operación por lote que falló por completo: un {@code 401} del
+     * microservicio se propaga, cualquier otro error se registra y responde 500.
+     *
+     * @param operacion Descripción de la operación para el log
+     * @param mensaje Mensaje para los errores distintos de {@code 401}
+     */
+    private ResponseEntity<Map<String, Object>> errorLote(Throwable error, String operacion, String mensaje) {
+        if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException webClientError
+                && webClientError.getStatusCode().value() == 401) {
+            return ResponseEntity.status(401).body(createResponseMap(true, "Token inválido o expirado"));
+        }
+        log.error("Error {}: {}", operacion, error.getMessage());
+        return ResponseEntity.status(500).body(createResponseMap(true, mensaje));
+    }
+
+    /**
+     * Línea final de un lote NDJSON que falló por completo: el cuerpo de
+     * {@link #errorLote} con su estado en el campo {@code status}.
+     */
+    private Map<String, Object> finLoteConError(Throwable error, String operacion, String mensaje) {
+        ResponseEntity<Map<String, Object>> respuesta = errorLote(error, operacion, mensaje);
+        Map<String, Object> fin = respuesta.getBody();
+        fin.put("status", respuesta.getStatusCode().value());
+        return fin;
     }
 
     /**
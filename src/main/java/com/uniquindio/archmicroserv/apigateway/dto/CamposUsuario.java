@@ -0,0 +1,44 @@
+package com.uniquindio.archmicroserv.apigateway.dto;
+
+import java.util.Locale;
+
+/**
+ * Atributos solicitados en la consulta de un usuario completo
+ * ({@code ?fields=datosSeguridad,perfil}).
+ *
+ * <p>Cada atributo corresponde a un microservicio, por lo que los que no se piden
+ * tampoco se consultan.</p>
+ *
+ * @param datosSeguridad Incluir los datos del Domain Service
+ * @param perfil Incluir los datos del Gestion Perfil Service
+ */
+public record CamposUsuario(boolean datosSeguridad, boolean perfil) {
+
+    public static final CamposUsuario TODOS = new CamposUsuario(true, true);
+
+    /**
+     * Interpreta la lista de atributos separada por comas.
+     *
+     * @param campos Valor del parámetro; null o vacío equivale a todos los atributos
+     * @throws IllegalArgumentException si se pide un atributo desconocido
+     */
+    public static CamposUsuario de(String campos) {
+        if (campos == null || campos.isBlank()) {
+            return TODOS;
+        }
+        boolean datosSeguridad = false;
+        boolean perfil = false;
+        for (String campo : campos.split(",")) {
+            switch (campo.trim().toLowerCase(Locale.ROOT)) {
+                case "datosseguridad", "seguridad" -> datosSeguridad = true;
+                case "perfil" -> perfil = true;
+                case "" -> { }
+                default -> throw new IllegalArgumentException("Campo desconocido: " + campo.trim());
+            }
+        }
+        if (!datosSeguridad && !perfil) {
+            return TODOS;
+        }
+        return new CamposUsuario(datosSeguridad, perfil);
+    }
+}
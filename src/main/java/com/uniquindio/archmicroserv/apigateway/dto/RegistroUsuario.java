@@ -0,0 +1,43 @@
+package com.uniquindio.archmicroserv.apigateway.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Solicitud de registro separada en la parte de cada microservicio.
+ *
+ * @param usuario Nombre de usuario, puede ser null si la solicitud no lo trae
+ * @param datosSeguridad Datos para el Domain Service (usuario, correo, clave, teléfono)
+ * @param datosPerfil Datos opcionales para el Gestion Perfil Service
+ */
+public record RegistroUsuario(
+        String usuario,
+        Map<String, Object> datosSeguridad,
+        Map<String, Object> datosPerfil
+) {
+    private static final String[] CAMPOS_PERFIL = {
+        "apodo", "biografia", "urlPaginaPersonal", "informacionContactoPublica",
+        "direccionCorrespondencia", "organizacion", "paisResidencia",
+        "linkFacebook", "linkTwitter", "linkLinkedIn", "linkInstagram", "linkGithub", "linkOtraRed"
+    };
+
+    public static RegistroUsuario de(Map<String, Object> requestBody) {
+        // Extraer datos de seguridad (obligatorios)
+        Map<String, Object> datosSeguridad = new HashMap<>();
+        datosSeguridad.put("usuario", requestBody.get("usuario"));
+        datosSeguridad.put("correo", requestBody.get("correo"));
+        datosSeguridad.put("clave", requestBody.get("clave"));
+        datosSeguridad.put("numeroTelefono", requestBody.get("numeroTelefono"));
+
+        // Extraer datos de perfil (opcionales)
+        Map<String, Object> datosPerfil = new HashMap<>();
+        for (String campo : CAMPOS_PERFIL) {
+            if (requestBody.containsKey(campo)) {
+                datosPerfil.put(campo, requestBody.get(campo));
+            }
+        }
+
+        Object usuario = requestBody.get("usuario");
+        return new RegistroUsuario(usuario != null ? usuario.toString() : null, datosSeguridad, datosPerfil);
+    }
+}
@@ -0,0 +1,43 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exige {@code Authorization: Bearer <token>} en las rutas que lo requieren y deja el
+ * token, sin el prefijo, en {@link SolicitudGateway#getToken()}.
+ *
+ * <p>Solo revisa la forma del header: el gateway no valida tokens, eso lo hace el
+ * Domain Service en cada llamada.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 40)
+public class AutenticacionFiltro implements FiltroGateway {
+
+    private static final String PREFIJO = "Bearer ";
+    private static final Rechazo SIN_TOKEN = new Rechazo(HttpStatus.UNAUTHORIZED, "Token de autenticación requerido");
+
+    private static final Eslabon ESLABON = new Eslabon() {
+        @Override
+        public Rechazo antes(SolicitudGateway solicitud) {
+            String autorizacion = solicitud.getAutorizacion();
+            if (autorizacion == null || !autorizacion.startsWith(PREFIJO)) {
+                return SIN_TOKEN;
+            }
+            solicitud.setToken(autorizacion.substring(PREFIJO.length()).trim());
+            return null;
+        }
+    };
+
+    @Override
+    public String nombre() {
+        return "auth";
+    }
+
+    @Override
+    public Eslabon para(RutaGateway ruta) {
+        return ruta.requiereToken() ? ESLABON : null;
+    }
+}
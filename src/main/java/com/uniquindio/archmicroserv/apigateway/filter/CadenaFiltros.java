@@ -0,0 +1,104 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cadena de filtros de una ruta, armada una sola vez por {@link FabricaCadenas}.
+ *
+ * <p>Los eslabones están en un arreglo plano, solo con los filtros que aplican a la ruta:
+ * por solicitud se recorre el arreglo una vez para {@link FiltroGateway.Eslabon#antes} y otra
+ * para envolver la respuesta, sin buscar ni descartar filtros.</p>
+ */
+public final class CadenaFiltros {
+
+    private final RutaGateway ruta;
+    private final FiltroGateway.Eslabon[] eslabones;
+    private final List<String> filtros;
+
+    CadenaFiltros(RutaGateway ruta, FiltroGateway.Eslabon[] eslabones, List<String> filtros) {
+        this.ruta = ruta;
+        this.eslabones = eslabones;
+        this.filtros = List.copyOf(filtros);
+    }
+
+    public RutaGateway getRuta() {
+        return ruta;
+    }
+
+    /**
+     * @return Nombres de los filtros de la cadena, en orden
+     */
+    public List<String> getFiltros() {
+        return filtros;
+    }
+
+    /**
+     * Ejecuta un endpoint con respuesta única.
+     *
+     * @param solicitud Datos de la solicitud para los filtros
+     * @param endpoint Lógica del endpoint; se invoca al suscribirse, solo si ningún filtro rechaza
+     * @return Respuesta del endpoint o del rechazo, envuelta por los filtros
+     */
+    public Mono<ResponseEntity<Map<String, Object>>> ejecutar(
+            SolicitudGateway solicitud,
+            Function<SolicitudGateway, Mono<ResponseEntity<Map<String, Object>>>> endpoint) {
+        Rechazo rechazo = antes(solicitud);
+        Mono<ResponseEntity<Map<String, Object>>> respuesta = rechazo != null
+                ? Mono.just(rechazo.respuesta())
+                : Mono.defer(() -> endpoint.apply(solicitud));
+        for (int i = eslabones.length - 1; i >= 0; i--) {
+            respuesta = eslabones[i].envolver(solicitud, respuesta);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Ejecuta un endpoint en streaming. Los filtros envuelven los elementos del cuerpo.
+     *
+     * @param solicitud Datos de la solicitud para los filtros
+     * @param endpoint Lógica del endpoint; solo se invoca si ningún filtro rechaza
+     * @return Respuesta del endpoint o del rechazo (un único elemento con el error)
+     */
+    public ResponseEntity<Flux<Map<String, Object>>> ejecutarFlujo(
+            SolicitudGateway solicitud,
+            Function<SolicitudGateway, ResponseEntity<Flux<Map<String, Object>>>> endpoint) {
+        Rechazo rechazo = antes(solicitud);
+        ResponseEntity<Flux<Map<String, Object>>> respuesta = rechazo != null
+                ? ResponseEntity.status(rechazo.estado()).headers(rechazo.encabezados()).body(Flux.just(rechazo.cuerpo()))
+                : endpoint.apply(solicitud);
+        Flux<Map<String, Object>> elementos = respuesta.getBody() != null ? respuesta.getBody() : Flux.empty();
+        for (int i = eslabones.length - 1; i >= 0; i--) {
+            elementos = eslabones[i].envolverFlujo(solicitud, elementos);
+        }
+        return new ResponseEntity<>(elementos, respuesta.getHeaders(), respuesta.getStatusCode());
+    }
+
+    /**
+     * Ejecuta solo {@link FiltroGateway.Eslabon#antes} de cada eslabón, para quien escribe la
+     * respuesta por su cuenta (por ejemplo, el proxy de rutas declarativas); los eslabones que
+     * envuelven la respuesta no se aplican.
+     *
+     * @return Rechazo del primer filtro que corta la cadena, o null para continuar
+     */
+    public Rechazo antes(SolicitudGateway solicitud) {
+        for (FiltroGateway.Eslabon eslabon : eslabones) {
+            Rechazo rechazo = eslabon.antes(solicitud);
+            if (rechazo != null) {
+                return rechazo;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return ruta.nombre() + Arrays.toString(filtros.toArray());
+    }
+}
@@ -0,0 +1,78 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Agrega encabezados fijos a las respuestas de una ruta.
+ *
+ * <p>Se configuran con {@code gateway.filters.headers.<ruta>=Nombre:valor,...} o, para todas
+ * las rutas, {@code gateway.filters.headers.default}. Las rutas sin encabezados no incluyen
+ * este filtro. En streaming no aplica, porque el estado y los encabezados los fija el
+ * endpoint.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class EncabezadosFiltro implements FiltroGateway {
+
+    private static final String PREFIJO = "gateway.filters.headers.";
+
+    private final Environment environment;
+
+    public EncabezadosFiltro(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String nombre() {
+        return "headers";
+    }
+
+    @Override
+    public boolean opcional() {
+        return true;
+    }
+
+    @Override
+    public Eslabon para(RutaGateway ruta) {
+        String configurados = environment.getProperty(PREFIJO + ruta.nombre(), environment.getProperty(PREFIJO + "default"));
+        HttpHeaders encabezados = parsear(configurados);
+        if (encabezados.isEmpty()) {
+            return null;
+        }
+        HttpHeaders agregados = HttpHeaders.readOnlyHttpHeaders(encabezados);
+        return new Eslabon() {
+            @Override
+            public Mono<ResponseEntity<Map<String, Object>>> envolver(
+                    SolicitudGateway solicitud, Mono<ResponseEntity<Map<String, Object>>> respuesta) {
+                return respuesta.map(entidad -> {
+                    HttpHeaders combinados = new HttpHeaders();
+                    combinados.putAll(entidad.getHeaders());
+                    combinados.putAll(agregados);
+                    return new ResponseEntity<>(entidad.getBody(), combinados, entidad.getStatusCode());
+                });
+            }
+        };
+    }
+
+    private static HttpHeaders parsear(String valor) {
+        HttpHeaders encabezados = new HttpHeaders();
+        if (valor == null) {
+            return encabezados;
+        }
+        for (String par : valor.split(",")) {
+            int separador = par.indexOf(':');
+            if (separador > 0) {
+                encabezados.add(par.substring(0, separador).trim(), par.substring(separador + 1).trim());
+            }
+        }
+        return encabezados;
+    }
+}
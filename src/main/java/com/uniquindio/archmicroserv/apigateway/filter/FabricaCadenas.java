@@ -0,0 +1,61 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arma la {@link CadenaFiltros} de cada ruta con los {@link FiltroGateway} registrados.
+ *
+ * <p>Los controllers piden sus cadenas al construirse. Los filtros opcionales con
+ * {@code gateway.filters.<nombre>.enabled=false} se descartan aquí y no llegan a ninguna
+ * cadena; deshabilitar uno que no es opcional ({@code auth}, {@code rate-limit},
+ * {@code error-mapping}) impide arrancar, porque los endpoints cuentan con él.</p>
+ */
+@Component
+public class FabricaCadenas {
+
+    private static final Logger log = LoggerFactory.getLogger(FabricaCadenas.class);
+
+    private final List<FiltroGateway> filtros;
+
+    /**
+     * @param filtros Filtros en el orden de la cadena
+     */
+    public FabricaCadenas(List<FiltroGateway> filtros, Environment environment) {
+        List<FiltroGateway> habilitados = new ArrayList<>();
+        for (FiltroGateway filtro : filtros) {
+            if (environment.getProperty("gateway.filters." + filtro.nombre() + ".enabled", Boolean.class, true)) {
+                habilitados.add(filtro);
+            } else if (filtro.opcional()) {
+                log.info("Filtro {} deshabilitado", filtro.nombre());
+            } else {
+                throw new IllegalStateException("El filtro " + filtro.nombre() + " no se puede deshabilitar");
+            }
+        }
+        this.filtros = List.copyOf(habilitados);
+    }
+
+    /**
+     * @param ruta Ruta a la que pertenece la cadena
+     * @return Cadena con los filtros que aplican a la ruta
+     */
+    public CadenaFiltros cadena(RutaGateway ruta) {
+        List<FiltroGateway.Eslabon> eslabones = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        for (FiltroGateway filtro : filtros) {
+            FiltroGateway.Eslabon eslabon = filtro.para(ruta);
+            if (eslabon != null) {
+                eslabones.add(eslabon);
+                nombres.add(filtro.nombre());
+            }
+        }
+        CadenaFiltros cadena = new CadenaFiltros(ruta, eslabones.toArray(FiltroGateway.Eslabon[]::new), nombres);
+        log.debug("Cadena de filtros {}", cadena);
+        return cadena;
+    }
+}
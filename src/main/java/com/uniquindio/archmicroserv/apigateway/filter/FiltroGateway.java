@@ -0,0 +1,71 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Aspecto transversal de los endpoints del gateway (autenticación, límite de tasa,
+ * métricas, encabezados, mapeo de errores) aplicado por {@link CadenaFiltros}.
+ *
+ * <p>El filtro no se ejecuta directamente: {@link FabricaCadenas} le pide una vez por ruta,
+ * al iniciar, el {@link Eslabon} para esa ruta. Un filtro que no aplica a la ruta o que está
+ * deshabilitado no forma parte de su cadena y no cuesta nada por solicitud.</p>
+ *
+ * <p>Los filtros son beans; su posición en la cadena la define {@code @Order}.</p>
+ */
+public interface FiltroGateway {
+
+    /**
+     * @return Nombre del filtro; si es {@link #opcional()} se deshabilita con
+     *         {@code gateway.filters.<nombre>.enabled=false}
+     */
+    String nombre();
+
+    /**
+     * @return true si el filtro se puede deshabilitar; los de seguridad no lo son
+     */
+    default boolean opcional() {
+        return false;
+    }
+
+    /**
+     * Prepara el filtro para una ruta. Se invoca una sola vez por ruta.
+     *
+     * @param ruta Ruta a la que se aplicará
+     * @return Eslabón para la ruta, o null si el filtro no aplica
+     */
+    Eslabon para(RutaGateway ruta);
+
+    /**
+     * Filtro ya preparado para una ruta. Los métodos por defecto no hacen nada.
+     */
+    interface Eslabon {
+
+        /**
+         * Se ejecuta antes del endpoint, en orden de la cadena.
+         *
+         * @return Rechazo que corta la cadena, o null para continuar
+         */
+        default Rechazo antes(SolicitudGateway solicitud) {
+            return null;
+        }
+
+        /**
+         * Envuelve la respuesta del endpoint (o del rechazo); el primer eslabón queda por fuera.
+         */
+        default Mono<ResponseEntity<Map<String, Object>>> envolver(
+                SolicitudGateway solicitud, Mono<ResponseEntity<Map<String, Object>>> respuesta) {
+            return respuesta;
+        }
+
+        /**
+         * Envuelve los elementos de un endpoint en streaming; el estado HTTP ya se envió.
+         */
+        default Flux<Map<String, Object>> envolverFlujo(SolicitudGateway solicitud, Flux<Map<String, Object>> elementos) {
+            return elementos;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimitadorTasa;
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimiteTasa;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aplica el límite de tasa por usuario de {@link RutaGateway#politicaLimite()}.
+ *
+ * <p>El {@link LimiteTasa} se obtiene al armar la cadena; las rutas sin política, o cuya
+ * política no está configurada, no incluyen este filtro. El límite por IP lo aplica
+ * {@code LimiteTasaFilter} antes de leer el cuerpo.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+public class LimiteTasaFiltro implements FiltroGateway {
+
+    private final LimitadorTasa limitadorTasa;
+
+    public LimiteTasaFiltro(LimitadorTasa limitadorTasa) {
+        this.limitadorTasa = limitadorTasa;
+    }
+
+    @Override
+    public String nombre() {
+        return "rate-limit";
+    }
+
+    @Override
+    public Eslabon para(RutaGateway ruta) {
+        if (ruta.politicaLimite() == null) {
+            return null;
+        }
+        LimiteTasa limite = limitadorTasa.limite(ruta.politicaLimite(), LimitadorTasa.DIMENSION_USUARIO);
+        if (limite == LimiteTasa.SIN_LIMITE) {
+            return null;
+        }
+        return new Eslabon() {
+            @Override
+            public Rechazo antes(SolicitudGateway solicitud) {
+                String usuario = solicitud.getUsuario();
+                if (usuario == null || limite.intentarConsumir(usuario)) {
+                    return null;
+                }
+                HttpHeaders encabezados = new HttpHeaders();
+                encabezados.set(HttpHeaders.RETRY_AFTER, String.valueOf(limite.segundosParaReintentar()));
+                return new Rechazo(HttpStatus.TOO_MANY_REQUESTS, "Demasiadas solicitudes, intente más tarde", encabezados);
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Convierte los errores que el endpoint no maneja en la respuesta estándar
+ * {@code {"error": true, "respuesta": ...}}.
+ *
+ * <p>Un error de un microservicio conserva su estado y el mensaje {@code respuesta} de su
+ * cuerpo, o {@link RutaGateway#mensajeError()} si no lo trae. Cualquier otro error responde
+ * {@link RutaGateway#estadoError()}. En streaming el error se informa en una última línea
+ * con {@code status}.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class MapeoErroresFiltro implements FiltroGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(MapeoErroresFiltro.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Override
+    public String nombre() {
+        return "error-mapping";
+    }
+
+    @Override
+    public Eslabon para(RutaGateway ruta) {
+        return new Eslabon() {
+            @Override
+            public Mono<ResponseEntity<Map<String, Object>>> envolver(
+                    SolicitudGateway solicitud, Mono<ResponseEntity<Map<String, Object>>> respuesta) {
+                return respuesta.onErrorResume(error -> {
+                    log.error("Error en {}: {}", ruta.nombre(), error.getMessage());
+                    return Mono.just(ResponseEntity.status(estado(ruta, error)).body(cuerpo(ruta, error)));
+                });
+            }
+
+            @Override
+            public Flux<Map<String, Object>> envolverFlujo(SolicitudGateway solicitud, Flux<Map<String, Object>> elementos) {
+                return elementos.onErrorResume(error -> {
+                    log.error("Error en {}: {}", ruta.nombre(), error.getMessage());
+                    Map<String, Object> fin = cuerpo(ruta, error);
+                    fin.put("status", estado(ruta, error));
+                    return Mono.just(fin);
+                });
+            }
+        };
+    }
+
+    private static int estado(RutaGateway ruta, Throwable error) {
+        return error instanceof WebClientResponseException webClientError
+                ? webClientError.getStatusCode().value()
+                : ruta.estadoError().value();
+    }
+
+    private static Map<String, Object> cuerpo(RutaGateway ruta, Throwable error) {
+        Map<String, Object> cuerpo = new HashMap<>();
+        cuerpo.put("error", true);
+        cuerpo.put("respuesta", error instanceof WebClientResponseException webClientError
+                ? mensajeError(webClientError, ruta.mensajeError())
+                : ruta.mensajeError());
+        return cuerpo;
+    }
+
+    /**
+     * @return El campo {@code respuesta} del cuerpo del error, o {@code porDefecto} si no lo trae
+     */
+    public static String mensajeError(WebClientResponseException error, String porDefecto) {
+        try {
+            String responseBody = error.getResponseBodyAsString();
+            if (responseBody.contains("\"respuesta\"")) {
+                Object respuesta = MAPPER.readValue(responseBody, Map.class).get("respuesta");
+                if (respuesta != null) {
+                    return respuesta.toString();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo parsear el mensaje de error: {}", e.getMessage());
+        }
+        return porDefecto;
+    }
+}
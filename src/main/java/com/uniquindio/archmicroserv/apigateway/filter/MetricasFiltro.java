@@ -0,0 +1,84 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra la latencia de cada ruta en el timer {@code gateway.requests}, con las
+ * etiquetas {@code ruta} y {@code estado} (código HTTP, o {@code error} si la cadena falla).
+ *
+ * <p>Es el primer filtro, así que también mide los rechazos. Sin {@link MeterRegistry}
+ * no forma parte de ninguna cadena.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class MetricasFiltro implements FiltroGateway {
+
+    static final String METRICA = "gateway.requests";
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public MetricasFiltro(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String nombre() {
+        return "metrics";
+    }
+
+    @Override
+    public boolean opcional() {
+        return true;
+    }
+
+    @Override
+    public Eslabon para(RutaGateway ruta) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return null;
+        }
+        Map<String, Timer> timers = new ConcurrentHashMap<>();
+        return new Eslabon() {
+            @Override
+            public Mono<ResponseEntity<Map<String, Object>>> envolver(
+                    SolicitudGateway solicitud, Mono<ResponseEntity<Map<String, Object>>> respuesta) {
+                return Mono.defer(() -> {
+                    long inicio = System.nanoTime();
+                    return respuesta
+                            .doOnNext(entidad -> registrar(String.valueOf(entidad.getStatusCode().value()), inicio))
+                            .doOnError(error -> registrar("error", inicio));
+                });
+            }
+
+            @Override
+            public Flux<Map<String, Object>> envolverFlujo(SolicitudGateway solicitud, Flux<Map<String, Object>> elementos) {
+                return Flux.defer(() -> {
+                    long inicio = System.nanoTime();
+                    return elementos
+                            .doOnComplete(() -> registrar("200", inicio))
+                            .doOnError(error -> registrar("error", inicio));
+                });
+            }
+
+            private void registrar(String estado, long inicio) {
+                timers.computeIfAbsent(estado, clave -> Timer.builder(METRICA)
+                                .tag("ruta", ruta.nombre())
+                                .tag("estado", clave)
+                                .register(meterRegistry))
+                        .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
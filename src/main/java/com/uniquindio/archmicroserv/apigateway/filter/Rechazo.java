@@ -0,0 +1,33 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Respuesta con la que un filtro corta la cadena antes de llegar al endpoint.
+ *
+ * @param estado Estado HTTP
+ * @param mensaje Mensaje de {@code respuesta}
+ * @param encabezados Encabezados adicionales (por ejemplo {@code Retry-After})
+ */
+public record Rechazo(HttpStatus estado, String mensaje, HttpHeaders encabezados) {
+
+    public Rechazo(HttpStatus estado, String mensaje) {
+        this(estado, mensaje, HttpHeaders.EMPTY);
+    }
+
+    Map<String, Object> cuerpo() {
+        Map<String, Object> cuerpo = new HashMap<>();
+        cuerpo.put("error", true);
+        cuerpo.put("respuesta", mensaje);
+        return cuerpo;
+    }
+
+    ResponseEntity<Map<String, Object>> respuesta() {
+        return ResponseEntity.status(estado).headers(encabezados).body(cuerpo());
+    }
+}
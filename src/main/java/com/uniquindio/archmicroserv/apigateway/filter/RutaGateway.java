@@ -0,0 +1,37 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Endpoint del gateway tal como lo ven los filtros al armar su cadena.
+ *
+ * @param nombre Nombre lógico, el mismo de su deadline (por ejemplo {@code usuarios.obtener})
+ * @param requiereToken Si exige el header {@code Authorization: Bearer}
+ * @param politicaLimite Política de {@code gateway.ratelimit.policies} por usuario, o null
+ * @param mensajeError Mensaje para los errores no manejados por el endpoint
+ * @param estadoError Estado para los errores no manejados que no vienen de un microservicio
+ */
+public record RutaGateway(
+        String nombre,
+        boolean requiereToken,
+        String politicaLimite,
+        String mensajeError,
+        HttpStatus estadoError
+) {
+
+    public static RutaGateway publica(String nombre, String mensajeError) {
+        return new RutaGateway(nombre, false, null, mensajeError, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    public static RutaGateway autenticada(String nombre, String mensajeError) {
+        return new RutaGateway(nombre, true, null, mensajeError, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    public RutaGateway conLimite(String politica) {
+        return new RutaGateway(nombre, requiereToken, politica, mensajeError, estadoError);
+    }
+
+    public RutaGateway conEstadoError(HttpStatus estado) {
+        return new RutaGateway(nombre, requiereToken, politicaLimite, mensajeError, estado);
+    }
+}
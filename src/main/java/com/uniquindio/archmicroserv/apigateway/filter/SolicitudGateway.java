@@ -0,0 +1,44 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+/**
+ * Datos de la solicitud que necesitan los filtros. La crea el endpoint y la completa
+ * la cadena (por ejemplo, el token ya extraído del header).
+ */
+public final class SolicitudGateway {
+
+    private final String autorizacion;
+    private final String usuario;
+    private String token;
+
+    /**
+     * @param autorizacion Valor del header {@code Authorization}, puede ser null
+     * @param usuario Usuario al que se refiere la solicitud, puede ser null
+     */
+    public SolicitudGateway(String autorizacion, String usuario) {
+        this.autorizacion = autorizacion;
+        this.usuario = usuario;
+    }
+
+    public static SolicitudGateway de(String autorizacion) {
+        return new SolicitudGateway(autorizacion, null);
+    }
+
+    public String getAutorizacion() {
+        return autorizacion;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+
+    /**
+     * @return Token sin el prefijo {@code Bearer}; null si la ruta no requiere token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    void setToken(String token) {
+        this.token = token;
+    }
+}
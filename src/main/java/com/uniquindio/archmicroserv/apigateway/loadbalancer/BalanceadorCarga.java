@@ -0,0 +1,237 @@
+package com.uniquindio.archmicroserv.apigateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balanceador de carga del lado del cliente para las instancias de un microservicio.
+ *
+ * <p>Elige la instancia con "power of two choices": toma dos instancias al azar y
+ * se queda con la de menor costo (latencia EWMA por solicitudes en vuelo). Las
+ * instancias con fallos consecutivos se expulsan temporalmente (detección pasiva
+ * de outliers) y la lista se vuelve a resolver periódicamente si se usa DNS.</p>
+ *
+ * <p>La lista de instancias se reemplaza completa (copy-on-write), por lo que
+ * {@link #elegir()} no toma ningún lock. {@link #actualizar} cambia destinos y
+ * política en caliente: las solicitudes en curso hacia instancias retiradas terminan
+ * normalmente y las nuevas ya no las eligen.</p>
+ */
+public class BalanceadorCarga implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceadorCarga.class);
+
+    private final String nombre;
+    private volatile List<URI> destinos;
+    private volatile PoliticaBalanceo politica;
+    private Disposable resolucionPeriodica;
+    private volatile List<InstanciaServicio> instancias = List.of();
+
+    public BalanceadorCarga(String nombre, List<URI> destinos, PoliticaBalanceo politica) {
+        this.nombre = nombre;
+        this.destinos = validar(nombre, destinos);
+        this.politica = politica;
+        resolver();
+        programarResolucion();
+    }
+
+    /**
+     * Reemplaza los destinos y la política conservando las estadísticas de las
+     * instancias que siguen presentes.
+     *
+     * @param destinos Nuevas URIs base de las instancias
+     * @param politica Nueva política de balanceo
+     */
+    public synchronized void actualizar(List<URI> destinos, PoliticaBalanceo politica) {
+        PoliticaBalanceo anterior = this.politica;
+        this.destinos = validar(nombre, destinos);
+        this.politica = politica;
+        resolver();
+        if (anterior.resolverDns() != politica.resolverDns()
+                || !anterior.intervaloResolucion().equals(politica.intervaloResolucion())) {
+            close();
+            programarResolucion();
+        }
+    }
+
+    private static List<URI> validar(String nombre, List<URI> destinos) {
+        if (destinos.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos una instancia para " + nombre);
+        }
+        return List.copyOf(destinos);
+    }
+
+    private synchronized void programarResolucion() {
+        PoliticaBalanceo actual = politica;
+        resolucionPeriodica = actual.resolverDns()
+                ? Flux.interval(actual.intervaloResolucion(), actual.intervaloResolucion(), Schedulers.boundedElastic())
+                        .subscribe(tick -> resolver())
+                : null;
+    }
+
+    /**
+     * Convierte una lista separada por comas en las URIs base de las instancias.
+     *
+     * @param urls Por ejemplo {@code http://a:8080,http://b:8080}
+     * @return URIs de las instancias configuradas
+     */
+    public static List<URI> parsear(String urls) {
+        return Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(URI::create)
+                .toList();
+    }
+
+    public List<InstanciaServicio> getInstancias() {
+        return instancias;
+    }
+
+    /**
+     * Elige la instancia que atenderá la próxima solicitud.
+     *
+     * @return Instancia elegida; si todas están expulsadas se elige igualmente una
+     */
+    public InstanciaServicio elegir() {
+        List<InstanciaServicio> actuales = instancias;
+        int total = actuales.size();
+        if (total == 1) {
+            return actuales.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(total);
+        int j = random.nextInt(total - 1);
+        if (j >= i) {
+            j++;
+        }
+        InstanciaServicio a = actuales.get(i);
+        InstanciaServicio b = actuales.get(j);
+
+        if (a.isExpulsada() && b.isExpulsada()) {
+            InstanciaServicio sana = buscarSana(actuales, random.nextInt(total));
+            return sana != null ? sana : (a.costo() <= b.costo() ? a : b);
+        }
+        if (a.isExpulsada()) {
+            return b;
+        }
+        if (b.isExpulsada()) {
+            return a;
+        }
+        return a.costo() <= b.costo() ? a : b;
+    }
+
+    /**
+     * Registra el resultado de una solicitud enviada a la instancia.
+     *
+     * @param instancia Instancia que atendió la solicitud
+     * @param latenciaNanos Tiempo hasta recibir la respuesta
+     * @param exitosa false ante errores de conexión o respuestas 5xx
+     */
+    public void registrarResultado(InstanciaServicio instancia, long latenciaNanos, boolean exitosa) {
+        PoliticaBalanceo politica = this.politica;
+        instancia.registrarLatencia(latenciaNanos, politica.decaimientoLatencia().toNanos());
+        if (exitosa) {
+            instancia.registrarExito();
+            return;
+        }
+        if (instancia.registrarFallo() >= politica.fallosParaExpulsion() && puedeExpulsar()) {
+            log.warn("Instancia {} de {} expulsada por {} fallos consecutivos durante {}",
+                    instancia, nombre, politica.fallosParaExpulsion(), politica.duracionExpulsion());
+            instancia.expulsar(politica.duracionExpulsion().toNanos());
+        }
+    }
+
+    /**
+     * Vuelve a calcular la lista de instancias conservando las estadísticas de
+     * las que siguen presentes. Si la resolución DNS falla se mantiene la lista anterior.
+     */
+    final synchronized void resolver() {
+        Map<URI, InstanciaServicio> anteriores = new HashMap<>();
+        for (InstanciaServicio instancia : instancias) {
+            anteriores.put(instancia.getUri(), instancia);
+        }
+
+        List<InstanciaServicio> nuevas = new ArrayList<>();
+        for (URI destino : destinos) {
+            for (URI uri : direcciones(destino)) {
+                nuevas.add(anteriores.getOrDefault(uri, new InstanciaServicio(uri, destino.getRawAuthority())));
+            }
+        }
+
+        if (nuevas.isEmpty()) {
+            return;
+        }
+        if (!nuevas.equals(instancias)) {
+            log.info("Instancias de {}: {}", nombre, nuevas);
+        }
+        instancias = List.copyOf(nuevas);
+    }
+
+    private List<URI> direcciones(URI destino) {
+        if (!politica.resolverDns()) {
+            return List.of(destino);
+        }
+        try {
+            List<URI> uris = new ArrayList<>();
+            for (InetAddress direccion : InetAddress.getAllByName(destino.getHost())) {
+                uris.add(URI.create(destino.getScheme() + "://" + formatear(direccion) + ":" + puerto(destino)));
+            }
+            return uris;
+        } catch (UnknownHostException e) {
+            log.warn("No se pudo resolver {} para {}: {}", destino.getHost(), nombre, e.getMessage());
+            List<URI> previas = new ArrayList<>();
+            for (InstanciaServicio instancia : instancias) {
+                previas.add(instancia.getUri());
+            }
+            return previas.isEmpty() ? List.of(destino) : previas;
+        }
+    }
+
+    private boolean puedeExpulsar() {
+        List<InstanciaServicio> actuales = instancias;
+        long expulsadas = actuales.stream().filter(InstanciaServicio::isExpulsada).count();
+        return (expulsadas + 1) * 100 <= (long) actuales.size() * politica.maxPorcentajeExpulsadas();
+    }
+
+    private static InstanciaServicio buscarSana(List<InstanciaServicio> instancias, int desde) {
+        for (int k = 0; k < instancias.size(); k++) {
+            InstanciaServicio candidata = instancias.get((desde + k) % instancias.size());
+            if (!candidata.isExpulsada()) {
+                return candidata;
+            }
+        }
+        return null;
+    }
+
+    private static String formatear(InetAddress direccion) {
+        String host = direccion.getHostAddress();
+        return host.contains(":") ? "[" + host + "]" : host;
+    }
+
+    private static int puerto(URI destino) {
+        if (destino.getPort() != -1) {
+            return destino.getPort();
+        }
+        return "https".equalsIgnoreCase(destino.getScheme()) ? 443 : 80;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (resolucionPeriodica != null) {
+            resolucionPeriodica.dispose();
+        }
+    }
+}
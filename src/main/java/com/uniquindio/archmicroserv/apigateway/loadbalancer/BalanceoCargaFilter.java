@@ -0,0 +1,58 @@
+package com.uniquindio.archmicroserv.apigateway.loadbalancer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Filtro de {@code WebClient} que envía cada solicitud a la instancia elegida
+ * por el {@link BalanceadorCarga} y le reporta la latencia y el resultado.
+ *
+ * <p>Cuando la instancia proviene de una resolución DNS se envía el header
+ * {@code Host} con el nombre lógico del servicio en lugar de la IP.</p>
+ */
+public class BalanceoCargaFilter implements ExchangeFilterFunction {
+
+    private final BalanceadorCarga balanceador;
+
+    public BalanceoCargaFilter(BalanceadorCarga balanceador) {
+        this.balanceador = balanceador;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            InstanciaServicio instancia = balanceador.elegir();
+            URI destino = instancia.getUri();
+            URI url = UriComponentsBuilder.fromUri(request.url())
+                    .scheme(destino.getScheme())
+                    .host(destino.getHost())
+                    .port(destino.getPort())
+                    .build(true)
+                    .toUri();
+
+            ClientRequest balanceada = ClientRequest.from(request)
+                    .url(url)
+                    .headers(headers -> {
+                        if (!instancia.getAutoridad().equals(destino.getRawAuthority())) {
+                            headers.set(HttpHeaders.HOST, instancia.getAutoridad());
+                        }
+                    })
+                    .build();
+
+            long inicio = System.nanoTime();
+            instancia.iniciarSolicitud();
+            return next.exchange(balanceada)
+                    .doOnNext(response -> balanceador.registrarResultado(
+                            instancia, System.nanoTime() - inicio, !response.statusCode().is5xxServerError()))
+                    .doOnError(error -> balanceador.registrarResultado(instancia, System.nanoTime() - inicio, false))
+                    .doFinally(signal -> instancia.finalizarSolicitud());
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.uniquindio.archmicroserv.apigateway.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Instancia concreta de un microservicio junto con las estadísticas que usa
+ * el balanceador: solicitudes en vuelo, latencia EWMA y fallos consecutivos.
+ *
+ * <p>Las actualizaciones de la latencia no son atómicas: ante escrituras concurrentes
+ * puede perderse alguna muestra, lo cual es aceptable para una estimación.</p>
+ */
+public class InstanciaServicio {
+
+    private final URI uri;
+    private final String autoridad;
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final AtomicInteger fallosConsecutivos = new AtomicInteger();
+    private volatile double latenciaEwmaNanos;
+    private volatile long ultimaMuestraNanos = System.nanoTime();
+    private volatile boolean expulsada;
+    private volatile long expulsadaHastaNanos;
+
+    public InstanciaServicio(URI uri) {
+        this(uri, uri.getRawAuthority());
+    }
+
+    /**
+     * @param uri Dirección concreta de la instancia
+     * @param autoridad Host lógico con el que se debe identificar la solicitud
+     *                  (distinto de la URI cuando la instancia se resolvió por DNS)
+     */
+    public InstanciaServicio(URI uri, String autoridad) {
+        this.uri = uri;
+        this.autoridad = autoridad;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getAutoridad() {
+        return autoridad;
+    }
+
+    public int getEnVuelo() {
+        return enVuelo.get();
+    }
+
+    public double getLatenciaEwmaNanos() {
+        return latenciaEwmaNanos;
+    }
+
+    void iniciarSolicitud() {
+        enVuelo.incrementAndGet();
+    }
+
+    void finalizarSolicitud() {
+        enVuelo.decrementAndGet();
+    }
+
+    /**
+     * Costo estimado de enviar una solicitud más a esta instancia.
+     * Una instancia sin muestras tiene latencia cero y solo cuenta su carga.
+     */
+    double costo() {
+        return (latenciaEwmaNanos + 1) * (enVuelo.get() + 1);
+    }
+
+    /**
+     * Registra la latencia de una solicitud con un EWMA que decae con el tiempo:
+     * cuanto más antigua es la última muestra, más pesa la nueva.
+     */
+    void registrarLatencia(long latenciaNanos, long constanteDecaimientoNanos) {
+        long ahora = System.nanoTime();
+        double transcurrido = Math.max(0, ahora - ultimaMuestraNanos);
+        double peso = Math.exp(-transcurrido / constanteDecaimientoNanos);
+        ultimaMuestraNanos = ahora;
+        latenciaEwmaNanos = latenciaEwmaNanos * peso + latenciaNanos * (1 - peso);
+    }
+
+    void registrarExito() {
+        fallosConsecutivos.set(0);
+    }
+
+    /**
+     * @return Cantidad de fallos consecutivos incluyendo el actual
+     */
+    int registrarFallo() {
+        return fallosConsecutivos.incrementAndGet();
+    }
+
+    void expulsar(long duracionNanos) {
+        fallosConsecutivos.set(0);
+        expulsadaHastaNanos = System.nanoTime() + duracionNanos;
+        expulsada = true;
+    }
+
+    /**
+     * El plazo solo se compara si hubo una expulsión: {@link System#nanoTime()} puede ser
+     * negativo, así que un plazo en cero no sirve para representar "nunca expulsada".
+     */
+    public boolean isExpulsada() {
+        if (!expulsada) {
+            return false;
+        }
+        if (expulsadaHastaNanos - System.nanoTime() > 0) {
+            return true;
+        }
+        expulsada = false;
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
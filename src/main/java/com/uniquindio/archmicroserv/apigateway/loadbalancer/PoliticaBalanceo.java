@@ -0,0 +1,23 @@
+package com.uniquindio.archmicroserv.apigateway.loadbalancer;
+
+import java.time.Duration;
+
+/**
+ * Parámetros del balanceo de carga hacia un microservicio.
+ *
+ * @param resolverDns Si cada host se resuelve a todas sus direcciones IP
+ * @param intervaloResolucion Cada cuánto se vuelve a resolver la lista de instancias
+ * @param fallosParaExpulsion Fallos consecutivos que expulsan temporalmente una instancia
+ * @param duracionExpulsion Tiempo que una instancia expulsada deja de recibir tráfico
+ * @param maxPorcentajeExpulsadas Porcentaje máximo de instancias expulsadas a la vez
+ * @param decaimientoLatencia Constante de tiempo del EWMA de latencia
+ */
+public record PoliticaBalanceo(
+        boolean resolverDns,
+        Duration intervaloResolucion,
+        int fallosParaExpulsion,
+        Duration duracionExpulsion,
+        int maxPorcentajeExpulsadas,
+        Duration decaimientoLatencia
+) {
+}
@@ -0,0 +1,52 @@
+package com.uniquindio.archmicroserv.apigateway.messaging;
+
+import com.uniquindio.archmicroserv.apigateway.service.CachePerfiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invalida {@link CachePerfiles} con los eventos de {@code dominio.events}, para que los
+ * cambios hechos por otras réplicas o directamente en los microservicios no esperen al
+ * TTL.
+ *
+ * <p>Cada réplica tiene su propia cola, así que todas borran su copia local; el borrado
+ * en la caché compartida se repite una vez por réplica, lo que no tiene efecto. Con
+ * {@code gateway.profile-cache.events.invalidation-types} vacío cualquier evento con
+ * {@code datos.usuario} invalida.</p>
+ */
+@Service
+@ConditionalOnProperty(name = {"spring.rabbitmq.host", "gateway.profile-cache.events.enabled"}, matchIfMissing = false)
+@Profile("!test")
+public class CachePerfilesListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CachePerfilesListener.class);
+    private final CachePerfiles cachePerfiles;
+    private final List<String> tiposInvalidacion;
+
+    public CachePerfilesListener(
+            CachePerfiles cachePerfiles,
+            @Value("${gateway.profile-cache.events.invalidation-types:}") List<String> tiposInvalidacion) {
+        this.cachePerfiles = cachePerfiles;
+        this.tiposInvalidacion = tiposInvalidacion.stream().map(String::trim).filter(tipo -> !tipo.isEmpty()).toList();
+    }
+
+    @RabbitListener(queues = "#{colaCachePerfiles.name}")
+    public void procesar(Map<String, Object> evento) {
+        Object tipo = evento.get("tipoAccion");
+        if (!(evento.get("datos") instanceof Map<?, ?> datos) || !(datos.get("usuario") instanceof String usuario)) {
+            return;
+        }
+        if (tiposInvalidacion.isEmpty() || tiposInvalidacion.contains(tipo)) {
+            log.debug("Evento {} de {}, se invalida su perfil en caché", tipo, usuario);
+            cachePerfiles.invalidar(usuario);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -35,18 +36,7 @@ public class EventoPublisher {
 
     public void publicarEventoEliminacion(String usuario, String correo) {
         log.info("Publicando evento de eliminación de usuario: {}", usuario);
-        
-        // Crear el evento como Map para evitar problemas de serialización
-        Map<String, Object> evento = new HashMap<>();
-        evento.put("id", UUID.randomUUID().toString());
-        evento.put("tipoAccion", "ELIMINACION_USUARIO");
-        evento.put("fechaCreacion", Instant.now().toString());
-        
-        Map<String, Object> datos = new HashMap<>();
-        datos.put("usuario", usuario);
-        datos.put("correo", correo != null ? correo : "");
-        datos.put("fechaEliminacion", Instant.now().toString());
-        evento.put("datos", datos);
+        Map<String, Object> evento = crearEventoEliminacion(usuario, correo);
 
         try {
             rabbitTemplate.convertAndSend(
@@ -60,5 +50,50 @@ public class EventoPublisher {
             // No lanzar excepción para no interrumpir el flujo de eliminación
         }
     }
+
+    /**
+     * Publica un evento {@code ELIMINACION_USUARIO} por cada usuario usando un único canal,
+     * en lugar de obtener un canal por mensaje como {@link #publicarEventoEliminacion}.
+     *
+     * @param usuariosEliminados Lista de pares usuario y correo (el correo puede ser vacío)
+     * @return Cantidad de eventos publicados; 0 si el lote falló
+     */
+    public int publicarEventosEliminacion(List<Map.Entry<String, String>> usuariosEliminados) {
+        if (usuariosEliminados.isEmpty()) {
+            return 0;
+        }
+        log.info("Publicando {} eventos de eliminación en lote", usuariosEliminados.size());
+        try {
+            rabbitTemplate.invoke(operaciones -> {
+                for (Map.Entry<String, String> eliminado : usuariosEliminados) {
+                    operaciones.convertAndSend(
+                            RabbitMQConfig.DOMINIO_EVENTS_EXCHANGE,
+                            "auth.deleted",
+                            crearEventoEliminacion(eliminado.getKey(), eliminado.getValue())
+                    );
+                }
+                return null;
+            });
+            return usuariosEliminados.size();
+        } catch (Exception e) {
+            log.error("Error publicando lote de {} eventos de eliminación: {}", usuariosEliminados.size(), e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    private Map<String, Object> crearEventoEliminacion(String usuario, String correo) {
+        // Crear el evento como Map para evitar problemas de serialización
+        Map<String, Object> evento = new HashMap<>();
+        evento.put("id", UUID.randomUUID().toString());
+        evento.put("tipoAccion", "ELIMINACION_USUARIO");
+        evento.put("fechaCreacion", Instant.now().toString());
+        
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("usuario", usuario);
+        datos.put("correo", correo != null ? correo : "");
+        datos.put("fechaEliminacion", Instant.now().toString());
+        evento.put("datos", datos);
+        return evento;
+    }
 }
 
@@ -0,0 +1,52 @@
+package com.uniquindio.archmicroserv.apigateway.messaging;
+
+import com.uniquindio.archmicroserv.apigateway.service.NoEncontrados;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Olvida los {@code 404} recordados en {@link NoEncontrados} con los eventos de registro de
+ * {@code dominio.events}, para que un usuario creado en otra instancia o directamente en el
+ * Domain Service no siga respondiendo {@code 404} aquí hasta que venza la entrada.
+ *
+ * <p>Existe siempre que la caché negativa esté activa ({@code gateway.negative-cache.ttl-ms}
+ * mayor que 0), con su propia cola por réplica, independiente de
+ * {@link UsuariosRegistradosListener}.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "spring.rabbitmq.host", matchIfMissing = false)
+@ConditionalOnExpression("${gateway.negative-cache.ttl-ms:0} > 0")
+@Profile("!test")
+public class NoEncontradosListener {
+
+    private static final Logger log = LoggerFactory.getLogger(NoEncontradosListener.class);
+    private final NoEncontrados noEncontrados;
+    private final List<String> tiposRegistro;
+
+    public NoEncontradosListener(
+            NoEncontrados noEncontrados,
+            @Value("${gateway.negative-cache.events.registration-types:REGISTRO_USUARIO}") List<String> tiposRegistro) {
+        this.noEncontrados = noEncontrados;
+        this.tiposRegistro = tiposRegistro;
+    }
+
+    @RabbitListener(queues = "#{colaNoEncontrados.name}")
+    public void procesar(Map<String, Object> evento) {
+        Object tipo = evento.get("tipoAccion");
+        if (!tiposRegistro.contains(tipo)
+                || !(evento.get("datos") instanceof Map<?, ?> datos) || !(datos.get("usuario") instanceof String usuario)) {
+            return;
+        }
+        log.debug("Usuario {} registrado, se olvidan sus 404 recordados", usuario);
+        noEncontrados.invalidar(usuario);
+    }
+}
@@ -0,0 +1,61 @@
+package com.uniquindio.archmicroserv.apigateway.messaging;
+
+import com.uniquindio.archmicroserv.apigateway.service.UsuariosRegistrados;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene {@link UsuariosRegistrados} con los eventos de {@code dominio.events}, para
+ * conocer también a los usuarios registrados o eliminados por otras instancias o servicios.
+ *
+ * <p>Los tipos de evento se reconocen por {@code tipoAccion}; los de eliminación incluyen
+ * los que publica {@link EventoPublisher}. Las eliminaciones solo llegan por aquí, así que
+ * sin RabbitMQ un usuario eliminado sigue figurando como probable, que es el lado seguro
+ * del filtro.</p>
+ *
+ * <p>Los {@code 404} recordados los olvida {@link NoEncontradosListener}, que no depende de
+ * {@code gateway.known-users.enabled}.</p>
+ */
+@Service
+@ConditionalOnProperty(name = {"spring.rabbitmq.host", "gateway.known-users.enabled"}, matchIfMissing = false)
+@Profile("!test")
+public class UsuariosRegistradosListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UsuariosRegistradosListener.class);
+    private final UsuariosRegistrados usuariosRegistrados;
+    private final List<String> tiposRegistro;
+    private final List<String> tiposEliminacion;
+
+    public UsuariosRegistradosListener(
+            UsuariosRegistrados usuariosRegistrados,
+            @Value("${gateway.known-users.events.registration-types:REGISTRO_USUARIO}") List<String> tiposRegistro,
+            @Value("${gateway.known-users.events.deletion-types:ELIMINACION_USUARIO}") List<String> tiposEliminacion) {
+        this.usuariosRegistrados = usuariosRegistrados;
+        this.tiposRegistro = tiposRegistro;
+        this.tiposEliminacion = tiposEliminacion;
+    }
+
+    @RabbitListener(queues = "#{colaUsuariosRegistrados.name}")
+    public void procesar(Map<String, Object> evento) {
+        Object tipo = evento.get("tipoAccion");
+        if (!(evento.get("datos") instanceof Map<?, ?> datos)) {
+            return;
+        }
+        String usuario = datos.get("usuario") instanceof String valor ? valor : null;
+        String correo = datos.get("correo") instanceof String valor ? valor : null;
+        if (tiposRegistro.contains(tipo)) {
+            usuariosRegistrados.agregar(usuario, correo);
+        } else if (tiposEliminacion.contains(tipo)) {
+            log.debug("Usuario {} eliminado, se quita del filtro de usuarios existentes", usuario);
+            usuariosRegistrados.quitar(usuario, correo);
+        }
+    }
+}
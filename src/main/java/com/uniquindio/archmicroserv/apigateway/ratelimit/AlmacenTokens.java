@@ -0,0 +1,25 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Almacén central de token buckets compartido por todas las réplicas del gateway.
+ *
+ * <p>Las réplicas no consultan el almacén por cada solicitud: reservan lotes de
+ * tokens y los consumen localmente (ver {@link LimiteTasaDistribuido}). Para un
+ * despliegue con varias réplicas se registra un bean con una implementación
+ * respaldada por un almacén externo; sin él el modo compartido no arranca.
+ * {@link AlmacenTokensMemoria} es solo para pruebas.</p>
+ */
+public interface AlmacenTokens {
+
+    /**
+     * Reserva hasta {@code solicitados} tokens del bucket global de la clave.
+     *
+     * @param clave Clave global (ruta, dimensión y cliente)
+     * @param solicitados Tokens que la réplica quiere reservar
+     * @param politica Política del bucket
+     * @return Tokens concedidos, entre 0 y {@code solicitados}
+     */
+    Mono<Long> reservar(String clave, long solicitados, PoliticaLimite politica);
+}
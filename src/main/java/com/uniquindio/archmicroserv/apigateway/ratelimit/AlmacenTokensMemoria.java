@@ -0,0 +1,57 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link AlmacenTokens} en memoria del proceso.
+ *
+ * <p>Aplica el mismo GCRA que {@link LimiteTasaLocal}, pero concediendo lotes. Sirve
+ * para pruebas; no comparte estado entre procesos, así que no se registra como bean.</p>
+ */
+public class AlmacenTokensMemoria implements AlmacenTokens {
+
+    private static final int MAX_CLAVES = 100_000;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier reloj;
+
+    public AlmacenTokensMemoria() {
+        this(System::nanoTime);
+    }
+
+    AlmacenTokensMemoria(LongSupplier reloj) {
+        this.reloj = reloj;
+    }
+
+    @Override
+    public Mono<Long> reservar(String clave, long solicitados, PoliticaLimite politica) {
+        return Mono.fromSupplier(() -> reservarAhora(clave, solicitados, politica));
+    }
+
+    private long reservarAhora(String clave, long solicitados, PoliticaLimite politica) {
+        long ahora = reloj.getAsLong();
+        long nanosPorToken = politica.nanosPorToken();
+        long tolerancia = politica.capacidad() * nanosPorToken;
+        AtomicLong bucket = buckets.computeIfAbsent(clave, k -> new AtomicLong(ahora));
+        while (true) {
+            long llegadaTeorica = bucket.get();
+            long base = Math.max(llegadaTeorica, ahora);
+            long disponibles = (tolerancia - (base - ahora)) / nanosPorToken;
+            long concedidos = Math.max(0, Math.min(solicitados, disponibles));
+            if (concedidos == 0) {
+                return 0;
+            }
+            if (bucket.compareAndSet(llegadaTeorica, base + concedidos * nanosPorToken)) {
+                if (buckets.size() > MAX_CLAVES) {
+                    // Un bucket lleno equivale a no tener entrada
+                    buckets.values().removeIf(b -> b.get() <= ahora);
+                }
+                return concedidos;
+            }
+        }
+    }
+}
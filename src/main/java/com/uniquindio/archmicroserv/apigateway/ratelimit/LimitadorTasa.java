@@ -0,0 +1,100 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de los límites de tasa configurados por ruta y dimensión.
+ *
+ * <p>Cada política se define con
+ * {@code gateway.ratelimit.policies.<ruta>.<dimension>.capacity} y
+ * {@code gateway.ratelimit.policies.<ruta>.<dimension>.refill-per-second}.
+ * Las rutas sin política no se limitan.</p>
+ *
+ * <p>Con {@code gateway.ratelimit.mode=shared} los límites son globales entre réplicas
+ * ({@link LimiteTasaDistribuido}) usando el bean {@link AlmacenTokens} registrado; sin
+ * ninguno no arranca, porque cada réplica aplicaría el límite completo por su cuenta. El
+ * modo por defecto, {@code local}, aplica los límites por réplica.</p>
+ *
+ * <p>Los consumidores obtienen el {@link LimiteTasa} una sola vez (al construirse)
+ * para no buscar la política en cada solicitud.</p>
+ */
+@Component
+public class LimitadorTasa {
+
+    public static final String DIMENSION_IP = "ip";
+    public static final String DIMENSION_USUARIO = "usuario";
+
+    private static final Logger log = LoggerFactory.getLogger(LimitadorTasa.class);
+    private static final String PREFIJO = "gateway.ratelimit.policies.";
+
+    private final Environment environment;
+    private final boolean habilitado;
+    private final int maxClaves;
+    private final boolean compartido;
+    private final AlmacenTokens almacen;
+    private final Map<String, LimiteTasa> limites = new ConcurrentHashMap<>();
+
+    public LimitadorTasa(Environment environment) {
+        this(environment, (AlmacenTokens) null);
+    }
+
+    @Autowired
+    public LimitadorTasa(Environment environment, ObjectProvider<AlmacenTokens> almacen) {
+        this(environment, almacen.getIfAvailable());
+    }
+
+    /**
+     * @param almacen Almacén compartido; null solo en modo {@code local}
+     */
+    LimitadorTasa(Environment environment, AlmacenTokens almacen) {
+        this.environment = environment;
+        this.habilitado = environment.getProperty("gateway.ratelimit.enabled", Boolean.class, true);
+        this.maxClaves = environment.getProperty("gateway.ratelimit.max-keys", Integer.class, 100_000);
+        this.compartido = "shared".equalsIgnoreCase(environment.getProperty("gateway.ratelimit.mode", "local"));
+        if (compartido && almacen == null) {
+            throw new IllegalStateException(
+                    "gateway.ratelimit.mode=shared requiere un bean AlmacenTokens respaldado por un almacén compartido");
+        }
+        this.almacen = almacen;
+    }
+
+    /**
+     * @param ruta Nombre de la ruta (por ejemplo {@code login})
+     * @param dimension {@link #DIMENSION_IP} o {@link #DIMENSION_USUARIO}
+     * @return Límite configurado, o {@link LimiteTasa#SIN_LIMITE} si no hay política
+     */
+    public LimiteTasa limite(String ruta, String dimension) {
+        return limites.computeIfAbsent(ruta + "." + dimension, this::crear);
+    }
+
+    private LimiteTasa crear(String clave) {
+        Long capacidad = environment.getProperty(PREFIJO + clave + ".capacity", Long.class);
+        Double tokensPorSegundo = environment.getProperty(PREFIJO + clave + ".refill-per-second", Double.class);
+        if (!habilitado || capacidad == null || tokensPorSegundo == null) {
+            return LimiteTasa.SIN_LIMITE;
+        }
+        PoliticaLimite politica = new PoliticaLimite(capacidad, tokensPorSegundo);
+        log.info("Límite de tasa {} ({}): ráfaga {} y {} solicitudes/s",
+                clave, compartido ? "compartido" : "local", capacidad, tokensPorSegundo);
+        if (!compartido) {
+            return new LimiteTasaLocal(politica, maxClaves);
+        }
+        return new LimiteTasaDistribuido(
+                clave,
+                politica,
+                almacen,
+                environment.getProperty("gateway.ratelimit.shared.batch-size", Long.class, 10L),
+                Duration.ofMillis(environment.getProperty("gateway.ratelimit.shared.lease-ttl-ms", Long.class, 1000L)),
+                Duration.ofMillis(environment.getProperty("gateway.ratelimit.shared.reserve-timeout-ms", Long.class, 50L)),
+                maxClaves);
+    }
+}
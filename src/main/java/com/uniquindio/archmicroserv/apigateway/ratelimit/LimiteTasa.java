@@ -0,0 +1,33 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+/**
+ * Límite de tasa de una ruta para una dimensión concreta (IP del cliente, usuario...).
+ */
+public interface LimiteTasa {
+
+    /** Límite que admite todas las solicitudes, usado cuando la ruta no tiene política. */
+    LimiteTasa SIN_LIMITE = new LimiteTasa() {
+        @Override
+        public boolean intentarConsumir(String clave) {
+            return true;
+        }
+
+        @Override
+        public long segundosParaReintentar() {
+            return 0;
+        }
+    };
+
+    /**
+     * Consume un token del bucket asociado a la clave.
+     *
+     * @param clave Identificador del cliente en esta dimensión
+     * @return true si la solicitud está dentro del límite
+     */
+    boolean intentarConsumir(String clave);
+
+    /**
+     * @return Segundos sugeridos en el header {@code Retry-After} al rechazar
+     */
+    long segundosParaReintentar();
+}
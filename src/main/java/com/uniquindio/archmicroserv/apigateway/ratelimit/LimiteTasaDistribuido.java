@@ -0,0 +1,281 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite de tasa global entre réplicas que decide localmente casi siempre.
+ *
+ * <p>Cada réplica reserva lotes de tokens del {@link AlmacenTokens} y los consume sin
+ * salir del proceso. Cuando el saldo local baja de la mitad del lote se pide otro en
+ * segundo plano. El hilo de la solicitud nunca espera al almacén: con el saldo agotado y
+ * una reserva en curso se adelantan hasta medio lote, que quedan como saldo negativo y se
+ * descuentan de las próximas reservas, así lo concedido no excede lo reservado en más de
+ * medio lote por réplica. Si la última reserva no concedió tokens se rechaza sin consultar
+ * hasta que el bucket global recargue uno. Las reservas que no responden en
+ * {@code tiempoMaximoReserva} se abandonan. Los saldos caducan tras {@code vigencia} para
+ * que una réplica inactiva no retenga tokens que otra necesita.</p>
+ *
+ * <p>Las claves se reparten en franjas como en {@link LimiteTasaLocal}. Con una franja
+ * llena se barren los saldos sin uso, como mucho una vez por {@code vigencia} y por
+ * franja; si aun así no hay lugar, la clave nueva se decide con el límite local sin
+ * guardar saldo.</p>
+ *
+ * <p>Si el almacén falla se aplica el límite local de la réplica durante {@code vigencia},
+ * sin volver a consultarlo.</p>
+ */
+public class LimiteTasaDistribuido implements LimiteTasa {
+
+    private static final Logger log = LoggerFactory.getLogger(LimiteTasaDistribuido.class);
+    private static final int FRANJAS = 64;
+
+    private final String nombre;
+    private final PoliticaLimite politica;
+    private final AlmacenTokens almacen;
+    private final LimiteTasa respaldo;
+    private final long lote;
+    private final long vigenciaNanos;
+    private final Duration tiempoMaximoReserva;
+    private final int maxClavesPorFranja;
+    private final LongSupplier reloj;
+    private final Franja[] franjas = new Franja[FRANJAS];
+
+    public LimiteTasaDistribuido(
+            String nombre,
+            PoliticaLimite politica,
+            AlmacenTokens almacen,
+            long lote,
+            Duration vigencia,
+            Duration tiempoMaximoReserva,
+            int maxClaves) {
+        this(nombre, politica, almacen, lote, vigencia, tiempoMaximoReserva, maxClaves, System::nanoTime);
+    }
+
+    LimiteTasaDistribuido(
+            String nombre,
+            PoliticaLimite politica,
+            AlmacenTokens almacen,
+            long lote,
+            Duration vigencia,
+            Duration tiempoMaximoReserva,
+            int maxClaves,
+            LongSupplier reloj) {
+        this.nombre = nombre;
+        this.politica = politica;
+        this.almacen = almacen;
+        this.respaldo = new LimiteTasaLocal(politica, maxClaves, reloj);
+        // Lotes grandes frente a la capacidad harían que una réplica acapare la ráfaga
+        this.lote = Math.max(1, Math.min(lote, politica.capacidad() / 4));
+        this.vigenciaNanos = vigencia.toNanos();
+        this.tiempoMaximoReserva = tiempoMaximoReserva;
+        this.maxClavesPorFranja = Math.max(1, maxClaves / FRANJAS);
+        this.reloj = reloj;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja(reloj.getAsLong() - vigenciaNanos);
+        }
+    }
+
+    @Override
+    public boolean intentarConsumir(String clave) {
+        Concesion concesion = concesion(clave);
+        if (concesion == null || concesion.almacenCaido()) {
+            return respaldo.intentarConsumir(clave);
+        }
+        if (concesion.consumir()) {
+            return true;
+        }
+        if (concesion.agotada()) {
+            return false;
+        }
+        CompletableFuture<Long> reserva = concesion.reponer();
+        if (!reserva.isDone()) {
+            return concesion.anticipar();
+        }
+        try {
+            return reserva.getNow(0L) > 0 && concesion.consumir();
+        } catch (CompletionException | CancellationException e) {
+            log.debug("Almacén de tokens no disponible para {}, usando límite local: {}", nombre, e.toString());
+            return respaldo.intentarConsumir(clave);
+        }
+    }
+
+    @Override
+    public long segundosParaReintentar() {
+        return politica.segundosPorToken();
+    }
+
+    /**
+     * @return Cantidad de claves con saldo en memoria
+     */
+    int claves() {
+        int total = 0;
+        for (Franja franja : franjas) {
+            total += franja.concesiones.size();
+        }
+        return total;
+    }
+
+    /**
+     * @return Saldo de la clave, o null si su franja está llena y no se pudo liberar lugar
+     */
+    private Concesion concesion(String clave) {
+        Franja franja = franjas[indice(clave)];
+        Concesion concesion = franja.concesiones.get(clave);
+        if (concesion != null) {
+            return concesion;
+        }
+        if (franja.concesiones.size() >= maxClavesPorFranja) {
+            franja.barrer(reloj.getAsLong());
+            if (franja.concesiones.size() >= maxClavesPorFranja) {
+                return null;
+            }
+        }
+        return franja.concesiones.computeIfAbsent(clave, k -> new Concesion(nombre + ":" + k));
+    }
+
+    private static int indice(String clave) {
+        int h = clave.hashCode();
+        return (h ^ (h >>> 16)) & (FRANJAS - 1);
+    }
+
+    private final class Franja {
+
+        private final ConcurrentHashMap<String, Concesion> concesiones = new ConcurrentHashMap<>();
+        private final AtomicBoolean barriendo = new AtomicBoolean();
+        private volatile long ultimoBarrido;
+
+        private Franja(long ultimoBarrido) {
+            this.ultimoBarrido = ultimoBarrido;
+        }
+
+        /**
+         * Quita los saldos vacíos o vencidos. Solo un hilo barre a la vez y, como los saldos
+         * vencen tras {@code vigencia}, barrer más seguido no liberaría más lugar.
+         */
+        private void barrer(long ahora) {
+            if (ahora - ultimoBarrido < vigenciaNanos || !barriendo.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                ultimoBarrido = ahora;
+                concesiones.values().removeIf(c -> c.reserva.get() == null && (c.saldo.get() == 0 || c.vence <= ahora));
+            } finally {
+                barriendo.set(false);
+            }
+        }
+    }
+
+    /**
+     * Tokens reservados por esta réplica para una clave.
+     */
+    private final class Concesion {
+
+        private final String claveGlobal;
+        private final AtomicLong saldo = new AtomicLong();
+        private final AtomicReference<CompletableFuture<Long>> reserva = new AtomicReference<>();
+        private volatile long vence;
+        private volatile long agotadaHasta;
+        private volatile long caidoHasta;
+
+        private Concesion(String claveGlobal) {
+            this.claveGlobal = claveGlobal;
+        }
+
+        private boolean consumir() {
+            if (saldo.get() > 0 && vence - reloj.getAsLong() <= 0) {
+                saldo.set(0);
+            }
+            while (true) {
+                long actual = saldo.get();
+                if (actual <= 0) {
+                    return false;
+                }
+                if (saldo.compareAndSet(actual, actual - 1)) {
+                    if (actual - 1 <= lote / 2) {
+                        reponer();
+                    }
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Concede un token a cuenta de la reserva en curso, hasta medio lote de deuda.
+         */
+        private boolean anticipar() {
+            long maximo = -Math.max(1, lote / 2);
+            while (true) {
+                long actual = saldo.get();
+                if (actual <= maximo) {
+                    return false;
+                }
+                if (saldo.compareAndSet(actual, actual - 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return true si la última reserva falló y aún no pasó {@code vigencia}
+         */
+        private boolean almacenCaido() {
+            return caidoHasta - reloj.getAsLong() > 0;
+        }
+
+        /**
+         * @return true si la última reserva no concedió tokens y el bucket global aún no recargó uno
+         */
+        private boolean agotada() {
+            return agotadaHasta - reloj.getAsLong() > 0;
+        }
+
+        /**
+         * Pide un lote al almacén, o devuelve la reserva que ya está en curso.
+         */
+        private CompletableFuture<Long> reponer() {
+            CompletableFuture<Long> enCurso = reserva.get();
+            if (enCurso != null) {
+                return enCurso;
+            }
+            CompletableFuture<Long> nueva = new CompletableFuture<>();
+            if (!reserva.compareAndSet(null, nueva)) {
+                return reserva.get() != null ? reserva.get() : CompletableFuture.completedFuture(0L);
+            }
+            almacen.reservar(claveGlobal, lote, politica).timeout(tiempoMaximoReserva).subscribe(
+                    concedidos -> {
+                        if (concedidos > 0) {
+                            vence = reloj.getAsLong() + vigenciaNanos;
+                            saldo.addAndGet(concedidos);
+                        } else {
+                            agotadaHasta = reloj.getAsLong() + politica.nanosPorToken();
+                        }
+                        reserva.set(null);
+                        nueva.complete(concedidos);
+                    },
+                    error -> {
+                        // Sin almacén no hay con qué saldar lo adelantado
+                        saldo.updateAndGet(actual -> Math.max(actual, 0));
+                        caidoHasta = reloj.getAsLong() + vigenciaNanos;
+                        reserva.set(null);
+                        nueva.completeExceptionally(error);
+                    },
+                    () -> {
+                        if (!nueva.isDone()) {
+                            reserva.set(null);
+                            nueva.complete(0L);
+                        }
+                    });
+            return nueva;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Aplica el límite de tasa por IP del cliente a login y registro antes de leer el cuerpo.
+ *
+ * <p>El límite por {@code usuario} se aplica en {@link com.uniquindio.archmicroserv.apigateway.controller.AuthController},
+ * que es donde el cuerpo ya está deserializado.</p>
+ *
+ * <p>La ruta se compara ya normalizada (ver {@link #ruta}), como la ve Spring MVC al elegir
+ * el handler: {@code /api/v1/auth/login;x=1} o {@code /api/v1/auth/%6Cogin} también llegan
+ * al login y no deben saltarse el límite.</p>
+ *
+ * <p>Con {@code gateway.ratelimit.trust-forwarded-for=true} la IP se toma de
+ * {@code X-Forwarded-For} contando {@code gateway.ratelimit.trusted-proxies} entradas desde
+ * la derecha: las de la izquierda las escribe el cliente y no sirven para identificarlo.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    static final byte[] RESPUESTA_LIMITE =
+            "{\"error\":true,\"respuesta\":\"Demasiadas solicitudes, intente más tarde\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private static final Logger log = LoggerFactory.getLogger(LimiteTasaFilter.class);
+
+    private final LimiteTasa limiteLogin;
+    private final LimiteTasa limiteRegistro;
+    private final boolean confiarForwardedFor;
+    private final int proxiesConfiables;
+
+    public LimiteTasaFilter(
+            LimitadorTasa limitadorTasa,
+            @Value("${gateway.ratelimit.trust-forwarded-for:false}") boolean confiarForwardedFor,
+            @Value("${gateway.ratelimit.trusted-proxies:1}") int proxiesConfiables) {
+        this.limiteLogin = limitadorTasa.limite("login", LimitadorTasa.DIMENSION_IP);
+        this.limiteRegistro = limitadorTasa.limite("registro", LimitadorTasa.DIMENSION_IP);
+        this.confiarForwardedFor = confiarForwardedFor;
+        this.proxiesConfiables = Math.max(1, proxiesConfiables);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LimiteTasa limite = switch (ruta(request)) {
+            case "/api/v1/auth/login" -> limiteLogin;
+            case "/api/v1/auth/registro" -> limiteRegistro;
+            default -> LimiteTasa.SIN_LIMITE;
+        };
+        if (limite == LimiteTasa.SIN_LIMITE) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String ip = ipCliente(request);
+        if (!limite.intentarConsumir(ip)) {
+            log.warn("Límite de tasa por IP excedido: {} {}", ip, request.getRequestURI());
+            response.setStatus(429);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limite.segundosParaReintentar()));
+            response.setContentLength(RESPUESTA_LIMITE.length);
+            response.getOutputStream().write(RESPUESTA_LIMITE);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * También la usa {@code AdmisionFilter} para clasificar la solicitud.
+     *
+     * @return La ruta dentro de la aplicación sin parámetros {@code ;}, decodificada, sin
+     *         {@code //} ni segmentos {@code .}/{@code ..} y sin {@code /} final
+     */
+    public static String ruta(HttpServletRequest request) {
+        String ruta = StringUtils.cleanPath(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        return ruta.length() > 1 && ruta.endsWith("/") ? ruta.substring(0, ruta.length() - 1) : ruta;
+    }
+
+    /**
+     * Cada proxy agrega a la derecha la dirección de quien le envió la solicitud, así que la
+     * entrada número {@code proxiesConfiables} desde la derecha es la que escribió el proxy
+     * más externo. Si hay menos entradas se usa la primera, la del proxy más cercano al cliente.
+     */
+    String ipCliente(HttpServletRequest request) {
+        if (confiarForwardedFor) {
+            List<String> direcciones = new ArrayList<>();
+            Enumeration<String> encabezados = request.getHeaders("X-Forwarded-For");
+            while (encabezados != null && encabezados.hasMoreElements()) {
+                for (String direccion : encabezados.nextElement().split(",")) {
+                    if (!direccion.isBlank()) {
+                        direcciones.add(direccion.trim());
+                    }
+                }
+            }
+            if (!direcciones.isEmpty()) {
+                return direcciones.get(Math.max(0, direcciones.size() - proxiesConfiables));
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
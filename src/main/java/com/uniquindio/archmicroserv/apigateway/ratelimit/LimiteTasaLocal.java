@@ -0,0 +1,122 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets en memoria, uno por clave, sin locks en el camino de la solicitud.
+ *
+ * <p>Cada bucket es un único {@link AtomicLong} con el "tiempo teórico de llegada"
+ * (GCRA), equivalente a un token bucket con recarga perezosa: no hay hilos de
+ * recarga y un rechazo cuesta una lectura volátil y una comparación.</p>
+ *
+ * <p>Las claves se reparten en franjas con su propio mapa. Cuando una franja supera
+ * su cuota se barren los buckets llenos (equivalentes a no tener entrada, por lo que
+ * eliminarlos no pierde información) y, si no alcanza, los más próximos a llenarse.</p>
+ */
+public class LimiteTasaLocal implements LimiteTasa {
+
+    private static final int FRANJAS = 64;
+
+    private final PoliticaLimite politica;
+    private final long nanosPorToken;
+    private final long toleranciaNanos;
+    private final int maxClavesPorFranja;
+    private final LongSupplier reloj;
+    private final Franja[] franjas = new Franja[FRANJAS];
+
+    public LimiteTasaLocal(PoliticaLimite politica, int maxClaves) {
+        this(politica, maxClaves, System::nanoTime);
+    }
+
+    LimiteTasaLocal(PoliticaLimite politica, int maxClaves, LongSupplier reloj) {
+        this.politica = politica;
+        this.nanosPorToken = politica.nanosPorToken();
+        this.toleranciaNanos = politica.capacidad() * nanosPorToken;
+        this.maxClavesPorFranja = Math.max(1, maxClaves / FRANJAS);
+        this.reloj = reloj;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    @Override
+    public boolean intentarConsumir(String clave) {
+        long ahora = reloj.getAsLong();
+        Franja franja = franjas[indice(clave)];
+        AtomicLong bucket = franja.buckets.get(clave);
+        if (bucket == null) {
+            bucket = franja.buckets.computeIfAbsent(clave, k -> new AtomicLong(ahora));
+            if (franja.buckets.size() > maxClavesPorFranja) {
+                franja.barrer(ahora);
+            }
+        }
+
+        while (true) {
+            long llegadaTeorica = bucket.get();
+            long siguiente = Math.max(llegadaTeorica, ahora) + nanosPorToken;
+            if (siguiente - ahora > toleranciaNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(llegadaTeorica, siguiente)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long segundosParaReintentar() {
+        return politica.segundosPorToken();
+    }
+
+    /**
+     * @return Cantidad de claves con bucket en memoria
+     */
+    public int claves() {
+        int total = 0;
+        for (Franja franja : franjas) {
+            total += franja.buckets.size();
+        }
+        return total;
+    }
+
+    private static int indice(String clave) {
+        int h = clave.hashCode();
+        return (h ^ (h >>> 16)) & (FRANJAS - 1);
+    }
+
+    private final class Franja {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean barriendo = new AtomicBoolean();
+
+        /**
+         * Libera memoria de la franja. Solo un hilo barre a la vez; el resto sigue sin esperar.
+         */
+        private void barrer(long ahora) {
+            if (!barriendo.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() <= ahora);
+                long umbral = toleranciaNanos / 2;
+                while (buckets.size() > maxClavesPorFranja && umbral <= toleranciaNanos) {
+                    long limite = ahora + umbral;
+                    buckets.values().removeIf(bucket -> bucket.get() <= limite);
+                    umbral = umbral == 0 ? nanosPorToken : umbral * 2;
+                }
+                Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+                while (buckets.size() > maxClavesPorFranja && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            } finally {
+                barriendo.set(false);
+            }
+        }
+    }
+}
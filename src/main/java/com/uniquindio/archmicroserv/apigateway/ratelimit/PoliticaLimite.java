@@ -0,0 +1,30 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+/**
+ * Política de un token bucket.
+ *
+ * @param capacidad Máximo de solicitudes permitidas en ráfaga
+ * @param tokensPorSegundo Ritmo al que se recargan los tokens
+ */
+public record PoliticaLimite(long capacidad, double tokensPorSegundo) {
+
+    public PoliticaLimite {
+        if (capacidad <= 0 || tokensPorSegundo <= 0) {
+            throw new IllegalArgumentException("capacidad y tokensPorSegundo deben ser positivos");
+        }
+    }
+
+    /**
+     * @return Nanosegundos necesarios para recargar un token
+     */
+    public long nanosPorToken() {
+        return Math.max(1, (long) (1_000_000_000L / tokensPorSegundo));
+    }
+
+    /**
+     * @return Segundos a sugerir en {@code Retry-After} tras un rechazo
+     */
+    public long segundosPorToken() {
+        return Math.max(1, (long) Math.ceil(1 / tokensPorSegundo));
+    }
+}
@@ -0,0 +1,168 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimiteTasaFilter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filtro de borde que aplica el {@link ControlAdmision} antes de llegar a los controllers.
+ *
+ * <p>Las solicitudes descartadas reciben una respuesta 503 precalculada, sin
+ * serializar nada. Los endpoints reactivos terminan en un dispatch asíncrono,
+ * por lo que el cupo se libera cuando el {@code AsyncContext} se completa.</p>
+ *
+ * <p>Al liberar, la latencia se registra bajo la ruta resuelta por Spring MVC junto
+ * con el método y el código de respuesta. Las consultas y eliminaciones masivas, las
+ * respuestas NDJSON y las solicitudes que no llegaron a un controller no aportan
+ * muestras: su duración depende del tamaño del lote o del destino, no de la cola.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "gateway.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmisionFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmisionFilter.class);
+    private static final byte[] RESPUESTA_SATURADO =
+            "{\"error\":true,\"respuesta\":\"Servicio saturado, intente nuevamente en unos segundos\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final ControlAdmision controlAdmision;
+
+    public AdmisionFilter(ControlAdmision controlAdmision) {
+        this.controlAdmision = controlAdmision;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !LimiteTasaFilter.ruta(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PrioridadSolicitud prioridad = clasificar(request.getMethod(), LimiteTasaFilter.ruta(request));
+        if (!controlAdmision.admitir(prioridad)) {
+            log.warn("Solicitud descartada por saturación: {} {} ({})", request.getMethod(), request.getRequestURI(), prioridad);
+            rechazar(response);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean liberarAlTerminar = true;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                liberarAlTerminar = false;
+                request.getAsyncContext().addListener(new LiberarAlCompletar(inicio, request, response));
+            }
+        } finally {
+            if (liberarAlTerminar) {
+                controlAdmision.liberar(inicio, ruta(request, response));
+            }
+        }
+    }
+
+    /**
+     * Clasifica la solicitud según la ruta y el método HTTP.
+     *
+     * @param ruta Ruta normalizada ({@link LimiteTasaFilter#ruta}), para que variantes codificadas
+     *             o con {@code ;} no cambien de prioridad
+     */
+    static PrioridadSolicitud clasificar(String metodo, String ruta) {
+        if (esMasiva(ruta)) {
+            return PrioridadSolicitud.MASIVA;
+        }
+        if ("DELETE".equals(metodo) || ruta.equals("/api/v1/auth/login")) {
+            return PrioridadSolicitud.CRITICA;
+        }
+        if (ruta.startsWith("/api/v1/auth/registro")) {
+            return PrioridadSolicitud.REGISTRO;
+        }
+        if ("GET".equals(metodo)) {
+            return PrioridadSolicitud.LECTURA;
+        }
+        return PrioridadSolicitud.NORMAL;
+    }
+
+    private static boolean esMasiva(String ruta) {
+        return ruta.endsWith("/_batch") || ruta.endsWith("/_delete");
+    }
+
+    /**
+     * Clave con la que la solicitud aporta su latencia al retraso de cola.
+     *
+     * @return Método, patrón de la ruta y código de respuesta; null si no debe aportar muestras
+     */
+    static String ruta(HttpServletRequest request, HttpServletResponse response) {
+        if (esMasiva(LimiteTasaFilter.ruta(request))) {
+            return null;
+        }
+        String tipo = response.getContentType();
+        if (tipo != null && tipo.startsWith(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return null;
+        }
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (patron == null) {
+            return null;
+        }
+        return request.getMethod() + " " + patron + " " + response.getStatus();
+    }
+
+    private static void rechazar(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentLength(RESPUESTA_SATURADO.length);
+        response.getOutputStream().write(RESPUESTA_SATURADO);
+    }
+
+    private final class LiberarAlCompletar implements AsyncListener {
+
+        private final long inicio;
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+
+        private LiberarAlCompletar(long inicio, HttpServletRequest request, HttpServletResponse response) {
+            this.inicio = inicio;
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            controlAdmision.liberar(inicio, ruta(request, response));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete se invoca igualmente al cerrar el contexto
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete se invoca igualmente al cerrar el contexto
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
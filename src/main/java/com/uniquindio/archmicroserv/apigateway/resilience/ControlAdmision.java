@@ -0,0 +1,164 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Control de admisión del gateway basado en solicitudes en vuelo y retraso de cola.
+ *
+ * <p>Cada prioridad puede ocupar solo una fracción de la capacidad, de modo que al
+ * saturarse el gateway se descartan primero las operaciones masivas, luego las lecturas,
+ * los registros y por último los logins y eliminaciones.</p>
+ *
+ * <p>El retraso de cola se estima por ruta: cada solicitud aporta su latencia menos la
+ * mínima observada para la misma ruta (método, patrón y código de respuesta) en las dos
+ * últimas ventanas, y el retraso es el EWMA de esos excesos. Así los atajos de
+ * microsegundos (401, 304, 400, hits de caché) no fijan la línea base de las rutas que
+ * sí llaman a los microservicios. Las solicitudes masivas o en streaming no aportan
+ * muestras (ver {@link AdmisionFilter}). Si no llegan muestras durante una ventana
+ * completa el retraso vuelve a cero. Cuando crece por encima del objetivo, la capacidad
+ * efectiva se reduce en la misma proporción.</p>
+ */
+@Component
+public class ControlAdmision {
+
+    /** Cota de rutas con línea base propia; las rutas nuevas por encima no aportan muestras. */
+    private static final int MAX_RUTAS = 512;
+
+    private final int maxEnVuelo;
+    private final long retrasoObjetivoNanos;
+    private final long ventanaNanos;
+    private final Map<PrioridadSolicitud, Double> fracciones = new EnumMap<>(PrioridadSolicitud.class);
+
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final Map<String, LineaBase> lineasBase = new ConcurrentHashMap<>();
+    private volatile double retrasoEwmaNanos;
+    private volatile long ultimaMuestraNanos = System.nanoTime();
+
+    public ControlAdmision(
+            @Value("${gateway.admission.max-in-flight:512}") int maxEnVuelo,
+            @Value("${gateway.admission.target-queue-delay-ms:50}") long retrasoObjetivoMs,
+            @Value("${gateway.admission.min-latency-window-ms:10000}") long ventanaMs,
+            @Value("${gateway.admission.share.masiva:0.25}") double fraccionMasiva,
+            @Value("${gateway.admission.share.lectura:0.5}") double fraccionLectura,
+            @Value("${gateway.admission.share.registro:0.7}") double fraccionRegistro,
+            @Value("${gateway.admission.share.normal:0.85}") double fraccionNormal) {
+        this.maxEnVuelo = maxEnVuelo;
+        this.retrasoObjetivoNanos = retrasoObjetivoMs * 1_000_000;
+        this.ventanaNanos = ventanaMs * 1_000_000;
+        fracciones.put(PrioridadSolicitud.MASIVA, fraccionMasiva);
+        fracciones.put(PrioridadSolicitud.LECTURA, fraccionLectura);
+        fracciones.put(PrioridadSolicitud.REGISTRO, fraccionRegistro);
+        fracciones.put(PrioridadSolicitud.NORMAL, fraccionNormal);
+        fracciones.put(PrioridadSolicitud.CRITICA, 1.0);
+    }
+
+    /**
+     * Intenta admitir una solicitud. Si retorna true, se debe llamar a
+     * {@link #liberar(long, String)} cuando la solicitud termine.
+     *
+     * @param prioridad Prioridad de la solicitud
+     * @return true si la solicitud fue admitida
+     */
+    public boolean admitir(PrioridadSolicitud prioridad) {
+        int limite = limite(prioridad);
+        while (true) {
+            int actual = enVuelo.get();
+            if (actual >= limite) {
+                return false;
+            }
+            if (enVuelo.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el cupo de una solicitud admitida y registra su latencia contra la línea
+     * base de su ruta.
+     *
+     * @param inicioNanos Valor de {@code System.nanoTime()} al admitir la solicitud
+     * @param ruta Clave de la ruta; null si la solicitud no debe aportar muestras
+     */
+    public void liberar(long inicioNanos, String ruta) {
+        enVuelo.decrementAndGet();
+        if (ruta != null) {
+            registrarLatencia(ruta, System.nanoTime() - inicioNanos);
+        }
+    }
+
+    public int getEnVuelo() {
+        return enVuelo.get();
+    }
+
+    /**
+     * @return Estimación actual del retraso de cola en nanosegundos
+     */
+    public long retrasoColaNanos() {
+        if (System.nanoTime() - ultimaMuestraNanos > ventanaNanos) {
+            return 0;
+        }
+        return (long) retrasoEwmaNanos;
+    }
+
+    int limite(PrioridadSolicitud prioridad) {
+        double capacidad = maxEnVuelo;
+        long retraso = retrasoColaNanos();
+        if (retraso > retrasoObjetivoNanos) {
+            capacidad = capacidad * retrasoObjetivoNanos / retraso;
+        }
+        return Math.max(1, (int) (capacidad * fracciones.get(prioridad)));
+    }
+
+    private void registrarLatencia(String ruta, long latenciaNanos) {
+        long ahora = System.nanoTime();
+        LineaBase lineaBase = lineasBase.get(ruta);
+        if (lineaBase == null) {
+            if (lineasBase.size() >= MAX_RUTAS) {
+                return;
+            }
+            lineaBase = lineasBase.computeIfAbsent(ruta, clave -> new LineaBase(ahora));
+        }
+        long retraso = Math.max(0, latenciaNanos - lineaBase.registrar(latenciaNanos, ahora, ventanaNanos));
+        // Tras un período sin muestras el EWMA anterior ya no describe la cola actual
+        boolean reiniciar = ahora - ultimaMuestraNanos > ventanaNanos;
+        ultimaMuestraNanos = ahora;
+        retrasoEwmaNanos = reiniciar ? retraso : retrasoEwmaNanos * 0.9 + retraso * 0.1;
+    }
+
+    /**
+     * Latencia mínima de una ruta en la ventana actual y la anterior.
+     */
+    private static final class LineaBase {
+
+        private final AtomicLong minimaVentanaActual = new AtomicLong(Long.MAX_VALUE);
+        private volatile long minimaVentanaAnterior = Long.MAX_VALUE;
+        private volatile long inicioVentanaNanos;
+
+        private LineaBase(long ahora) {
+            this.inicioVentanaNanos = ahora;
+        }
+
+        /**
+         * @return Latencia mínima de la ruta incluyendo la muestra actual
+         */
+        long registrar(long latenciaNanos, long ahora, long ventanaNanos) {
+            long actual;
+            if (ahora - inicioVentanaNanos > ventanaNanos) {
+                // Carrera benigna: dos hilos pueden rotar la misma ventana
+                inicioVentanaNanos = ahora;
+                minimaVentanaAnterior = minimaVentanaActual.getAndSet(latenciaNanos);
+                actual = latenciaNanos;
+            } else {
+                actual = minimaVentanaActual.accumulateAndGet(latenciaNanos, Math::min);
+            }
+            return Math.min(actual, minimaVentanaAnterior);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+import java.time.Duration;
+
+/**
+ * Instante límite para completar una solicitud del gateway.
+ *
+ * <p>Se expresa sobre {@link System#nanoTime()} para que no dependa del reloj de pared.
+ * Viaja en el contexto de Reactor de la cadena del controller y lo consultan las
+ * llamadas a los microservicios para conocer el presupuesto restante.</p>
+ *
+ * @param expiraEnNanos Valor de {@code System.nanoTime()} en el que vence el plazo
+ */
+public record Deadline(long expiraEnNanos) {
+
+    public static Deadline en(Duration presupuesto) {
+        return new Deadline(System.nanoTime() + presupuesto.toNanos());
+    }
+
+    /**
+     * @return Tiempo restante hasta el vencimiento, o {@link Duration#ZERO} si ya venció
+     */
+    public Duration restante() {
+        long restante = expiraEnNanos - System.nanoTime();
+        return restante > 0 ? Duration.ofNanos(restante) : Duration.ZERO;
+    }
+
+    public boolean expirado() {
+        return expiraEnNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+/**
+ * Señala que una llamada a un microservicio se canceló porque el plazo
+ * de la solicitud del cliente ya se había agotado.
+ */
+public class DeadlineExcedidoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExcedidoException(String message) {
+        super(message);
+    }
+}
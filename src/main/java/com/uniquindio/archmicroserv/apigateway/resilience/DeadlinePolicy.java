@@ -0,0 +1,163 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+import com.uniquindio.archmicroserv.apigateway.config.ConfiguracionRecargada;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Calcula y aplica el plazo máximo (deadline) de cada endpoint del gateway.
+ *
+ * <p>El presupuesto de cada endpoint se configura con
+ * {@code gateway.deadline.endpoints.<endpoint>} (milisegundos) y, si no existe,
+ * se usa {@code gateway.deadline.default-ms}. El cliente puede pedir otro
+ * presupuesto con el header {@value #HEADER}, acotado por {@code gateway.deadline.max-ms}.</p>
+ *
+ * <p>{@link #aplicar} publica el {@link Deadline} en el contexto de Reactor para que
+ * {@link DeadlinePropagationFilter} lo propague a cada llamada saliente, y cancela
+ * toda la orquestación en cuanto el plazo vence.</p>
+ *
+ * <p>Los presupuestos se recargan en caliente con {@link ConfiguracionRecargada}: se
+ * reemplaza la instantánea completa y cada solicitud lee la vigente sin locks.</p>
+ */
+@Component
+public class DeadlinePolicy {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlinePolicy.class);
+    private static final String PREFIJO_ENDPOINTS = "gateway.deadline.endpoints.";
+
+    private final Environment environment;
+    private volatile Presupuestos presupuestos;
+
+    public DeadlinePolicy(Environment environment) {
+        this.environment = environment;
+        this.presupuestos = leerPresupuestos();
+    }
+
+    /**
+     * Vuelve a leer los presupuestos si cambió alguna propiedad {@code gateway.deadline.*}.
+     */
+    @EventListener
+    public void recargar(ConfiguracionRecargada evento) {
+        if (evento.afecta("gateway.deadline.")) {
+            presupuestos = leerPresupuestos();
+            log.info("Deadlines recargados: por defecto {}, máximo {}",
+                    presupuestos.porDefecto(), presupuestos.maximo());
+        }
+    }
+
+    private Presupuestos leerPresupuestos() {
+        return new Presupuestos(
+                Duration.ofMillis(environment.getProperty("gateway.deadline.default-ms", Long.class, 5000L)),
+                Duration.ofMillis(environment.getProperty("gateway.deadline.max-ms", Long.class, 30000L)),
+                new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Calcula el deadline de una solicitud a partir de la configuración del endpoint
+     * y del header opcional enviado por el cliente.
+     *
+     * @param endpoint Nombre lógico del endpoint (por ejemplo {@code usuarios.obtener})
+     * @param headerTimeout Valor del header {@value #HEADER}, puede ser null
+     * @return Deadline a partir del instante actual
+     */
+    public Deadline calcular(String endpoint, String headerTimeout) {
+        Presupuestos vigentes = presupuestos;
+        Duration presupuesto = vigentes.porEndpoint().computeIfAbsent(endpoint,
+                clave -> presupuestoConfigurado(clave, vigentes.porDefecto()));
+        if (headerTimeout != null && !headerTimeout.isBlank()) {
+            try {
+                long solicitado = Long.parseLong(headerTimeout.trim());
+                if (solicitado > 0) {
+                    presupuesto = Duration.ofMillis(Math.min(solicitado, vigentes.maximo().toMillis()));
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Header {} inválido ({}), se usa el presupuesto configurado", HEADER, headerTimeout);
+            }
+        }
+        return Deadline.en(presupuesto);
+    }
+
+    /**
+     * Ejecuta la operación bajo el deadline del endpoint.
+     *
+     * <p>Si el plazo vence antes de que la operación termine, se cancela la cadena
+     * (y con ella las llamadas HTTP en curso) y se retorna la respuesta de timeout. Un
+     * resultado o error que llega dentro del plazo se entrega tal cual aunque el deadline
+     * venza mientras se procesa: una escritura ya aplicada no se informa como fallida.</p>
+     *
+     * @param endpoint Nombre lógico del endpoint
+     * @param headerTimeout Valor del header {@value #HEADER}, puede ser null
+     * @param operacion Orquestación completa del endpoint
+     * @param respuestaTimeout Respuesta a retornar cuando se agota el plazo
+     * @return Resultado de la operación o la respuesta de timeout
+     */
+    public <T> Mono<T> aplicar(String endpoint, String headerTimeout, Mono<T> operacion, Supplier<T> respuestaTimeout) {
+        return Mono.defer(() -> {
+            Deadline deadline = calcular(endpoint, headerTimeout);
+            return operacion
+                    .timeout(deadline.restante())
+                    .onErrorResume(error -> error instanceof TimeoutException
+                                    || error instanceof DeadlineExcedidoException,
+                            error -> {
+                                log.warn("Deadline agotado en {}: {}", endpoint, error.getMessage());
+                                return Mono.fromSupplier(respuestaTimeout);
+                            })
+                    .contextWrite(ctx -> ctx.put(Deadline.class, deadline));
+        });
+    }
+
+    /**
+     * Variante para respuestas en streaming: al vencer el plazo se cancela lo pendiente,
+     * se conservan los elementos ya emitidos y se agrega el elemento de timeout al final.
+     * Si el flujo terminó por sí mismo no se agrega, aunque el plazo venza justo después.
+     *
+     * @param endpoint Nombre lógico del endpoint
+     * @param headerTimeout Valor del header {@value #HEADER}, puede ser null
+     * @param operacion Flujo de resultados del endpoint
+     * @param elementoTimeout Último elemento a emitir cuando se agota el plazo
+     * @return Resultados emitidos dentro del plazo
+     */
+    public <T> Flux<T> aplicar(String endpoint, String headerTimeout, Flux<T> operacion, Supplier<T> elementoTimeout) {
+        return Flux.defer(() -> {
+            Deadline deadline = calcular(endpoint, headerTimeout);
+            AtomicBoolean completo = new AtomicBoolean();
+            return operacion
+                    .doOnComplete(() -> completo.set(true))
+                    .take(deadline.restante())
+                    .onErrorResume(DeadlineExcedidoException.class, error -> Flux.empty())
+                    .concatWith(Mono.defer(() -> {
+                        if (completo.get()) {
+                            return Mono.empty();
+                        }
+                        log.warn("Deadline agotado en {}", endpoint);
+                        return Mono.fromSupplier(elementoTimeout);
+                    }))
+                    .contextWrite(ctx -> ctx.put(Deadline.class, deadline));
+        });
+    }
+
+    private Duration presupuestoConfigurado(String endpoint, Duration porDefecto) {
+        Long millis = environment.getProperty(PREFIJO_ENDPOINTS + endpoint, Long.class);
+        return millis != null ? Duration.ofMillis(millis) : porDefecto;
+    }
+
+    /**
+     * Instantánea de los presupuestos; el mapa cachea los de cada endpoint ya consultado.
+     */
+    private record Presupuestos(Duration porDefecto, Duration maximo, Map<String, Duration> porEndpoint) {
+    }
+}
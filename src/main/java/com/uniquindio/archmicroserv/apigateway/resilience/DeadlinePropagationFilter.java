@@ -0,0 +1,56 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Filtro de {@code WebClient} que propaga el deadline de la solicitud entrante
+ * a cada llamada hacia los microservicios.
+ *
+ * <p>Envía el presupuesto restante en el header {@value DeadlinePolicy#HEADER} y lo
+ * usa como timeout tanto para la respuesta como para la lectura del cuerpo. Si el
+ * plazo ya venció, la llamada ni siquiera se realiza.</p>
+ */
+@Component
+public class DeadlinePropagationFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(ctx -> {
+            Optional<Deadline> deadline = ctx.getOrEmpty(Deadline.class);
+            if (deadline.isEmpty()) {
+                return next.exchange(request);
+            }
+
+            Duration restante = deadline.get().restante();
+            if (restante.isZero()) {
+                return Mono.error(excedido(request));
+            }
+
+            ClientRequest conDeadline = ClientRequest.from(request)
+                    .header(DeadlinePolicy.HEADER, String.valueOf(Math.max(1, restante.toMillis())))
+                    .build();
+
+            return next.exchange(conDeadline)
+                    .timeout(restante, Mono.error(() -> excedido(request)))
+                    .map(response -> response.mutate()
+                            .body(body -> body.timeout(
+                                    Mono.delay(deadline.get().restante()),
+                                    buffer -> Mono.delay(deadline.get().restante()),
+                                    Flux.error(() -> excedido(request))))
+                            .build());
+        });
+    }
+
+    private DeadlineExcedidoException excedido(ClientRequest request) {
+        return new DeadlineExcedidoException("Deadline agotado llamando " + request.method() + " " + request.url());
+    }
+}
@@ -0,0 +1,25 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+/**
+ * Prioridad de una solicitud frente al control de admisión.
+ *
+ * <p>El orden de declaración es el orden de descarte: bajo saturación se
+ * rechazan primero las operaciones masivas y por último los logins y eliminaciones.</p>
+ */
+public enum PrioridadSolicitud {
+
+    /** Consultas, eliminaciones y registros por lote ({@code _batch}, {@code _delete}). */
+    MASIVA,
+
+    /** Lecturas individuales. */
+    LECTURA,
+
+    /** Registro de nuevos usuarios. */
+    REGISTRO,
+
+    /** Actualizaciones y demás operaciones. */
+    NORMAL,
+
+    /** Login y eliminaciones. */
+    CRITICA
+}
@@ -0,0 +1,134 @@
+package com.uniquindio.archmicroserv.apigateway.routing;
+
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Ruta declarativa de paso directo hacia un microservicio.
+ *
+ * <p>Se configura con propiedades indexadas, por ejemplo:</p>
+ * <pre>
+ * gateway.routes[0].id=perfil-publico
+ * gateway.routes[0].path=/api/v1/perfiles/{usuario}/publico
+ * gateway.routes[0].methods=GET
+ * gateway.routes[0].uri=lb://gestion-perfil-service
+ * gateway.routes[0].rewrite-path=/v1/perfiles/{usuario}
+ * gateway.routes[0].add-request-headers=X-Origen:api-gateway
+ * gateway.routes[0].remove-request-headers=Cookie
+ * gateway.routes[0].auth=true
+ * gateway.routes[0].rate-limit-policy=perfil-publico
+ * </pre>
+ *
+ * <p>{@code path} admite segmentos literales, variables {@code {nombre}} y un {@code **}
+ * final que captura el resto de la ruta; en {@code rewrite-path} ese resto es {@code {**}}.
+ * Sin {@code rewrite-path} se reenvía la ruta original.</p>
+ *
+ * <p>{@code uri} nombra uno de los microservicios del gateway ({@code lb://domain-service} o
+ * {@code lb://gestion-perfil-service}), de modo que la ruta usa sus instancias, balanceo y
+ * pool de conexiones.</p>
+ *
+ * @param id Nombre de la ruta; su deadline es {@code gateway.deadline.endpoints.rutas.<id>}
+ * @param patron Patrón de la ruta entrante
+ * @param metodos Métodos HTTP admitidos en mayúsculas; vacío admite todos
+ * @param servicio Microservicio de destino, por ejemplo {@code gestion-perfil-service}
+ * @param reescritura Plantilla de la ruta en el destino, puede ser null
+ * @param encabezadosAgregados Encabezados que se agregan (o reemplazan) en la solicitud reenviada
+ * @param encabezadosQuitados Encabezados que no se reenvían, en minúsculas
+ * @param requiereToken Si exige el header {@code Authorization: Bearer}
+ * @param politicaLimite Política de {@code gateway.ratelimit.policies}, o null
+ */
+public record DefinicionRuta(
+        String id,
+        String patron,
+        Set<String> metodos,
+        String servicio,
+        String reescritura,
+        Map<String, String> encabezadosAgregados,
+        Set<String> encabezadosQuitados,
+        boolean requiereToken,
+        String politicaLimite
+) {
+
+    static final String PREFIJO = "gateway.routes";
+    private static final String ESQUEMA_SERVICIO = "lb://";
+
+    /**
+     * @return true si la ruta admite el método
+     */
+    public boolean admite(String metodo) {
+        return metodos.isEmpty() || metodos.contains(metodo);
+    }
+
+    /**
+     * Lee {@code gateway.routes[i]} hasta el primer índice sin {@code path}.
+     *
+     * @throws IllegalArgumentException si una ruta no tiene {@code uri} o no es {@code lb://<servicio>}
+     */
+    public static List<DefinicionRuta> leer(Environment environment) {
+        List<DefinicionRuta> rutas = new ArrayList<>();
+        for (int i = 0; ; i++) {
+            String prefijo = PREFIJO + "[" + i + "].";
+            String patron = environment.getProperty(prefijo + "path");
+            if (patron == null) {
+                return rutas;
+            }
+            String uri = environment.getProperty(prefijo + "uri");
+            if (uri == null || uri.isBlank()) {
+                throw new IllegalArgumentException("La ruta " + prefijo + "path=" + patron + " no tiene uri");
+            }
+            String servicio = quitarBarraFinal(uri.trim());
+            if (!servicio.startsWith(ESQUEMA_SERVICIO) || servicio.length() == ESQUEMA_SERVICIO.length()) {
+                throw new IllegalArgumentException("La ruta " + prefijo + "path=" + patron
+                        + " debe apuntar a un servicio del gateway (lb://<servicio>): " + uri);
+            }
+            String politica = environment.getProperty(prefijo + "rate-limit-policy");
+            rutas.add(new DefinicionRuta(
+                    environment.getProperty(prefijo + "id", "ruta-" + i),
+                    patron.trim(),
+                    lista(environment.getProperty(prefijo + "methods"), true),
+                    servicio.substring(ESQUEMA_SERVICIO.length()),
+                    environment.getProperty(prefijo + "rewrite-path"),
+                    encabezados(environment.getProperty(prefijo + "add-request-headers")),
+                    lista(environment.getProperty(prefijo + "remove-request-headers"), false),
+                    environment.getProperty(prefijo + "auth", Boolean.class, false),
+                    politica == null || politica.isBlank() ? null : politica.trim()));
+        }
+    }
+
+    private static Set<String> lista(String valor, boolean mayusculas) {
+        Set<String> elementos = new TreeSet<>();
+        if (valor != null) {
+            for (String elemento : valor.split(",")) {
+                String limpio = elemento.trim();
+                if (!limpio.isEmpty()) {
+                    elementos.add(mayusculas ? limpio.toUpperCase(Locale.ROOT) : limpio.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return Set.copyOf(elementos);
+    }
+
+    private static Map<String, String> encabezados(String valor) {
+        Map<String, String> encabezados = new LinkedHashMap<>();
+        if (valor != null) {
+            for (String par : valor.split(",")) {
+                int separador = par.indexOf(':');
+                if (separador > 0) {
+                    encabezados.put(par.substring(0, separador).trim(), par.substring(separador + 1).trim());
+                }
+            }
+        }
+        return Map.copyOf(encabezados);
+    }
+
+    private static String quitarBarraFinal(String uri) {
+        return uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+    }
+}
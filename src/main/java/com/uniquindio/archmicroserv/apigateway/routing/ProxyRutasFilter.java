@@ -0,0 +1,389 @@
+package com.uniquindio.archmicroserv.apigateway.routing;
+
+import com.uniquindio.archmicroserv.apigateway.config.ConfiguracionRecargada;
+import com.uniquindio.archmicroserv.apigateway.config.DownstreamRecargable;
+import com.uniquindio.archmicroserv.apigateway.filter.CadenaFiltros;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.Rechazo;
+import com.uniquindio.archmicroserv.apigateway.filter.RutaGateway;
+import com.uniquindio.archmicroserv.apigateway.filter.SolicitudGateway;
+import com.uniquindio.archmicroserv.apigateway.loadbalancer.BalanceoCargaFilter;
+import com.uniquindio.archmicroserv.apigateway.resilience.Deadline;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlineExcedidoException;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePropagationFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Reenvía a su microservicio las solicitudes que coinciden con una ruta declarativa
+ * de {@code gateway.routes}, sin pasar por los controllers.
+ *
+ * <p>Las rutas que solo pasan datos de un lado a otro se agregan por configuración en
+ * lugar de escribir un endpoint por cada una. Cada ruta nombra uno de los microservicios
+ * del gateway y se envía por su {@link DownstreamRecargable}: mismas instancias y balanceo,
+ * mismo pool (recargable, con drenado, HTTP/2 y compresión según su configuración). El
+ * cuerpo de la solicitud y el de la respuesta se copian en streaming por bloques, sin
+ * cargarlos en memoria. Las solicitudes sin ruta declarada siguen hacia los controllers.</p>
+ *
+ * <p>Cada ruta tiene su {@link CadenaFiltros} ({@code rutas.<id>}): con {@code auth=true}
+ * exige {@code Authorization: Bearer} y con {@code rate-limit-policy} aplica esa política por
+ * usuario, usando como clave el hash del token o, en rutas públicas, la IP del cliente.
+ * Como el proxy escribe la respuesta por su cuenta, solo se aplican los filtros que deciden
+ * antes de reenviar.</p>
+ *
+ * <p>Cada ruta tiene el deadline {@code gateway.deadline.endpoints.rutas.<id>}, que
+ * {@link DeadlinePropagationFilter} usa como timeout de la llamada y propaga en el header
+ * {@value DeadlinePolicy#HEADER}. Al vencer se responde {@code 504}; si el destino no
+ * responde, {@code 502}.</p>
+ *
+ * <p>Las rutas se recargan en caliente con {@link ConfiguracionRecargada}: la tabla nueva
+ * se compila aparte y se publica con una sola escritura volátil.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ProxyRutasFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProxyRutasFilter.class);
+    private static final String ATRIBUTO_DESTINO = ProxyRutasFilter.class.getName() + ".destino";
+    private static final int TAMANO_BUFFER = 8192;
+
+    /**
+     * Encabezados hop-by-hop y los que fija el propio cliente o {@link DeadlinePropagationFilter}.
+     */
+    private static final Set<String> ENCABEZADOS_NO_REENVIADOS = Set.of(
+            "connection", "keep-alive", "te", "trailer", "transfer-encoding", "upgrade",
+            "host", "content-length", "expect", "proxy-authenticate", "proxy-authorization", "proxy-connection",
+            DeadlinePolicy.HEADER.toLowerCase(Locale.ROOT));
+
+    private static final Set<String> ENCABEZADOS_RESPUESTA_NO_COPIADOS = Set.of(
+            "connection", "keep-alive", "te", "trailer", "transfer-encoding", "upgrade", "content-length",
+            "proxy-authenticate", "proxy-connection", ":status");
+
+    private final Environment environment;
+    private final DeadlinePolicy deadlinePolicy;
+    private final FabricaCadenas fabricaCadenas;
+    private final Map<String, WebClient> clientes;
+    private volatile Rutas rutas;
+
+    @Autowired
+    public ProxyRutasFilter(
+            Environment environment,
+            DeadlinePolicy deadlinePolicy,
+            FabricaCadenas fabricaCadenas,
+            DeadlinePropagationFilter deadlinePropagationFilter,
+            @Qualifier("domainServiceDownstream") DownstreamRecargable domainServiceDownstream,
+            @Qualifier("gestionPerfilServiceDownstream") DownstreamRecargable gestionPerfilServiceDownstream) {
+        this(environment, DefinicionRuta.leer(environment), deadlinePolicy, fabricaCadenas, Map.of(
+                "domain-service", cliente(domainServiceDownstream, deadlinePropagationFilter),
+                "gestion-perfil-service", cliente(gestionPerfilServiceDownstream, deadlinePropagationFilter)));
+    }
+
+    /**
+     * @param clientes Cliente de cada microservicio por el nombre que usan las rutas en {@code lb://}
+     */
+    ProxyRutasFilter(Environment environment, List<DefinicionRuta> definiciones, DeadlinePolicy deadlinePolicy,
+                     FabricaCadenas fabricaCadenas, Map<String, WebClient> clientes) {
+        this.environment = environment;
+        this.deadlinePolicy = deadlinePolicy;
+        this.fabricaCadenas = fabricaCadenas;
+        this.clientes = Map.copyOf(clientes);
+        this.rutas = compilar(definiciones);
+        if (!rutas.tabla().vacia()) {
+            log.info("Rutas declarativas configuradas: {}", rutas.tabla().rutas().stream().map(DefinicionRuta::id).toList());
+        }
+    }
+
+    /**
+     * Cliente hacia un microservicio con su pool y balanceo. Siempre balancea, porque la
+     * URL de cada solicitud lleva el nombre del servicio y no una instancia.
+     */
+    static WebClient cliente(DownstreamRecargable downstream, DeadlinePropagationFilter deadlinePropagationFilter) {
+        return WebClient.builder()
+                .clientConnector(downstream.getConector())
+                .filter(deadlinePropagationFilter)
+                .filter(new BalanceoCargaFilter(downstream.getBalanceador()))
+                .build();
+    }
+
+    /**
+     * Recompila la tabla si cambió alguna propiedad {@code gateway.routes}; si la
+     * configuración nueva es inválida se conserva la tabla anterior.
+     */
+    @EventListener
+    public void recargar(ConfiguracionRecargada evento) {
+        if (!evento.afecta(DefinicionRuta.PREFIJO)) {
+            return;
+        }
+        try {
+            Rutas nuevas = compilar(DefinicionRuta.leer(environment));
+            rutas = nuevas;
+            log.info("Rutas declarativas recargadas: {}", nuevas.tabla().rutas().stream().map(DefinicionRuta::id).toList());
+        } catch (IllegalArgumentException e) {
+            log.error("Rutas declarativas inválidas, se conservan las anteriores: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si una ruta es inválida o nombra un servicio desconocido
+     */
+    private Rutas compilar(List<DefinicionRuta> definiciones) {
+        Map<DefinicionRuta, CadenaFiltros> cadenas = new HashMap<>();
+        for (DefinicionRuta definicion : definiciones) {
+            if (!clientes.containsKey(definicion.servicio())) {
+                throw new IllegalArgumentException("La ruta " + definicion.id() + " apunta a un servicio desconocido: "
+                        + definicion.servicio() + "; disponibles: " + clientes.keySet());
+            }
+            String nombre = "rutas." + definicion.id();
+            String mensajeError = "Error en la ruta " + definicion.id();
+            RutaGateway ruta = definicion.requiereToken()
+                    ? RutaGateway.autenticada(nombre, mensajeError)
+                    : RutaGateway.publica(nombre, mensajeError);
+            if (definicion.politicaLimite() != null) {
+                ruta = ruta.conLimite(definicion.politicaLimite());
+            }
+            cadenas.put(definicion, fabricaCadenas.cadena(ruta));
+        }
+        return new Rutas(new TablaRutas(definiciones), cadenas);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        Rutas vigentes = rutas;
+        if (vigentes.tabla().vacia()) {
+            return true;
+        }
+        TablaRutas.Coincidencia coincidencia = vigentes.tabla().buscar(request.getMethod(), request.getRequestURI());
+        if (coincidencia == null) {
+            return true;
+        }
+        request.setAttribute(ATRIBUTO_DESTINO, new Destino(coincidencia, vigentes.cadenas().get(coincidencia.ruta())));
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Destino destino = (Destino) request.getAttribute(ATRIBUTO_DESTINO);
+        if (destino == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        DefinicionRuta ruta = destino.coincidencia().ruta();
+        Rechazo rechazo = destino.cadena().antes(new SolicitudGateway(
+                request.getHeader(HttpHeaders.AUTHORIZATION), claveLimite(request, ruta)));
+        if (rechazo != null) {
+            rechazo.encabezados().forEach((nombre, valores) -> valores.forEach(valor -> response.addHeader(nombre, valor)));
+            responderError(response, rechazo.estado().value(), rechazo.mensaje());
+            return;
+        }
+
+        Deadline deadline = deadlinePolicy.calcular("rutas." + ruta.id(), request.getHeader(DeadlinePolicy.HEADER));
+        if (deadline.restante().isZero()) {
+            responderError(response, HttpServletResponse.SC_GATEWAY_TIMEOUT, "Tiempo de espera agotado");
+            return;
+        }
+
+        try {
+            ResponseEntity<Flux<DataBuffer>> respuesta = reenviar(request, destino.coincidencia())
+                    .contextWrite(ctx -> ctx.put(Deadline.class, deadline))
+                    .block();
+            copiarRespuesta(respuesta, response);
+        } catch (IOException e) {
+            log.warn("Error al copiar la respuesta de la ruta {}: {}", ruta.id(), e.toString());
+            responderError(response, HttpServletResponse.SC_BAD_GATEWAY, "Servicio no disponible");
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof DeadlineExcedidoException) {
+                log.warn("Deadline agotado en la ruta {}: {}", ruta.id(), e.getMessage());
+                responderError(response, HttpServletResponse.SC_GATEWAY_TIMEOUT, "Tiempo de espera agotado");
+                return;
+            }
+            log.error("Error al reenviar {} {} por la ruta {}: {}",
+                    request.getMethod(), request.getRequestURI(), ruta.id(), e.toString());
+            responderError(response, HttpServletResponse.SC_BAD_GATEWAY, "Servicio no disponible");
+        }
+    }
+
+    /**
+     * Clave del límite por usuario: el hash del token en rutas autenticadas (el gateway no
+     * conoce el usuario del token) o la IP del cliente en las públicas.
+     */
+    private static String claveLimite(HttpServletRequest request, DefinicionRuta ruta) {
+        if (ruta.politicaLimite() == null) {
+            return null;
+        }
+        if (!ruta.requiereToken()) {
+            return request.getRemoteAddr();
+        }
+        String autorizacion = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (autorizacion == null) {
+            return null;
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(autorizacion.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * La URL lleva el nombre del servicio; {@link BalanceoCargaFilter} la dirige a una instancia.
+     * Los estados de error del destino se devuelven tal cual, no como excepción.
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> reenviar(HttpServletRequest request,
+                                                             TablaRutas.Coincidencia coincidencia) {
+        DefinicionRuta ruta = coincidencia.ruta();
+        String rutaDestino = coincidencia.rutaDestino() != null ? coincidencia.rutaDestino() : request.getRequestURI();
+        StringBuilder uri = new StringBuilder("http://").append(ruta.servicio());
+        if (!rutaDestino.startsWith("/")) {
+            uri.append('/');
+        }
+        uri.append(rutaDestino);
+        if (request.getQueryString() != null) {
+            uri.append('?').append(request.getQueryString());
+        }
+
+        WebClient.RequestBodySpec solicitud = clientes.get(ruta.servicio())
+                .method(HttpMethod.valueOf(request.getMethod()))
+                .uri(URI.create(uri.toString()))
+                .headers(encabezados -> copiarEncabezados(request, ruta, encabezados));
+        WebClient.RequestHeadersSpec<?> conCuerpo = tieneCuerpo(request)
+                ? solicitud.body(BodyInserters.fromDataBuffers(DataBufferUtils
+                        .readInputStream(request::getInputStream, DefaultDataBufferFactory.sharedInstance, TAMANO_BUFFER)
+                        .subscribeOn(Schedulers.boundedElastic())))
+                : solicitud;
+        return conCuerpo.retrieve()
+                .onStatus(estado -> true, error -> Mono.empty())
+                .toEntityFlux(DataBuffer.class);
+    }
+
+    private static void copiarEncabezados(HttpServletRequest request, DefinicionRuta ruta, HttpHeaders encabezados) {
+        Enumeration<String> nombres = request.getHeaderNames();
+        while (nombres.hasMoreElements()) {
+            String nombre = nombres.nextElement();
+            String normalizado = nombre.toLowerCase(Locale.ROOT);
+            if (ENCABEZADOS_NO_REENVIADOS.contains(normalizado) || ruta.encabezadosQuitados().contains(normalizado)
+                    || ruta.encabezadosAgregados().containsKey(nombre) || normalizado.startsWith("x-forwarded-")) {
+                continue;
+            }
+            Enumeration<String> valores = request.getHeaders(nombre);
+            while (valores.hasMoreElements()) {
+                encabezados.add(nombre, valores.nextElement());
+            }
+        }
+        ruta.encabezadosAgregados().forEach(encabezados::set);
+        if (request.getContentLengthLong() > 0) {
+            encabezados.setContentLength(request.getContentLengthLong());
+        }
+        encabezados.set("X-Forwarded-For", reenviadoPara(request));
+        encabezados.set("X-Forwarded-Proto", request.getScheme());
+        encabezados.set("X-Forwarded-Host", request.getServerName());
+    }
+
+    private static boolean tieneCuerpo(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
+    private static String reenviadoPara(HttpServletRequest request) {
+        String previo = request.getHeader("X-Forwarded-For");
+        return previo == null || previo.isBlank() ? request.getRemoteAddr() : previo + ", " + request.getRemoteAddr();
+    }
+
+    /**
+     * Copia estado, encabezados y cuerpo; cada bloque se envía al cliente en cuanto llega,
+     * para no retener respuestas en streaming.
+     */
+    private static void copiarRespuesta(ResponseEntity<Flux<DataBuffer>> respuesta, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(respuesta.getStatusCode().value());
+        for (Map.Entry<String, List<String>> encabezado : respuesta.getHeaders().entrySet()) {
+            if (ENCABEZADOS_RESPUESTA_NO_COPIADOS.contains(encabezado.getKey().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String valor : encabezado.getValue()) {
+                response.addHeader(encabezado.getKey(), valor);
+            }
+        }
+        long longitud = respuesta.getHeaders().getContentLength();
+        if (longitud >= 0) {
+            response.setContentLengthLong(longitud);
+        }
+
+        Flux<DataBuffer> cuerpo = respuesta.getBody() != null ? respuesta.getBody() : Flux.empty();
+        OutputStream salida = response.getOutputStream();
+        // Cerrar el stream cancela la lectura si el cliente se desconecta a mitad de la copia
+        try (Stream<DataBuffer> bloques = cuerpo.toStream()) {
+            Iterator<DataBuffer> iterador = bloques.iterator();
+            while (iterador.hasNext()) {
+                try (InputStream bloque = iterador.next().asInputStream(true)) {
+                    bloque.transferTo(salida);
+                }
+                salida.flush();
+            }
+        }
+        salida.flush();
+    }
+
+    private static void responderError(HttpServletResponse response, int estado, String mensaje) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        byte[] cuerpo = ("{\"error\":true,\"respuesta\":\"" + mensaje + "\"}").getBytes(StandardCharsets.UTF_8);
+        response.setStatus(estado);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    /**
+     * Tabla vigente y la cadena de filtros de cada ruta, publicadas juntas.
+     */
+    private record Rutas(TablaRutas tabla, Map<DefinicionRuta, CadenaFiltros> cadenas) {
+    }
+
+    private record Destino(TablaRutas.Coincidencia coincidencia, CadenaFiltros cadena) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.uniquindio.archmicroserv.apigateway.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tabla inmutable de rutas declarativas compilada en un trie por segmento.
+ *
+ * <p>La búsqueda recorre la ruta entrante una sola vez, sin expresiones regulares ni
+ * asignar más que los valores de las variables. En cada nodo se prueba primero el
+ * segmento literal, luego la variable y por último {@code **}, de modo que una ruta más
+ * específica gana sin importar el orden de configuración. Entre rutas con el mismo
+ * patrón gana la primera configurada que admita el método.</p>
+ *
+ * <p>La búsqueda trabaja sobre la ruta sin decodificar, la misma que se reenvía. Por eso
+ * una ruta con segmentos {@code .} o {@code ..}, parámetros de ruta ({@code ;}),
+ * barras invertidas o puntos, barras o {@code %} codificados no coincide con ninguna
+ * ruta: el destino podría normalizarla hacia fuera del prefijo configurado
+ * ({@code /publico/../admin} coincidiría con {@code /publico/**}).</p>
+ */
+public final class TablaRutas {
+
+    /**
+     * Tabla sin rutas.
+     */
+    public static final TablaRutas VACIA = new TablaRutas(List.of());
+
+    private static final String RESTO = "**";
+
+    private final Nodo raiz = new Nodo();
+    private final List<DefinicionRuta> rutas;
+    private final int maxVariables;
+
+    public TablaRutas(List<DefinicionRuta> rutas) {
+        this.rutas = List.copyOf(rutas);
+        int max = 0;
+        for (DefinicionRuta ruta : this.rutas) {
+            max = Math.max(max, agregar(ruta));
+        }
+        this.maxVariables = max;
+    }
+
+    /**
+     * @return Rutas de la tabla en el orden configurado
+     */
+    public List<DefinicionRuta> rutas() {
+        return rutas;
+    }
+
+    public boolean vacia() {
+        return rutas.isEmpty();
+    }
+
+    /**
+     * Busca la ruta de una solicitud.
+     *
+     * @param metodo Método HTTP en mayúsculas
+     * @param ruta Ruta de la solicitud sin query string
+     * @return La coincidencia con la ruta ya reescrita para el destino, o null si ninguna ruta
+     *         aplica o la ruta no es segura (ver {@link #segura(String[])})
+     */
+    public Coincidencia buscar(String metodo, String ruta) {
+        if (rutas.isEmpty()) {
+            return null;
+        }
+        String[] segmentos = segmentos(ruta);
+        if (!segura(segmentos)) {
+            return null;
+        }
+        String[] valores = new String[maxVariables + 1];
+        return buscar(raiz, segmentos, 0, valores, 0, metodo);
+    }
+
+    private Coincidencia buscar(Nodo nodo, String[] segmentos, int indice, String[] valores, int variables, String metodo) {
+        if (indice == segmentos.length) {
+            RutaCompilada ruta = admitida(nodo.rutas, metodo);
+            if (ruta != null) {
+                return new Coincidencia(ruta.definicion(), ruta.reescribir(valores, null));
+            }
+        } else {
+            Nodo literal = nodo.literales.get(segmentos[indice]);
+            if (literal != null) {
+                Coincidencia coincidencia = buscar(literal, segmentos, indice + 1, valores, variables, metodo);
+                if (coincidencia != null) {
+                    return coincidencia;
+                }
+            }
+            if (nodo.variable != null) {
+                valores[variables] = segmentos[indice];
+                Coincidencia coincidencia = buscar(nodo.variable, segmentos, indice + 1, valores, variables + 1, metodo);
+                if (coincidencia != null) {
+                    return coincidencia;
+                }
+            }
+        }
+        RutaCompilada resto = admitida(nodo.resto, metodo);
+        if (resto != null) {
+            return new Coincidencia(resto.definicion(), resto.reescribir(valores, unir(segmentos, indice)));
+        }
+        return null;
+    }
+
+    private static RutaCompilada admitida(List<RutaCompilada> candidatas, String metodo) {
+        for (int i = 0; i < candidatas.size(); i++) {
+            RutaCompilada candidata = candidatas.get(i);
+            if (candidata.definicion().admite(metodo)) {
+                return candidata;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserta la ruta en el trie.
+     *
+     * @return Cantidad de variables del patrón
+     */
+    private int agregar(DefinicionRuta definicion) {
+        String[] segmentos = segmentos(definicion.patron());
+        Map<String, Integer> variables = new HashMap<>();
+        Nodo nodo = raiz;
+        boolean conResto = false;
+        for (int i = 0; i < segmentos.length; i++) {
+            String segmento = segmentos[i];
+            if (RESTO.equals(segmento)) {
+                if (i != segmentos.length - 1) {
+                    throw new IllegalArgumentException("'**' solo puede ir al final: " + definicion.patron());
+                }
+                conResto = true;
+            } else if (segmento.startsWith("{") && segmento.endsWith("}")) {
+                variables.put(segmento.substring(1, segmento.length() - 1), variables.size());
+                if (nodo.variable == null) {
+                    nodo.variable = new Nodo();
+                }
+                nodo = nodo.variable;
+            } else {
+                nodo = nodo.literales.computeIfAbsent(segmento, s -> new Nodo());
+            }
+        }
+        RutaCompilada ruta = new RutaCompilada(definicion, compilarReescritura(definicion, variables, conResto));
+        (conResto ? nodo.resto : nodo.rutas).add(ruta);
+        return variables.size();
+    }
+
+    /**
+     * Compila la plantilla de reescritura en partes literales e índices de variable
+     * ({@link RutaCompilada#RESTO} para {@code {**}}). Sin plantilla, la ruta se reenvía igual.
+     */
+    private static Object[] compilarReescritura(DefinicionRuta definicion, Map<String, Integer> variables, boolean conResto) {
+        String plantilla = definicion.reescritura();
+        if (plantilla == null || plantilla.isBlank()) {
+            return null;
+        }
+        List<Object> partes = new ArrayList<>();
+        int desde = 0;
+        while (desde < plantilla.length()) {
+            int abre = plantilla.indexOf('{', desde);
+            if (abre < 0) {
+                partes.add(plantilla.substring(desde));
+                break;
+            }
+            int cierra = plantilla.indexOf('}', abre);
+            if (cierra < 0) {
+                throw new IllegalArgumentException("Plantilla inválida en la ruta " + definicion.id() + ": " + plantilla);
+            }
+            if (abre > desde) {
+                partes.add(plantilla.substring(desde, abre));
+            }
+            String nombre = plantilla.substring(abre + 1, cierra);
+            if (RESTO.equals(nombre) && conResto) {
+                partes.add(RutaCompilada.RESTO);
+            } else if (variables.containsKey(nombre)) {
+                partes.add(variables.get(nombre));
+            } else {
+                throw new IllegalArgumentException("La ruta " + definicion.id() + " no define la variable " + nombre);
+            }
+            desde = cierra + 1;
+        }
+        return partes.toArray();
+    }
+
+    /**
+     * Divide la ruta en segmentos no vacíos sin expresiones regulares.
+     */
+    static String[] segmentos(String ruta) {
+        int cantidad = 0;
+        for (int i = 0; i < ruta.length(); i++) {
+            if (ruta.charAt(i) != '/' && (i == 0 || ruta.charAt(i - 1) == '/')) {
+                cantidad++;
+            }
+        }
+        String[] segmentos = new String[cantidad];
+        int actual = 0;
+        int inicio = -1;
+        for (int i = 0; i <= ruta.length(); i++) {
+            boolean separador = i == ruta.length() || ruta.charAt(i) == '/';
+            if (separador) {
+                if (inicio >= 0) {
+                    segmentos[actual++] = ruta.substring(inicio, i);
+                    inicio = -1;
+                }
+            } else if (inicio < 0) {
+                inicio = i;
+            }
+        }
+        return segmentos;
+    }
+
+    /**
+     * @return false si algún segmento podría cambiar de significado al decodificarse o
+     *         normalizarse en el destino
+     */
+    static boolean segura(String[] segmentos) {
+        for (String segmento : segmentos) {
+            if (".".equals(segmento) || "..".equals(segmento)
+                    || segmento.indexOf(';') >= 0 || segmento.indexOf('\\') >= 0) {
+                return false;
+            }
+            for (int i = segmento.indexOf('%'); i >= 0; i = segmento.indexOf('%', i + 1)) {
+                if (i + 2 >= segmento.length()) {
+                    return false;
+                }
+                String codigo = segmento.substring(i + 1, i + 3).toLowerCase(Locale.ROOT);
+                if (codigo.equals("2e") || codigo.equals("2f") || codigo.equals("5c") || codigo.equals("25")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String unir(String[] segmentos, int desde) {
+        if (desde >= segmentos.length) {
+            return "";
+        }
+        StringBuilder resto = new StringBuilder();
+        for (int i = desde; i < segmentos.length; i++) {
+            if (i > desde) {
+                resto.append('/');
+            }
+            resto.append(segmentos[i]);
+        }
+        return resto.toString();
+    }
+
+    /**
+     * Resultado de la búsqueda.
+     *
+     * @param ruta Ruta que coincidió
+     * @param rutaDestino Ruta a solicitar en el destino, o null para reenviar la original
+     */
+    public record Coincidencia(DefinicionRuta ruta, String rutaDestino) {
+    }
+
+    private static final class Nodo {
+        private final Map<String, Nodo> literales = new HashMap<>();
+        private final List<RutaCompilada> rutas = new ArrayList<>(1);
+        private final List<RutaCompilada> resto = new ArrayList<>(1);
+        private Nodo variable;
+    }
+
+    private record RutaCompilada(DefinicionRuta definicion, Object[] reescritura) {
+
+        static final Integer RESTO = -1;
+
+        String reescribir(String[] valores, String resto) {
+            if (reescritura == null) {
+                return null;
+            }
+            StringBuilder destino = new StringBuilder();
+            for (Object parte : reescritura) {
+                if (parte instanceof String literal) {
+                    destino.append(literal);
+                } else if (parte == RESTO) {
+                    destino.append(resto != null ? resto : "");
+                } else {
+                    destino.append(valores[(Integer) parte]);
+                }
+            }
+            return destino.toString();
+        }
+    }
+}
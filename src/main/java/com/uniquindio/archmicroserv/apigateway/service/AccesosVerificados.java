@@ -0,0 +1,94 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Recuerda por poco tiempo qué tokens ya fueron autorizados por el Domain Service
+ * para acceder a un usuario.
+ *
+ * <p>El gateway no valida tokens por sí mismo: la autorización es que
+ * {@code GET /usuarios/{usuario}} del Domain Service responda con éxito. Cuando una
+ * operación solo necesita datos del Gestion Perfil Service, esa llamada se hace
+ * únicamente para autorizar; con esta caché se omite si el mismo token ya fue
+ * autorizado para ese usuario hace menos de {@code gateway.auth-cache.ttl-ms}.</p>
+ *
+ * <p>Los tokens se guardan como hash SHA-256. Un token revocado sigue siendo válido
+ * para perfiles (y para los {@code 304} sin consultar los microservicios) hasta que vence
+ * su entrada, por lo que está desactivada por defecto ({@code ttl-ms=0}) y, si se activa,
+ * el TTL debe ser corto.</p>
+ */
+@Component
+public class AccesosVerificados {
+
+    private final Map<String, Long> vencimientos = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private final LongSupplier reloj;
+
+    @Autowired
+    public AccesosVerificados(
+            @Value("${gateway.auth-cache.ttl-ms:0}") long ttlMs,
+            @Value("${gateway.auth-cache.max-entries:10000}") int maxEntradas) {
+        this(ttlMs, maxEntradas, System::nanoTime);
+    }
+
+    AccesosVerificados(long ttlMs, int maxEntradas, LongSupplier reloj) {
+        this.ttlNanos = Math.max(0, ttlMs) * 1_000_000L;
+        this.maxEntradas = Math.max(1, maxEntradas);
+        this.reloj = reloj;
+    }
+
+    /**
+     * @return true si el token fue autorizado para el usuario y la entrada no ha vencido
+     */
+    public boolean verificado(String token, String usuario) {
+        if (ttlNanos == 0) {
+            return false;
+        }
+        Long vence = vencimientos.get(clave(token, usuario));
+        return vence != null && vence - reloj.getAsLong() > 0;
+    }
+
+    /**
+     * Registra que el Domain Service autorizó el token para el usuario.
+     */
+    public void registrar(String token, String usuario) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        vencimientos.put(clave(token, usuario), ahora + ttlNanos);
+        if (vencimientos.size() > maxEntradas) {
+            vencimientos.values().removeIf(vence -> vence - ahora <= 0);
+            if (vencimientos.size() > maxEntradas) {
+                // Sin entradas vencidas que barrer: se pierde solo el atajo, no la autorización
+                vencimientos.clear();
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si no hay token; sin él no hay autorización que recordar
+     */
+    private static String clave(String token, String usuario) {
+        if (token == null) {
+            throw new IllegalArgumentException("Se requiere el token para verificar el acceso a " + usuario);
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return usuario + ':' + HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.apigateway.cache.CacheCompartida;
+import com.uniquindio.archmicroserv.apigateway.cache.CacheFueraDeHeap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Caché de los perfiles que devuelve el Gestion Perfil Service, en dos niveles.
+ *
+ * <p>El primero es local: con {@code gateway.profile-cache.ttl-ms} mayor que cero los
+ * perfiles se guardan como JSON en {@link CacheFueraDeHeap}. Ocupan a lo sumo
+ * {@code max-bytes} fuera del heap; en el heap solo queda el índice, así millones de
+ * perfiles no se convierten en millones de mapas para el GC. Al leer se deserializa
+ * directamente desde los bloques, sin copiarlos antes a un arreglo.</p>
+ *
+ * <p>El segundo es la {@link CacheCompartida} entre réplicas, si hay una registrada
+ * ({@code gateway.profile-cache.shared.*}). Un fallo local la consulta antes de ir al
+ * microservicio y un acierto llena el nivel local; los perfiles obtenidos del
+ * microservicio se escriben en ambos sin esperar al segundo.</p>
+ *
+ * <p>Crear, actualizar o eliminar un perfil por el gateway invalida ambos niveles, y los
+ * eventos de {@code dominio.events} también (ver {@code CachePerfilesListener}). Las demás
+ * réplicas conservan su copia local hasta el evento o hasta que vence su TTL, por eso el
+ * local debe ser más corto que {@code shared.ttl-ms}. Una consulta que ya estaba en curso
+ * al invalidar puede volver a guardar el perfil anterior hasta su TTL.</p>
+ */
+@Component
+public class CachePerfiles {
+
+    private static final Logger log = LoggerFactory.getLogger(CachePerfiles.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> TIPO_PERFIL = new TypeReference<>() {};
+
+    private final CacheFueraDeHeap local;
+    private final CacheCompartida compartida;
+    private final Duration vigenciaCompartida;
+
+    @Autowired
+    public CachePerfiles(
+            @Value("${gateway.profile-cache.ttl-ms:0}") long ttlMs,
+            @Value("${gateway.profile-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${gateway.profile-cache.block-size:512}") int tamanoBloque,
+            @Value("${gateway.profile-cache.max-entry-bytes:65536}") int maxBytesEntrada,
+            @Value("${gateway.profile-cache.shared.ttl-ms:60000}") long ttlCompartidoMs,
+            ObjectProvider<CacheCompartida> compartida) {
+        this(ttlMs, maxBytes, tamanoBloque, maxBytesEntrada, ttlCompartidoMs, compartida.getIfAvailable());
+    }
+
+    CachePerfiles(long ttlMs, long maxBytes, int tamanoBloque, int maxBytesEntrada,
+                  long ttlCompartidoMs, CacheCompartida compartida) {
+        this.local = ttlMs > 0 && maxBytes > 0
+                ? new CacheFueraDeHeap(maxBytes, tamanoBloque, maxBytesEntrada, ttlMs)
+                : null;
+        this.compartida = ttlCompartidoMs > 0 ? compartida : null;
+        this.vigenciaCompartida = Duration.ofMillis(Math.max(1, ttlCompartidoMs));
+    }
+
+    public boolean habilitada() {
+        return local != null || compartida != null;
+    }
+
+    /**
+     * @return Una copia nueva del perfil guardado en alguno de los niveles, o vacío si no está
+     */
+    public Mono<Map<String, Object>> obtener(String usuario) {
+        if (usuario == null || !habilitada()) {
+            return Mono.empty();
+        }
+        Map<String, Object> perfil = obtenerLocal(usuario);
+        if (perfil != null) {
+            log.debug("Perfil {} servido desde la caché local", usuario);
+            return Mono.just(perfil);
+        }
+        if (compartida == null) {
+            return Mono.empty();
+        }
+        return compartida.obtener(usuario)
+                .flatMap(valor -> {
+                    Map<String, Object> compartido = leer(usuario, valor);
+                    if (compartido == null) {
+                        return Mono.empty();
+                    }
+                    log.debug("Perfil {} servido desde la caché compartida", usuario);
+                    if (local != null) {
+                        local.guardar(usuario, valor);
+                    }
+                    return Mono.just(compartido);
+                });
+    }
+
+    /**
+     * Guarda el perfil obtenido del microservicio en ambos niveles.
+     */
+    public void guardar(String usuario, Map<String, Object> perfil) {
+        if (usuario == null || perfil == null || !habilitada()) {
+            return;
+        }
+        byte[] valor;
+        try {
+            valor = MAPPER.writeValueAsBytes(perfil);
+        } catch (IOException e) {
+            log.warn("No se pudo serializar el perfil de {} para la caché: {}", usuario, e.getMessage());
+            return;
+        }
+        if (local != null) {
+            local.guardar(usuario, valor);
+        }
+        if (compartida != null) {
+            compartida.guardar(usuario, valor, vigenciaCompartida).subscribe();
+        }
+    }
+
+    /**
+     * Borra el perfil de ambos niveles; el segundo sin esperar su respuesta.
+     */
+    public void invalidar(String usuario) {
+        if (usuario == null) {
+            return;
+        }
+        if (local != null) {
+            local.invalidar(usuario);
+        }
+        if (compartida != null) {
+            compartida.invalidar(usuario).subscribe();
+        }
+    }
+
+    private Map<String, Object> obtenerLocal(String usuario) {
+        if (local == null) {
+            return null;
+        }
+        try (CacheFueraDeHeap.Lectura lectura = local.leer(usuario)) {
+            if (lectura == null) {
+                return null;
+            }
+            return MAPPER.readValue(lectura.flujo(), TIPO_PERFIL);
+        } catch (IOException e) {
+            log.warn("Perfil en caché de {} ilegible, se descarta: {}", usuario, e.getMessage());
+            local.invalidar(usuario);
+            return null;
+        }
+    }
+
+    private Map<String, Object> leer(String usuario, byte[] valor) {
+        try {
+            return MAPPER.readValue(valor, TIPO_PERFIL);
+        } catch (IOException e) {
+            log.warn("Perfil en caché compartida de {} ilegible, se ignora: {}", usuario, e.getMessage());
+            return null;
+        }
+    }
+}
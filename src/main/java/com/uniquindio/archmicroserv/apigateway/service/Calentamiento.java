@@ -0,0 +1,117 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.config.DownstreamRecargable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calentamiento al arrancar, antes de recibir tráfico.
+ *
+ * <p>Abre {@code gateway.warmup.connections} conexiones por instancia hacia ambos
+ * microservicios ({@link DownstreamRecargable#precalentar}) y, si la caché de perfiles
+ * está habilitada, precarga los perfiles de la lista de {@link PerfilesFrecuentes} sin
+ * contarlos como consultas. Todo se corta a los {@code gateway.warmup.timeout-ms}.</p>
+ *
+ * <p>Se ejecuta como {@link ApplicationRunner}: Spring Boot publica el estado de readiness
+ * {@code ACCEPTING_TRAFFIC} recién cuando terminan los runners, así que
+ * {@code /actuator/health/readiness} responde {@code OUT_OF_SERVICE} mientras dura el
+ * calentamiento y pasa a {@code UP} cuando termina o vence el tiempo. Liveness ya está
+ * en {@code UP} durante el calentamiento.</p>
+ */
+@Component
+public class Calentamiento implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(Calentamiento.class);
+
+    private final DownstreamRecargable domainService;
+    private final DownstreamRecargable gestionPerfilService;
+    private final GestionPerfilServiceClient gestionPerfilServiceClient;
+    private final CachePerfiles cachePerfiles;
+    private final PerfilesFrecuentes perfilesFrecuentes;
+    private final boolean habilitado;
+    private final int conexiones;
+    private final Duration tiempoMaximo;
+    private final int concurrenciaPrecarga;
+
+    public Calentamiento(
+            @Qualifier("domainServiceDownstream") DownstreamRecargable domainService,
+            @Qualifier("gestionPerfilServiceDownstream") DownstreamRecargable gestionPerfilService,
+            GestionPerfilServiceClient gestionPerfilServiceClient,
+            CachePerfiles cachePerfiles,
+            PerfilesFrecuentes perfilesFrecuentes,
+            @Value("${gateway.warmup.enabled:false}") boolean habilitado,
+            @Value("${gateway.warmup.connections:4}") int conexiones,
+            @Value("${gateway.warmup.timeout-ms:10000}") long tiempoMaximoMs,
+            @Value("${gateway.warmup.prefetch-concurrency:8}") int concurrenciaPrecarga) {
+        this.domainService = domainService;
+        this.gestionPerfilService = gestionPerfilService;
+        this.gestionPerfilServiceClient = gestionPerfilServiceClient;
+        this.cachePerfiles = cachePerfiles;
+        this.perfilesFrecuentes = perfilesFrecuentes;
+        this.habilitado = habilitado;
+        this.conexiones = conexiones;
+        this.tiempoMaximo = Duration.ofMillis(Math.max(1, tiempoMaximoMs));
+        this.concurrenciaPrecarga = Math.max(1, concurrenciaPrecarga);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitado) {
+            return;
+        }
+        log.info("Calentamiento: abriendo conexiones y precargando perfiles (máximo {})", tiempoMaximo);
+        long inicio = System.nanoTime();
+        calentar().block();
+        log.info("Calentamiento terminado en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * @return Completa cuando termina el calentamiento o vence el tiempo; nunca con error
+     */
+    Mono<Void> calentar() {
+        Mono<Void> conexionesDomain = domainService.precalentar(conexiones)
+                .doOnNext(listas -> log.info("Calentamiento: {} conexiones listas hacia domain-service", listas))
+                .then();
+        Mono<Void> conexionesPerfil = gestionPerfilService.precalentar(conexiones)
+                .doOnNext(listas -> log.info("Calentamiento: {} conexiones listas hacia gestion-perfil-service", listas))
+                .then();
+        return Mono.when(conexionesDomain, conexionesPerfil, precargarPerfiles())
+                .timeout(tiempoMaximo)
+                .onErrorResume(error -> {
+                    if (error instanceof TimeoutException) {
+                        log.warn("Calentamiento incompleto tras {}; se empieza a recibir tráfico", tiempoMaximo);
+                    } else {
+                        log.warn("Calentamiento interrumpido: {}", error.getMessage());
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> precargarPerfiles() {
+        if (!cachePerfiles.habilitada()) {
+            return Mono.empty();
+        }
+        List<String> usuarios = perfilesFrecuentes.leer();
+        if (usuarios.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(usuarios)
+                .flatMap(usuario -> gestionPerfilServiceClient.precargarPerfil(usuario)
+                        .onErrorResume(error -> Mono.empty()), concurrenciaPrecarga)
+                .count()
+                .doOnNext(precargados -> log.info("Calentamiento: {} de {} perfiles frecuentes precargados",
+                        precargados, usuarios.size()))
+                .then();
+    }
+}
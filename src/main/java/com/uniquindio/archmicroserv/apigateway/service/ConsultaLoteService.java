@@ -0,0 +1,214 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.filter.MapeoErroresFiltro;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta de usuarios completos por lotes.
+ *
+ * <p>Por defecto cada usuario se consulta como en {@code GET /api/v1/usuarios/{usuario}}
+ * (seguridad y perfil en paralelo), con a lo sumo {@code gateway.batch.concurrency}
+ * usuarios en vuelo. Con {@code gateway.batch.downstream-batch=true} se usan las
+ * consultas por lotes de los microservicios, que deben responder
+ * {@code {"respuesta": [{"usuario": ...}, ...]}}; si una de ellas falla, ese lote se
+ * resuelve usuario por usuario.</p>
+ *
+ * <p>Los errores de cada usuario se reportan en su elemento del resultado, salvo un
+ * {@code 401}: el token es el mismo para todo el lote, así que se propaga y corta la consulta.</p>
+ */
+@Service
+public class ConsultaLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultaLoteService.class);
+
+    private final DomainServiceClient domainServiceClient;
+    private final GestionPerfilServiceClient gestionPerfilServiceClient;
+    private final int concurrencia;
+    private final int maxUsuarios;
+    private final int maxUsuariosStreaming;
+    private final boolean lotesDownstream;
+    private final int tamanoLoteDownstream;
+
+    public ConsultaLoteService(
+            DomainServiceClient domainServiceClient,
+            GestionPerfilServiceClient gestionPerfilServiceClient,
+            @Value("${gateway.batch.concurrency:8}") int concurrencia,
+            @Value("${gateway.batch.max-items:100}") int maxUsuarios,
+            @Value("${gateway.batch.stream-max-items:10000}") int maxUsuariosStreaming,
+            @Value("${gateway.batch.downstream-batch:false}") boolean lotesDownstream,
+            @Value("${gateway.batch.downstream-batch-size:50}") int tamanoLoteDownstream) {
+        this.domainServiceClient = domainServiceClient;
+        this.gestionPerfilServiceClient = gestionPerfilServiceClient;
+        this.concurrencia = Math.max(1, concurrencia);
+        this.maxUsuarios = maxUsuarios;
+        this.maxUsuariosStreaming = maxUsuariosStreaming;
+        this.lotesDownstream = lotesDownstream;
+        this.tamanoLoteDownstream = Math.max(1, tamanoLoteDownstream);
+    }
+
+    /**
+     * @return Máximo de usuarios aceptados en una consulta
+     */
+    public int maxUsuarios() {
+        return maxUsuarios;
+    }
+
+    /**
+     * @return Máximo de usuarios aceptados en una consulta en streaming
+     */
+    public int maxUsuariosStreaming() {
+        return maxUsuariosStreaming;
+    }
+
+    /**
+     * Obtiene los datos completos de varios usuarios, en el orden solicitado y sin repetidos.
+     *
+     * @param usuarios Nombres de usuario a consultar
+     * @param token Token JWT sin el prefijo {@code Bearer}
+     * @return Un elemento por usuario: sus datos o {@code error}, {@code status} y {@code respuesta}
+     */
+    public Flux<Map<String, Object>> obtenerUsuarios(List<String> usuarios, String token) {
+        List<String> unicos = usuarios.stream().distinct().toList();
+        log.info("Consultando {} usuarios por lote", unicos.size());
+        if (!lotesDownstream) {
+            return Flux.fromIterable(unicos).flatMapSequential(usuario -> obtenerUsuario(usuario, token), concurrencia);
+        }
+        return Flux.fromIterable(unicos)
+                .buffer(tamanoLoteDownstream)
+                .concatMap(lote -> obtenerLote(lote, token));
+    }
+
+    /**
+     * Variante para streaming: emite cada usuario en cuanto se completa, en orden de
+     * llegada, sin retener los ya emitidos. Solo hay {@code gateway.batch.concurrency}
+     * usuarios en vuelo y no se piden más hasta que el consumidor los solicita.
+     *
+     * @param usuarios Nombres de usuario a consultar
+     * @param token Token JWT sin el prefijo {@code Bearer}
+     * @return Un elemento por usuario, en orden de finalización
+     */
+    public Flux<Map<String, Object>> transmitirUsuarios(List<String> usuarios, String token) {
+        log.info("Transmitiendo {} usuarios por lote", usuarios.size());
+        return Flux.fromIterable(usuarios).flatMap(usuario -> obtenerUsuario(usuario, token), concurrencia, 1);
+    }
+
+    private Mono<Map<String, Object>> obtenerUsuario(String usuario, String token) {
+        Mono<Map<String, Object>> datosSeguridad = domainServiceClient
+                .obtenerUsuario(usuario, token)
+                .onErrorResume(error -> !(error instanceof WebClientResponseException), error -> {
+                    log.warn("Error obteniendo datos de seguridad de {}: {}", usuario, error.getMessage());
+                    return Mono.just(new HashMap<>());
+                });
+        Mono<Map<String, Object>> datosPerfil = gestionPerfilServiceClient
+                .obtenerPerfil(usuario)
+                .onErrorResume(error -> {
+                    log.warn("Error obteniendo perfil de {}: {}", usuario, error.getMessage());
+                    return Mono.just(new HashMap<>());
+                });
+
+        return Mono.zip(datosSeguridad, datosPerfil)
+                .map(tuple -> combinar(usuario, tuple.getT1(), tuple.getT2()))
+                .onErrorResume(error -> !esNoAutorizado(error), error -> Mono.just(resultadoError(usuario, error)));
+    }
+
+    private Flux<Map<String, Object>> obtenerLote(List<String> lote, String token) {
+        Mono<Map<String, Map<String, Object>>> seguridad = domainServiceClient
+                .obtenerUsuarios(lote, token)
+                .map(ConsultaLoteService::indexarPorUsuario);
+        Mono<Map<String, Map<String, Object>>> perfiles = gestionPerfilServiceClient
+                .obtenerPerfiles(lote)
+                .map(ConsultaLoteService::indexarPorUsuario)
+                .onErrorResume(error -> {
+                    log.warn("Error obteniendo perfiles por lote: {}", error.getMessage());
+                    return Mono.just(Map.of());
+                });
+
+        return Mono.zip(seguridad, perfiles)
+                .flatMapMany(tuple -> Flux.fromIterable(lote).map(usuario -> {
+                    Map<String, Object> datosSeguridad = tuple.getT1().get(usuario);
+                    if (datosSeguridad == null) {
+                        return resultadoError(usuario, HttpStatus.NOT_FOUND.value(), "Usuario no encontrado en el sistema");
+                    }
+                    return combinar(usuario, datosSeguridad, tuple.getT2().getOrDefault(usuario, Map.of()));
+                }))
+                .onErrorResume(error -> !esNoAutorizado(error), error -> {
+                    log.warn("Consulta por lote no disponible, consultando {} usuarios uno a uno: {}",
+                            lote.size(), error.getMessage());
+                    return Flux.fromIterable(lote)
+                            .flatMapSequential(usuario -> obtenerUsuario(usuario, token), concurrencia);
+                });
+    }
+
+    private static Map<String, Object> combinar(
+            String usuario, Map<String, Object> seguridad, Map<String, Object> perfil) {
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("usuario", usuario);
+        if (!seguridad.isEmpty()) {
+            Object respuesta = seguridad.get("respuesta");
+            resultado.put("datosSeguridad", respuesta instanceof Map ? respuesta : seguridad);
+        }
+        if (!perfil.isEmpty()) {
+            resultado.put("perfil", perfil);
+        }
+        return resultado;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> indexarPorUsuario(Map<String, Object> respuesta) {
+        Map<String, Map<String, Object>> indice = new HashMap<>();
+        if (respuesta.get("respuesta") instanceof List<?> elementos) {
+            for (Object elemento : elementos) {
+                if (elemento instanceof Map<?, ?> datos) {
+                    Object usuario = datos.get("usuario") != null ? datos.get("usuario") : datos.get("usuarioId");
+                    if (usuario != null) {
+                        indice.put(usuario.toString(), (Map<String, Object>) datos);
+                    }
+                }
+            }
+        }
+        return indice;
+    }
+
+    private static Map<String, Object> resultadoError(String usuario, Throwable error) {
+        return resultadoError(usuario, error, "Error obteniendo datos del usuario");
+    }
+
+    /**
+     * Elemento de resultado para un usuario cuya operación falló.
+     *
+     * @param mensajePorDefecto Mensaje a usar si el microservicio no envió {@code respuesta}
+     */
+    static Map<String, Object> resultadoError(String usuario, Throwable error, String mensajePorDefecto) {
+        if (error instanceof WebClientResponseException webClientError) {
+            return resultadoError(usuario, webClientError.getStatusCode().value(),
+                    MapeoErroresFiltro.mensajeError(webClientError, mensajePorDefecto));
+        }
+        log.error("Error procesando usuario {} del lote: {}", usuario, error.getMessage());
+        return resultadoError(usuario, HttpStatus.INTERNAL_SERVER_ERROR.value(), mensajePorDefecto);
+    }
+
+    static Map<String, Object> resultadoError(String usuario, int status, String mensaje) {
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("usuario", usuario);
+        resultado.put("error", true);
+        resultado.put("status", status);
+        resultado.put("respuesta", mensaje);
+        return resultado;
+    }
+
+    static boolean esNoAutorizado(Throwable error) {
+        return error instanceof WebClientResponseException webClientError
+                && webClientError.getStatusCode().value() == HttpStatus.UNAUTHORIZED.value();
+    }
+}
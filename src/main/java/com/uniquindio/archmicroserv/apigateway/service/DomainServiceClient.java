@@ -9,8 +9,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -24,16 +26,26 @@ public class DomainServiceClient {
     @Qualifier("domainServiceWebClient")
     private final WebClient domainServiceWebClient;
 
+    private final NoEncontrados noEncontrados;
+    private final UsuariosRegistrados usuariosRegistrados;
+
     @Value("${domain.service.base-path}")
     private String basePath;
 
     // Constructor explícito para inyección de dependencias
-    public DomainServiceClient(@Qualifier("domainServiceWebClient") WebClient domainServiceWebClient) {
+    public DomainServiceClient(@Qualifier("domainServiceWebClient") WebClient domainServiceWebClient,
+                               NoEncontrados noEncontrados,
+                               UsuariosRegistrados usuariosRegistrados) {
         this.domainServiceWebClient = domainServiceWebClient;
+        this.noEncontrados = noEncontrados;
+        this.usuariosRegistrados = usuariosRegistrados;
     }
 
     public Mono<Map<String, Object>> registrarUsuario(Object requestBody) {
         log.info("Proxy: POST {}/usuarios", basePath);
+        Map<?, ?> datos = requestBody instanceof Map<?, ?> mapa ? mapa : Map.of();
+        String usuario = texto(datos.get("usuario"));
+        String correo = texto(datos.get("correo"));
         return domainServiceWebClient
                 .post()
                 .uri(basePath + "/usuarios")
@@ -57,8 +69,13 @@ public class DomainServiceClient {
                             });
                     })
                 .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
-                .doOnSuccess(response -> log.info("Registro exitoso"))
-                .doOnError(error -> log.error("Error en registro: {}", error.getMessage()));
+                .doOnSuccess(response -> {
+                    log.info("Registro exitoso");
+                    usuariosRegistrados.agregar(usuario, correo);
+                })
+                .doOnError(error -> log.error("Error en registro: {}", error.getMessage()))
+                // Con éxito o con conflicto el usuario existe: sus 404 recordados dejan de valer
+                .doFinally(senal -> noEncontrados.invalidar(usuario));
     }
 
     public Mono<Map<String, Object>> autenticar(Object requestBody) {
@@ -86,11 +103,21 @@ public class DomainServiceClient {
                             });
                     })
                 .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
-                .doOnSuccess(response -> log.info("Autenticación exitosa"))
+                .doOnSuccess(response -> {
+                    log.info("Autenticación exitosa");
+                    if (requestBody instanceof Map<?, ?> credenciales) {
+                        usuariosRegistrados.agregar(texto(credenciales.get("usuario")), null);
+                    }
+                })
                 .doOnError(error -> log.error("Error en autenticación: {}", error.getMessage()));
     }
 
     public Mono<Map<String, Object>> eliminarUsuario(String usuario, String authToken) {
+        WebClientResponseException ausente = noEncontrados.buscar(NoEncontrados.Origen.SEGURIDAD, usuario, authToken);
+        if (ausente != null) {
+            log.debug("Usuario {} no encontrado recientemente, se omite DELETE", usuario);
+            return Mono.error(ausente);
+        }
         log.info("Proxy: DELETE {}/usuarios/{}", basePath, usuario);
         return domainServiceWebClient
                 .delete()
@@ -115,10 +142,17 @@ public class DomainServiceClient {
                     })
                 .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
                 .doOnSuccess(response -> log.info("Usuario eliminado exitosamente"))
-                .doOnError(error -> log.error("Error eliminando usuario: {}", error.getMessage()));
+                .doOnError(error -> log.error("Error eliminando usuario: {}", error.getMessage()))
+                .doOnError(WebClientResponseException.NotFound.class, noEncontrado ->
+                        noEncontrados.registrar(NoEncontrados.Origen.SEGURIDAD, usuario, authToken, noEncontrado));
     }
 
     public Mono<Map<String, Object>> obtenerUsuario(String usuario, String authToken) {
+        WebClientResponseException ausente = noEncontrados.buscar(NoEncontrados.Origen.SEGURIDAD, usuario, authToken);
+        if (ausente != null) {
+            log.debug("Usuario {} no encontrado recientemente, se omite GET", usuario);
+            return Mono.error(ausente);
+        }
         log.info("Proxy: GET {}/usuarios/{}", basePath, usuario);
         
         return domainServiceWebClient
@@ -143,8 +177,14 @@ public class DomainServiceClient {
                             });
                     })
                 .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
-                .doOnSuccess(response -> log.info("Usuario obtenido exitosamente"))
-                .doOnError(error -> log.error("Error obteniendo usuario: {}", error.getMessage()));
+                .doOnSuccess(response -> {
+                    log.info("Usuario obtenido exitosamente");
+                    Object datos = response != null ? response.get("respuesta") : null;
+                    usuariosRegistrados.agregar(usuario, datos instanceof Map<?, ?> seguridad ? texto(seguridad.get("correo")) : null);
+                })
+                .doOnError(error -> log.error("Error obteniendo usuario: {}", error.getMessage()))
+                .doOnError(WebClientResponseException.NotFound.class, noEncontrado ->
+                        noEncontrados.registrar(NoEncontrados.Origen.SEGURIDAD, usuario, authToken, noEncontrado));
     }
 
     public Mono<Map<String, Object>> actualizarUsuario(String usuario, Object requestBody, String authToken) {
@@ -176,5 +216,43 @@ public class DomainServiceClient {
                 .doOnSuccess(response -> log.info("Usuario actualizado exitosamente"))
                 .doOnError(error -> log.error("Error actualizando usuario: {}", error.getMessage()));
     }
-}
 
+    /**
+     * Consulta varios usuarios en una sola llamada ({@code POST /usuarios/_batch}).
+     *
+     * <p>Solo se usa con {@code gateway.batch.downstream-batch=true}, cuando el Domain Service
+     * expone la consulta por lotes.</p>
+     */
+    public Mono<Map<String, Object>> obtenerUsuarios(List<String> usuarios, String authToken) {
+        log.info("Proxy: POST {}/usuarios/_batch ({} usuarios)", basePath, usuarios.size());
+        return domainServiceWebClient
+                .post()
+                .uri(basePath + "/usuarios/_batch")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + authToken)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(Map.of("usuarios", usuarios))
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                    response -> {
+                        log.error("Error obteniendo usuarios por lote: {} {}", response.statusCode(), response.statusCode().value());
+                        return response.bodyToMono(String.class)
+                            .flatMap(errorBody -> {
+                                org.springframework.web.reactive.function.client.WebClientResponseException exception = 
+                                    org.springframework.web.reactive.function.client.WebClientResponseException.create(
+                                        response.statusCode().value(),
+                                        response.statusCode().toString(),
+                                        response.headers().asHttpHeaders(),
+                                        errorBody != null ? errorBody.getBytes() : null,
+                                        java.nio.charset.StandardCharsets.UTF_8
+                                    );
+                                return Mono.error(exception);
+                            });
+                    })
+                .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
+                .doOnError(error -> log.error("Error obteniendo usuarios por lote: {}", error.getMessage()));
+    }
+
+    private static String texto(Object valor) {
+        return valor instanceof String cadena ? cadena : null;
+    }
+}
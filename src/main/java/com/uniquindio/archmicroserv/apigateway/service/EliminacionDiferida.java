@@ -0,0 +1,292 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.apigateway.messaging.EventoPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limpieza posterior a la eliminación de un usuario (perfil y evento
+ * {@code ELIMINACION_USUARIO}) ejecutada en segundo plano.
+ *
+ * <p>Con {@code gateway.delete.async-tail.enabled=true}, {@code DELETE /api/v1/usuarios/{usuario}}
+ * responde apenas el Domain Service confirma la eliminación, que es la operación que
+ * decide el resultado; ambos pasos de la limpieza ya eran no críticos. Cada tarea se
+ * registra primero en un archivo de {@code journal-dir} y se borra al completarse. El
+ * journal se relee al iniciar y cada {@code rescan-interval-ms}, de modo que las tareas
+ * que agotaron sus reintentos o quedaron de una ejecución anterior se vuelven a encolar;
+ * los archivos ilegibles se apartan con la extensión {@code .corrupto}.</p>
+ *
+ * <p>La cola admite {@code queue-capacity} tareas y se procesan {@code workers} a la vez,
+ * con hasta {@code max-retries} reintentos con espera exponencial por paso. Si la cola está
+ * llena o no se puede escribir el journal, {@link #programar} responde {@code false} y el
+ * llamador hace la limpieza en línea, como sin este modo.</p>
+ */
+@Service
+public class EliminacionDiferida implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EliminacionDiferida.class);
+    private static final String EXTENSION = ".json";
+    private static final String EXTENSION_CUARENTENA = ".corrupto";
+
+    private final GestionPerfilServiceClient gestionPerfilServiceClient;
+    private final EventoPublisher eventoPublisher;
+    private final ObjectMapper objectMapper;
+    private final boolean habilitada;
+    private final Path directorio;
+    private final int maxReintentos;
+    private final Duration esperaReintento;
+    private final Sinks.Many<Tarea> cola;
+    /** Archivos del journal en cola o en proceso, que el reescaneo no debe volver a encolar. */
+    private final Set<Path> enCurso = ConcurrentHashMap.newKeySet();
+    private final Disposable procesamiento;
+
+    public EliminacionDiferida(
+            GestionPerfilServiceClient gestionPerfilServiceClient,
+            EventoPublisher eventoPublisher,
+            ObjectMapper objectMapper,
+            @Value("${gateway.delete.async-tail.enabled:false}") boolean habilitada,
+            @Value("${gateway.delete.async-tail.journal-dir:data/eliminaciones-pendientes}") String directorio,
+            @Value("${gateway.delete.async-tail.queue-capacity:10000}") int capacidad,
+            @Value("${gateway.delete.async-tail.workers:4}") int workers,
+            @Value("${gateway.delete.async-tail.max-retries:5}") int maxReintentos,
+            @Value("${gateway.delete.async-tail.retry-backoff-ms:500}") long esperaReintentoMs,
+            @Value("${gateway.delete.async-tail.rescan-interval-ms:60000}") long reescaneoMs) {
+        this.gestionPerfilServiceClient = gestionPerfilServiceClient;
+        this.eventoPublisher = eventoPublisher;
+        this.objectMapper = objectMapper;
+        this.habilitada = habilitada;
+        this.directorio = Paths.get(directorio);
+        this.maxReintentos = Math.max(0, maxReintentos);
+        this.esperaReintento = Duration.ofMillis(Math.max(1, esperaReintentoMs));
+
+        Queue<Tarea> pendientes = new ArrayBlockingQueue<>(Math.max(1, capacidad));
+        this.cola = Sinks.many().unicast().onBackpressureBuffer(pendientes);
+        if (!habilitada) {
+            this.procesamiento = null;
+            return;
+        }
+        Disposable.Composite tareas = Disposables.composite(cola.asFlux()
+                .flatMap(this::procesar, Math.max(1, workers))
+                .subscribe());
+        reescanear();
+        if (reescaneoMs > 0) {
+            Duration intervalo = Duration.ofMillis(reescaneoMs);
+            tareas.add(Flux.interval(intervalo, intervalo, Schedulers.boundedElastic())
+                    .subscribe(tick -> reescanear()));
+        }
+        this.procesamiento = tareas;
+    }
+
+    /**
+     * @return true si la limpieza posterior a la eliminación se hace en segundo plano
+     */
+    public boolean habilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Registra la limpieza de un usuario ya eliminado del Domain Service.
+     *
+     * @param usuario Usuario eliminado
+     * @param correo Correo para el evento (puede ser vacío)
+     * @return true si la tarea quedó registrada y en cola; false si el llamador debe hacer la limpieza
+     */
+    public Mono<Boolean> programar(String usuario, String correo) {
+        return Mono.fromCallable(() -> {
+                    Tarea tarea = new Tarea(directorio.resolve(UUID.randomUUID() + EXTENSION),
+                            new EliminacionPendiente(usuario, correo, false));
+                    // Se marca antes de escribir para que un reescaneo simultáneo no la encole dos veces
+                    enCurso.add(tarea.archivo());
+                    boolean encolada = false;
+                    try {
+                        escribir(tarea);
+                        encolada = encolar(tarea);
+                        if (!encolada) {
+                            log.warn("Cola de eliminaciones diferidas llena, limpieza de {} en línea", usuario);
+                            Files.deleteIfExists(tarea.archivo());
+                        }
+                        return encolada;
+                    } finally {
+                        if (!encolada) {
+                            enCurso.remove(tarea.archivo());
+                        }
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(error -> {
+                    log.error("No se pudo registrar la eliminación diferida de {}: {}", usuario, error.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * El sink no admite emisiones concurrentes; false si la cola está llena.
+     */
+    private synchronized boolean encolar(Tarea tarea) {
+        return cola.tryEmitNext(tarea).isSuccess();
+    }
+
+    private Mono<Void> procesar(Tarea tarea) {
+        EliminacionPendiente pendiente = tarea.pendiente();
+        Mono<Tarea> perfil = pendiente.perfilEliminado()
+                ? Mono.just(tarea)
+                : eliminarPerfil(pendiente.usuario())
+                        .then(Mono.fromCallable(() -> {
+                            Tarea avance = new Tarea(tarea.archivo(),
+                                    new EliminacionPendiente(pendiente.usuario(), pendiente.correo(), true));
+                            escribir(avance);
+                            return avance;
+                        }).subscribeOn(Schedulers.boundedElastic()));
+
+        return perfil
+                .flatMap(avance -> publicarEvento(pendiente)
+                        .then(Mono.fromCallable(() -> Files.deleteIfExists(avance.archivo()))
+                                .subscribeOn(Schedulers.boundedElastic())))
+                .doOnSuccess(completada -> log.info("Limpieza diferida de {} completada", pendiente.usuario()))
+                .onErrorResume(error -> {
+                    log.error("Limpieza diferida de {} pendiente tras {} reintentos, se retomará en el próximo reescaneo: {}",
+                            pendiente.usuario(), maxReintentos, error.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(senal -> enCurso.remove(tarea.archivo()))
+                .then();
+    }
+
+    private Mono<Void> eliminarPerfil(String usuario) {
+        return gestionPerfilServiceClient.eliminarPerfil(usuario)
+                .onErrorResume(error -> error instanceof WebClientResponseException webClientError
+                        && webClientError.getStatusCode().value() == 404, error -> Mono.empty())
+                .retryWhen(reintentos());
+    }
+
+    private Mono<Void> publicarEvento(EliminacionPendiente pendiente) {
+        return Mono.fromRunnable(() -> {
+                    int publicados = eventoPublisher.publicarEventosEliminacion(
+                            List.of(Map.entry(pendiente.usuario(), pendiente.correo())));
+                    if (publicados == 0) {
+                        throw new IllegalStateException("No se publicó el evento de eliminación");
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .retryWhen(reintentos())
+                .then();
+    }
+
+    private Retry reintentos() {
+        return Retry.backoff(maxReintentos, esperaReintento)
+                .onRetryExhaustedThrow((spec, senal) -> senal.failure());
+    }
+
+    private void escribir(Tarea tarea) throws IOException {
+        Files.createDirectories(directorio);
+        Path temporal = tarea.archivo().resolveSibling(tarea.archivo().getFileName() + ".tmp");
+        Files.write(temporal, objectMapper.writeValueAsBytes(tarea.pendiente()),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE,
+                StandardOpenOption.DSYNC);
+        Files.move(temporal, tarea.archivo(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Encola las tareas del journal que no están en cola ni en proceso: las de una ejecución
+     * anterior y las que agotaron sus reintentos. Nunca lanza excepción; un journal ilegible
+     * no debe impedir el arranque ni detener el reescaneo periódico.
+     */
+    private void reescanear() {
+        if (!Files.isDirectory(directorio)) {
+            return;
+        }
+        int encoladas = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                if (!enCurso.add(archivo)) {
+                    continue;
+                }
+                EliminacionPendiente pendiente = leer(archivo);
+                if (pendiente == null) {
+                    enCurso.remove(archivo);
+                    continue;
+                }
+                if (!encolar(new Tarea(archivo, pendiente))) {
+                    enCurso.remove(archivo);
+                    log.warn("Cola llena al releer el journal de eliminaciones; el resto se retomará en el próximo reescaneo");
+                    break;
+                }
+                encoladas++;
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            log.error("No se pudo leer el journal de eliminaciones {}: {}", directorio, e.getMessage());
+        }
+        if (encoladas > 0) {
+            log.info("Retomando {} eliminaciones diferidas pendientes", encoladas);
+        }
+    }
+
+    /**
+     * @return la tarea del archivo, o null si ya no existe o es ilegible (en ese caso se aparta)
+     */
+    private EliminacionPendiente leer(Path archivo) {
+        try {
+            return objectMapper.readValue(Files.readAllBytes(archivo), EliminacionPendiente.class);
+        } catch (NoSuchFileException e) {
+            // Completada entre el listado y la lectura
+            return null;
+        } catch (IOException e) {
+            Path cuarentena = archivo.resolveSibling(archivo.getFileName() + EXTENSION_CUARENTENA);
+            log.error("Tarea ilegible en el journal de eliminaciones, se aparta como {}: {}",
+                    cuarentena, e.getMessage());
+            try {
+                Files.move(archivo, cuarentena, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException movimiento) {
+                log.error("No se pudo apartar {}: {}", archivo, movimiento.getMessage());
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (procesamiento != null) {
+            procesamiento.dispose();
+        }
+    }
+
+    /**
+     * Contenido de cada archivo del journal.
+     *
+     * @param perfilEliminado true si ya solo falta publicar el evento
+     */
+    record EliminacionPendiente(String usuario, String correo, boolean perfilEliminado) {
+    }
+
+    private record Tarea(Path archivo, EliminacionPendiente pendiente) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.messaging.EventoPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eliminación de usuarios completos por lotes.
+ *
+ * <p>Cada usuario sigue la misma secuencia que {@code DELETE /api/v1/usuarios/{usuario}}
+ * (Domain Service, luego perfil), con hasta {@code gateway.bulk-delete.parallelism}
+ * usuarios en curso. Los eventos {@code ELIMINACION_USUARIO} se agrupan en lotes de
+ * {@code event-batch-size} (o lo acumulado cada {@code event-batch-interval-ms}) y se
+ * publican por un único canal; el avance de cada usuario se emite después de publicar
+ * el lote de eventos que lo incluye. Si el broker rechaza un lote de eventos se reintenta
+ * hasta {@code event-max-retries} veces; agotados los reintentos, sus usuarios se reportan
+ * con {@code "evento": false} y se cuentan en {@code eventosFallidos} del resumen.</p>
+ *
+ * <p>Un usuario que falla se reporta en su elemento sin detener el resto. Un {@code 401}
+ * corta el lote, porque el token es el mismo para todos.</p>
+ */
+@Service
+public class EliminacionLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(EliminacionLoteService.class);
+
+    private final DomainServiceClient domainServiceClient;
+    private final GestionPerfilServiceClient gestionPerfilServiceClient;
+    private final EventoPublisher eventoPublisher;
+    private final int paralelismo;
+    private final int maxUsuarios;
+    private final int tamanoLoteEventos;
+    private final Duration intervaloLoteEventos;
+    private final int maxReintentosEventos;
+    private final Duration esperaReintentoEventos;
+
+    public EliminacionLoteService(
+            DomainServiceClient domainServiceClient,
+            GestionPerfilServiceClient gestionPerfilServiceClient,
+            EventoPublisher eventoPublisher,
+            @Value("${gateway.bulk-delete.parallelism:8}") int paralelismo,
+            @Value("${gateway.bulk-delete.max-items:10000}") int maxUsuarios,
+            @Value("${gateway.bulk-delete.event-batch-size:100}") int tamanoLoteEventos,
+            @Value("${gateway.bulk-delete.event-batch-interval-ms:500}") long intervaloLoteEventosMs,
+            @Value("${gateway.bulk-delete.event-max-retries:3}") int maxReintentosEventos,
+            @Value("${gateway.bulk-delete.event-retry-backoff-ms:200}") long esperaReintentoEventosMs) {
+        this.domainServiceClient = domainServiceClient;
+        this.gestionPerfilServiceClient = gestionPerfilServiceClient;
+        this.eventoPublisher = eventoPublisher;
+        this.paralelismo = Math.max(1, paralelismo);
+        this.maxUsuarios = maxUsuarios;
+        this.tamanoLoteEventos = Math.max(1, tamanoLoteEventos);
+        this.intervaloLoteEventos = Duration.ofMillis(Math.max(1, intervaloLoteEventosMs));
+        this.maxReintentosEventos = Math.max(0, maxReintentosEventos);
+        this.esperaReintentoEventos = Duration.ofMillis(Math.max(1, esperaReintentoEventosMs));
+    }
+
+    /**
+     * @return Máximo de usuarios aceptados en una eliminación por lote
+     */
+    public int maxUsuarios() {
+        return maxUsuarios;
+    }
+
+    /**
+     * Elimina varios usuarios y emite el avance de cada uno, seguido de un resumen final.
+     *
+     * @param usuarios Nombres de usuario a eliminar
+     * @param token Token JWT sin el prefijo {@code Bearer}
+     * @return Un elemento por usuario ({@code eliminado} o {@code error}, y {@code evento: false} si su
+     *         evento no se publicó) y un último elemento con {@code resumen}
+     */
+    public Flux<Map<String, Object>> eliminarUsuarios(List<String> usuarios, String token) {
+        List<String> unicos = usuarios.stream().distinct().toList();
+        log.info("Eliminando {} usuarios por lote", unicos.size());
+        AtomicInteger eliminados = new AtomicInteger();
+        AtomicInteger fallidos = new AtomicInteger();
+        AtomicInteger eventosFallidos = new AtomicInteger();
+
+        Flux<Map<String, Object>> avance = Flux.fromIterable(unicos)
+                .flatMap(usuario -> eliminarUsuario(usuario, token), paralelismo)
+                .bufferTimeout(tamanoLoteEventos, intervaloLoteEventos)
+                .concatMap(grupo -> publicarEventos(grupo).flatMapMany(publicados -> Flux.fromIterable(grupo)
+                        .map(resultado -> {
+                            if (resultado.correo() == null) {
+                                fallidos.incrementAndGet();
+                                return resultado.elemento();
+                            }
+                            eliminados.incrementAndGet();
+                            if (!publicados) {
+                                eventosFallidos.incrementAndGet();
+                                resultado.elemento().put("evento", false);
+                            }
+                            return resultado.elemento();
+                        })));
+
+        return avance.concatWith(Mono.fromSupplier(() -> {
+            Map<String, Object> resumen = new HashMap<>();
+            resumen.put("resumen", true);
+            resumen.put("total", unicos.size());
+            resumen.put("eliminados", eliminados.get());
+            resumen.put("fallidos", fallidos.get());
+            resumen.put("eventosFallidos", eventosFallidos.get());
+            return resumen;
+        }));
+    }
+
+    private Mono<Resultado> eliminarUsuario(String usuario, String token) {
+        return domainServiceClient
+                .eliminarUsuario(usuario, token)
+                .defaultIfEmpty(new HashMap<>())
+                .flatMap(seguridadResponse -> gestionPerfilServiceClient
+                        .eliminarPerfil(usuario)
+                        .onErrorResume(error -> {
+                            boolean noEncontrado = error instanceof WebClientResponseException webClientError
+                                    && webClientError.getStatusCode().value() == 404;
+                            if (!noEncontrado) {
+                                log.warn("Error eliminando perfil de {} (no crítico): {}", usuario, error.getMessage());
+                            }
+                            return Mono.empty();
+                        })
+                        .then(Mono.fromSupplier(() -> {
+                            Map<String, Object> elemento = new HashMap<>();
+                            elemento.put("usuario", usuario);
+                            elemento.put("eliminado", true);
+                            return new Resultado(elemento, extraerCorreo(seguridadResponse));
+                        })))
+                .onErrorResume(error -> !ConsultaLoteService.esNoAutorizado(error), error -> Mono.just(new Resultado(
+                        ConsultaLoteService.resultadoError(usuario, error, "Error eliminando usuario"), null)));
+    }
+
+    /**
+     * Publica los eventos de los usuarios eliminados del grupo fuera de los hilos de red,
+     * porque {@code RabbitTemplate} es bloqueante.
+     *
+     * @return false si el lote no se pudo publicar tras los reintentos
+     */
+    private Mono<Boolean> publicarEventos(List<Resultado> grupo) {
+        List<Map.Entry<String, String>> eliminados = grupo.stream()
+                .filter(resultado -> resultado.correo() != null)
+                .map(resultado -> Map.entry((String) resultado.elemento().get("usuario"), resultado.correo()))
+                .toList();
+        if (eliminados.isEmpty()) {
+            return Mono.just(true);
+        }
+        return Mono.fromCallable(() -> {
+                    if (eventoPublisher.publicarEventosEliminacion(eliminados) == 0) {
+                        throw new IllegalStateException("No se publicaron los eventos de eliminación");
+                    }
+                    return true;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .retryWhen(Retry.backoff(maxReintentosEventos, esperaReintentoEventos)
+                        .onRetryExhaustedThrow((spec, senal) -> senal.failure()))
+                .onErrorResume(error -> {
+                    log.error("Lote de {} eventos de eliminación sin publicar tras {} reintentos: {}",
+                            eliminados.size(), maxReintentosEventos, error.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String extraerCorreo(Map<String, Object> usuarioData) {
+        Object respuesta = usuarioData.get("respuesta");
+        Map<String, Object> datos = respuesta instanceof Map ? (Map<String, Object>) respuesta : usuarioData;
+        Object correo = datos.get("correo");
+        return correo != null ? correo.toString() : "";
+    }
+
+    /**
+     * Resultado interno de un usuario; {@code correo} es null si no se eliminó.
+     */
+    private record Resultado(Map<String, Object> elemento, String correo) {
+    }
+}
@@ -0,0 +1,218 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.dto.CamposUsuario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * ETags de la vista combinada de un usuario ({@code GET /api/v1/usuarios/{usuario}}).
+ *
+ * <p>La etiqueta es un hash FNV-1a de 64 bits calculado recorriendo el mapa con las claves
+ * ordenadas, sin serializarlo, así que no depende del orden de los campos que devuelvan
+ * los microservicios. Si se configuran {@code gateway.etag.version-fields} y cada sección
+ * de la vista trae uno de esos campos, solo se usan sus valores. Es una etiqueta débil
+ * ({@code W/"..."}): identifica el contenido, no los bytes, que cambian al comprimir.</p>
+ *
+ * <p>Con {@code gateway.etag.short-circuit-ttl-ms} mayor que cero se recuerda la última
+ * etiqueta enviada por usuario y atributos. Si el cliente la envía en {@code If-None-Match}
+ * dentro de ese plazo, y su token ya está en {@link AccesosVerificados}, se responde
+ * {@code 304} sin consultar los microservicios. Las actualizaciones y eliminaciones que
+ * pasan por el gateway invalidan la etiqueta; los cambios hechos directamente en los
+ * microservicios pueden tardar hasta el TTL en verse.</p>
+ */
+@Component
+public class EtiquetasUsuario {
+
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+    private static final String[] SECCIONES = {"datosSeguridad", "perfil"};
+
+    private final Map<String, Entrada> recientes = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private final List<String> camposVersion;
+    private final LongSupplier reloj;
+
+    @Autowired
+    public EtiquetasUsuario(
+            @Value("${gateway.etag.short-circuit-ttl-ms:0}") long ttlMs,
+            @Value("${gateway.etag.max-entries:10000}") int maxEntradas,
+            @Value("${gateway.etag.version-fields:}") List<String> camposVersion) {
+        this(ttlMs, maxEntradas, camposVersion, System::nanoTime);
+    }
+
+    EtiquetasUsuario(long ttlMs, int maxEntradas, List<String> camposVersion, LongSupplier reloj) {
+        this.ttlNanos = Math.max(0, ttlMs) * 1_000_000L;
+        this.maxEntradas = Math.max(1, maxEntradas);
+        this.camposVersion = camposVersion.stream().map(String::trim).filter(campo -> !campo.isEmpty()).toList();
+        this.reloj = reloj;
+    }
+
+    /**
+     * @param vista Vista combinada que se enviaría al cliente
+     * @return Etiqueta débil de la vista
+     */
+    public String calcular(Map<String, Object> vista) {
+        List<Object> versiones = versiones(vista);
+        long hash = versiones != null
+                ? agregar(agregar(FNV_BASE, vista.get("usuario")), versiones)
+                : agregar(FNV_BASE, vista);
+        return "W/\"" + HexFormat.of().toHexDigits(hash) + '"';
+    }
+
+    /**
+     * @return La última etiqueta enviada para el usuario y los atributos, o null si venció o no hay
+     */
+    public String vigente(String usuario, CamposUsuario campos) {
+        if (ttlNanos == 0) {
+            return null;
+        }
+        Entrada entrada = recientes.get(clave(usuario, campos));
+        return entrada != null && entrada.vence() - reloj.getAsLong() > 0 ? entrada.etiqueta() : null;
+    }
+
+    /**
+     * Recuerda la etiqueta enviada para el usuario y los atributos.
+     */
+    public void registrar(String usuario, CamposUsuario campos, String etiqueta) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        recientes.put(clave(usuario, campos), new Entrada(etiqueta, ahora + ttlNanos));
+        if (recientes.size() > maxEntradas) {
+            recientes.values().removeIf(entrada -> entrada.vence() - ahora <= 0);
+            if (recientes.size() > maxEntradas) {
+                // Sin entradas vencidas que barrer: se pierde solo el atajo, no la validación
+                recientes.clear();
+            }
+        }
+    }
+
+    /**
+     * Olvida las etiquetas del usuario, para todas las combinaciones de atributos.
+     */
+    public void invalidar(String usuario) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        for (boolean datosSeguridad : new boolean[] {true, false}) {
+            for (boolean perfil : new boolean[] {true, false}) {
+                recientes.remove(clave(usuario, new CamposUsuario(datosSeguridad, perfil)));
+            }
+        }
+    }
+
+    /**
+     * Compara con comparación débil (RFC 9110), como corresponde a {@code If-None-Match}.
+     *
+     * @param ifNoneMatch Valor del header, puede ser null
+     * @return true si el header es {@code *} o contiene la etiqueta
+     */
+    public static boolean coincide(String ifNoneMatch, String etiqueta) {
+        if (ifNoneMatch == null || etiqueta == null) {
+            return false;
+        }
+        String buscada = opaca(etiqueta);
+        for (String candidata : ifNoneMatch.split(",")) {
+            String valor = candidata.trim();
+            if (valor.equals("*") || opaca(valor).equals(buscada)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaca(String etiqueta) {
+        return etiqueta.startsWith("W/") ? etiqueta.substring(2) : etiqueta;
+    }
+
+    /**
+     * @return El valor de un campo de versión por cada sección presente, o null si alguna no lo trae
+     */
+    private List<Object> versiones(Map<String, Object> vista) {
+        if (camposVersion.isEmpty()) {
+            return null;
+        }
+        List<Object> versiones = new ArrayList<>(SECCIONES.length * 2);
+        for (String seccion : SECCIONES) {
+            if (!vista.containsKey(seccion)) {
+                continue;
+            }
+            Object version = vista.get(seccion) instanceof Map<?, ?> datos ? version(datos) : null;
+            if (version == null) {
+                return null;
+            }
+            versiones.add(seccion);
+            versiones.add(version);
+        }
+        return versiones.isEmpty() ? null : versiones;
+    }
+
+    private Object version(Map<?, ?> datos) {
+        for (String campo : camposVersion) {
+            Object valor = datos.get(campo);
+            if (valor != null) {
+                return valor;
+            }
+        }
+        return null;
+    }
+
+    private static long agregar(long hash, Object valor) {
+        if (valor instanceof Map<?, ?> mapa) {
+            hash = agregar(hash, '{');
+            Object[] claves = mapa.keySet().stream().map(String::valueOf).toArray();
+            Arrays.sort(claves);
+            for (Object clave : claves) {
+                hash = agregar(hash, (String) clave);
+                hash = agregar(hash, ':');
+                hash = agregar(hash, mapa.get(clave));
+            }
+            return agregar(hash, '}');
+        }
+        if (valor instanceof Collection<?> elementos) {
+            hash = agregar(hash, '[');
+            for (Object elemento : elementos) {
+                hash = agregar(hash, elemento);
+                hash = agregar(hash, ',');
+            }
+            return agregar(hash, ']');
+        }
+        if (valor == null) {
+            return agregar(hash, '~');
+        }
+        // El prefijo de tipo distingue "1" de 1 y "true" de true
+        hash = agregar(hash, valor instanceof String ? '"' : valor instanceof Number ? '#' : '?');
+        return agregar(hash, valor.toString());
+    }
+
+    private static long agregar(long hash, String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            hash = agregar(hash, texto.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long agregar(long hash, char caracter) {
+        hash = (hash ^ (caracter & 0xff)) * FNV_PRIMO;
+        return (hash ^ (caracter >>> 8)) * FNV_PRIMO;
+    }
+
+    private static String clave(String usuario, CamposUsuario campos) {
+        return usuario + ':' + (campos.datosSeguridad() ? 's' : '-') + (campos.perfil() ? 'p' : '-');
+    }
+
+    private record Entrada(String etiqueta, long vence) {
+    }
+}
@@ -9,8 +9,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -24,12 +26,24 @@ public class GestionPerfilServiceClient {
     @Qualifier("gestionPerfilServiceWebClient")
     private final WebClient gestionPerfilServiceWebClient;
 
+    private final NoEncontrados noEncontrados;
+
+    private final CachePerfiles cachePerfiles;
+
+    private final PerfilesFrecuentes perfilesFrecuentes;
+
     @Value("${gestion.perfil.service.base-path}")
     private String basePath;
 
     // Constructor explícito para inyección de dependencias
-    public GestionPerfilServiceClient(@Qualifier("gestionPerfilServiceWebClient") WebClient gestionPerfilServiceWebClient) {
+    public GestionPerfilServiceClient(@Qualifier("gestionPerfilServiceWebClient") WebClient gestionPerfilServiceWebClient,
+                                      NoEncontrados noEncontrados,
+                                      CachePerfiles cachePerfiles,
+                                      PerfilesFrecuentes perfilesFrecuentes) {
         this.gestionPerfilServiceWebClient = gestionPerfilServiceWebClient;
+        this.noEncontrados = noEncontrados;
+        this.cachePerfiles = cachePerfiles;
+        this.perfilesFrecuentes = perfilesFrecuentes;
     }
 
     public Mono<Map<String, Object>> crearPerfil(String usuarioId, Object requestBody) {
@@ -58,10 +72,42 @@ public class GestionPerfilServiceClient {
                     })
                 .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
                 .doOnSuccess(response -> log.info("Perfil creado exitosamente"))
-                .doOnError(error -> log.error("Error creando perfil: {}", error.getMessage()));
+                .doOnError(error -> log.error("Error creando perfil: {}", error.getMessage()))
+                .doFinally(senal -> {
+                    noEncontrados.invalidar(usuarioId);
+                    cachePerfiles.invalidar(usuarioId);
+                });
     }
 
     public Mono<Map<String, Object>> obtenerPerfil(String usuarioId) {
+        perfilesFrecuentes.registrar(usuarioId);
+        return precargarPerfil(usuarioId);
+    }
+
+    /**
+     * Igual que {@link #obtenerPerfil} pero sin contarlo en {@link PerfilesFrecuentes}: la
+     * precarga del {@link Calentamiento} no debe sostener la lista de la que sale.
+     */
+    public Mono<Map<String, Object>> precargarPerfil(String usuarioId) {
+        WebClientResponseException ausente = noEncontrados.buscar(NoEncontrados.Origen.PERFIL, usuarioId, null);
+        if (ausente != null) {
+            log.debug("Perfil {} no encontrado recientemente, se omite GET", usuarioId);
+            return Mono.error(ausente);
+        }
+        return cachePerfiles.obtener(usuarioId)
+                .switchIfEmpty(Mono.defer(() -> consultarPerfil(usuarioId)));
+    }
+
+    /**
+     * Lee el perfil directamente del microservicio, sin consultar {@link CachePerfiles} ni
+     * {@link NoEncontrados} y sin contarlo en {@link PerfilesFrecuentes}. Para cuando una
+     * copia vieja no sirve, como la imagen previa que se usa para deshacer una escritura.
+     */
+    public Mono<Map<String, Object>> leerPerfilActual(String usuarioId) {
+        return consultarPerfil(usuarioId);
+    }
+
+    private Mono<Map<String, Object>> consultarPerfil(String usuarioId) {
         log.info("Proxy: GET {}/{}", basePath, usuarioId);
         return gestionPerfilServiceWebClient
                 .get()
@@ -85,7 +131,10 @@ public class GestionPerfilServiceClient {
                     })
                 .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
                 .doOnSuccess(response -> log.info("Perfil obtenido exitosamente"))
-                .doOnError(error -> log.error("Error obteniendo perfil: {}", error.getMessage()));
+                .doOnNext(perfil -> cachePerfiles.guardar(usuarioId, perfil))
+                .doOnError(error -> log.error("Error obteniendo perfil: {}", error.getMessage()))
+                .doOnError(WebClientResponseException.NotFound.class, noEncontrado ->
+                        noEncontrados.registrar(NoEncontrados.Origen.PERFIL, usuarioId, null, noEncontrado));
     }
 
     public Mono<Map<String, Object>> actualizarPerfil(String usuarioId, Object requestBody) {
@@ -97,8 +146,13 @@ public class GestionPerfilServiceClient {
                 .bodyValue(Objects.requireNonNull(requestBody, "requestBody must not be null"))
                 .retrieve()
                 .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
-                .doOnSuccess(response -> log.info("Perfil actualizado exitosamente"))
-                .doOnError(error -> log.error("Error actualizando perfil: {}", error.getMessage()));
+                .doOnSuccess(response -> {
+                    log.info("Perfil actualizado exitosamente");
+                    // El PUT puede crear el perfil si no existía
+                    noEncontrados.invalidar(usuarioId);
+                })
+                .doOnError(error -> log.error("Error actualizando perfil: {}", error.getMessage()))
+                .doFinally(senal -> cachePerfiles.invalidar(usuarioId));
     }
 
     public Mono<Void> eliminarPerfil(String usuarioId) {
@@ -109,7 +163,41 @@ public class GestionPerfilServiceClient {
                 .retrieve()
                 .bodyToMono(Void.class)
                 .doOnSuccess(response -> log.info("Perfil eliminado exitosamente"))
-                .doOnError(error -> log.error("Error eliminando perfil: {}", error.getMessage()));
+                .doOnError(error -> log.error("Error eliminando perfil: {}", error.getMessage()))
+                .doFinally(senal -> cachePerfiles.invalidar(usuarioId));
     }
-}
 
+    /**
+     * Consulta varios perfiles en una sola llamada ({@code POST /_batch}).
+     *
+     * <p>Solo se usa con {@code gateway.batch.downstream-batch=true}, cuando el servicio
+     * de perfiles expone la consulta por lotes.</p>
+     */
+    public Mono<Map<String, Object>> obtenerPerfiles(List<String> usuarioIds) {
+        log.info("Proxy: POST {}/_batch ({} perfiles)", basePath, usuarioIds.size());
+        return gestionPerfilServiceWebClient
+                .post()
+                .uri(basePath + "/_batch")
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(Map.of("usuarios", usuarioIds))
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                    response -> {
+                        log.error("Error obteniendo perfiles por lote: {} {}", response.statusCode(), response.statusCode().value());
+                        return response.bodyToMono(String.class)
+                            .flatMap(errorBody -> {
+                                org.springframework.web.reactive.function.client.WebClientResponseException exception = 
+                                    org.springframework.web.reactive.function.client.WebClientResponseException.create(
+                                        response.statusCode().value(),
+                                        response.statusCode().toString(),
+                                        response.headers().asHttpHeaders(),
+                                        errorBody != null ? errorBody.getBytes() : null,
+                                        java.nio.charset.StandardCharsets.UTF_8
+                                    );
+                                return Mono.error(exception);
+                            });
+                    })
+                .bodyToMono(Objects.requireNonNull(MAP_TYPE_REF, "MAP_TYPE_REF must not be null"))
+                .doOnError(error -> log.error("Error obteniendo perfiles por lote: {}", error.getMessage()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+/**
+ * Hash de 64 bits para los filtros probabilísticos del paquete: FNV-1a sobre los
+ * caracteres y la mezcla final de MurmurHash3 para repartir también los bits altos.
+ */
+final class Hash64 {
+
+    private Hash64() {
+    }
+
+    static long de(String clave) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < clave.length(); i++) {
+            hash = (hash ^ clave.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3f99fe1a85bL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Posición {@code i} (desde 1) de un filtro de {@code tamano} celdas con doble hashing.
+     */
+    static int posicion(long hash, int i, int tamano) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return ((h1 + i * h2) & Integer.MAX_VALUE) % tamano;
+    }
+}
@@ -0,0 +1,184 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché negativa: recuerda por poco tiempo los {@code 404} del Domain Service y del
+ * Gestion Perfil Service para no reenviar cada sondeo de nombres de usuario.
+ *
+ * <p>Los {@code 404} del Domain Service se guardan por usuario y token (como hash
+ * SHA-256), igual que {@link AccesosVerificados}: otro token no recibe un {@code 404}
+ * que quizá no le correspondía. Los del servicio de perfiles, que no usa token, solo
+ * por usuario.</p>
+ *
+ * <p>Un usuario entra a la caché recién en su segundo {@code 404} dentro de la ventana
+ * de {@code gateway.negative-cache.ttl-ms}. El primero solo se marca en un filtro de
+ * Bloom de tamaño fijo ({@code doorkeeper-size} claves con ~1% de falsos positivos),
+ * así los nombres sondeados una sola vez no ocupan entradas. Un falso positivo del
+ * filtro solo adelanta el guardado de un {@code 404} real. La caché nunca supera
+ * {@code max-entries}: si está llena y no hay vencidas, el {@code 404} no se guarda.</p>
+ *
+ * <p>El registro de un usuario o la creación de su perfil por el gateway lo invalidan
+ * ({@link #invalidar}). Un usuario creado por otra vía puede seguir respondiendo
+ * {@code 404} hasta que vence su entrada, por lo que el TTL debe ser corto.</p>
+ */
+@Component
+public class NoEncontrados {
+
+    /**
+     * Microservicio que respondió {@code 404}.
+     */
+    public enum Origen { SEGURIDAD, PERFIL }
+
+    private static final int FUNCIONES_HASH = 7;
+
+    private final Map<Origen, Map<String, Entrada>> entradas = new EnumMap<>(Origen.class);
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private final int bitsPuerta;
+    private final LongSupplier reloj;
+    private volatile Puerta puerta;
+
+    @Autowired
+    public NoEncontrados(
+            @Value("${gateway.negative-cache.ttl-ms:0}") long ttlMs,
+            @Value("${gateway.negative-cache.max-entries:10000}") int maxEntradas,
+            @Value("${gateway.negative-cache.doorkeeper-size:100000}") int clavesPuerta) {
+        this(ttlMs, maxEntradas, clavesPuerta, System::nanoTime);
+    }
+
+    NoEncontrados(long ttlMs, int maxEntradas, int clavesPuerta, LongSupplier reloj) {
+        this.ttlNanos = Math.max(0, ttlMs) * 1_000_000L;
+        this.maxEntradas = Math.max(1, maxEntradas);
+        // m = -n ln(0,01) / ln(2)^2 ≈ 9,6 bits por clave; con 0 se deshabilita el filtro
+        this.bitsPuerta = clavesPuerta <= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE - 63, clavesPuerta * 10L);
+        this.reloj = reloj;
+        for (Origen origen : Origen.values()) {
+            entradas.put(origen, new ConcurrentHashMap<>());
+        }
+        this.puerta = new Puerta(bitsPuerta, reloj.getAsLong());
+    }
+
+    /**
+     * @param token Token de la solicitud; se ignora para {@link Origen#PERFIL}
+     * @return El {@code 404} recordado para el usuario, o null si no hay uno vigente
+     */
+    public WebClientResponseException buscar(Origen origen, String usuario, String token) {
+        if (ttlNanos == 0) {
+            return null;
+        }
+        Entrada entrada = entradas.get(origen).get(usuario);
+        if (entrada == null || entrada.vence() - reloj.getAsLong() <= 0
+                || !entrada.credencial().equals(credencial(origen, token))) {
+            return null;
+        }
+        return WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND.getReasonPhrase(),
+                HttpHeaders.EMPTY, entrada.cuerpo(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Registra un {@code 404} del microservicio. Se guarda desde el segundo para la misma clave.
+     */
+    public void registrar(Origen origen, String usuario, String token, WebClientResponseException noEncontrado) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        String credencial = credencial(origen, token);
+        long ahora = reloj.getAsLong();
+        if (!admitir(origen.name() + '\n' + usuario + '\n' + credencial, ahora)) {
+            return;
+        }
+        Map<String, Entrada> porUsuario = entradas.get(origen);
+        if (porUsuario.size() >= maxEntradas && !porUsuario.containsKey(usuario)) {
+            porUsuario.values().removeIf(entrada -> entrada.vence() - ahora <= 0);
+            if (porUsuario.size() >= maxEntradas) {
+                // Llena y sin vencidas: un sondeo masivo no desplaza lo ya guardado
+                return;
+            }
+        }
+        porUsuario.put(usuario, new Entrada(credencial, noEncontrado.getResponseBodyAsByteArray(), ahora + ttlNanos));
+    }
+
+    /**
+     * Olvida los {@code 404} del usuario en ambos microservicios; se llama al registrarlo.
+     */
+    public void invalidar(String usuario) {
+        if (ttlNanos == 0 || usuario == null) {
+            return;
+        }
+        for (Map<String, Entrada> porUsuario : entradas.values()) {
+            porUsuario.remove(usuario);
+        }
+    }
+
+    /**
+     * @return true si la clave ya pasó por el filtro en esta ventana; la marca si no
+     */
+    private boolean admitir(String clave, long ahora) {
+        if (bitsPuerta == 0) {
+            return true;
+        }
+        Puerta actual = puerta;
+        if (ahora - actual.inicio() >= ttlNanos) {
+            // Se renueva una vez por ventana para que las marcas viejas no saturen el filtro
+            actual = new Puerta(bitsPuerta, ahora);
+            puerta = actual;
+        }
+        return actual.marcar(clave);
+    }
+
+    private static String credencial(Origen origen, String token) {
+        if (origen == Origen.PERFIL || token == null) {
+            return "";
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record Entrada(String credencial, byte[] cuerpo, long vence) {
+    }
+
+    /**
+     * Filtro de Bloom con {@value #FUNCIONES_HASH} funciones derivadas de {@link Hash64}.
+     */
+    private record Puerta(AtomicLongArray bits, int tamano, long inicio) {
+
+        Puerta(int tamano, long inicio) {
+            this(new AtomicLongArray(Math.max(1, (tamano + 63) / 64)), Math.max(1, tamano), inicio);
+        }
+
+        /**
+         * @return true si todas las posiciones ya estaban marcadas
+         */
+        boolean marcar(String clave) {
+            long hash = Hash64.de(clave);
+            boolean presente = true;
+            for (int i = 1; i <= FUNCIONES_HASH; i++) {
+                int posicion = Hash64.posicion(hash, i, tamano);
+                long mascara = 1L << posicion;
+                long anterior = bits.getAndAccumulate(posicion >>> 6, mascara, (actual, m) -> actual | m);
+                presente &= (anterior & mascara) != 0;
+            }
+            return presente;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Usuarios cuyos perfiles se consultan más, guardados en {@code gateway.warmup.hot-keys.file}
+ * para precargarlos al arrancar (ver {@link Calentamiento}).
+ *
+ * <p>Cuenta las consultas de hasta {@code tracked-keys} usuarios; con el contador lleno los
+ * nuevos no se cuentan hasta la próxima escritura. Cada {@code persist-interval-ms}, y al
+ * cerrar, escribe los {@code top} más consultados (uno por línea, el más frecuente primero)
+ * en un archivo temporal que luego reemplaza al anterior, y reduce los contadores a la
+ * mitad para que la lista siga a la popularidad reciente. Sin consultas no se reescribe, así
+ * un reinicio sin tráfico no borra la lista anterior.</p>
+ */
+@Component
+public class PerfilesFrecuentes implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfilesFrecuentes.class);
+
+    private final Map<String, LongAdder> consultas = new ConcurrentHashMap<>();
+    private final Path archivo;
+    private final int top;
+    private final int maxClaves;
+    private final Duration intervalo;
+    private Disposable escritura;
+
+    public PerfilesFrecuentes(
+            @Value("${gateway.warmup.hot-keys.file:}") String archivo,
+            @Value("${gateway.warmup.hot-keys.top:1000}") int top,
+            @Value("${gateway.warmup.hot-keys.tracked-keys:10000}") int maxClaves,
+            @Value("${gateway.warmup.hot-keys.persist-interval-ms:60000}") long intervaloMs) {
+        this.archivo = archivo.isBlank() ? null : Paths.get(archivo);
+        this.top = Math.max(1, top);
+        this.maxClaves = Math.max(this.top, maxClaves);
+        this.intervalo = Duration.ofMillis(Math.max(1000, intervaloMs));
+    }
+
+    public boolean habilitado() {
+        return archivo != null;
+    }
+
+    public void registrar(String usuario) {
+        if (archivo == null || usuario == null) {
+            return;
+        }
+        LongAdder contador = consultas.get(usuario);
+        if (contador == null) {
+            if (consultas.size() >= maxClaves) {
+                return;
+            }
+            contador = consultas.computeIfAbsent(usuario, clave -> new LongAdder());
+        }
+        contador.increment();
+    }
+
+    /**
+     * @return Los usuarios de la última lista guardada, el más frecuente primero; vacía si no hay
+     */
+    public List<String> leer() {
+        if (archivo == null) {
+            return List.of();
+        }
+        try (var lineas = Files.lines(archivo, StandardCharsets.UTF_8)) {
+            return lineas.map(String::trim).filter(linea -> !linea.isEmpty()).limit(top).toList();
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo leer la lista de perfiles frecuentes {}: {}", archivo, e.getMessage());
+            return List.of();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void iniciar() {
+        if (archivo == null || escritura != null) {
+            return;
+        }
+        escritura = Flux.interval(intervalo, intervalo, Schedulers.boundedElastic())
+                .subscribe(tick -> persistir());
+    }
+
+    /**
+     * Escribe la lista de los más consultados y reduce los contadores a la mitad.
+     */
+    public synchronized void persistir() {
+        if (archivo == null || consultas.isEmpty()) {
+            return;
+        }
+        List<String> frecuentes = consultas.entrySet().stream()
+                .map(entrada -> Map.entry(entrada.getKey(), entrada.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(top)
+                .map(Map.Entry::getKey)
+                .toList();
+        try {
+            Path directorio = archivo.toAbsolutePath().getParent();
+            Files.createDirectories(directorio);
+            Path temporal = Files.createTempFile(directorio, archivo.getFileName().toString(), ".tmp");
+            Files.write(temporal, frecuentes, StandardCharsets.UTF_8);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Lista de {} perfiles frecuentes guardada en {}", frecuentes.size(), archivo);
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo guardar la lista de perfiles frecuentes {}: {}", archivo, e.getMessage());
+        }
+        consultas.entrySet().removeIf(entrada -> {
+            long mitad = entrada.getValue().sumThenReset() / 2;
+            entrada.getValue().add(mitad);
+            return mitad == 0;
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (escritura != null) {
+            escritura.dispose();
+            escritura = null;
+        }
+        persistir();
+    }
+}
@@ -0,0 +1,179 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uniquindio.archmicroserv.apigateway.dto.RegistroUsuario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro de usuarios por lote para importaciones.
+ *
+ * <p>Los registros se leen del cuerpo a medida que se procesan (NDJSON o un arreglo JSON),
+ * por lo que el tamaño de la importación no afecta la memoria. Cada registro sigue la
+ * secuencia de {@code POST /api/v1/auth/registro}: Domain Service y luego perfil. Se
+ * procesan hasta {@code gateway.bulk-register.concurrency} registros a la vez, de modo que
+ * la creación del perfil de uno se solapa con el registro de seguridad de los siguientes.</p>
+ *
+ * <p>Como el endpoint no pasa por los límites de tasa del registro individual, está
+ * deshabilitado salvo que se active {@code gateway.bulk-register.enabled} durante la migración.</p>
+ */
+@Service
+public class RegistroLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroLoteService.class);
+
+    private final DomainServiceClient domainServiceClient;
+    private final GestionPerfilServiceClient gestionPerfilServiceClient;
+    private final ObjectReader lectorRegistros;
+    private final int concurrencia;
+    private final int maxRegistros;
+    private final boolean habilitado;
+
+    public RegistroLoteService(
+            DomainServiceClient domainServiceClient,
+            GestionPerfilServiceClient gestionPerfilServiceClient,
+            ObjectMapper objectMapper,
+            @Value("${gateway.bulk-register.concurrency:16}") int concurrencia,
+            @Value("${gateway.bulk-register.max-records:100000}") int maxRegistros,
+            @Value("${gateway.bulk-register.enabled:false}") boolean habilitado) {
+        this.domainServiceClient = domainServiceClient;
+        this.gestionPerfilServiceClient = gestionPerfilServiceClient;
+        this.lectorRegistros = objectMapper.readerFor(Map.class);
+        this.concurrencia = Math.max(1, concurrencia);
+        this.maxRegistros = maxRegistros;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * @return true si el registro por lote está habilitado ({@code gateway.bulk-register.enabled})
+     */
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Registra los usuarios leídos del cuerpo y emite el resultado de cada uno en orden de
+     * finalización, seguido de un resumen.
+     *
+     * <p>Solo se lee el siguiente registro cuando hay capacidad para procesarlo. Si el cuerpo
+     * está mal formado se detiene la lectura y el resumen incluye el error.</p>
+     *
+     * @param cuerpo Cuerpo de la solicitud (NDJSON o arreglo JSON de objetos)
+     * @return Un elemento por registro con su {@code indice} y un último elemento con {@code resumen}
+     */
+    public Flux<Map<String, Object>> registrarUsuarios(InputStream cuerpo) {
+        AtomicInteger leidos = new AtomicInteger();
+        AtomicInteger registrados = new AtomicInteger();
+        AtomicInteger fallidos = new AtomicInteger();
+        String[] errorLectura = {null};
+
+        Flux<Map<String, Object>> resultados = leerRegistros(cuerpo)
+                // Un registro de más para saber si se superó el máximo
+                .take(maxRegistros + 1L, true)
+                .onErrorResume(error -> {
+                    log.warn("Cuerpo de registro por lote inválido: {}", error.getMessage());
+                    errorLectura[0] = "Cuerpo mal formado, se detuvo la lectura";
+                    return Flux.empty();
+                })
+                .flatMap(registro -> {
+                    int indice = leidos.getAndIncrement();
+                    if (indice >= maxRegistros) {
+                        leidos.decrementAndGet();
+                        errorLectura[0] = "Se procesaron solo los primeros " + maxRegistros + " registros";
+                        return Mono.empty();
+                    }
+                    return registrar(indice, registro);
+                }, concurrencia, 1)
+                .doOnNext(resultado -> (Boolean.TRUE.equals(resultado.get("error")) ? fallidos : registrados).incrementAndGet());
+
+        return resultados.concatWith(Mono.fromSupplier(() -> {
+            Map<String, Object> resumen = new HashMap<>();
+            resumen.put("resumen", true);
+            resumen.put("total", leidos.get());
+            resumen.put("registrados", registrados.get());
+            resumen.put("fallidos", fallidos.get());
+            if (errorLectura[0] != null) {
+                resumen.put("error", true);
+                resumen.put("respuesta", errorLectura[0]);
+            }
+            log.info("Registro por lote terminado: {} registrados, {} fallidos", registrados.get(), fallidos.get());
+            return resumen;
+        }));
+    }
+
+    /**
+     * Lee los registros bajo demanda. La lectura es bloqueante, así que se hace en
+     * {@code boundedElastic}.
+     */
+    Flux<Map<String, Object>> leerRegistros(InputStream cuerpo) {
+        return Flux.<Map<String, Object>, MappingIterator<Map<String, Object>>>generate(
+                        () -> lectorRegistros.readValues(cuerpo),
+                        (registros, sink) -> {
+                            try {
+                                if (registros.hasNextValue()) {
+                                    sink.next(registros.nextValue());
+                                } else {
+                                    sink.complete();
+                                }
+                            } catch (IOException | RuntimeException e) {
+                                sink.error(e);
+                            }
+                            return registros;
+                        },
+                        registros -> {
+                            try {
+                                registros.close();
+                            } catch (IOException e) {
+                                log.debug("Error cerrando el cuerpo del registro por lote: {}", e.getMessage());
+                            }
+                        })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Map<String, Object>> registrar(int indice, Map<String, Object> registro) {
+        RegistroUsuario registroUsuario = RegistroUsuario.de(registro);
+        String usuario = registroUsuario.usuario();
+
+        return domainServiceClient.registrarUsuario(registroUsuario.datosSeguridad())
+                .flatMap(seguridadResponse -> {
+                    if (registroUsuario.datosPerfil().isEmpty() || usuario == null) {
+                        return Mono.just(resultado(indice, usuario, false));
+                    }
+                    return gestionPerfilServiceClient.crearPerfil(usuario, registroUsuario.datosPerfil())
+                            .map(perfilResponse -> resultado(indice, usuario, true))
+                            .onErrorResume(error -> {
+                                log.warn("Usuario {} registrado pero error creando perfil: {}", usuario, error.getMessage());
+                                return Mono.just(resultado(indice, usuario, false));
+                            });
+                })
+                .onErrorResume(error -> {
+                    Map<String, Object> fallo = ConsultaLoteService.resultadoError(usuario, error, "Error procesando registro");
+                    fallo.put("indice", indice);
+                    return Mono.just(fallo);
+                });
+    }
+
+    private static Map<String, Object> resultado(int indice, String usuario, boolean perfilCreado) {
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("indice", indice);
+        resultado.put("usuario", usuario);
+        resultado.put("registrado", true);
+        resultado.put("perfil", perfilCreado);
+        resultado.put("status", HttpStatus.CREATED.value());
+        return resultado;
+    }
+}
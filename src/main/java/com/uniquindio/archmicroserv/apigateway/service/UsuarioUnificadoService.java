@@ -2,11 +2,17 @@ package com.uniquindio.archmicroserv.apigateway.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @Service
 public class UsuarioUnificadoService {
@@ -14,13 +20,19 @@ public class UsuarioUnificadoService {
     private static final Logger log = LoggerFactory.getLogger(UsuarioUnificadoService.class);
     private final DomainServiceClient domainServiceClient;
     private final GestionPerfilServiceClient gestionPerfilServiceClient;
+    private final AccesosVerificados accesosVerificados;
+    private final boolean escriturasParalelas;
 
     // Constructor explícito para inyección de dependencias
     public UsuarioUnificadoService(
             DomainServiceClient domainServiceClient,
-            GestionPerfilServiceClient gestionPerfilServiceClient) {
+            GestionPerfilServiceClient gestionPerfilServiceClient,
+            AccesosVerificados accesosVerificados,
+            @Value("${gateway.update.parallel-writes:false}") boolean escriturasParalelas) {
         this.domainServiceClient = domainServiceClient;
         this.gestionPerfilServiceClient = gestionPerfilServiceClient;
+        this.accesosVerificados = accesosVerificados;
+        this.escriturasParalelas = escriturasParalelas;
     }
 
 
@@ -87,9 +99,21 @@ public class UsuarioUnificadoService {
             datosPerfil.put("linkOtraRed", requestBody.get("linkOtraRed"));
         }
 
+        if (escriturasParalelas && !datosSeguridad.isEmpty() && !datosPerfil.isEmpty()) {
+            return actualizarEnParalelo(usuario, datosSeguridad, datosPerfil, authToken);
+        }
+        return actualizarEnSerie(usuario, datosSeguridad, datosPerfil, authToken);
+    }
+
+    private Mono<Map<String, Object>> actualizarEnSerie(
+            String usuario,
+            Map<String, Object> datosSeguridad,
+            Map<String, Object> datosPerfil,
+            String authToken) {
         // Si hay datos de seguridad, actualizarlos primero - si falla, no continuar
         if (!datosSeguridad.isEmpty()) {
             return domainServiceClient.actualizarUsuario(usuario, datosSeguridad, authToken)
+                    .doOnNext(response -> accesosVerificados.registrar(authToken, usuario))
                     .doOnSuccess(response -> log.info("Actualización de seguridad exitosa para usuario: {}", usuario))
                     .doOnError(error -> log.error("Error en actualización de seguridad - Tipo: {}, Mensaje: {}", 
                         error.getClass().getName(), error.getMessage()))
@@ -145,5 +169,146 @@ public class UsuarioUnificadoService {
             return Mono.just(resultado);
         }
     }
-}
 
+    /**
+     * Actualiza seguridad y perfil a la vez ({@code gateway.update.parallel-writes=true}).
+     *
+     * <p>En el modo secuencial es la escritura de seguridad la que autoriza el token antes
+     * de tocar el perfil. Aquí la autorización se resuelve primero: localmente si el token
+     * ya fue autorizado para el usuario ({@link AccesosVerificados}) o con la consulta del
+     * usuario en el Domain Service. Después ambas escrituras se lanzan juntas.</p>
+     *
+     * <p>Poder leer el usuario no garantiza poder modificarlo, así que junto con la
+     * autorización se lee el perfil actual, directamente del microservicio y no de la caché
+     * (una copia vieja se escribiría de vuelta al deshacer). Si la escritura de seguridad
+     * responde 401 o 403 se deshace la del perfil (ver {@link #deshacerPerfil}) y se propaga
+     * ese error. Si el perfil actual no se puede leer no hay forma de deshacer, y la
+     * actualización sigue el modo secuencial.</p>
+     *
+     * <p>Cualquier otro fallo se reporta como éxito parcial con los datos que sí se
+     * actualizaron y, si falló seguridad, su error en {@code errorSeguridad}. Si fallan
+     * ambas se propaga el error de seguridad, igual que en el modo secuencial.</p>
+     */
+    private Mono<Map<String, Object>> actualizarEnParalelo(
+            String usuario,
+            Map<String, Object> datosSeguridad,
+            Map<String, Object> datosPerfil,
+            String authToken) {
+        Mono<Boolean> autorizacion = accesosVerificados.verificado(authToken, usuario)
+                ? Mono.just(true)
+                : domainServiceClient.obtenerUsuario(usuario, authToken)
+                        .doOnNext(usuarioData -> accesosVerificados.registrar(authToken, usuario))
+                        .thenReturn(true);
+
+        Mono<Optional<Map<String, Object>>> perfilAnterior = gestionPerfilServiceClient.leerPerfilActual(usuario)
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, noEncontrado -> Mono.just(Optional.empty()));
+
+        return Mono.zip(
+                        autorizacion.doOnError(error -> log.error("Error validando permisos para actualizar usuario {}: {}",
+                                usuario, error.getMessage())),
+                        perfilAnterior.materialize())
+                .flatMap(tuple -> {
+                    Signal<Optional<Map<String, Object>>> anterior = tuple.getT2();
+                    if (!anterior.hasValue()) {
+                        log.warn("No se pudo leer el perfil actual de {} ({}), se actualiza en modo secuencial", usuario,
+                                anterior.hasError() ? anterior.getThrowable().getMessage() : "sin respuesta");
+                        return actualizarEnSerie(usuario, datosSeguridad, datosPerfil, authToken);
+                    }
+                    return Mono.zip(
+                                    domainServiceClient.actualizarUsuario(usuario, datosSeguridad, authToken)
+                                            .defaultIfEmpty(new HashMap<>()).materialize(),
+                                    gestionPerfilServiceClient.actualizarPerfil(usuario, datosPerfil)
+                                            .defaultIfEmpty(new HashMap<>()).materialize())
+                            .flatMap(escrituras -> combinar(usuario, datosPerfil, anterior.get(),
+                                    escrituras.getT1(), escrituras.getT2()));
+                });
+    }
+
+    private Mono<Map<String, Object>> combinar(
+            String usuario,
+            Map<String, Object> datosPerfil,
+            Optional<Map<String, Object>> perfilAnterior,
+            Signal<Map<String, Object>> seguridad,
+            Signal<Map<String, Object>> perfil) {
+
+        if (seguridad.hasValue() && perfil.hasValue()) {
+            log.info("Datos completos del usuario {} actualizados en paralelo", usuario);
+            return Mono.just(resultado("Usuario actualizado exitosamente", seguridad.get(), perfil.get()));
+        }
+        if (seguridad.hasValue()) {
+            log.warn("Error actualizando perfil, pero seguridad se actualizó: {}", perfil.getThrowable().getMessage());
+            return Mono.just(resultado("Usuario actualizado parcialmente (solo seguridad)", seguridad.get(), new HashMap<>()));
+        }
+        Throwable error = seguridad.getThrowable();
+        if (perfil.hasValue() && sinPermiso(error)) {
+            log.warn("Seguridad rechazó la actualización de {} ({}), se deshace la escritura del perfil", usuario, error.getMessage());
+            return deshacerPerfil(usuario, datosPerfil, perfilAnterior)
+                    .onErrorResume(errorDeshacer -> {
+                        log.error("No se pudo deshacer la escritura del perfil de {}: {}", usuario, errorDeshacer.getMessage());
+                        return Mono.empty();
+                    })
+                    .then(Mono.error(error));
+        }
+        if (perfil.hasValue()) {
+            log.warn("Error actualizando seguridad, pero perfil se actualizó: {}", error.getMessage());
+            Map<String, Object> resultado = resultado("Usuario actualizado parcialmente (solo perfil)", new HashMap<>(), perfil.get());
+            Map<String, Object> errorSeguridad = ConsultaLoteService.resultadoError(usuario, error, "Error actualizando datos de seguridad");
+            errorSeguridad.remove("usuario");
+            resultado.put("errorSeguridad", errorSeguridad);
+            return Mono.just(resultado);
+        }
+        log.error("Error actualizando seguridad y perfil de {}: {}", usuario, error.getMessage());
+        return Mono.error(error);
+    }
+
+    /**
+     * Vuelve a poner en el perfil los valores previos de los campos escritos, o lo elimina
+     * si el usuario no tenía perfil.
+     *
+     * <p>Antes relee el perfil y solo restaura los campos que conservan el valor que se
+     * escribió: si otra escritura los cambió entre medio, la suya se respeta (y sin perfil
+     * previo, el perfil se elimina solo si ninguno cambió). Queda una ventana entre esa
+     * lectura y la restauración en la que una escritura concurrente sobre los mismos campos
+     * se pierde; el Gestion Perfil Service no ofrece escrituras condicionales para cerrarla.</p>
+     */
+    private Mono<Void> deshacerPerfil(String usuario, Map<String, Object> datosPerfil,
+                                      Optional<Map<String, Object>> perfilAnterior) {
+        return gestionPerfilServiceClient.leerPerfilActual(usuario)
+                .onErrorResume(WebClientResponseException.NotFound.class, noEncontrado -> Mono.empty())
+                .flatMap(actual -> {
+                    Map<String, Object> valoresPrevios = new HashMap<>();
+                    for (Map.Entry<String, Object> campo : datosPerfil.entrySet()) {
+                        if (Objects.equals(actual.get(campo.getKey()), campo.getValue())) {
+                            valoresPrevios.put(campo.getKey(), perfilAnterior.map(anterior -> anterior.get(campo.getKey())).orElse(null));
+                        }
+                    }
+                    if (valoresPrevios.size() < datosPerfil.size()) {
+                        log.warn("El perfil de {} cambió tras la escritura rechazada; se conservan {} de {} campos",
+                                usuario, datosPerfil.size() - valoresPrevios.size(), datosPerfil.size());
+                    }
+                    if (perfilAnterior.isEmpty()) {
+                        return valoresPrevios.size() == datosPerfil.size()
+                                ? gestionPerfilServiceClient.eliminarPerfil(usuario)
+                                : Mono.<Void>empty();
+                    }
+                    return valoresPrevios.isEmpty()
+                            ? Mono.<Void>empty()
+                            : gestionPerfilServiceClient.actualizarPerfil(usuario, valoresPrevios).then();
+                });
+    }
+
+    private static boolean sinPermiso(Throwable error) {
+        return error instanceof WebClientResponseException webClientError
+                && (webClientError.getStatusCode().value() == HttpStatus.UNAUTHORIZED.value()
+                || webClientError.getStatusCode().value() == HttpStatus.FORBIDDEN.value());
+    }
+
+    private static Map<String, Object> resultado(String mensaje, Map<String, Object> seguridad, Map<String, Object> perfil) {
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("mensaje", mensaje);
+        resultado.put("datosSeguridad", seguridad);
+        resultado.put("datosPerfil", perfil);
+        return resultado;
+    }
+}
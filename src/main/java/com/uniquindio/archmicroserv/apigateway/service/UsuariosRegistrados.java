@@ -0,0 +1,168 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom con contadores de los nombres de usuario y correos que se sabe que
+ * existen, para anticipar conflictos de registro sin consultar el Domain Service.
+ *
+ * <p>Se alimenta de las respuestas exitosas de registro, login y consulta de usuarios
+ * que pasan por el gateway, y de los eventos de {@code dominio.events}. Cada celda es un
+ * contador de 4 bits, así que las eliminaciones restan sin reconstruir el filtro; un
+ * contador saturado (15) ya no baja.</p>
+ *
+ * <p>Restar solo es correcto si la clave se sumó antes, y una sola vez: decidirlo con el
+ * propio filtro fallaría justo en sus falsos positivos. Por eso se guarda aparte el hash
+ * de 64 bits de cada clave sumada, hasta {@code 2 * expected-users} claves; una clave
+ * nueva con el registro lleno no se suma (se ve como no vista) y una eliminación solo
+ * resta claves de ese registro.</p>
+ *
+ * <p>Las respuestas son probabilísticas en un solo sentido: {@code false} es seguro
+ * (nunca se agregó, o se eliminó), {@code true} puede ser un falso positivo con
+ * probabilidad {@code gateway.known-users.false-positive-rate}. Por eso el registro
+ * solo usa un acierto para decidir cómo consultar el Domain Service, que sigue
+ * siendo quien responde; ver {@code AuthController}.</p>
+ */
+@Component
+public class UsuariosRegistrados {
+
+    private static final int MAXIMO_CONTADOR = 15;
+
+    private final boolean habilitado;
+    private final AtomicLongArray contadores;
+    private final int celdas;
+    private final int funciones;
+    private final Set<Long> sumadas = ConcurrentHashMap.newKeySet();
+    private final long maxSumadas;
+
+    @Autowired
+    public UsuariosRegistrados(
+            @Value("${gateway.known-users.enabled:false}") boolean habilitado,
+            @Value("${gateway.known-users.expected-users:200000}") int usuariosEsperados,
+            @Value("${gateway.known-users.false-positive-rate:0.001}") double tasaFalsosPositivos) {
+        this.habilitado = habilitado;
+        // Cada usuario aporta dos claves: su nombre y su correo
+        long claves = Math.max(1, usuariosEsperados) * 2L;
+        double tasa = Math.min(0.5, Math.max(1e-9, tasaFalsosPositivos));
+        long m = (long) Math.ceil(-claves * Math.log(tasa) / (Math.log(2) * Math.log(2)));
+        this.celdas = habilitado ? (int) Math.min(Integer.MAX_VALUE - 15, Math.max(16, m)) : 16;
+        this.funciones = (int) Math.max(1, Math.min(16, Math.round((double) celdas / claves * Math.log(2))));
+        this.contadores = new AtomicLongArray((celdas + 15) / 16);
+        this.maxSumadas = claves;
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * @return true si el usuario probablemente existe; false si seguro no se ha visto
+     */
+    public boolean usuarioProbable(String usuario) {
+        return habilitado && usuario != null && contiene(claveUsuario(usuario));
+    }
+
+    /**
+     * @return true si el correo probablemente existe; false si seguro no se ha visto
+     */
+    public boolean correoProbable(String correo) {
+        return habilitado && correo != null && contiene(claveCorreo(correo));
+    }
+
+    /**
+     * Registra que el usuario existe. Cualquiera de los dos datos puede ser null.
+     */
+    public void agregar(String usuario, String correo) {
+        if (!habilitado) {
+            return;
+        }
+        if (usuario != null) {
+            agregar(claveUsuario(usuario));
+        }
+        if (correo != null && !correo.isBlank()) {
+            agregar(claveCorreo(correo));
+        }
+    }
+
+    /**
+     * Registra que el usuario fue eliminado. Cualquiera de los dos datos puede ser null.
+     */
+    public void quitar(String usuario, String correo) {
+        if (!habilitado) {
+            return;
+        }
+        if (usuario != null) {
+            quitar(claveUsuario(usuario));
+        }
+        if (correo != null && !correo.isBlank()) {
+            quitar(claveCorreo(correo));
+        }
+    }
+
+    private static String claveUsuario(String usuario) {
+        return "u:" + usuario;
+    }
+
+    private static String claveCorreo(String correo) {
+        return "c:" + correo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void agregar(String clave) {
+        long hash = Hash64.de(clave);
+        // Una clave ya sumada no se vuelve a sumar: los logins repetidos no inflan los contadores
+        if (sumadas.size() >= maxSumadas || !sumadas.add(hash)) {
+            return;
+        }
+        for (int i = 1; i <= funciones; i++) {
+            sumar(Hash64.posicion(hash, i, celdas), 1);
+        }
+    }
+
+    private void quitar(String clave) {
+        long hash = Hash64.de(clave);
+        // Restar una clave que nunca se sumó vaciaría celdas de otras
+        if (!sumadas.remove(hash)) {
+            return;
+        }
+        for (int i = 1; i <= funciones; i++) {
+            sumar(Hash64.posicion(hash, i, celdas), -1);
+        }
+    }
+
+    private boolean contiene(String clave) {
+        long hash = Hash64.de(clave);
+        for (int i = 1; i <= funciones; i++) {
+            if (contador(Hash64.posicion(hash, i, celdas)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int contador(int celda) {
+        return (int) (contadores.get(celda >>> 4) >>> ((celda & 15) * 4)) & MAXIMO_CONTADOR;
+    }
+
+    private void sumar(int celda, int delta) {
+        int indice = celda >>> 4;
+        int desplazamiento = (celda & 15) * 4;
+        while (true) {
+            long palabra = contadores.get(indice);
+            int actual = (int) (palabra >>> desplazamiento) & MAXIMO_CONTADOR;
+            if (actual == MAXIMO_CONTADOR || (delta < 0 && actual == 0)) {
+                return;
+            }
+            long nueva = palabra + ((long) delta << desplazamiento);
+            if (contadores.compareAndSet(indice, palabra, nueva)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.uniquindio.archmicroserv.apigateway.benchmark;
+
+import com.uniquindio.archmicroserv.apigateway.filter.AutenticacionFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.CadenaFiltros;
+import com.uniquindio.archmicroserv.apigateway.filter.EncabezadosFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.FiltroGateway;
+import com.uniquindio.archmicroserv.apigateway.filter.MapeoErroresFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.MetricasFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.RutaGateway;
+import com.uniquindio.archmicroserv.apigateway.filter.SolicitudGateway;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Costo por solicitud de la cadena de filtros, filtro a filtro.
+ *
+ * <p>Ejecutar con {@code mvn -P benchmark test-compile exec:exec -Djmh.args="CadenaFiltros"}.
+ * {@code filtrosDeshabilitados} debe medir lo mismo que {@code sinFiltros}: un filtro
+ * deshabilitado no queda en la cadena.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CadenaFiltrosBenchmark {
+
+    private static final RutaGateway RUTA = RutaGateway.autenticada("usuarios.obtener", "Error");
+    private static final ResponseEntity<Map<String, Object>> RESPUESTA = ResponseEntity.ok(Map.of("usuario", "ana"));
+    private static final Function<SolicitudGateway, Mono<ResponseEntity<Map<String, Object>>>> ENDPOINT =
+            solicitud -> Mono.just(RESPUESTA);
+
+    private CadenaFiltros vacia;
+    private CadenaFiltros deshabilitada;
+    private CadenaFiltros autenticacion;
+    private CadenaFiltros mapeoErrores;
+    private CadenaFiltros encabezados;
+    private CadenaFiltros metricas;
+    private CadenaFiltros completa;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.filters.headers.default", "X-Gateway:api-gateway");
+        MetricasFiltro metricasFiltro = new MetricasFiltro(new StaticListableBeanFactory(
+                Map.of("meterRegistry", new SimpleMeterRegistry())).getBeanProvider(MeterRegistry.class));
+        List<FiltroGateway> todos = List.of(metricasFiltro, new MapeoErroresFiltro(),
+                new EncabezadosFiltro(environment), new AutenticacionFiltro());
+
+        vacia = cadena(List.of(), environment);
+        autenticacion = cadena(List.of(new AutenticacionFiltro()), environment);
+        mapeoErrores = cadena(List.of(new MapeoErroresFiltro()), environment);
+        encabezados = cadena(List.of(new EncabezadosFiltro(environment)), environment);
+        metricas = cadena(List.of(metricasFiltro), environment);
+        completa = cadena(todos, environment);
+
+        MockEnvironment sinFiltros = new MockEnvironment();
+        for (FiltroGateway filtro : todos) {
+            sinFiltros.setProperty("gateway.filters." + filtro.nombre() + ".enabled", "false");
+        }
+        deshabilitada = cadena(todos, sinFiltros);
+    }
+
+    private static CadenaFiltros cadena(List<FiltroGateway> filtros, MockEnvironment environment) {
+        return new FabricaCadenas(filtros, environment).cadena(RUTA);
+    }
+
+    private static ResponseEntity<Map<String, Object>> ejecutar(CadenaFiltros cadena) {
+        return cadena.ejecutar(SolicitudGateway.de("Bearer token123"), ENDPOINT).block();
+    }
+
+    /** Línea base: la cadena sin eslabones. */
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> sinFiltros() {
+        return ejecutar(vacia);
+    }
+
+    /** Todos los filtros registrados pero deshabilitados por configuración. */
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> filtrosDeshabilitados() {
+        return ejecutar(deshabilitada);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> soloAutenticacion() {
+        return ejecutar(autenticacion);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> soloMapeoErrores() {
+        return ejecutar(mapeoErrores);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> soloEncabezados() {
+        return ejecutar(encabezados);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> soloMetricas() {
+        return ejecutar(metricas);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> cadenaCompleta() {
+        return ejecutar(completa);
+    }
+}
@@ -0,0 +1,74 @@
+package com.uniquindio.archmicroserv.apigateway.benchmark;
+
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimiteTasaLocal;
+import com.uniquindio.archmicroserv.apigateway.ratelimit.PoliticaLimite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput del limitador por cliente.
+ *
+ * <p>Ejecutar con {@code mvn -P benchmark test-compile exec:exec -Djmh.args="LimiteTasa -t 8"};
+ * variar {@code -t} para medir el escalamiento con el número de hilos.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LimiteTasaBenchmark {
+
+    private static final int CLIENTES = 10_000;
+
+    private String[] claves;
+    private LimiteTasaLocal holgado;
+    private LimiteTasaLocal agotado;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        claves = new String[CLIENTES];
+        for (int i = 0; i < CLIENTES; i++) {
+            claves[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+        holgado = new LimiteTasaLocal(new PoliticaLimite(1_000_000_000L, 1_000_000_000), CLIENTES * 2);
+        agotado = new LimiteTasaLocal(new PoliticaLimite(1, 0.001), CLIENTES * 2);
+        for (String clave : claves) {
+            agotado.intentarConsumir(clave);
+        }
+    }
+
+    /** Camino de aceptación con muchos clientes distintos. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean aceptarMuchosClientes() {
+        return holgado.intentarConsumir(claves[ThreadLocalRandom.current().nextInt(CLIENTES)]);
+    }
+
+    /** Camino de rechazo: debe costar una lectura y una comparación. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean rechazarClienteAgotado() {
+        return agotado.intentarConsumir(claves[ThreadLocalRandom.current().nextInt(CLIENTES)]);
+    }
+
+    /** Contención máxima: todos los hilos sobre la misma clave. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean aceptarClienteCompartido() {
+        return holgado.intentarConsumir(claves[0]);
+    }
+}
@@ -0,0 +1,141 @@
+package com.uniquindio.archmicroserv.apigateway.benchmark;
+
+import com.uniquindio.archmicroserv.apigateway.config.DownstreamRecargable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conexiones y latencia hacia un microservicio con HTTP/1.1 y con h2c a 5.000 solicitudes por segundo.
+ *
+ * <p>Ejecutar con {@code mvn -P benchmark test-compile exec:exec -Djmh.args="ProtocoloDownstream"};
+ * otro ritmo con {@code -p solicitudesPorSegundo=...}. Cliente y servidor comparten la máquina,
+ * así que conviene correrlo con al menos 4 núcleos libres.
+ * Cada invocación envía dos segundos de solicitudes a ritmo constante (carga abierta: no
+ * espera respuestas para enviar la siguiente) a un servidor local que responde tras
+ * {@link #LATENCIA_DESTINO_MS}. El puntaje es la duración de la ráfaga; al final de cada
+ * iteración se imprimen las conexiones TCP abiertas y las nuevas en la iteración, los percentiles de
+ * latencia por solicitud y las solicitudes fallidas (por ejemplo, por agotar la cola de
+ * espera del pool).</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProtocoloDownstreamBenchmark {
+
+    private static final long LATENCIA_DESTINO_MS = 20;
+
+    @Param({"http1", "h2c"})
+    public String protocolo;
+
+    @Param({"5000"})
+    public int solicitudesPorSegundo;
+
+    private final AtomicInteger abiertas = new AtomicInteger();
+    private final AtomicInteger nuevas = new AtomicInteger();
+    private final AtomicInteger fallidas = new AtomicInteger();
+    private DisposableServer servidor;
+    private DownstreamRecargable downstream;
+    private WebClient webClient;
+    private int solicitudes;
+    private long[] latencias;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        // Sin configuración de logback el nivel por defecto es DEBUG y el log de Netty domina la medición
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        servidor = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observador, canal, remoto) -> {
+                    abiertas.incrementAndGet();
+                    nuevas.incrementAndGet();
+                    canal.closeFuture().addListener(cierre -> abiertas.decrementAndGet());
+                })
+                .handle((request, response) -> response.sendString(
+                        Mono.delay(Duration.ofMillis(LATENCIA_DESTINO_MS)).thenReturn("{\"error\":false}")))
+                .bindNow();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bench.service.url", "http://localhost:" + servidor.port())
+                .withProperty("bench.service.protocol", protocolo);
+        downstream = new DownstreamRecargable("bench", "bench.service", environment, Duration.ofSeconds(30));
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + servidor.port())
+                .clientConnector(downstream.getConector())
+                .build();
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciar() {
+        nuevas.set(0);
+        fallidas.set(0);
+        solicitudes = solicitudesPorSegundo * 2;
+        latencias = new long[solicitudes];
+    }
+
+    @TearDown(Level.Iteration)
+    public void informar() {
+        long[] ordenadas = Arrays.stream(latencias).filter(latencia -> latencia > 0).sorted().toArray();
+        if (ordenadas.length == 0) {
+            System.out.printf("%n[%s] todas las solicitudes fallaron%n", protocolo);
+            return;
+        }
+        System.out.printf("%n[%s] conexiones abiertas: %d, nuevas: %d, fallidas: %d, latencia p50: %.1f ms, p99: %.1f ms, máx: %.1f ms%n",
+                protocolo, abiertas.get(), nuevas.get(), fallidas.get(),
+                ordenadas[ordenadas.length / 2] / 1e6,
+                ordenadas[ordenadas.length * 99 / 100] / 1e6,
+                ordenadas[ordenadas.length - 1] / 1e6);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        downstream.close();
+        servidor.disposeNow();
+    }
+
+    @Benchmark
+    public Long rafaga() {
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / solicitudesPorSegundo;
+        return Flux.interval(Duration.ofNanos(intervalo))
+                .take(solicitudes)
+                .flatMap(i -> {
+                    long inicio = System.nanoTime();
+                    return webClient.get().uri("/").retrieve().bodyToMono(String.class)
+                            .doOnNext(cuerpo -> latencias[i.intValue()] = System.nanoTime() - inicio)
+                            .onErrorResume(error -> {
+                                fallidas.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }, solicitudes)
+                .count()
+                .block();
+    }
+}
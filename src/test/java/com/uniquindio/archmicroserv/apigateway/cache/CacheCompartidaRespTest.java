@@ -0,0 +1,154 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para CacheCompartidaResp")
+class CacheCompartidaRespTest {
+
+    private final Map<String, byte[]> datos = new ConcurrentHashMap<>();
+    private final List<String> comandos = new ArrayList<>();
+    private ServerSocket servidor;
+    private CacheCompartidaResp cache;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        servidor = new ServerSocket(0);
+        Thread aceptador = new Thread(this::aceptar);
+        aceptador.setDaemon(true);
+        aceptador.start();
+        cache = new CacheCompartidaResp("localhost", servidor.getLocalPort(), "gw:", "secreto",
+                Duration.ofSeconds(2), 2);
+    }
+
+    @AfterEach
+    void cerrar() throws IOException {
+        cache.close();
+        servidor.close();
+    }
+
+    @Test
+    @DisplayName("Guarda con SET PX, lee con GET y borra con DEL bajo el prefijo")
+    void testGuardarObtenerInvalidar() {
+        byte[] valor = "{\"usuario\":\"ana\",\"bio\":\"línea\\r\\n\"}".getBytes(StandardCharsets.UTF_8);
+
+        StepVerifier.create(cache.guardar("ana", valor, Duration.ofSeconds(30))).verifyComplete();
+        StepVerifier.create(cache.obtener("ana"))
+                .assertNext(leido -> assertArrayEquals(valor, leido))
+                .verifyComplete();
+        StepVerifier.create(cache.invalidar("ana")).verifyComplete();
+        StepVerifier.create(cache.obtener("ana")).verifyComplete();
+
+        synchronized (comandos) {
+            assertEquals(List.of("AUTH secreto", "SET gw:ana PX 30000", "GET gw:ana", "DEL gw:ana", "GET gw:ana"),
+                    comandos);
+        }
+    }
+
+    @Test
+    @DisplayName("Si el servidor no está disponible responde vacío en lugar de fallar")
+    void testObtener_ServidorCaido() throws IOException {
+        servidor.close();
+        CacheCompartidaResp caida = new CacheCompartidaResp("localhost", servidor.getLocalPort(), "gw:", "",
+                Duration.ofMillis(200), 1);
+
+        StepVerifier.create(caida.obtener("ana")).verifyComplete();
+        StepVerifier.create(caida.guardar("ana", new byte[]{1}, Duration.ofSeconds(1))).verifyComplete();
+        caida.close();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                Thread atencion = new Thread(() -> atender(socket));
+                atencion.setDaemon(true);
+                atencion.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Servidor RESP mínimo con GET, SET (ignorando PX), DEL y AUTH.
+     */
+    private void atender(Socket socket) {
+        try (socket) {
+            InputStream entrada = new BufferedInputStream(socket.getInputStream());
+            OutputStream salida = socket.getOutputStream();
+            while (true) {
+                int tipo = entrada.read();
+                if (tipo != '*') {
+                    return;
+                }
+                int cantidad = Integer.parseInt(linea(entrada));
+                List<byte[]> partes = new ArrayList<>();
+                for (int i = 0; i < cantidad; i++) {
+                    entrada.read();
+                    int largo = Integer.parseInt(linea(entrada));
+                    partes.add(entrada.readNBytes(largo));
+                    entrada.readNBytes(2);
+                }
+                String comando = new String(partes.get(0), StandardCharsets.UTF_8);
+                String clave = new String(partes.get(1), StandardCharsets.UTF_8);
+                synchronized (comandos) {
+                    comandos.add(comando.equals("SET")
+                            ? "SET " + clave + " PX " + new String(partes.get(4), StandardCharsets.UTF_8)
+                            : comando + " " + clave);
+                }
+                switch (comando) {
+                    case "SET" -> {
+                        datos.put(clave, partes.get(2));
+                        salida.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                    }
+                    case "GET" -> {
+                        byte[] valor = datos.get(clave);
+                        if (valor == null) {
+                            salida.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+                        } else {
+                            salida.write(("$" + valor.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                            salida.write(valor);
+                            salida.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                        }
+                    }
+                    case "DEL" -> salida.write((":" + (datos.remove(clave) != null ? 1 : 0) + "\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    default -> salida.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                salida.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            // El cliente cerró la conexión
+        }
+    }
+
+    private static String linea(InputStream entrada) throws IOException {
+        ByteArrayOutputStream linea = new ByteArrayOutputStream();
+        int actual;
+        while ((actual = entrada.read()) != '\r') {
+            linea.write(actual);
+        }
+        entrada.read();
+        return linea.toString(StandardCharsets.UTF_8);
+    }
+}
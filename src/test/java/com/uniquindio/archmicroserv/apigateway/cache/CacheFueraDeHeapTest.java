@@ -0,0 +1,122 @@
+package com.uniquindio.archmicroserv.apigateway.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para CacheFueraDeHeap")
+class CacheFueraDeHeapTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    @DisplayName("Un valor de varios bloques se lee completo hasta que vence")
+    void testLeer_VariosBloques() throws IOException {
+        CacheFueraDeHeap cache = new CacheFueraDeHeap(64 * 100, 64, 1024, 1000, reloj::get);
+        byte[] valor = "{\"usuario\":\"ana\",\"biografia\":\"".concat("x".repeat(150)).concat("\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(cache.guardar("ana", valor));
+
+        try (CacheFueraDeHeap.Lectura lectura = cache.leer("ana")) {
+            assertNotNull(lectura);
+            assertEquals(valor.length, lectura.longitud());
+            assertEquals(3, lectura.partes().length);
+            assertArrayEquals(valor, lectura.flujo().readAllBytes());
+        }
+
+        reloj.addAndGet(1_000_000_000L);
+        assertNull(cache.leer("ana"));
+        assertEquals(0, cache.entradas());
+    }
+
+    @Test
+    @DisplayName("Nunca reserva más bytes que el máximo ni guarda valores más grandes que max-entry-bytes")
+    void testGuardar_Acotada() {
+        CacheFueraDeHeap cache = new CacheFueraDeHeap(64 * 100, 64, 256, 1000, reloj::get);
+
+        assertFalse(cache.guardar("grande", new byte[257]));
+        for (int i = 0; i < 1000; i++) {
+            cache.guardar("usuario" + i, new byte[100]);
+        }
+
+        assertTrue(cache.entradas() <= 50);
+        assertTrue(cache.entradas() > 0);
+        assertEquals(64 * 100, cache.bytesReservados());
+    }
+
+    @Test
+    @DisplayName("Un barrido de claves leídas una sola vez no expulsa a las frecuentes")
+    void testAdmision_ResisteBarrido() {
+        CacheFueraDeHeap cache = new CacheFueraDeHeap(64 * 200, 64, 64, 60_000, reloj::get);
+        for (int i = 0; i < 100; i++) {
+            cache.guardar("popular" + i, new byte[10]);
+        }
+        // Saca de la ventana a las últimas populares antes de leerlas
+        for (int i = 0; i < 10; i++) {
+            cache.guardar("relleno" + i, new byte[10]);
+        }
+        for (int vuelta = 0; vuelta < 5; vuelta++) {
+            for (int i = 0; i < 100; i++) {
+                cerrar(cache.leer("popular" + i));
+            }
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            cache.guardar("barrido" + i, new byte[10]);
+        }
+
+        int presentes = 0;
+        for (int i = 0; i < 100; i++) {
+            try (CacheFueraDeHeap.Lectura lectura = cache.leer("popular" + i)) {
+                presentes += lectura != null ? 1 : 0;
+            }
+        }
+        assertEquals(100, presentes);
+    }
+
+    @Test
+    @DisplayName("Una lectura abierta conserva sus bytes aunque la entrada se invalide y se reutilice la memoria")
+    void testLectura_RetieneBloques() throws IOException {
+        CacheFueraDeHeap cache = new CacheFueraDeHeap(64 * 100, 64, 64, 1000, reloj::get);
+        byte[] original = "perfil original".getBytes(StandardCharsets.UTF_8);
+        cache.guardar("ana", original);
+
+        CacheFueraDeHeap.Lectura lectura = cache.leer("ana");
+        cache.invalidar("ana");
+        assertNull(cache.leer("ana"));
+        for (int i = 0; i < 50; i++) {
+            cache.guardar("otro" + i, "sobrescrito!!!!!".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertArrayEquals(original, lectura.flujo().readAllBytes());
+        lectura.close();
+        lectura.close();
+    }
+
+    @Test
+    @DisplayName("Las partes son vistas de solo lectura sobre la memoria fuera del heap")
+    void testPartes_SoloLectura() {
+        CacheFueraDeHeap cache = new CacheFueraDeHeap(64 * 100, 64, 64, 1000, reloj::get);
+        cache.guardar("ana", new byte[]{1, 2, 3});
+
+        try (CacheFueraDeHeap.Lectura lectura = cache.leer("ana")) {
+            ByteBuffer parte = lectura.partes()[0];
+            assertTrue(parte.isDirect());
+            assertTrue(parte.isReadOnly());
+            assertEquals(3, parte.remaining());
+        }
+    }
+
+    private static void cerrar(CacheFueraDeHeap.Lectura lectura) {
+        if (lectura != null) {
+            lectura.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para CacheCompartidaConfig")
+class CacheCompartidaConfigTest {
+
+    private final CacheCompartidaConfig config = new CacheCompartidaConfig();
+
+    @Test
+    @DisplayName("Sin invalidación por eventos la caché compartida impide arrancar")
+    void testCacheCompartida_SinEventos() {
+        assertThrows(IllegalStateException.class, () -> config.cacheCompartida(
+                "redis:6379", "gateway:perfil:", "", 50, 16, false, "rabbitmq"));
+        assertThrows(IllegalStateException.class, () -> config.cacheCompartida(
+                "redis:6379", "gateway:perfil:", "", 50, 16, true, ""));
+    }
+}
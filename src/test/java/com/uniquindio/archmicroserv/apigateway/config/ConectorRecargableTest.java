@@ -0,0 +1,161 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para ConectorRecargable")
+class ConectorRecargableTest {
+
+    private DisposableServer servidor;
+    private final AtomicInteger conexiones = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (servidor != null) {
+            servidor.disposeNow();
+        }
+    }
+
+    private void iniciarServidor() {
+        servidor = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observador, canal, remoto) -> conexiones.incrementAndGet())
+                // Netty marca con este encabezado las solicitudes que llegaron como streams HTTP/2
+                .handle((request, response) -> response.sendString(Mono.delay(Duration.ofMillis(50))
+                        .thenReturn(request.requestHeaders().contains("x-http2-stream-id") ? "h2" : "http1")))
+                .bindNow();
+    }
+
+    private List<String> enviar(DownstreamRecargable downstream, int solicitudes) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + servidor.port())
+                .clientConnector(downstream.getConector())
+                .build();
+        return Flux.range(0, solicitudes)
+                .flatMap(i -> webClient.get().uri("/").retrieve().bodyToMono(String.class), solicitudes)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("h2c - Las solicitudes concurrentes se multiplexan sobre una conexión HTTP/2")
+    void testH2c_Multiplexa() {
+        iniciarServidor();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bench.service.url", "http://localhost:" + servidor.port())
+                .withProperty("bench.service.protocol", "h2c")
+                .withProperty("gateway.downstream.http2.max-connections", "1");
+
+        try (DownstreamRecargable downstream = new DownstreamRecargable(
+                "bench", "bench.service", environment, Duration.ofMillis(10))) {
+            List<String> protocolos = enviar(downstream, 20);
+
+            assertEquals(Set.of("h2"), Set.copyOf(protocolos));
+            assertEquals(1, conexiones.get());
+        }
+    }
+
+    @Test
+    @DisplayName("HTTP/1.1 - Por defecto se abre una conexión por solicitud concurrente")
+    void testHttp1_PorDefecto() {
+        iniciarServidor();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bench.service.url", "http://localhost:" + servidor.port());
+
+        try (DownstreamRecargable downstream = new DownstreamRecargable(
+                "bench", "bench.service", environment, Duration.ofMillis(10))) {
+            List<String> protocolos = enviar(downstream, 20);
+
+            assertEquals(Set.of("http1"), Set.copyOf(protocolos));
+            assertTrue(conexiones.get() > 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Precalentar - Las conexiones abiertas de antemano sirven a las primeras solicitudes")
+    void testPrecalentar_ReutilizaConexiones() {
+        iniciarServidor();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bench.service.url", "http://localhost:" + servidor.port());
+
+        try (DownstreamRecargable downstream = new DownstreamRecargable(
+                "bench", "bench.service", environment, Duration.ofSeconds(30))) {
+            assertEquals(4L, downstream.precalentar(4).block(Duration.ofSeconds(10)));
+            assertEquals(4, conexiones.get());
+
+            enviar(downstream, 4);
+
+            assertEquals(4, conexiones.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Precalentar - Un destino caído no falla, solo no deja conexiones listas")
+    void testPrecalentar_DestinoCaido() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bench.service.url", "http://localhost:1")
+                .withProperty("gateway.downstream.connect-timeout-ms", "200");
+
+        try (DownstreamRecargable downstream = new DownstreamRecargable(
+                "bench", "bench.service", environment, Duration.ofMillis(10))) {
+            assertEquals(0L, downstream.precalentar(2).block(Duration.ofSeconds(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("Compresión - Se pide gzip al destino y el cuerpo llega descomprimido")
+    void testCompresion_Gzip() {
+        String biografia = "Desarrollador de software. ".repeat(200);
+        servidor = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .compress(true)
+                .handle((request, response) -> response.sendString(Mono.just(
+                        request.requestHeaders().get("Accept-Encoding", "") + "|" + biografia)))
+                .bindNow();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bench.service.url", "http://localhost:" + servidor.port())
+                .withProperty("gateway.downstream.compression", "true");
+
+        try (DownstreamRecargable downstream = new DownstreamRecargable(
+                "bench", "bench.service", environment, Duration.ofMillis(10))) {
+            String respuesta = enviar(downstream, 1).get(0);
+
+            assertTrue(respuesta.startsWith("gzip"));
+            assertTrue(respuesta.endsWith("|" + biografia));
+        }
+    }
+
+    @Test
+    @DisplayName("Configuración - h2 exige URLs https y h2c URLs http")
+    void testProtocolo_EsquemaInvalido() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("domain.service.url", "http://a:8080")
+                .withProperty("domain.service.protocol", "h2");
+        assertThrows(IllegalStateException.class, () -> AjustesDownstream.leer(environment, "domain.service"));
+
+        environment.setProperty("domain.service.url", "https://a:8443");
+        assertEquals(AjustesDownstream.Protocolo.H2,
+                AjustesDownstream.leer(environment, "domain.service").conexion().protocolo());
+
+        environment.setProperty("domain.service.protocol", "h3");
+        assertThrows(IllegalStateException.class, () -> AjustesDownstream.leer(environment, "domain.service"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.uniquindio.archmicroserv.apigateway.config;
+
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para RecargaConfiguracion y sus componentes recargables")
+class RecargaConfiguracionTest {
+
+    @TempDir
+    Path directorio;
+
+    private MockEnvironment environment;
+    private final List<Object> eventos = new ArrayList<>();
+    private Path archivo;
+    private RecargaConfiguracion recarga;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("domain.service.url", "http://a:8080")
+                .withProperty("gateway.deadline.default-ms", "5000");
+        archivo = directorio.resolve("gateway.properties");
+        recarga = new RecargaConfiguracion(environment, eventos::add, archivo.toString(), 1000);
+    }
+
+    @Test
+    @DisplayName("Recarga - El archivo tiene precedencia y solo se publican las claves que cambiaron")
+    void testRecargar_PublicaCambios() throws IOException {
+        // Given
+        Files.writeString(archivo, "domain.service.url=http://b:8080\ngateway.deadline.default-ms=5000\n");
+
+        // When
+        Set<String> primera = recarga.recargar();
+        Set<String> segunda = recarga.recargar();
+
+        // Then
+        assertEquals(Set.of("domain.service.url", "gateway.deadline.default-ms"), primera);
+        assertTrue(segunda.isEmpty());
+        assertEquals("http://b:8080", environment.getProperty("domain.service.url"));
+        assertEquals(List.of(new ConfiguracionRecargada(primera)), eventos);
+
+        // Al eliminar una clave del archivo vuelve el valor base
+        Files.writeString(archivo, "gateway.deadline.default-ms=5000\n");
+        assertEquals(Set.of("domain.service.url"), recarga.recargar());
+        assertEquals("http://a:8080", environment.getProperty("domain.service.url"));
+    }
+
+    @Test
+    @DisplayName("Recarga - Sin archivo configurado no hace nada y un archivo ilegible conserva la configuración")
+    void testRecargar_DeshabilitadaEIlegible() throws IOException {
+        RecargaConfiguracion deshabilitada = new RecargaConfiguracion(environment, eventos::add, "", 1000);
+        assertFalse(deshabilitada.habilitada());
+        assertTrue(deshabilitada.recargar().isEmpty());
+
+        Files.createDirectory(archivo);
+        assertThrows(UncheckedIOException.class, recarga::recargar);
+        assertEquals("http://a:8080", environment.getProperty("domain.service.url"));
+        assertTrue(eventos.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Componentes - Deadlines y destinos se actualizan con el evento de recarga")
+    void testComponentes_AplicanRecarga() throws IOException {
+        // Given
+        DeadlinePolicy deadlinePolicy = new DeadlinePolicy(environment);
+        try (DownstreamRecargable downstream = new DownstreamRecargable(
+                "domain-service", "domain.service", environment, Duration.ofMillis(10))) {
+            assertTrue(deadlinePolicy.calcular("usuarios.obtener", null).restante().toMillis() > 4000);
+            Files.writeString(archivo, "domain.service.url=http://b:8080,http://c:8080\ngateway.deadline.default-ms=1000\n");
+
+            // When
+            recarga.recargar();
+            ConfiguracionRecargada evento = (ConfiguracionRecargada) eventos.get(0);
+            deadlinePolicy.recargar(evento);
+            downstream.recargar(evento);
+
+            // Then
+            assertTrue(deadlinePolicy.calcular("usuarios.obtener", null).restante().toMillis() <= 1000);
+            assertEquals(List.of(URI.create("http://b:8080"), URI.create("http://c:8080")),
+                    downstream.getBalanceador().getInstancias().stream().map(instancia -> instancia.getUri()).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Componentes - Una URL inválida en la recarga conserva los destinos aplicados")
+    void testDownstream_ConfiguracionInvalida() {
+        try (DownstreamRecargable downstream = new DownstreamRecargable(
+                "domain-service", "domain.service", environment, Duration.ofMillis(10))) {
+            environment.setProperty("domain.service.url", " ");
+
+            downstream.recargar(new ConfiguracionRecargada(Set.of("domain.service.url")));
+
+            assertEquals(URI.create("http://a:8080"), downstream.getBalanceador().getInstancias().get(0).getUri());
+        }
+    }
+}
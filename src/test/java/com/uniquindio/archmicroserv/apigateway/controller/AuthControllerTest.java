@@ -1,20 +1,38 @@
 package com.uniquindio.archmicroserv.apigateway.controller;
 
+import com.uniquindio.archmicroserv.apigateway.filter.AutenticacionFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.LimiteTasaFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.MapeoErroresFiltro;
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimitadorTasa;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
 import com.uniquindio.archmicroserv.apigateway.service.DomainServiceClient;
 import com.uniquindio.archmicroserv.apigateway.service.GestionPerfilServiceClient;
+import com.uniquindio.archmicroserv.apigateway.service.RegistroLoteService;
+import com.uniquindio.archmicroserv.apigateway.service.UsuariosRegistrados;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +49,26 @@ class AuthControllerTest {
     @Mock
     private GestionPerfilServiceClient gestionPerfilServiceClient;
 
+    @Spy
+    private DeadlinePolicy deadlinePolicy = new DeadlinePolicy(new MockEnvironment());
+
+    private final LimitadorTasa limitadorTasa = new LimitadorTasa(new MockEnvironment()
+            .withProperty("gateway.ratelimit.policies.login.usuario.capacity", "3")
+            .withProperty("gateway.ratelimit.policies.login.usuario.refill-per-second", "0.01")
+            .withProperty("gateway.ratelimit.policies.registro-lote.usuario.capacity", "1")
+            .withProperty("gateway.ratelimit.policies.registro-lote.usuario.refill-per-second", "0.001"));
+
+    @Spy
+    private FabricaCadenas fabricaCadenas = new FabricaCadenas(List.of(
+            new MapeoErroresFiltro(), new AutenticacionFiltro(), new LimiteTasaFiltro(limitadorTasa)),
+            new MockEnvironment());
+
+    @Mock
+    private RegistroLoteService registroLoteService;
+
+    @Spy
+    private UsuariosRegistrados usuariosRegistrados = new UsuariosRegistrados(true, 1000, 0.001);
+
     @InjectMocks
     private AuthController authController;
 
@@ -66,7 +104,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.registrarUsuario(registroRequest);
+                authController.registrarUsuario(registroRequest, null);
 
         // Then
         StepVerifier.create(result)
@@ -89,7 +127,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.registrarUsuario(registroRequest);
+                authController.registrarUsuario(registroRequest, null);
 
         // Then
         StepVerifier.create(result)
@@ -115,7 +153,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.autenticar(loginRequest);
+                authController.autenticar(loginRequest, null);
 
         // Then
         StepVerifier.create(result)
@@ -138,7 +176,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.autenticar(loginRequest);
+                authController.autenticar(loginRequest, null);
 
         // Then
         StepVerifier.create(result)
@@ -163,7 +201,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.eliminarUsuario(usuario, token);
+                authController.eliminarUsuario(usuario, token, null);
 
         // Then
         StepVerifier.create(result)
@@ -185,7 +223,7 @@ class AuthControllerTest {
 
         // When - Without token
         Mono<ResponseEntity<Map<String, Object>>> result1 = 
-                authController.eliminarUsuario(usuario, null);
+                authController.eliminarUsuario(usuario, null, null);
 
         // Then
         StepVerifier.create(result1)
@@ -199,7 +237,7 @@ class AuthControllerTest {
 
         // When - With invalid token format
         Mono<ResponseEntity<Map<String, Object>>> result2 = 
-                authController.eliminarUsuario(usuario, "InvalidToken");
+                authController.eliminarUsuario(usuario, "InvalidToken", null);
 
         // Then
         StepVerifier.create(result2)
@@ -224,7 +262,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.eliminarUsuario(usuario, token);
+                authController.eliminarUsuario(usuario, token, null);
 
         // Then
         StepVerifier.create(result)
@@ -247,7 +285,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.registrarUsuario(emptyRequest);
+                authController.registrarUsuario(emptyRequest, null);
 
         // Then
         StepVerifier.create(result)
@@ -272,7 +310,7 @@ class AuthControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                authController.eliminarUsuario(usuario, fullToken);
+                authController.eliminarUsuario(usuario, fullToken, null);
 
         // Then
         StepVerifier.create(result)
@@ -285,5 +323,206 @@ class AuthControllerTest {
         verify(domainServiceClient, times(1))
                 .eliminarUsuario(eq(usuario), eq(expectedToken));
     }
-}
 
+    @Test
+    @DisplayName("Login - Límite de tasa por usuario excedido")
+    void testAutenticar_LimitePorUsuario() {
+        // Given
+        when(domainServiceClient.autenticar(any()))
+                .thenReturn(Mono.just(successResponse));
+        for (int i = 0; i < 3; i++) {
+            authController.autenticar(loginRequest, null).block();
+        }
+
+        // When
+        Mono<ResponseEntity<Map<String, Object>>> result =
+                authController.autenticar(loginRequest, null);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+                    assertNotNull(response.getHeaders().getFirst("Retry-After"));
+                    assertTrue((Boolean) response.getBody().get("error"));
+                })
+                .verifyComplete();
+        verify(domainServiceClient, times(3)).autenticar(any());
+    }
+
+    @Test
+    @DisplayName("Registro por lote - Deshabilitado responde 404 sin llamar a los microservicios")
+    void testRegistrarUsuariosLote_Deshabilitado() {
+        // Given
+        when(registroLoteService.habilitado()).thenReturn(false);
+
+        // When
+        var response = authController.registrarUsuariosLote(new ByteArrayInputStream(new byte[0]), "Bearer token", null);
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        StepVerifier.create(response.getBody())
+                .assertNext(elemento -> assertTrue((Boolean) elemento.get("error")))
+                .verifyComplete();
+        verify(registroLoteService, never()).registrarUsuarios(any());
+        verifyNoInteractions(domainServiceClient);
+    }
+
+    @Test
+    @DisplayName("Registro por lote - Sin token responde 401 y el límite es uno para todos los tokens")
+    void testRegistrarUsuariosLote_TokenYLimite() {
+        // Given
+        when(registroLoteService.habilitado()).thenReturn(true);
+        when(registroLoteService.registrarUsuarios(any())).thenReturn(Flux.empty());
+
+        // When
+        var sinToken = authController.registrarUsuariosLote(new ByteArrayInputStream(new byte[0]), null, null);
+        var primera = authController.registrarUsuariosLote(new ByteArrayInputStream(new byte[0]), "Bearer uno", null);
+        var segunda = authController.registrarUsuariosLote(new ByteArrayInputStream(new byte[0]), "Bearer dos", null);
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, sinToken.getStatusCode());
+        assertEquals(HttpStatus.OK, primera.getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, segunda.getStatusCode());
+        verify(registroLoteService, times(1)).registrarUsuarios(any());
+    }
+
+    private Map<String, Object> registroConPerfil() {
+        Map<String, Object> request = new HashMap<>(registroRequest);
+        request.put("apodo", "Tester");
+        return request;
+    }
+
+    private static WebClientResponseException errorHttp(int status) {
+        return WebClientResponseException.create(status, "error", new HttpHeaders(),
+                "{\"respuesta\":\"El usuario ya existe\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Registro en paralelo - Seguridad y perfil se solicitan a la vez")
+    void testRegistrarUsuario_EnParalelo() {
+        // Given
+        ReflectionTestUtils.setField(authController, "registroEnParalelo", true);
+        when(domainServiceClient.registrarUsuario(any()))
+                .thenReturn(Mono.delay(Duration.ofMillis(300)).thenReturn(successResponse));
+        when(gestionPerfilServiceClient.crearPerfil(eq("testuser"), any()))
+                .thenReturn(Mono.delay(Duration.ofMillis(300)).thenReturn(Map.of("apodo", "Tester")));
+
+        // When
+        Duration duracion = StepVerifier.create(authController.registrarUsuario(registroConPerfil(), null))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.CREATED, response.getStatusCode());
+                    assertEquals("Usuario y perfil registrados exitosamente", response.getBody().get("respuesta"));
+                })
+                .verifyComplete();
+
+        // Then
+        assertTrue(duracion.toMillis() < 550, "Duración: " + duracion.toMillis() + " ms");
+        verify(gestionPerfilServiceClient, never()).eliminarPerfil(anyString());
+    }
+
+    @Test
+    @DisplayName("Registro en paralelo - Usuario existente elimina el perfil creado")
+    void testRegistrarUsuario_EnParaleloCompensaConflicto() {
+        // Given
+        ReflectionTestUtils.setField(authController, "registroEnParalelo", true);
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.error(errorHttp(409)));
+        when(gestionPerfilServiceClient.crearPerfil(eq("testuser"), any())).thenReturn(Mono.just(Map.of()));
+        when(gestionPerfilServiceClient.eliminarPerfil("testuser")).thenReturn(Mono.empty());
+
+        // When / Then
+        StepVerifier.create(authController.registrarUsuario(registroConPerfil(), null))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+                    assertEquals("El usuario ya existe", response.getBody().get("respuesta"));
+                })
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, times(1)).eliminarPerfil("testuser");
+    }
+
+    @Test
+    @DisplayName("Registro en paralelo - No se elimina un perfil que no se creó")
+    void testRegistrarUsuario_EnParaleloPerfilExistente() {
+        // Given
+        ReflectionTestUtils.setField(authController, "registroEnParalelo", true);
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.error(errorHttp(409)));
+        when(gestionPerfilServiceClient.crearPerfil(eq("testuser"), any())).thenReturn(Mono.error(errorHttp(409)));
+
+        // When / Then
+        StepVerifier.create(authController.registrarUsuario(registroConPerfil(), null))
+                .assertNext(response -> assertEquals(HttpStatus.CONFLICT, response.getStatusCode()))
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, never()).eliminarPerfil(anyString());
+    }
+
+    @Test
+    @DisplayName("Registro en paralelo - Un 5xx no compensa porque el usuario pudo quedar registrado")
+    void testRegistrarUsuario_EnParaleloErrorServidor() {
+        // Given
+        ReflectionTestUtils.setField(authController, "registroEnParalelo", true);
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.error(errorHttp(503)));
+        when(gestionPerfilServiceClient.crearPerfil(eq("testuser"), any())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(authController.registrarUsuario(registroConPerfil(), null))
+                .assertNext(response -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()))
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, never()).eliminarPerfil(anyString());
+    }
+
+    @Test
+    @DisplayName("Registro en paralelo - Con un conflicto probable el perfil se crea solo tras el registro")
+    void testRegistrarUsuario_ConflictoProbableSinParalelo() {
+        // Given
+        ReflectionTestUtils.setField(authController, "registroEnParalelo", true);
+        usuariosRegistrados.agregar("testuser", null);
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.error(errorHttp(409)));
+
+        // When / Then
+        StepVerifier.create(authController.registrarUsuario(registroConPerfil(), null))
+                .assertNext(response -> assertEquals(HttpStatus.CONFLICT, response.getStatusCode()))
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, never()).crearPerfil(anyString(), any());
+        verify(gestionPerfilServiceClient, never()).eliminarPerfil(anyString());
+    }
+
+    @Test
+    @DisplayName("Registro - Aunque usuario y correo sean probables decide el Domain Service (falso positivo)")
+    void testRegistrarUsuario_FalsoPositivoNoRechaza() {
+        // Given
+        usuariosRegistrados.agregar("testuser", "TEST@example.com");
+        when(domainServiceClient.registrarUsuario(anyMap())).thenReturn(Mono.just(successResponse));
+
+        // When / Then
+        StepVerifier.create(authController.registrarUsuario(registroRequest, null))
+                .assertNext(response -> assertEquals(HttpStatus.CREATED, response.getStatusCode()))
+                .verifyComplete();
+        verify(domainServiceClient).registrarUsuario(anyMap());
+    }
+
+    @Test
+    @DisplayName("Disponibilidad - Responde desde el índice local sin consultar el Domain Service")
+    void testConsultarDisponibilidad() {
+        // Given
+        usuariosRegistrados.agregar("testuser", null);
+
+        // When / Then
+        StepVerifier.create(authController.consultarDisponibilidad("testuser"))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals("ocupado", response.getBody().get("estado"));
+                    assertEquals(false, response.getBody().get("disponible"));
+                })
+                .verifyComplete();
+        // Sin acierto no se afirma que esté disponible: el gateway pudo no haberlo visto
+        StepVerifier.create(authController.consultarDisponibilidad("nuevo_usuario"))
+                .assertNext(response -> {
+                    assertEquals("desconocido", response.getBody().get("estado"));
+                    assertNull(response.getBody().get("disponible"));
+                })
+                .verifyComplete();
+        StepVerifier.create(authController.consultarDisponibilidad(" "))
+                .assertNext(response -> assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()))
+                .verifyComplete();
+        verifyNoInteractions(domainServiceClient);
+    }
+}
@@ -1,7 +1,16 @@
 package com.uniquindio.archmicroserv.apigateway.controller;
 
+import com.uniquindio.archmicroserv.apigateway.filter.AutenticacionFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.MapeoErroresFiltro;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
 import com.uniquindio.archmicroserv.apigateway.messaging.EventoPublisher;
+import com.uniquindio.archmicroserv.apigateway.service.AccesosVerificados;
+import com.uniquindio.archmicroserv.apigateway.service.ConsultaLoteService;
 import com.uniquindio.archmicroserv.apigateway.service.DomainServiceClient;
+import com.uniquindio.archmicroserv.apigateway.service.EliminacionDiferida;
+import com.uniquindio.archmicroserv.apigateway.service.EliminacionLoteService;
+import com.uniquindio.archmicroserv.apigateway.service.EtiquetasUsuario;
 import com.uniquindio.archmicroserv.apigateway.service.GestionPerfilServiceClient;
 import com.uniquindio.archmicroserv.apigateway.service.UsuarioUnificadoService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,13 +19,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,6 +52,28 @@ class UsuarioControllerTest {
     @Mock
     private EventoPublisher eventoPublisher;
 
+    @Mock
+    private ConsultaLoteService consultaLoteService;
+
+    @Mock
+    private EliminacionLoteService eliminacionLoteService;
+
+    @Mock
+    private EliminacionDiferida eliminacionDiferida;
+
+    @Spy
+    private DeadlinePolicy deadlinePolicy = new DeadlinePolicy(new MockEnvironment());
+
+    @Spy
+    private AccesosVerificados accesosVerificados = new AccesosVerificados(30000, 1000);
+
+    @Spy
+    private EtiquetasUsuario etiquetasUsuario = new EtiquetasUsuario(30000, 1000, List.of());
+
+    @Spy
+    private FabricaCadenas fabricaCadenas = new FabricaCadenas(
+            List.of(new MapeoErroresFiltro(), new AutenticacionFiltro()), new MockEnvironment());
+
     @InjectMocks
     private UsuarioController usuarioController;
 
@@ -77,7 +112,7 @@ class UsuarioControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.obtenerUsuarioCompleto(testUsuario, validToken);
+                usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, null, null);
 
         // Then
         StepVerifier.create(result)
@@ -102,7 +137,7 @@ class UsuarioControllerTest {
     void testObtenerUsuarioCompleto_NoToken() {
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.obtenerUsuarioCompleto(testUsuario, null);
+                usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, null, null, null);
 
         // Then
         StepVerifier.create(result)
@@ -122,7 +157,7 @@ class UsuarioControllerTest {
     void testObtenerUsuarioCompleto_InvalidToken() {
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.obtenerUsuarioCompleto(testUsuario, "InvalidToken");
+                usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, "InvalidToken", null, null);
 
         // Then
         StepVerifier.create(result)
@@ -148,7 +183,7 @@ class UsuarioControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.obtenerUsuarioCompleto(testUsuario, validToken);
+                usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, null, null);
 
         // Then - Debe retornar OK pero sin datos de perfil
         StepVerifier.create(result)
@@ -162,6 +197,137 @@ class UsuarioControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("Obtener usuario completo - fields=datosSeguridad no consulta el perfil")
+    void testObtenerUsuarioCompleto_SoloSeguridad() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+
+        // When
+        Mono<ResponseEntity<Map<String, Object>>> result =
+                usuarioController.obtenerUsuarioCompleto(testUsuario, "datosSeguridad", null, validToken, null, null);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertTrue(response.getBody().containsKey("datosSeguridad"));
+                    assertFalse(response.getBody().containsKey("perfil"));
+                })
+                .verifyComplete();
+        verifyNoInteractions(gestionPerfilServiceClient);
+    }
+
+    @Test
+    @DisplayName("Obtener usuario completo - include=perfil autoriza una vez y luego solo consulta el perfil")
+    void testObtenerUsuarioCompleto_SoloPerfil() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+        when(gestionPerfilServiceClient.obtenerPerfil(testUsuario))
+                .thenReturn(Mono.just(perfilData));
+
+        // When / Then
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(usuarioController.obtenerUsuarioCompleto(testUsuario, null, "perfil", validToken, null, null))
+                    .assertNext(response -> {
+                        assertEquals(HttpStatus.OK, response.getStatusCode());
+                        assertTrue(response.getBody().containsKey("perfil"));
+                        assertFalse(response.getBody().containsKey("datosSeguridad"));
+                    })
+                    .verifyComplete();
+        }
+        verify(domainServiceClient, times(1)).obtenerUsuario(testUsuario, "valid-token-123");
+        verify(gestionPerfilServiceClient, times(2)).obtenerPerfil(testUsuario);
+    }
+
+    @Test
+    @DisplayName("Obtener usuario completo - Con el ETag vigente responde 304 sin consultar los microservicios")
+    void testObtenerUsuarioCompleto_NoModificado() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+        when(gestionPerfilServiceClient.obtenerPerfil(testUsuario))
+                .thenReturn(Mono.just(perfilData));
+
+        ResponseEntity<Map<String, Object>> primera =
+                usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, null, null).block();
+        String etiqueta = primera.getHeaders().getETag();
+        assertNotNull(etiqueta);
+        assertTrue(etiqueta.startsWith("W/\""));
+
+        // When / Then
+        StepVerifier.create(usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, etiqueta, null))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+                    assertEquals(etiqueta, response.getHeaders().getETag());
+                    assertNull(response.getBody());
+                })
+                .verifyComplete();
+        verify(domainServiceClient, times(1)).obtenerUsuario(testUsuario, "valid-token-123");
+        verify(gestionPerfilServiceClient, times(1)).obtenerPerfil(testUsuario);
+    }
+
+    @Test
+    @DisplayName("Obtener usuario completo - Actualizar el usuario invalida el atajo del ETag")
+    void testObtenerUsuarioCompleto_InvalidaAlActualizar() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+        when(gestionPerfilServiceClient.obtenerPerfil(testUsuario))
+                .thenReturn(Mono.just(perfilData), Mono.just(Map.of("apodo", "Nuevo")));
+        when(usuarioUnificadoService.actualizarUsuarioCompleto(eq(testUsuario), anyMap(), eq("valid-token-123")))
+                .thenReturn(Mono.just(Map.of("error", false)));
+
+        String etiqueta = usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, null, null)
+                .block().getHeaders().getETag();
+        usuarioController.actualizarUsuarioCompleto(testUsuario, Map.of("apodo", "Nuevo"), validToken, null).block();
+
+        // When / Then
+        StepVerifier.create(usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, etiqueta, null))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertNotEquals(etiqueta, response.getHeaders().getETag());
+                    assertEquals(Map.of("apodo", "Nuevo"), response.getBody().get("perfil"));
+                })
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, times(2)).obtenerPerfil(testUsuario);
+    }
+
+    @Test
+    @DisplayName("Obtener usuario completo - fields=perfil sin autorización no retorna el perfil")
+    void testObtenerUsuarioCompleto_SoloPerfilSinPermisos() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.error(org.springframework.web.reactive.function.client.WebClientResponseException
+                        .create(403, "Forbidden", null, null, null)));
+        when(gestionPerfilServiceClient.obtenerPerfil(testUsuario))
+                .thenReturn(Mono.just(perfilData));
+
+        // When / Then
+        StepVerifier.create(usuarioController.obtenerUsuarioCompleto(testUsuario, "perfil", null, validToken, null, null))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+                    assertFalse(response.getBody().containsKey("perfil"));
+                })
+                .verifyComplete();
+        assertFalse(accesosVerificados.verificado("valid-token-123", testUsuario));
+    }
+
+    @Test
+    @DisplayName("Obtener usuario completo - Campo desconocido en fields")
+    void testObtenerUsuarioCompleto_CampoDesconocido() {
+        // When / Then
+        StepVerifier.create(usuarioController.obtenerUsuarioCompleto(testUsuario, "perfil,correo", null, validToken, null, null))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                    assertEquals("Campo desconocido: correo", response.getBody().get("respuesta"));
+                })
+                .verifyComplete();
+        verifyNoInteractions(domainServiceClient, gestionPerfilServiceClient);
+    }
+
     @Test
     @DisplayName("Actualizar usuario completo - Camino feliz")
     void testActualizarUsuarioCompleto_Success() {
@@ -174,7 +340,7 @@ class UsuarioControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, validToken);
+                usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, validToken, null);
 
         // Then
         StepVerifier.create(result)
@@ -194,7 +360,7 @@ class UsuarioControllerTest {
     void testActualizarUsuarioCompleto_NoToken() {
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, null);
+                usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, null, null);
 
         // Then
         StepVerifier.create(result)
@@ -217,7 +383,7 @@ class UsuarioControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, validToken);
+                usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, validToken, null);
 
         // Then
         StepVerifier.create(result)
@@ -245,7 +411,7 @@ class UsuarioControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.eliminarUsuarioCompleto(testUsuario, validToken);
+                usuarioController.eliminarUsuarioCompleto(testUsuario, validToken, null);
 
         // Then
         StepVerifier.create(result)
@@ -263,12 +429,51 @@ class UsuarioControllerTest {
         verify(eventoPublisher, times(1)).publicarEventoEliminacion(eq(testUsuario), anyString());
     }
 
+    @Test
+    @DisplayName("Eliminar usuario completo - Con limpieza diferida responde tras el Domain Service")
+    void testEliminarUsuarioCompleto_LimpiezaDiferida() {
+        // Given
+        when(domainServiceClient.eliminarUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+        when(eliminacionDiferida.habilitada()).thenReturn(true);
+        when(eliminacionDiferida.programar(testUsuario, "test@example.com")).thenReturn(Mono.just(true));
+
+        // When
+        Mono<ResponseEntity<Map<String, Object>>> result =
+                usuarioController.eliminarUsuarioCompleto(testUsuario, validToken, null);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.getStatusCode()))
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, never()).eliminarPerfil(anyString());
+        verifyNoInteractions(eventoPublisher);
+    }
+
+    @Test
+    @DisplayName("Eliminar usuario completo - Cola de limpieza llena, se limpia en línea")
+    void testEliminarUsuarioCompleto_LimpiezaDiferidaRechazada() {
+        // Given
+        when(domainServiceClient.eliminarUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+        when(eliminacionDiferida.habilitada()).thenReturn(true);
+        when(eliminacionDiferida.programar(testUsuario, "test@example.com")).thenReturn(Mono.just(false));
+        when(gestionPerfilServiceClient.eliminarPerfil(testUsuario)).thenReturn(Mono.empty());
+
+        // When / Then
+        StepVerifier.create(usuarioController.eliminarUsuarioCompleto(testUsuario, validToken, null))
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.getStatusCode()))
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, times(1)).eliminarPerfil(testUsuario);
+        verify(eventoPublisher, times(1)).publicarEventoEliminacion(testUsuario, "test@example.com");
+    }
+
     @Test
     @DisplayName("Eliminar usuario completo - Sin token")
     void testEliminarUsuarioCompleto_NoToken() {
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.eliminarUsuarioCompleto(testUsuario, null);
+                usuarioController.eliminarUsuarioCompleto(testUsuario, null, null);
 
         // Then
         StepVerifier.create(result)
@@ -292,7 +497,7 @@ class UsuarioControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.eliminarUsuarioCompleto(testUsuario, validToken);
+                usuarioController.eliminarUsuarioCompleto(testUsuario, validToken, null);
 
         // Then - Debe retornar error 500 porque el error en seguridad se propaga
         StepVerifier.create(result)
@@ -321,7 +526,7 @@ class UsuarioControllerTest {
 
         // When - No debe fallar el proceso completo por error en evento
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.eliminarUsuarioCompleto(testUsuario, validToken);
+                usuarioController.eliminarUsuarioCompleto(testUsuario, validToken, null);
 
         // Then - Debe completarse exitosamente
         StepVerifier.create(result)
@@ -347,7 +552,7 @@ class UsuarioControllerTest {
 
         // When
         Mono<ResponseEntity<Map<String, Object>>> result = 
-                usuarioController.obtenerUsuarioCompleto(testUsuario, validToken);
+                usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, null, null);
 
         // Then
         StepVerifier.create(result)
@@ -371,7 +576,7 @@ class UsuarioControllerTest {
                 .thenReturn(Mono.just(new HashMap<>()));
 
         // When
-        usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, fullToken)
+        usuarioController.actualizarUsuarioCompleto(testUsuario, updateData, fullToken, null)
                 .subscribe();
 
         // Then - Verify token extraction
@@ -393,12 +598,86 @@ class UsuarioControllerTest {
         doNothing().when(eventoPublisher).publicarEventoEliminacion(anyString(), anyString());
 
         // When
-        usuarioController.eliminarUsuarioCompleto(testUsuario, fullToken)
+        usuarioController.eliminarUsuarioCompleto(testUsuario, fullToken, null)
                 .subscribe();
 
         // Then - Verify token extraction
         verify(domainServiceClient, timeout(1000))
                 .eliminarUsuario(eq(testUsuario), eq(expectedToken));
     }
-}
 
+    @Test
+    @DisplayName("Obtener usuario completo - Deadline agotado")
+    void testObtenerUsuarioCompleto_DeadlineAgotado() {
+        // Given - El Domain Service nunca responde
+        when(domainServiceClient.obtenerUsuario(testUsuario, "valid-token-123"))
+                .thenReturn(Mono.never());
+        when(gestionPerfilServiceClient.obtenerPerfil(testUsuario))
+                .thenReturn(Mono.just(perfilData));
+
+        // When
+        Mono<ResponseEntity<Map<String, Object>>> result =
+                usuarioController.obtenerUsuarioCompleto(testUsuario, null, null, validToken, null, "50");
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+                    assertTrue((Boolean) response.getBody().get("error"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Obtener usuarios por lote - Camino feliz con errores por elemento")
+    void testObtenerUsuariosLote_Success() {
+        // Given
+        when(consultaLoteService.maxUsuarios()).thenReturn(100);
+        when(consultaLoteService.obtenerUsuarios(List.of("ana", "nadie"), "valid-token-123"))
+                .thenReturn(Flux.just(
+                        Map.of("usuario", "ana"),
+                        Map.of("usuario", "nadie", "error", true, "status", 404)));
+
+        // When
+        Mono<ResponseEntity<Map<String, Object>>> result = usuarioController.obtenerUsuariosLote(
+                Map.of("usuarios", List.of("ana", "nadie")), validToken, null);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals(2, response.getBody().get("total"));
+                    assertEquals(1L, response.getBody().get("fallidos"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Obtener usuarios por lote - Lista inválida")
+    void testObtenerUsuariosLote_ListaInvalida() {
+        // Given
+        when(consultaLoteService.maxUsuarios()).thenReturn(1);
+
+        // When
+        Mono<ResponseEntity<Map<String, Object>>> result = usuarioController.obtenerUsuariosLote(
+                Map.of("usuarios", List.of("ana", "luis")), validToken, null);
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()))
+                .verifyComplete();
+        verify(consultaLoteService, never()).obtenerUsuarios(any(), any());
+    }
+
+    @Test
+    @DisplayName("Eliminar usuarios por lote - Sin token")
+    void testEliminarUsuariosLote_SinToken() {
+        // When
+        ResponseEntity<Flux<Map<String, Object>>> result = usuarioController.eliminarUsuariosLote(
+                Map.of("usuarios", List.of("ana")), null, null);
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, result.getStatusCode());
+        verifyNoInteractions(eliminacionLoteService);
+    }
+}
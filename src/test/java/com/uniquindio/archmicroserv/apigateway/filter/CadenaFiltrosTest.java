@@ -0,0 +1,153 @@
+package com.uniquindio.archmicroserv.apigateway.filter;
+
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimitadorTasa;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para FabricaCadenas y CadenaFiltros")
+class CadenaFiltrosTest {
+
+    private MockEnvironment environment;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("gateway.ratelimit.policies.login.usuario.capacity", "1")
+                .withProperty("gateway.ratelimit.policies.login.usuario.refill-per-second", "0.01")
+                .withProperty("gateway.filters.headers.default", "X-Gateway:api-gateway");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private FabricaCadenas fabrica() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        return new FabricaCadenas(List.of(
+                new MetricasFiltro(beanFactory.getBeanProvider(MeterRegistry.class)),
+                new MapeoErroresFiltro(),
+                new EncabezadosFiltro(environment),
+                new AutenticacionFiltro(),
+                new LimiteTasaFiltro(new LimitadorTasa(environment))), environment);
+    }
+
+    @Test
+    @DisplayName("Fábrica - Cada ruta incluye solo los filtros que le aplican y los deshabilitados no llegan a ninguna")
+    void testCadena_FiltrosPorRuta() {
+        FabricaCadenas fabrica = fabrica();
+
+        assertEquals(List.of("metrics", "error-mapping", "headers", "auth"),
+                fabrica.cadena(RutaGateway.autenticada("usuarios.obtener", "Error")).getFiltros());
+        assertEquals(List.of("metrics", "error-mapping", "headers", "rate-limit"),
+                fabrica.cadena(RutaGateway.publica("auth.login", "Error").conLimite("login")).getFiltros());
+        // La política de registro no está configurada: sin límite no hay eslabón
+        assertEquals(List.of("metrics", "error-mapping", "headers"),
+                fabrica.cadena(RutaGateway.publica("auth.registro", "Error").conLimite("registro")).getFiltros());
+
+        environment.setProperty("gateway.filters.metrics.enabled", "false");
+        environment.setProperty("gateway.filters.headers.enabled", "false");
+        assertEquals(List.of("error-mapping", "auth"),
+                fabrica().cadena(RutaGateway.autenticada("usuarios.obtener", "Error")).getFiltros());
+    }
+
+    @Test
+    @DisplayName("Fábrica - Los filtros de seguridad no se pueden deshabilitar")
+    void testFabrica_FiltroObligatorio() {
+        environment.setProperty("gateway.filters.auth.enabled", "false");
+        assertThrows(IllegalStateException.class, this::fabrica);
+
+        environment.setProperty("gateway.filters.auth.enabled", "true");
+        environment.setProperty("gateway.filters.rate-limit.enabled", "false");
+        assertThrows(IllegalStateException.class, this::fabrica);
+    }
+
+    @Test
+    @DisplayName("Cadena - Sin token se rechaza con 401 sin invocar el endpoint; con token lo recibe sin el prefijo")
+    void testEjecutar_Autenticacion() {
+        CadenaFiltros cadena = fabrica().cadena(RutaGateway.autenticada("usuarios.obtener", "Error"));
+        AtomicInteger invocaciones = new AtomicInteger();
+
+        StepVerifier.create(cadena.ejecutar(SolicitudGateway.de("Basic abc"), solicitud -> {
+                    invocaciones.incrementAndGet();
+                    return Mono.just(ResponseEntity.ok(Map.of()));
+                }))
+                .assertNext(respuesta -> {
+                    assertEquals(HttpStatus.UNAUTHORIZED, respuesta.getStatusCode());
+                    assertEquals("Token de autenticación requerido", respuesta.getBody().get("respuesta"));
+                    assertEquals("api-gateway", respuesta.getHeaders().getFirst("X-Gateway"));
+                })
+                .verifyComplete();
+        assertEquals(0, invocaciones.get());
+
+        StepVerifier.create(cadena.ejecutar(SolicitudGateway.de("Bearer token123 "),
+                        solicitud -> Mono.just(ResponseEntity.ok(Map.<String, Object>of("token", solicitud.getToken())))))
+                .assertNext(respuesta -> assertEquals("token123", respuesta.getBody().get("token")))
+                .verifyComplete();
+        assertEquals(1, meterRegistry.get(MetricasFiltro.METRICA).tag("ruta", "usuarios.obtener").tag("estado", "401")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Cadena - El límite por usuario responde 429 con Retry-After")
+    void testEjecutar_LimiteTasa() {
+        CadenaFiltros cadena = fabrica().cadena(RutaGateway.publica("auth.login", "Error").conLimite("login"));
+        SolicitudGateway solicitud = new SolicitudGateway(null, "testuser");
+
+        StepVerifier.create(cadena.ejecutar(solicitud, s -> Mono.just(ResponseEntity.ok(Map.of()))))
+                .assertNext(respuesta -> assertEquals(HttpStatus.OK, respuesta.getStatusCode()))
+                .verifyComplete();
+        StepVerifier.create(cadena.ejecutar(solicitud, s -> Mono.just(ResponseEntity.ok(Map.of()))))
+                .assertNext(respuesta -> {
+                    assertEquals(HttpStatus.TOO_MANY_REQUESTS, respuesta.getStatusCode());
+                    assertNotNull(respuesta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Cadena - Los errores del endpoint se convierten en la respuesta estándar, también en streaming")
+    void testEjecutar_MapeoErrores() {
+        CadenaFiltros cadena = fabrica().cadena(RutaGateway.publica("auth.login", "Credenciales inválidas")
+                .conEstadoError(HttpStatus.UNAUTHORIZED));
+        WebClientResponseException conflicto = WebClientResponseException.create(409, "Conflict", HttpHeaders.EMPTY,
+                "{\"error\":true,\"respuesta\":\"El usuario ya existe\"}".getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+
+        StepVerifier.create(cadena.ejecutar(SolicitudGateway.de(null), s -> Mono.error(conflicto)))
+                .assertNext(respuesta -> {
+                    assertEquals(HttpStatus.CONFLICT, respuesta.getStatusCode());
+                    assertEquals("El usuario ya existe", respuesta.getBody().get("respuesta"));
+                })
+                .verifyComplete();
+        StepVerifier.create(cadena.ejecutar(SolicitudGateway.de(null), s -> Mono.error(new IllegalStateException("caído"))))
+                .assertNext(respuesta -> {
+                    assertEquals(HttpStatus.UNAUTHORIZED, respuesta.getStatusCode());
+                    assertEquals("Credenciales inválidas", respuesta.getBody().get("respuesta"));
+                })
+                .verifyComplete();
+
+        ResponseEntity<Flux<Map<String, Object>>> flujo = cadena.ejecutarFlujo(SolicitudGateway.de(null),
+                s -> ResponseEntity.ok(Flux.concat(Flux.just(Map.of("usuario", "a")), Flux.error(conflicto))));
+        StepVerifier.create(flujo.getBody())
+                .expectNext(Map.of("usuario", "a"))
+                .assertNext(fin -> assertEquals(409, fin.get("status")))
+                .verifyComplete();
+    }
+}
@@ -1,14 +1,25 @@
 package com.uniquindio.archmicroserv.apigateway.integration;
 
 import com.uniquindio.archmicroserv.apigateway.controller.AuthController;
+import com.uniquindio.archmicroserv.apigateway.filter.AutenticacionFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.EncabezadosFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.LimiteTasaFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.MapeoErroresFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.MetricasFiltro;
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimitadorTasa;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
 import com.uniquindio.archmicroserv.apigateway.service.DomainServiceClient;
 import com.uniquindio.archmicroserv.apigateway.service.GestionPerfilServiceClient;
+import com.uniquindio.archmicroserv.apigateway.service.RegistroLoteService;
+import com.uniquindio.archmicroserv.apigateway.service.UsuariosRegistrados;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -19,9 +30,13 @@ import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(controllers = AuthController.class)
+@Import({DeadlinePolicy.class, LimitadorTasa.class, RegistroLoteService.class, FabricaCadenas.class,
+        MetricasFiltro.class, MapeoErroresFiltro.class, EncabezadosFiltro.class, AutenticacionFiltro.class,
+        LimiteTasaFiltro.class, UsuariosRegistrados.class})
 @ActiveProfiles("test")
 @DisplayName("Tests de integración para AuthController")
 class AuthControllerIntegrationTest {
@@ -55,6 +70,19 @@ class AuthControllerIntegrationTest {
         successResponse.put("respuesta", "Operación exitosa");
     }
 
+    @Test
+    @DisplayName("GET /api/v1/auth/disponibilidad - Sin el índice habilitado responde 503")
+    void testDisponibilidad_Deshabilitada() {
+        webTestClient.get()
+                .uri("/api/v1/auth/disponibilidad?usuario=testuser")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo(true)
+                .jsonPath("$.respuesta").isEqualTo("Consulta de disponibilidad no habilitada");
+        verifyNoInteractions(domainServiceClient);
+    }
+
     @Test
     @DisplayName("POST /api/v1/auth/registro - Camino feliz")
     void testRegistro_Success() {
@@ -1,8 +1,21 @@
 package com.uniquindio.archmicroserv.apigateway.integration;
 
 import com.uniquindio.archmicroserv.apigateway.controller.UsuarioController;
+import com.uniquindio.archmicroserv.apigateway.filter.AutenticacionFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.EncabezadosFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.LimiteTasaFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.MapeoErroresFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.MetricasFiltro;
 import com.uniquindio.archmicroserv.apigateway.messaging.EventoPublisher;
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimitadorTasa;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
+import com.uniquindio.archmicroserv.apigateway.service.AccesosVerificados;
+import com.uniquindio.archmicroserv.apigateway.service.ConsultaLoteService;
 import com.uniquindio.archmicroserv.apigateway.service.DomainServiceClient;
+import com.uniquindio.archmicroserv.apigateway.service.EliminacionDiferida;
+import com.uniquindio.archmicroserv.apigateway.service.EliminacionLoteService;
+import com.uniquindio.archmicroserv.apigateway.service.EtiquetasUsuario;
 import com.uniquindio.archmicroserv.apigateway.service.GestionPerfilServiceClient;
 import com.uniquindio.archmicroserv.apigateway.service.UsuarioUnificadoService;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,18 +24,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @WebFluxTest(controllers = UsuarioController.class)
+@Import({DeadlinePolicy.class, ConsultaLoteService.class, EliminacionLoteService.class, AccesosVerificados.class,
+        EliminacionDiferida.class, EtiquetasUsuario.class, LimitadorTasa.class, FabricaCadenas.class, MetricasFiltro.class,
+        MapeoErroresFiltro.class, EncabezadosFiltro.class, AutenticacionFiltro.class, LimiteTasaFiltro.class})
 @ActiveProfiles("test")
 @DisplayName("Tests de integración para UsuarioController")
 class UsuarioControllerIntegrationTest {
@@ -81,6 +100,54 @@ class UsuarioControllerIntegrationTest {
                 .jsonPath("$.perfil.apodo").isEqualTo("Test User");
     }
 
+    @Test
+    @DisplayName("GET /api/v1/usuarios/{usuario} - If-None-Match con el ETag recibido responde 304")
+    void testObtenerUsuario_NoModificado() {
+        // Given
+        when(domainServiceClient.obtenerUsuario("testuser", "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+        when(gestionPerfilServiceClient.obtenerPerfil("testuser"))
+                .thenReturn(Mono.just(perfilData));
+
+        String etiqueta = webTestClient.get()
+                .uri("/api/v1/usuarios/testuser")
+                .header("Authorization", "Bearer valid-token-123")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.noCache().cachePrivate())
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1/usuarios/testuser")
+                .header("Authorization", "Bearer valid-token-123")
+                .header("If-None-Match", etiqueta)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", etiqueta)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/usuarios/{usuario}?fields=datosSeguridad - Sin consultar el perfil")
+    void testObtenerUsuario_SoloSeguridad() {
+        // Given
+        when(domainServiceClient.obtenerUsuario("testuser", "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "test@example.com"))));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/v1/usuarios/testuser?fields=datosSeguridad")
+                .header("Authorization", "Bearer valid-token-123")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.datosSeguridad.correo").isEqualTo("test@example.com")
+                .jsonPath("$.perfil").doesNotExist();
+        verify(gestionPerfilServiceClient, never()).obtenerPerfil(anyString());
+    }
+
     @Test
     @DisplayName("GET /api/v1/usuarios/{usuario} - Sin token")
     void testObtenerUsuario_NoToken() {
@@ -341,5 +408,76 @@ class UsuarioControllerIntegrationTest {
         verify(eventoPublisher, timeout(1000).times(1))
                 .publicarEventoEliminacion(eq("testuser"), anyString());
     }
-}
 
+    @Test
+    @DisplayName("POST /api/v1/usuarios/_batch - Resultados por usuario")
+    void testObtenerUsuariosLote_Success() {
+        // Given
+        when(domainServiceClient.obtenerUsuario("ana", "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("usuario", "ana")));
+        when(domainServiceClient.obtenerUsuario("luis", "valid-token-123"))
+                .thenReturn(Mono.just(Map.of("usuario", "luis")));
+        when(gestionPerfilServiceClient.obtenerPerfil(anyString()))
+                .thenReturn(Mono.just(perfilData));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/usuarios/_batch")
+                .header("Authorization", "Bearer valid-token-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("usuarios", List.of("ana", "luis")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(2)
+                .jsonPath("$.resultados[0].usuario").isEqualTo("ana")
+                .jsonPath("$.resultados[1].perfil.apodo").isEqualTo("Test User");
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/usuarios/_batch - Streaming NDJSON")
+    void testTransmitirUsuariosLote_Ndjson() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(anyString(), eq("valid-token-123")))
+                .thenAnswer(inv -> Mono.just(Map.of("usuario", inv.getArgument(0))));
+        when(gestionPerfilServiceClient.obtenerPerfil(anyString()))
+                .thenReturn(Mono.just(perfilData));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/usuarios/_batch")
+                .header("Authorization", "Bearer valid-token-123")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("usuarios", List.of("ana", "luis", "eva")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Map.class)
+                .hasSize(3);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/usuarios/_delete - Avance por usuario y resumen")
+    void testEliminarUsuariosLote_Success() {
+        // Given
+        when(domainServiceClient.eliminarUsuario(anyString(), eq("valid-token-123")))
+                .thenReturn(Mono.just(Map.of("respuesta", Map.of("correo", "x@example.com"))));
+        when(gestionPerfilServiceClient.eliminarPerfil(anyString()))
+                .thenReturn(Mono.empty());
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(2);
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/usuarios/_delete")
+                .header("Authorization", "Bearer valid-token-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("usuarios", List.of("ana", "luis")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Map.class)
+                .hasSize(3);
+        verify(eventoPublisher, times(1)).publicarEventosEliminacion(anyList());
+    }
+}
@@ -0,0 +1,126 @@
+package com.uniquindio.archmicroserv.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para BalanceadorCarga")
+class BalanceadorCargaTest {
+
+    private BalanceadorCarga balanceador;
+
+    @BeforeEach
+    void setUp() {
+        PoliticaBalanceo politica = new PoliticaBalanceo(
+                false, Duration.ofSeconds(30), 3, Duration.ofSeconds(30), 50, Duration.ofSeconds(10));
+        balanceador = new BalanceadorCarga("domain-service",
+                BalanceadorCarga.parsear("http://a:8080, http://b:8080,http://c:8080"), politica);
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceador.close();
+    }
+
+    @Test
+    @DisplayName("Parsear - Lista de instancias separada por comas")
+    void testParsear() {
+        List<URI> uris = BalanceadorCarga.parsear("http://a:8080, http://b:8080,");
+
+        assertEquals(List.of(URI.create("http://a:8080"), URI.create("http://b:8080")), uris);
+    }
+
+    @Test
+    @DisplayName("Elegir - Evita la instancia con más solicitudes en vuelo")
+    void testElegir_PrefiereMenosCargada() {
+        InstanciaServicio cargada = balanceador.getInstancias().get(0);
+        for (int i = 0; i < 50; i++) {
+            cargada.iniciarSolicitud();
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertNotSame(cargada, balanceador.elegir());
+        }
+    }
+
+    @Test
+    @DisplayName("Elegir - Evita la instancia con mayor latencia")
+    void testElegir_PrefiereMenorLatencia() {
+        InstanciaServicio lenta = balanceador.getInstancias().get(1);
+        balanceador.registrarResultado(lenta, Duration.ofSeconds(2).toNanos(), true);
+        for (InstanciaServicio instancia : balanceador.getInstancias()) {
+            if (instancia != lenta) {
+                balanceador.registrarResultado(instancia, Duration.ofMillis(5).toNanos(), true);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertNotSame(lenta, balanceador.elegir());
+        }
+    }
+
+    @Test
+    @DisplayName("Expulsión - Fallos consecutivos sacan la instancia de rotación")
+    void testExpulsion_FallosConsecutivos() {
+        InstanciaServicio fallida = balanceador.getInstancias().get(2);
+        for (int i = 0; i < 3; i++) {
+            balanceador.registrarResultado(fallida, 1_000_000, false);
+        }
+
+        assertTrue(fallida.isExpulsada());
+        Map<InstanciaServicio, Integer> elegidas = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            elegidas.merge(balanceador.elegir(), 1, Integer::sum);
+        }
+        assertFalse(elegidas.containsKey(fallida));
+        assertEquals(2, elegidas.size());
+    }
+
+    @Test
+    @DisplayName("Expulsión - Respeta el porcentaje máximo de instancias expulsadas")
+    void testExpulsion_PorcentajeMaximo() {
+        InstanciaServicio primera = balanceador.getInstancias().get(0);
+        InstanciaServicio segunda = balanceador.getInstancias().get(1);
+        for (int i = 0; i < 3; i++) {
+            balanceador.registrarResultado(primera, 1_000_000, false);
+            balanceador.registrarResultado(segunda, 1_000_000, false);
+        }
+
+        assertTrue(primera.isExpulsada());
+        assertFalse(segunda.isExpulsada());
+    }
+
+    @Test
+    @DisplayName("Expulsión - Una instancia nunca expulsada no figura como expulsada y la expulsión vence")
+    void testExpulsion_Vence() throws InterruptedException {
+        InstanciaServicio instancia = new InstanciaServicio(URI.create("http://nueva:8080"));
+        assertFalse(instancia.isExpulsada());
+
+        instancia.expulsar(Duration.ofMillis(20).toNanos());
+        assertTrue(instancia.isExpulsada());
+
+        Thread.sleep(40);
+        assertFalse(instancia.isExpulsada());
+    }
+
+    @Test
+    @DisplayName("Resolución - Conserva las estadísticas de las instancias existentes")
+    void testResolver_ConservaEstadisticas() {
+        InstanciaServicio antes = balanceador.getInstancias().get(0);
+        antes.iniciarSolicitud();
+
+        balanceador.resolver();
+
+        assertSame(antes, balanceador.getInstancias().get(0));
+        assertEquals(1, balanceador.getInstancias().get(0).getEnVuelo());
+    }
+}
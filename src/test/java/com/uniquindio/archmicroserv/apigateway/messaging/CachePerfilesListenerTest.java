@@ -0,0 +1,40 @@
+package com.uniquindio.archmicroserv.apigateway.messaging;
+
+import com.uniquindio.archmicroserv.apigateway.service.CachePerfiles;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+@DisplayName("Tests unitarios para CachePerfilesListener")
+class CachePerfilesListenerTest {
+
+    private final CachePerfiles cachePerfiles = mock(CachePerfiles.class);
+
+    @Test
+    @DisplayName("Sin tipos configurados cualquier evento con usuario invalida su perfil")
+    void testProcesar_CualquierTipo() {
+        CachePerfilesListener listener = new CachePerfilesListener(cachePerfiles, List.of());
+
+        listener.procesar(Map.of("tipoAccion", "ACTUALIZACION_PERFIL", "datos", Map.of("usuario", "ana")));
+        listener.procesar(Map.of("tipoAccion", "ACTUALIZACION_PERFIL", "datos", Map.of("correo", "x@example.com")));
+
+        verify(cachePerfiles).invalidar("ana");
+        verifyNoMoreInteractions(cachePerfiles);
+    }
+
+    @Test
+    @DisplayName("Con tipos configurados solo esos eventos invalidan")
+    void testProcesar_TiposConfigurados() {
+        CachePerfilesListener listener = new CachePerfilesListener(cachePerfiles, List.of("ELIMINACION_USUARIO"));
+
+        listener.procesar(Map.of("tipoAccion", "REGISTRO_USUARIO", "datos", Map.of("usuario", "ana")));
+        listener.procesar(Map.of("tipoAccion", "ELIMINACION_USUARIO", "datos", Map.of("usuario", "luis")));
+
+        verify(cachePerfiles).invalidar("luis");
+        verifyNoMoreInteractions(cachePerfiles);
+    }
+}
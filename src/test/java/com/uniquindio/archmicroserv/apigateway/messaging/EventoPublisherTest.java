@@ -11,8 +11,10 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -253,5 +255,43 @@ class EventoPublisherTest {
             () -> assertNotNull(datos.get("fechaEliminacion"), "Fecha de eliminación debe existir")
         );
     }
-}
 
+    @Test
+    @DisplayName("Publicar eventos en lote - Un solo canal para todo el lote")
+    void testPublicarEventosEliminacion_Lote() {
+        // Given
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(inv -> {
+            RabbitOperations.OperationsCallback<?> callback = inv.getArgument(0);
+            return callback.doInRabbit(operaciones);
+        });
+
+        // When
+        int publicados = eventoPublisher.publicarEventosEliminacion(
+                List.of(Map.entry("user1", "user1@example.com"), Map.entry("user2", "")));
+
+        // Then
+        assertEquals(2, publicados);
+        verify(rabbitTemplate, times(1)).invoke(any());
+        verify(operaciones, times(2)).convertAndSend(
+                eq(RabbitMQConfig.DOMINIO_EVENTS_EXCHANGE),
+                eq("auth.deleted"),
+                eventoCaptor.capture()
+        );
+        assertEquals("ELIMINACION_USUARIO", eventoCaptor.getAllValues().get(0).get("tipoAccion"));
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Publicar eventos en lote - Error de RabbitMQ no se propaga")
+    void testPublicarEventosEliminacion_Error() {
+        // Given
+        when(rabbitTemplate.invoke(any())).thenThrow(new RuntimeException("RabbitMQ connection error"));
+
+        // When
+        int publicados = eventoPublisher.publicarEventosEliminacion(List.of(Map.entry("user1", "")));
+
+        // Then
+        assertEquals(0, publicados);
+    }
+}
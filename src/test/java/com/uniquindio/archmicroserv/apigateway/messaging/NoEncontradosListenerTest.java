@@ -0,0 +1,37 @@
+package com.uniquindio.archmicroserv.apigateway.messaging;
+
+import com.uniquindio.archmicroserv.apigateway.service.NoEncontrados;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para NoEncontradosListener")
+class NoEncontradosListenerTest {
+
+    private final NoEncontrados noEncontrados = new NoEncontrados(60_000, 100, 0);
+    private final NoEncontradosListener listener = new NoEncontradosListener(noEncontrados, List.of("REGISTRO_USUARIO"));
+
+    @Test
+    @DisplayName("Un evento de registro olvida los 404 recordados del usuario; otros eventos no")
+    void testProcesar_InvalidaNoEncontrados() {
+        WebClientResponseException noEncontrado = WebClientResponseException.create(404, "Not Found",
+                HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8);
+        noEncontrados.registrar(NoEncontrados.Origen.PERFIL, "ana", null, noEncontrado);
+        noEncontrados.registrar(NoEncontrados.Origen.PERFIL, "ana", null, noEncontrado);
+        assertNotNull(noEncontrados.buscar(NoEncontrados.Origen.PERFIL, "ana", null));
+
+        listener.procesar(Map.of("tipoAccion", "ACTUALIZACION_PERFIL", "datos", Map.of("usuario", "ana")));
+        assertNotNull(noEncontrados.buscar(NoEncontrados.Origen.PERFIL, "ana", null));
+
+        listener.procesar(Map.of("tipoAccion", "REGISTRO_USUARIO",
+                "datos", Map.of("usuario", "ana", "correo", "ana@example.com")));
+        assertNull(noEncontrados.buscar(NoEncontrados.Origen.PERFIL, "ana", null));
+    }
+}
@@ -0,0 +1,35 @@
+package com.uniquindio.archmicroserv.apigateway.messaging;
+
+import com.uniquindio.archmicroserv.apigateway.service.UsuariosRegistrados;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para UsuariosRegistradosListener")
+class UsuariosRegistradosListenerTest {
+
+    private final UsuariosRegistrados usuariosRegistrados = new UsuariosRegistrados(true, 1000, 0.001);
+    private final UsuariosRegistradosListener listener = new UsuariosRegistradosListener(
+            usuariosRegistrados, List.of("REGISTRO_USUARIO"), List.of("ELIMINACION_USUARIO"));
+
+    @Test
+    @DisplayName("Los eventos de registro agregan al usuario y los de eliminación lo quitan")
+    void testProcesar() {
+        listener.procesar(Map.of("tipoAccion", "REGISTRO_USUARIO",
+                "datos", Map.of("usuario", "ana", "correo", "ana@example.com")));
+        assertTrue(usuariosRegistrados.usuarioProbable("ana"));
+        assertTrue(usuariosRegistrados.correoProbable("ana@example.com"));
+
+        listener.procesar(Map.of("tipoAccion", "ACTUALIZACION_PERFIL", "datos", Map.of("usuario", "luis")));
+        assertFalse(usuariosRegistrados.usuarioProbable("luis"));
+
+        listener.procesar(Map.of("tipoAccion", "ELIMINACION_USUARIO",
+                "datos", Map.of("usuario", "ana", "correo", "ana@example.com")));
+        assertFalse(usuariosRegistrados.usuarioProbable("ana"));
+        assertFalse(usuariosRegistrados.correoProbable("ana@example.com"));
+    }
+}
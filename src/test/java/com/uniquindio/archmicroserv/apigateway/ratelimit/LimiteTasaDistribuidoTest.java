@@ -0,0 +1,204 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteTasaDistribuidoTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+
+    private LimiteTasaDistribuido replica(AlmacenTokens almacen, PoliticaLimite politica, long lote) {
+        return new LimiteTasaDistribuido("login.ip", politica, almacen, lote,
+                Duration.ofSeconds(1), Duration.ofMillis(200), 1_000, reloj::get);
+    }
+
+    @Test
+    @DisplayName("Varias réplicas comparten un único límite global")
+    void testLimiteGlobalEntreReplicas() {
+        AlmacenTokensMemoria almacen = new AlmacenTokensMemoria(reloj::get);
+        PoliticaLimite politica = new PoliticaLimite(40, 0.001);
+        LimiteTasaDistribuido[] replicas = {
+                replica(almacen, politica, 10), replica(almacen, politica, 10), replica(almacen, politica, 10)
+        };
+
+        int concedidos = 0;
+        for (int i = 0; i < 300; i++) {
+            if (replicas[i % replicas.length].intentarConsumir("10.0.0.1")) {
+                concedidos++;
+            }
+        }
+
+        assertEquals(40, concedidos);
+    }
+
+    @Test
+    @DisplayName("La mayoría de las decisiones no consultan el almacén")
+    void testReservaPorLotes() {
+        AtomicInteger reservas = new AtomicInteger();
+        AlmacenTokensMemoria memoria = new AlmacenTokensMemoria(reloj::get);
+        AlmacenTokens almacen = (clave, solicitados, politica) -> {
+            reservas.incrementAndGet();
+            return memoria.reservar(clave, solicitados, politica);
+        };
+        LimiteTasaDistribuido limite = replica(almacen, new PoliticaLimite(1_000, 0.001), 50);
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(limite.intentarConsumir("cliente"));
+        }
+
+        assertTrue(reservas.get() <= 11, "reservas: " + reservas.get());
+    }
+
+    @Test
+    @DisplayName("Si el almacén falla se aplica el límite local")
+    void testRespaldoLocal() {
+        AlmacenTokens caido = (clave, solicitados, politica) -> Mono.error(new IllegalStateException("sin conexión"));
+        LimiteTasaDistribuido limite = replica(caido, new PoliticaLimite(2, 0.001), 10);
+
+        assertTrue(limite.intentarConsumir("cliente"));
+        assertTrue(limite.intentarConsumir("cliente"));
+        assertFalse(limite.intentarConsumir("cliente"));
+    }
+
+    @Test
+    @DisplayName("Si el almacén no responde a tiempo se aplica el límite local")
+    void testRespaldoPorTimeout() throws InterruptedException {
+        AlmacenTokens lento = (clave, solicitados, politica) -> Mono.never();
+        LimiteTasaDistribuido limite = replica(lento, new PoliticaLimite(1, 0.001), 10);
+
+        // A cuenta de la reserva en curso
+        assertTrue(limite.intentarConsumir("cliente"));
+        assertFalse(limite.intentarConsumir("cliente"));
+
+        Thread.sleep(400);
+        assertTrue(limite.intentarConsumir("cliente"));
+        assertFalse(limite.intentarConsumir("cliente"));
+    }
+
+    @Test
+    @DisplayName("El hilo de la solicitud no espera al almacén: con la reserva en curso adelanta hasta medio lote")
+    void testNoEsperaReserva() {
+        AlmacenTokens lento = (clave, solicitados, politica) -> Mono.never();
+        LimiteTasaDistribuido limite = new LimiteTasaDistribuido("login.ip", new PoliticaLimite(40, 0.001), lento, 10,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), 1_000, reloj::get);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limite.intentarConsumir("cliente"));
+        }
+        assertFalse(limite.intentarConsumir("cliente"));
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    @DisplayName("Lo adelantado con la reserva en curso se descuenta de lo reservado")
+    void testAnticipoSeDescuenta() {
+        Sinks.One<Long> primera = Sinks.one();
+        AtomicInteger reservas = new AtomicInteger();
+        AlmacenTokens almacen = (clave, solicitados, politica) ->
+                reservas.getAndIncrement() == 0 ? primera.asMono() : Mono.just(0L);
+        LimiteTasaDistribuido limite = new LimiteTasaDistribuido("login.ip", new PoliticaLimite(40, 0.001), almacen, 10,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), 1_000, reloj::get);
+
+        int concedidos = 0;
+        for (int i = 0; i < 20; i++) {
+            concedidos += limite.intentarConsumir("cliente") ? 1 : 0;
+        }
+        assertEquals(5, concedidos);
+
+        primera.tryEmitValue(10L);
+        for (int i = 0; i < 20; i++) {
+            concedidos += limite.intentarConsumir("cliente") ? 1 : 0;
+        }
+
+        // El almacén concedió 10 en total: lo adelantado no se suma a eso
+        assertEquals(10, concedidos);
+    }
+
+    @Test
+    @DisplayName("Sin tokens globales se rechaza sin volver a consultar el almacén hasta que recargue")
+    void testAgotadoNoConsultaAlmacen() {
+        AtomicInteger reservas = new AtomicInteger();
+        AlmacenTokensMemoria memoria = new AlmacenTokensMemoria(reloj::get);
+        AlmacenTokens almacen = (clave, solicitados, politica) -> {
+            reservas.incrementAndGet();
+            return memoria.reservar(clave, solicitados, politica);
+        };
+        LimiteTasaDistribuido limite = replica(almacen, new PoliticaLimite(4, 1), 1);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limite.intentarConsumir("cliente"));
+        }
+        assertFalse(limite.intentarConsumir("cliente"));
+        int trasAgotar = reservas.get();
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(limite.intentarConsumir("cliente"));
+        }
+        assertEquals(trasAgotar, reservas.get());
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(limite.intentarConsumir("cliente"));
+    }
+
+    @Test
+    @DisplayName("Con las franjas llenas las claves nuevas usan el límite local y la memoria no crece")
+    void testFranjasLlenas() {
+        AlmacenTokensMemoria almacen = new AlmacenTokensMemoria(reloj::get);
+        LimiteTasaDistribuido limite = new LimiteTasaDistribuido("login.ip", new PoliticaLimite(40, 0.001), almacen, 10,
+                Duration.ofSeconds(1), Duration.ofMillis(200), 64, reloj::get);
+
+        for (int i = 0; i < 2_000; i++) {
+            assertTrue(limite.intentarConsumir("10.0." + (i / 250) + "." + (i % 250)));
+        }
+        assertTrue(limite.claves() <= 64, "claves: " + limite.claves());
+
+        // Vencidos los saldos, el siguiente barrido de cada franja libera lugar
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        for (int i = 0; i < 2_000; i++) {
+            limite.intentarConsumir("10.1." + (i / 250) + "." + (i % 250));
+        }
+        assertTrue(limite.claves() <= 64, "claves: " + limite.claves());
+    }
+
+    @Test
+    @DisplayName("Una réplica no usa saldo reservado después de su vigencia")
+    void testSaldoCaduca() {
+        AlmacenTokensMemoria almacen = new AlmacenTokensMemoria(reloj::get);
+        PoliticaLimite politica = new PoliticaLimite(4, 0.001);
+        LimiteTasaDistribuido a = replica(almacen, politica, 1);
+        LimiteTasaDistribuido b = replica(almacen, politica, 1);
+
+        assertTrue(a.intentarConsumir("cliente"));
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertTrue(b.intentarConsumir("cliente"));
+        assertTrue(b.intentarConsumir("cliente"));
+        assertFalse(b.intentarConsumir("cliente"));
+        assertFalse(a.intentarConsumir("cliente"));
+    }
+
+    @Test
+    @DisplayName("El modo shared construye límites distribuidos")
+    void testModoCompartido() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.ratelimit.mode", "shared")
+                .withProperty("gateway.ratelimit.policies.login.ip.capacity", "5")
+                .withProperty("gateway.ratelimit.policies.login.ip.refill-per-second", "1");
+
+        assertInstanceOf(LimiteTasaDistribuido.class,
+                new LimitadorTasa(environment, new AlmacenTokensMemoria()).limite("login", LimitadorTasa.DIMENSION_IP));
+        // Sin almacén compartido cada réplica aplicaría el límite completo: no arranca
+        assertThrows(IllegalStateException.class, () -> new LimitadorTasa(environment));
+    }
+}
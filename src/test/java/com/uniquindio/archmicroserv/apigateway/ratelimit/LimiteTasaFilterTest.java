@@ -0,0 +1,80 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteTasaFilterTest {
+
+    private static LimiteTasaFilter filtro(boolean confiarForwardedFor, int proxiesConfiables) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.ratelimit.policies.login.ip.capacity", "1")
+                .withProperty("gateway.ratelimit.policies.login.ip.refill-per-second", "0.001");
+        return new LimiteTasaFilter(new LimitadorTasa(environment), confiarForwardedFor, proxiesConfiables);
+    }
+
+    private static MockHttpServletRequest login(String forwardedFor) {
+        return solicitud("/api/v1/auth/login", forwardedFor);
+    }
+
+    private static MockHttpServletRequest solicitud(String uri, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr("10.0.0.254");
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+
+    @Test
+    @DisplayName("IP del cliente - Se toma la entrada que agrega el proxy, no la que escribe el cliente")
+    void testIpCliente_EntradaDelProxy() {
+        assertEquals("203.0.113.7", filtro(true, 1).ipCliente(login("1.2.3.4, 203.0.113.7")));
+        assertEquals("203.0.113.7", filtro(true, 2).ipCliente(login("1.2.3.4, 203.0.113.7, 10.0.0.3")));
+        assertEquals("203.0.113.7", filtro(true, 3).ipCliente(login("203.0.113.7")));
+        assertEquals("10.0.0.254", filtro(false, 1).ipCliente(login("1.2.3.4, 203.0.113.7")));
+    }
+
+    @Test
+    @DisplayName("Cambiar la parte izquierda de X-Forwarded-For no evade el límite por IP")
+    void testLimite_NoSeEvadeFalsificandoEncabezado() throws Exception {
+        LimiteTasaFilter filtro = filtro(true, 1);
+
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        filtro.doFilter(login("1.1.1.1, 203.0.113.7"), primera, new MockFilterChain());
+        MockHttpServletResponse segunda = new MockHttpServletResponse();
+        filtro.doFilter(login("2.2.2.2, 203.0.113.7"), segunda, new MockFilterChain());
+
+        assertEquals(200, primera.getStatus());
+        assertEquals(429, segunda.getStatus());
+    }
+
+    @Test
+    @DisplayName("Ruta - Parámetros ';', caracteres codificados y '//' se normalizan como en Spring MVC")
+    void testRuta_Normalizada() {
+        assertEquals("/api/v1/auth/login", LimiteTasaFilter.ruta(solicitud("/api/v1/auth/login;x=1", "")));
+        assertEquals("/api/v1/auth/login", LimiteTasaFilter.ruta(solicitud("/api/v1/auth/%6Cogin", "")));
+        assertEquals("/api/v1/auth/login", LimiteTasaFilter.ruta(solicitud("/api/v1/auth;a=b//login/", "")));
+        assertEquals("/api/v1/auth/registro", LimiteTasaFilter.ruta(solicitud("/api/v1/usuarios/../auth/registro", "")));
+    }
+
+    @Test
+    @DisplayName("Variantes de la ruta de login con ';' o codificadas no evaden el límite por IP")
+    void testLimite_NoSeEvadeConVariantesDeRuta() throws Exception {
+        LimiteTasaFilter filtro = filtro(false, 1);
+
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        filtro.doFilter(solicitud("/api/v1/auth/login", ""), primera, new MockFilterChain());
+        MockHttpServletResponse conParametro = new MockHttpServletResponse();
+        filtro.doFilter(solicitud("/api/v1/auth/login;jsessionid=1", ""), conParametro, new MockFilterChain());
+        MockHttpServletResponse codificada = new MockHttpServletResponse();
+        filtro.doFilter(solicitud("/api/v1/auth/%6C%6Fgin", ""), codificada, new MockFilterChain());
+
+        assertEquals(200, primera.getStatus());
+        assertEquals(429, conParametro.getStatus());
+        assertEquals(429, codificada.getStatus());
+    }
+}
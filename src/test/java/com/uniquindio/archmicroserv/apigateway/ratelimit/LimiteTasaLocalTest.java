@@ -0,0 +1,101 @@
+package com.uniquindio.archmicroserv.apigateway.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteTasaLocalTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+
+    @Test
+    @DisplayName("Permite la ráfaga configurada y luego rechaza")
+    void testRafagaYRechazo() {
+        LimiteTasaLocal limite = new LimiteTasaLocal(new PoliticaLimite(3, 1.0), 100, reloj::get);
+
+        assertTrue(limite.intentarConsumir("10.0.0.1"));
+        assertTrue(limite.intentarConsumir("10.0.0.1"));
+        assertTrue(limite.intentarConsumir("10.0.0.1"));
+        assertFalse(limite.intentarConsumir("10.0.0.1"));
+        assertTrue(limite.intentarConsumir("10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("Recarga los tokens con el paso del tiempo")
+    void testRecarga() {
+        LimiteTasaLocal limite = new LimiteTasaLocal(new PoliticaLimite(1, 2.0), 100, reloj::get);
+
+        assertTrue(limite.intentarConsumir("cliente"));
+        assertFalse(limite.intentarConsumir("cliente"));
+
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(limite.intentarConsumir("cliente"));
+        assertFalse(limite.intentarConsumir("cliente"));
+    }
+
+    @Test
+    @DisplayName("Acota la memoria expulsando primero los buckets llenos")
+    void testAcotaClaves() {
+        LimiteTasaLocal limite = new LimiteTasaLocal(new PoliticaLimite(5, 1.0), 64, reloj::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            limite.intentarConsumir("ip-" + i);
+        }
+        assertTrue(limite.claves() <= 64 * 2, "claves en memoria: " + limite.claves());
+
+        reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(limite.intentarConsumir("otra-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("No concede más tokens que la capacidad bajo concurrencia")
+    void testConcurrencia() throws Exception {
+        LimiteTasaLocal limite = new LimiteTasaLocal(new PoliticaLimite(100, 0.001), 100, reloj::get);
+        AtomicInteger concedidos = new AtomicInteger();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int hilo = 0; hilo < 8; hilo++) {
+            executor.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < 1_000; i++) {
+                    if (limite.intentarConsumir("compartida")) {
+                        concedidos.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        inicio.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, concedidos.get());
+    }
+
+    @Test
+    @DisplayName("Las rutas sin política o con el limitador deshabilitado no se limitan")
+    void testSinPolitica() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.ratelimit.policies.login.ip.capacity", "1")
+                .withProperty("gateway.ratelimit.policies.login.ip.refill-per-second", "1");
+
+        assertInstanceOf(LimiteTasaLocal.class,
+                new LimitadorTasa(environment).limite("login", LimitadorTasa.DIMENSION_IP));
+        assertSame(LimiteTasa.SIN_LIMITE,
+                new LimitadorTasa(environment).limite("registro", LimitadorTasa.DIMENSION_IP));
+        assertSame(LimiteTasa.SIN_LIMITE,
+                new LimitadorTasa(environment.withProperty("gateway.ratelimit.enabled", "false"))
+                        .limite("login", LimitadorTasa.DIMENSION_IP));
+    }
+}
@@ -0,0 +1,182 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para ControlAdmision y AdmisionFilter")
+class ControlAdmisionTest {
+
+    private static final String LOGIN = "POST /api/v1/auth/login 200";
+
+    private ControlAdmision controlAdmision;
+
+    @BeforeEach
+    void setUp() {
+        controlAdmision = new ControlAdmision(10, 50, 10000, 0.25, 0.5, 0.7, 0.85);
+    }
+
+    @Test
+    @DisplayName("Admisión - Se descartan primero las masivas, luego las lecturas y por último las críticas")
+    void testAdmitir_OrdenDeDescarte() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(controlAdmision.admitir(PrioridadSolicitud.LECTURA));
+        }
+        assertFalse(controlAdmision.admitir(PrioridadSolicitud.LECTURA));
+        assertTrue(controlAdmision.admitir(PrioridadSolicitud.REGISTRO));
+        assertTrue(controlAdmision.admitir(PrioridadSolicitud.REGISTRO));
+        assertFalse(controlAdmision.admitir(PrioridadSolicitud.REGISTRO));
+        assertTrue(controlAdmision.admitir(PrioridadSolicitud.NORMAL));
+        assertFalse(controlAdmision.admitir(PrioridadSolicitud.NORMAL));
+        assertTrue(controlAdmision.admitir(PrioridadSolicitud.CRITICA));
+        assertTrue(controlAdmision.admitir(PrioridadSolicitud.CRITICA));
+        assertFalse(controlAdmision.admitir(PrioridadSolicitud.CRITICA));
+        assertEquals(10, controlAdmision.getEnVuelo());
+    }
+
+    @Test
+    @DisplayName("Admisión - Liberar devuelve el cupo")
+    void testLiberar_DevuelveCupo() {
+        for (int i = 0; i < 5; i++) {
+            controlAdmision.admitir(PrioridadSolicitud.LECTURA);
+        }
+        assertFalse(controlAdmision.admitir(PrioridadSolicitud.LECTURA));
+
+        controlAdmision.liberar(System.nanoTime(), null);
+
+        assertTrue(controlAdmision.admitir(PrioridadSolicitud.LECTURA));
+    }
+
+    @Test
+    @DisplayName("Admisión - El retraso de cola reduce la capacidad efectiva")
+    void testLimite_RetrasoDeCola() {
+        assertEquals(10, controlAdmision.limite(PrioridadSolicitud.CRITICA));
+
+        // Latencia base de 1 ms y luego solicitudes de 200 ms en la misma ruta: ~190 ms de cola
+        controlAdmision.admitir(PrioridadSolicitud.CRITICA);
+        controlAdmision.liberar(System.nanoTime() - 1_000_000, LOGIN);
+        for (int i = 0; i < 100; i++) {
+            controlAdmision.admitir(PrioridadSolicitud.CRITICA);
+            controlAdmision.liberar(System.nanoTime() - 200_000_000, LOGIN);
+        }
+
+        assertTrue(controlAdmision.retrasoColaNanos() > 50_000_000);
+        assertTrue(controlAdmision.limite(PrioridadSolicitud.CRITICA) < 10);
+        assertEquals(1, controlAdmision.limite(PrioridadSolicitud.LECTURA));
+    }
+
+    @Test
+    @DisplayName("Admisión - Los atajos rápidos de otras rutas no cuentan como cola de las lentas")
+    void testLimite_LineaBasePorRuta() {
+        for (int i = 0; i < 100; i++) {
+            controlAdmision.admitir(PrioridadSolicitud.LECTURA);
+            controlAdmision.liberar(System.nanoTime() - 20_000, "GET /api/v1/usuarios/{usuario} 304");
+            controlAdmision.admitir(PrioridadSolicitud.CRITICA);
+            controlAdmision.liberar(System.nanoTime() - 200_000_000, LOGIN);
+        }
+
+        assertTrue(controlAdmision.retrasoColaNanos() < 50_000_000);
+        assertEquals(10, controlAdmision.limite(PrioridadSolicitud.CRITICA));
+    }
+
+    @Test
+    @DisplayName("Admisión - Sin muestras durante una ventana el retraso vuelve a cero")
+    void testRetraso_VenceSinMuestras() throws InterruptedException {
+        ControlAdmision ventanaCorta = new ControlAdmision(10, 50, 20, 0.25, 0.5, 0.7, 0.85);
+        ventanaCorta.admitir(PrioridadSolicitud.CRITICA);
+        ventanaCorta.liberar(System.nanoTime() - 1_000_000, LOGIN);
+        ventanaCorta.admitir(PrioridadSolicitud.CRITICA);
+        ventanaCorta.liberar(System.nanoTime() - 900_000_000, LOGIN);
+        assertTrue(ventanaCorta.retrasoColaNanos() > 50_000_000);
+
+        Thread.sleep(40);
+
+        assertEquals(0, ventanaCorta.retrasoColaNanos());
+        assertEquals(10, ventanaCorta.limite(PrioridadSolicitud.CRITICA));
+    }
+
+    @Test
+    @DisplayName("Muestras - Las rutas masivas, NDJSON y sin controller no aportan latencia")
+    void testRuta_ExcluyeMasivasYStreaming() {
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        login.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/auth/login");
+        MockHttpServletResponse noAutorizado = new MockHttpServletResponse();
+        noAutorizado.setStatus(401);
+        assertEquals("POST /api/v1/auth/login 401", AdmisionFilter.ruta(login, noAutorizado));
+
+        MockHttpServletRequest lote = new MockHttpServletRequest("POST", "/api/v1/auth/registro/_batch");
+        lote.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/auth/registro/_batch");
+        assertNull(AdmisionFilter.ruta(lote, new MockHttpServletResponse()));
+
+        MockHttpServletRequest consulta = new MockHttpServletRequest("GET", "/api/v1/usuarios/john");
+        consulta.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/usuarios/{usuario}");
+        MockHttpServletResponse ndjson = new MockHttpServletResponse();
+        ndjson.setContentType("application/x-ndjson");
+        assertNull(AdmisionFilter.ruta(consulta, ndjson));
+
+        assertNull(AdmisionFilter.ruta(new MockHttpServletRequest("GET", "/api/v1/desconocida"),
+                new MockHttpServletResponse()));
+    }
+
+    @Test
+    @DisplayName("Clasificación - Prioridad según método y ruta")
+    void testClasificar() {
+        assertEquals(PrioridadSolicitud.CRITICA, AdmisionFilter.clasificar("POST", "/api/v1/auth/login"));
+        assertEquals(PrioridadSolicitud.CRITICA, AdmisionFilter.clasificar("DELETE", "/api/v1/usuarios/john"));
+        assertEquals(PrioridadSolicitud.REGISTRO, AdmisionFilter.clasificar("POST", "/api/v1/auth/registro"));
+        assertEquals(PrioridadSolicitud.LECTURA, AdmisionFilter.clasificar("GET", "/api/v1/usuarios/john"));
+        assertEquals(PrioridadSolicitud.MASIVA, AdmisionFilter.clasificar("POST", "/api/v1/usuarios/_batch"));
+        assertEquals(PrioridadSolicitud.MASIVA, AdmisionFilter.clasificar("POST", "/api/v1/usuarios/_delete"));
+        assertEquals(PrioridadSolicitud.MASIVA, AdmisionFilter.clasificar("POST", "/api/v1/auth/registro/_batch"));
+        assertEquals(PrioridadSolicitud.NORMAL, AdmisionFilter.clasificar("PUT", "/api/v1/usuarios/john"));
+    }
+
+    @Test
+    @DisplayName("Clasificación - Las variantes codificadas o con ';' de una ruta masiva no cambian de prioridad")
+    void testFiltro_ClasificaRutaNormalizada() throws Exception {
+        // Sin cupo para masivas: cualquier variante de _delete se descarta
+        ControlAdmision sinMasivas = new ControlAdmision(10, 50, 10000, 0.0, 0.5, 0.7, 0.85);
+        sinMasivas.admitir(PrioridadSolicitud.CRITICA);
+        AdmisionFilter filter = new AdmisionFilter(sinMasivas);
+
+        for (String uri : new String[]{"/api/v1/usuarios/_delete", "/api/v1/usuarios/%5Fdelete",
+                "/api/v1/usuarios/_delete;x=1", "/api/v1/usuarios//_delete/", "/api/v1/./usuarios/_delete"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("POST", uri), response, chain);
+            assertEquals(503, response.getStatus(), uri);
+            assertNull(chain.getRequest(), uri);
+        }
+    }
+
+    @Test
+    @DisplayName("Filtro - Responde 503 precalculado al saturarse")
+    void testFiltro_RespuestaSaturado() throws Exception {
+        AdmisionFilter filtro = new AdmisionFilter(new ControlAdmision(1, 50, 10000, 0.25, 0.5, 0.7, 0.85));
+        MockHttpServletRequest lectura = new MockHttpServletRequest("GET", "/api/v1/usuarios/john");
+        MockHttpServletRequest critica = new MockHttpServletRequest("DELETE", "/api/v1/usuarios/john");
+
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        filtro.doFilter(critica, primera, new MockFilterChain());
+        assertEquals(200, primera.getStatus());
+
+        AdmisionFilter saturado = new AdmisionFilter(new ControlAdmision(1, 50, 10000, 0.25, 0.5, 0.7, 0.85) {
+            @Override
+            public boolean admitir(PrioridadSolicitud prioridad) {
+                return false;
+            }
+        });
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        saturado.doFilter(lectura, rechazada, new MockFilterChain());
+
+        assertEquals(503, rechazada.getStatus());
+        assertEquals("1", rechazada.getHeader("Retry-After"));
+        assertTrue(rechazada.getContentAsString().contains("\"error\":true"));
+    }
+}
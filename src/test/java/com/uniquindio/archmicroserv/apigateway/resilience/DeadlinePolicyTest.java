@@ -0,0 +1,145 @@
+package com.uniquindio.archmicroserv.apigateway.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para DeadlinePolicy")
+class DeadlinePolicyTest {
+
+    private DeadlinePolicy deadlinePolicy;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.deadline.default-ms", "2000")
+                .withProperty("gateway.deadline.max-ms", "10000")
+                .withProperty("gateway.deadline.endpoints.usuarios.obtener", "800");
+        deadlinePolicy = new DeadlinePolicy(environment);
+    }
+
+    @Test
+    @DisplayName("Calcular deadline - Presupuesto por endpoint y por defecto")
+    void testCalcular_PresupuestoConfigurado() {
+        Duration porEndpoint = deadlinePolicy.calcular("usuarios.obtener", null).restante();
+        Duration porDefecto = deadlinePolicy.calcular("auth.login", null).restante();
+
+        assertTrue(porEndpoint.toMillis() <= 800 && porEndpoint.toMillis() > 700);
+        assertTrue(porDefecto.toMillis() <= 2000 && porDefecto.toMillis() > 1900);
+    }
+
+    @Test
+    @DisplayName("Calcular deadline - El header del cliente se acota al máximo")
+    void testCalcular_HeaderAcotado() {
+        Duration solicitado = deadlinePolicy.calcular("usuarios.obtener", "300").restante();
+        Duration excesivo = deadlinePolicy.calcular("usuarios.obtener", "60000").restante();
+        Duration invalido = deadlinePolicy.calcular("usuarios.obtener", "abc").restante();
+
+        assertTrue(solicitado.toMillis() <= 300);
+        assertTrue(excesivo.toMillis() <= 10000 && excesivo.toMillis() > 9000);
+        assertTrue(invalido.toMillis() <= 800 && invalido.toMillis() > 700);
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline - Operación a tiempo")
+    void testAplicar_OperacionATiempo() {
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", null, Mono.just("ok"), () -> "timeout"))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline - Operación colgada se cancela")
+    void testAplicar_OperacionCancelada() {
+        boolean[] cancelada = {false};
+        Mono<String> colgada = Mono.<String>never().doOnCancel(() -> cancelada[0] = true);
+
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", "50", colgada, () -> "timeout"))
+                .expectNext("timeout")
+                .verifyComplete();
+        assertTrue(cancelada[0]);
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline - El deadline viaja en el contexto de Reactor")
+    void testAplicar_DeadlineEnContexto() {
+        Mono<Long> restante = Mono.deferContextual(ctx -> Mono.just(ctx.get(Deadline.class).restante().toMillis()));
+
+        StepVerifier.create(deadlinePolicy.aplicar("usuarios.obtener", null, restante, () -> -1L))
+                .assertNext(millis -> assertTrue(millis > 0 && millis <= 800))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline - Error de deadline en una llamada saliente")
+    void testAplicar_DeadlineExcedidoEnLlamada() {
+        Mono<String> llamada = Mono.error(new DeadlineExcedidoException("Deadline agotado"));
+
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", null, llamada, () -> "timeout"))
+                .expectNext("timeout")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline - Un resultado que llega a tiempo se entrega aunque el plazo venza al procesarlo")
+    void testAplicar_ResultadoNoSeDescarta() {
+        Mono<String> escritura = Mono.fromCallable(() -> {
+            Thread.sleep(80);
+            return "creado";
+        });
+
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", "50", escritura, () -> "timeout"))
+                .expectNext("creado")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline - Un error que no es de deadline se propaga aunque el plazo haya vencido")
+    void testAplicar_ErrorTardioSePropaga() {
+        Mono<String> fallida = Mono.fromCallable(() -> {
+            Thread.sleep(80);
+            throw new IllegalStateException("409");
+        });
+
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", "50", fallida, () -> "timeout"))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline en streaming - Un error del destino se propaga en lugar del elemento de timeout")
+    void testAplicarFlux_ErrorSePropaga() {
+        Flux<String> fallido = Flux.concat(Mono.just("a"), Mono.error(new IllegalStateException("503")));
+
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", "50", fallido, () -> "timeout"))
+                .expectNext("a")
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline en streaming - Conserva lo emitido y agrega el elemento de timeout")
+    void testAplicarFlux_DeadlineAgotado() {
+        Flux<String> lento = Flux.concat(Mono.just("a"), Mono.never());
+
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", "50", lento, () -> "timeout"))
+                .expectNext("a", "timeout")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Aplicar deadline en streaming - Flujo completo a tiempo")
+    void testAplicarFlux_ATiempo() {
+        StepVerifier.create(deadlinePolicy.aplicar("auth.login", null, Flux.just("a", "b"), () -> "timeout"))
+                .expectNext("a", "b")
+                .verifyComplete();
+    }
+}
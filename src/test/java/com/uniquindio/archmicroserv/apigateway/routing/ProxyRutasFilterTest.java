@@ -0,0 +1,221 @@
+package com.uniquindio.archmicroserv.apigateway.routing;
+
+import com.sun.net.httpserver.HttpServer;
+import com.uniquindio.archmicroserv.apigateway.config.DownstreamRecargable;
+import com.uniquindio.archmicroserv.apigateway.filter.AutenticacionFiltro;
+import com.uniquindio.archmicroserv.apigateway.filter.FabricaCadenas;
+import com.uniquindio.archmicroserv.apigateway.filter.LimiteTasaFiltro;
+import com.uniquindio.archmicroserv.apigateway.ratelimit.LimitadorTasa;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePolicy;
+import com.uniquindio.archmicroserv.apigateway.resilience.DeadlinePropagationFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para ProxyRutasFilter")
+class ProxyRutasFilterTest {
+
+    private HttpServer servidor;
+    private final AtomicReference<String> recibido = new AtomicReference<>();
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private MockEnvironment environment;
+    private DownstreamRecargable perfiles;
+    private DownstreamRecargable caido;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.createContext("/", intercambio -> {
+            llamadas.incrementAndGet();
+            recibido.set(intercambio.getRequestMethod() + " " + intercambio.getRequestURI()
+                    + " origen=" + intercambio.getRequestHeaders().getFirst("X-Origen")
+                    + " cookie=" + intercambio.getRequestHeaders().getFirst("Cookie")
+                    + " proxy-authorization=" + intercambio.getRequestHeaders().getFirst("Proxy-Authorization")
+                    + " xff=" + intercambio.getRequestHeaders().getFirst("X-Forwarded-For")
+                    + " deadline=" + (intercambio.getRequestHeaders().getFirst(DeadlinePolicy.HEADER) != null)
+                    + " cuerpo=" + new String(intercambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            if (intercambio.getRequestURI().getPath().startsWith("/lento")) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int estado = intercambio.getRequestURI().getPath().startsWith("/fallo") ? 503 : 201;
+            byte[] respuesta = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.getResponseHeaders().add("X-Destino", "perfiles");
+            intercambio.sendResponseHeaders(estado, respuesta.length);
+            intercambio.getResponseBody().write(respuesta);
+            intercambio.close();
+        });
+        servidor.start();
+
+        environment = new MockEnvironment()
+                .withProperty("gestion.perfil.service.url", "http://localhost:" + servidor.getAddress().getPort())
+                .withProperty("domain.service.url", "http://localhost:1")
+                .withProperty("gateway.deadline.endpoints.rutas.lento", "100")
+                .withProperty("gateway.ratelimit.policies.perfiles.usuario.capacity", "1")
+                .withProperty("gateway.ratelimit.policies.perfiles.usuario.refill-per-second", "0.01");
+        perfiles = new DownstreamRecargable("gestion-perfil-service", "gestion.perfil.service", environment, Duration.ZERO);
+        caido = new DownstreamRecargable("domain-service", "domain.service", environment, Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.stop(0);
+        perfiles.close();
+        caido.close();
+    }
+
+    private static DefinicionRuta ruta(String id, String patron, String servicio, String reescritura) {
+        return new DefinicionRuta(id, patron, Set.of(), servicio, reescritura, Map.of(), Set.of(), false, null);
+    }
+
+    private ProxyRutasFilter filtro(DefinicionRuta... rutas) {
+        FabricaCadenas fabrica = new FabricaCadenas(List.of(
+                new AutenticacionFiltro(), new LimiteTasaFiltro(new LimitadorTasa(environment))), environment);
+        DeadlinePropagationFilter deadlinePropagationFilter = new DeadlinePropagationFilter();
+        return new ProxyRutasFilter(environment, List.of(rutas), new DeadlinePolicy(environment), fabrica, Map.of(
+                "gestion-perfil-service", ProxyRutasFilter.cliente(perfiles, deadlinePropagationFilter),
+                "domain-service", ProxyRutasFilter.cliente(caido, deadlinePropagationFilter)));
+    }
+
+    @Test
+    @DisplayName("Reescribe la ruta, quita y agrega encabezados y devuelve la respuesta del destino")
+    void testProxy_Reenvia() throws Exception {
+        // Given
+        DefinicionRuta definicion = new DefinicionRuta("perfil", "/api/v1/perfiles/{usuario}", Set.of("PUT"),
+                "gestion-perfil-service", "/v1/perfiles/{usuario}",
+                Map.of("X-Origen", "api-gateway"), Set.of("cookie"), false, null);
+        ProxyRutasFilter filter = filtro(definicion);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/perfiles/ana");
+        request.setQueryString("notificar=true");
+        request.addHeader("Cookie", "sesion=1");
+        request.addHeader("Proxy-Authorization", "Basic secreto");
+        request.addHeader("X-Origen", "cliente");
+        request.addHeader("X-Forwarded-For", "10.0.0.1");
+        request.setContent("{\"apodo\":\"ani\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertNull(chain.getRequest());
+        assertEquals(201, response.getStatus());
+        assertEquals("perfiles", response.getHeader("X-Destino"));
+        assertEquals("{\"ok\":true}", response.getContentAsString());
+        assertEquals("PUT /v1/perfiles/ana?notificar=true origen=api-gateway cookie=null proxy-authorization=null"
+                        + " xff=10.0.0.1, 127.0.0.1 deadline=true cuerpo={\"apodo\":\"ani\"}",
+                recibido.get());
+    }
+
+    @Test
+    @DisplayName("Un estado de error del destino se devuelve tal cual")
+    void testProxy_ErrorDelDestino() throws Exception {
+        ProxyRutasFilter filter = filtro(ruta("fallo", "/fallo/**", "gestion-perfil-service", null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/fallo/x"), response, new MockFilterChain());
+
+        assertEquals(503, response.getStatus());
+        assertEquals("{\"ok\":true}", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Las solicitudes sin ruta siguen hacia los controllers y un destino caído responde 502")
+    void testProxy_SinRutaYDestinoCaido() throws Exception {
+        ProxyRutasFilter filter = filtro(ruta("caido", "/api/v1/caido/**", "domain-service", null));
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/usuarios/ana"), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/caido/x"), response, new MockFilterChain());
+        assertEquals(502, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"error\":true"));
+    }
+
+    @Test
+    @DisplayName("Al agotarse el deadline de la ruta responde 504")
+    void testProxy_DeadlineAgotado() throws Exception {
+        ProxyRutasFilter filter = filtro(ruta("lento", "/lento/**", "gestion-perfil-service", null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/lento/x"), response, new MockFilterChain());
+
+        assertEquals(504, response.getStatus());
+        assertTrue(response.getContentAsString().contains("Tiempo de espera agotado"));
+    }
+
+    @Test
+    @DisplayName("Una ruta con '..' no se reenvía y sigue hacia los controllers")
+    void testProxy_RutaConPuntosNoSeReenvia() throws Exception {
+        ProxyRutasFilter filter = filtro(ruta("publico", "/publico/**", "gestion-perfil-service", "/static/{**}"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/publico/../admin"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(0, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Una ruta con auth y política de límite exige el token y limita por token")
+    void testProxy_AutenticacionYLimite() throws Exception {
+        // Given
+        ProxyRutasFilter filter = filtro(new DefinicionRuta("privada", "/privada/**", Set.of(),
+                "gestion-perfil-service", null, Map.of(), Set.of(), true, "perfiles"));
+
+        // When: sin token
+        MockHttpServletResponse sinToken = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/privada/x"), sinToken, new MockFilterChain());
+
+        // Then
+        assertEquals(401, sinToken.getStatus());
+        assertEquals(0, llamadas.get());
+
+        // When: dos solicitudes con el mismo token y capacidad 1
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        MockHttpServletResponse segunda = new MockHttpServletResponse();
+        for (MockHttpServletResponse response : List.of(primera, segunda)) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/privada/x");
+            request.addHeader("Authorization", "Bearer token-1");
+            filter.doFilter(request, response, new MockFilterChain());
+        }
+
+        // Then
+        assertEquals(201, primera.getStatus());
+        assertEquals(429, segunda.getStatus());
+        assertNotNull(segunda.getHeader("Retry-After"));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Una ruta hacia un servicio desconocido se rechaza al compilar la tabla")
+    void testProxy_ServicioDesconocido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> filtro(ruta("otra", "/otra/**", "otro-service", null)));
+    }
+}
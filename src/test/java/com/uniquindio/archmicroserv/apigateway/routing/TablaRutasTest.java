@@ -0,0 +1,110 @@
+package com.uniquindio.archmicroserv.apigateway.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para TablaRutas y DefinicionRuta")
+class TablaRutasTest {
+
+    private static DefinicionRuta ruta(String id, String patron, String metodos, String reescritura) {
+        return new DefinicionRuta(id, patron,
+                metodos == null ? Set.of() : Set.of(metodos.split(",")),
+                "gestion-perfil-service", reescritura, Map.of(), Set.of(), false, null);
+    }
+
+    @Test
+    @DisplayName("Rutas - El segmento literal gana a la variable y la variable a '**'")
+    void testBuscar_Especificidad() {
+        TablaRutas tabla = new TablaRutas(List.of(
+                ruta("resto", "/api/v1/perfiles/**", null, null),
+                ruta("variable", "/api/v1/perfiles/{usuario}", null, null),
+                ruta("literal", "/api/v1/perfiles/publicos", null, null)));
+
+        assertEquals("literal", tabla.buscar("GET", "/api/v1/perfiles/publicos").ruta().id());
+        assertEquals("variable", tabla.buscar("GET", "/api/v1/perfiles/ana").ruta().id());
+        assertEquals("resto", tabla.buscar("GET", "/api/v1/perfiles/ana/fotos/1").ruta().id());
+        assertNull(tabla.buscar("GET", "/api/v1/usuarios/ana"));
+    }
+
+    @Test
+    @DisplayName("Rutas - Se respeta el método y se reescribe la ruta con variables y resto")
+    void testBuscar_MetodoYReescritura() {
+        TablaRutas tabla = new TablaRutas(List.of(
+                ruta("perfil", "/api/v1/perfiles/{usuario}/publico", "GET", "/v1/perfiles/{usuario}"),
+                ruta("archivos", "/api/v1/archivos/{tipo}/**", null, "/almacen/{tipo}/{**}")));
+
+        assertNull(tabla.buscar("POST", "/api/v1/perfiles/ana/publico"));
+        assertEquals("/v1/perfiles/ana", tabla.buscar("GET", "/api/v1/perfiles/ana/publico").rutaDestino());
+        assertEquals("/almacen/img/a/b.png", tabla.buscar("GET", "/api/v1/archivos/img/a/b.png").rutaDestino());
+        assertEquals("/almacen/img/", tabla.buscar("GET", "/api/v1/archivos/img").rutaDestino());
+    }
+
+    @Test
+    @DisplayName("Rutas - Segmentos '.' o '..', ';' y separadores o puntos codificados no coinciden con ninguna ruta")
+    void testBuscar_RutasNoNormalizadas() {
+        TablaRutas tabla = new TablaRutas(List.of(
+                ruta("publico", "/publico/**", null, "/static/{**}"),
+                ruta("perfil", "/api/v1/perfiles/{usuario}/publico", "GET", "/v1/perfiles/{usuario}")));
+
+        assertEquals("/static/css/a.css", tabla.buscar("GET", "/publico/css/a.css").rutaDestino());
+        assertEquals("/static/a%20b.txt", tabla.buscar("GET", "/publico/a%20b.txt").rutaDestino());
+        assertNull(tabla.buscar("GET", "/publico/../admin"));
+        assertNull(tabla.buscar("GET", "/publico/./admin"));
+        assertNull(tabla.buscar("GET", "/publico/%2e%2e/admin"));
+        assertNull(tabla.buscar("GET", "/publico/%2E%2E%2Fadmin"));
+        assertNull(tabla.buscar("GET", "/publico/..%5cadmin"));
+        assertNull(tabla.buscar("GET", "/publico/..;/admin"));
+        assertNull(tabla.buscar("GET", "/publico/%252e%252e/admin"));
+        assertNull(tabla.buscar("GET", "/api/v1/perfiles/..%2Fadmin/publico"));
+    }
+
+    @Test
+    @DisplayName("Rutas - Una plantilla con una variable no definida se rechaza al construir la tabla")
+    void testConstruir_VariableInexistente() {
+        List<DefinicionRuta> rutas = List.of(ruta("mala", "/api/{a}", null, "/x/{b}"));
+
+        assertThrows(IllegalArgumentException.class, () -> new TablaRutas(rutas));
+    }
+
+    @Test
+    @DisplayName("Rutas - Se leen de las propiedades gateway.routes indexadas")
+    void testLeer_Propiedades() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.routes[0].id", "perfil")
+                .withProperty("gateway.routes[0].path", "/api/v1/perfiles/{usuario}")
+                .withProperty("gateway.routes[0].methods", "get, put")
+                .withProperty("gateway.routes[0].uri", "lb://gestion-perfil-service/")
+                .withProperty("gateway.routes[0].add-request-headers", "X-Origen:api-gateway")
+                .withProperty("gateway.routes[0].remove-request-headers", "Cookie")
+                .withProperty("gateway.routes[0].auth", "true")
+                .withProperty("gateway.routes[0].rate-limit-policy", "perfiles");
+
+        List<DefinicionRuta> rutas = DefinicionRuta.leer(environment);
+
+        assertEquals(1, rutas.size());
+        DefinicionRuta ruta = rutas.get(0);
+        assertEquals(Set.of("GET", "PUT"), ruta.metodos());
+        assertEquals("gestion-perfil-service", ruta.servicio());
+        assertEquals(Map.of("X-Origen", "api-gateway"), ruta.encabezadosAgregados());
+        assertEquals(Set.of("cookie"), ruta.encabezadosQuitados());
+        assertTrue(ruta.requiereToken());
+        assertEquals("perfiles", ruta.politicaLimite());
+    }
+
+    @Test
+    @DisplayName("Rutas - Una uri que no nombra un servicio del gateway se rechaza")
+    void testLeer_UriSinServicio() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.routes[0].path", "/api/v1/perfiles/{usuario}")
+                .withProperty("gateway.routes[0].uri", "http://localhost:8082");
+
+        assertThrows(IllegalArgumentException.class, () -> DefinicionRuta.leer(environment));
+    }
+}
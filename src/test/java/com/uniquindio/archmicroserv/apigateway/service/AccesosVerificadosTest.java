@@ -0,0 +1,64 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para AccesosVerificados")
+class AccesosVerificadosTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    @DisplayName("Un acceso registrado vale para el mismo token y usuario hasta que vence")
+    void testVerificado_HastaVencer() {
+        AccesosVerificados accesos = new AccesosVerificados(1000, 100, reloj::get);
+
+        accesos.registrar("token-a", "ana");
+
+        assertTrue(accesos.verificado("token-a", "ana"));
+        assertFalse(accesos.verificado("token-b", "ana"));
+        assertFalse(accesos.verificado("token-a", "luis"));
+
+        reloj.addAndGet(1_000_000_000L);
+        assertFalse(accesos.verificado("token-a", "ana"));
+    }
+
+    @Test
+    @DisplayName("Con TTL cero nunca se omite la autorización")
+    void testVerificado_Deshabilitado() {
+        AccesosVerificados accesos = new AccesosVerificados(0, 100, reloj::get);
+
+        accesos.registrar("token-a", "ana");
+
+        assertFalse(accesos.verificado("token-a", "ana"));
+    }
+
+    @Test
+    @DisplayName("Un token nulo se rechaza en lugar de compartir una entrada")
+    void testVerificado_TokenNulo() {
+        AccesosVerificados accesos = new AccesosVerificados(1000, 100, reloj::get);
+
+        assertThrows(IllegalArgumentException.class, () -> accesos.registrar(null, "ana"));
+        assertThrows(IllegalArgumentException.class, () -> accesos.verificado(null, "ana"));
+    }
+
+    @Test
+    @DisplayName("Al superar el máximo de entradas se descartan las vencidas")
+    void testRegistrar_BarreVencidas() {
+        AccesosVerificados accesos = new AccesosVerificados(1000, 2, reloj::get);
+        accesos.registrar("token", "ana");
+        accesos.registrar("token", "luis");
+        reloj.addAndGet(2_000_000_000L);
+
+        accesos.registrar("token", "eva");
+        accesos.registrar("token", "juan");
+
+        assertTrue(accesos.verificado("token", "eva"));
+        assertTrue(accesos.verificado("token", "juan"));
+        assertFalse(accesos.verificado("token", "ana"));
+    }
+}
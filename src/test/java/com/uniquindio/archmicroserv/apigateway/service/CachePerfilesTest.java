@@ -0,0 +1,86 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.cache.CacheCompartida;
+import com.uniquindio.archmicroserv.apigateway.cache.CacheCompartidaMemoria;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para CachePerfiles")
+class CachePerfilesTest {
+
+    private static final Map<String, Object> PERFIL = Map.of("usuario", "ana", "apodo", "Ani",
+            "redes", List.of("https://ejemplo.com/ana"), "publico", true);
+    private static final CacheCompartida SIN_COMPARTIDA = null;
+
+    private final CacheCompartidaMemoria compartida = new CacheCompartidaMemoria();
+
+    @Test
+    @DisplayName("Devuelve una copia equivalente del perfil guardado hasta que se invalida")
+    void testObtener_CopiaHastaInvalidar() {
+        CachePerfiles cachePerfiles = new CachePerfiles(60_000, 1 << 20, 512, 65536, 0, SIN_COMPARTIDA);
+
+        cachePerfiles.guardar("ana", PERFIL);
+        Map<String, Object> guardado = cachePerfiles.obtener("ana").block();
+
+        assertEquals(PERFIL, guardado);
+        assertNotSame(guardado, cachePerfiles.obtener("ana").block());
+
+        cachePerfiles.invalidar("ana");
+        StepVerifier.create(cachePerfiles.obtener("ana")).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Una réplica sin el perfil en su caché local lo toma de la compartida y lo guarda localmente")
+    void testObtener_DesdeCompartida() {
+        CachePerfiles replicaA = new CachePerfiles(60_000, 1 << 20, 512, 65536, 60_000, compartida);
+        CachePerfiles replicaB = new CachePerfiles(60_000, 1 << 20, 512, 65536, 60_000, compartida);
+
+        replicaA.guardar("ana", PERFIL);
+
+        StepVerifier.create(replicaB.obtener("ana")).expectNext(PERFIL).verifyComplete();
+
+        // Ya está en la caché local de B, aunque se pierda de la compartida
+        compartida.invalidar("ana").block();
+        StepVerifier.create(replicaB.obtener("ana")).expectNext(PERFIL).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Invalidar borra el perfil de ambos niveles")
+    void testInvalidar_AmbosNiveles() {
+        CachePerfiles cachePerfiles = new CachePerfiles(60_000, 1 << 20, 512, 65536, 60_000, compartida);
+        cachePerfiles.guardar("ana", PERFIL);
+
+        cachePerfiles.invalidar("ana");
+
+        StepVerifier.create(cachePerfiles.obtener("ana")).verifyComplete();
+        StepVerifier.create(compartida.obtener("ana")).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Un valor ilegible en la caché compartida se trata como fallo")
+    void testObtener_CompartidaIlegible() {
+        CachePerfiles cachePerfiles = new CachePerfiles(0, 1 << 20, 512, 65536, 60_000, compartida);
+        compartida.guardar("ana", "no es json".getBytes(StandardCharsets.UTF_8), Duration.ofMinutes(1)).block();
+
+        StepVerifier.create(cachePerfiles.obtener("ana")).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Con TTL 0 y sin caché compartida queda deshabilitada y no guarda nada")
+    void testDeshabilitada() {
+        CachePerfiles cachePerfiles = new CachePerfiles(0, 1 << 20, 512, 65536, 60_000, SIN_COMPARTIDA);
+
+        cachePerfiles.guardar("ana", Map.of("usuario", "ana"));
+
+        assertFalse(cachePerfiles.habilitada());
+        StepVerifier.create(cachePerfiles.obtener("ana")).verifyComplete();
+    }
+}
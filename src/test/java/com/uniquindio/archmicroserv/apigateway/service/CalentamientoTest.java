@@ -0,0 +1,91 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.config.DownstreamRecargable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para Calentamiento")
+class CalentamientoTest {
+
+    @Mock
+    private DownstreamRecargable domainService;
+
+    @Mock
+    private DownstreamRecargable gestionPerfilService;
+
+    @Mock
+    private GestionPerfilServiceClient gestionPerfilServiceClient;
+
+    @Mock
+    private CachePerfiles cachePerfiles;
+
+    @Mock
+    private PerfilesFrecuentes perfilesFrecuentes;
+
+    @BeforeEach
+    void setUp() {
+        when(domainService.precalentar(4)).thenReturn(Mono.just(4L));
+        when(gestionPerfilService.precalentar(4)).thenReturn(Mono.just(4L));
+    }
+
+    private Calentamiento calentamiento(long tiempoMaximoMs) {
+        return new Calentamiento(domainService, gestionPerfilService, gestionPerfilServiceClient,
+                cachePerfiles, perfilesFrecuentes, true, 4, tiempoMaximoMs, 2);
+    }
+
+    @Test
+    @DisplayName("Abre conexiones hacia ambos microservicios y precarga los perfiles frecuentes, aunque alguno falle")
+    void testCalentar_ConexionesYPerfiles() {
+        when(cachePerfiles.habilitada()).thenReturn(true);
+        when(perfilesFrecuentes.leer()).thenReturn(List.of("ana", "luis", "borrado"));
+        when(gestionPerfilServiceClient.precargarPerfil(anyString())).thenReturn(Mono.just(Map.of("apodo", "x")));
+        when(gestionPerfilServiceClient.precargarPerfil("borrado")).thenReturn(Mono.error(new RuntimeException("404")));
+
+        StepVerifier.create(calentamiento(5000).calentar()).verifyComplete();
+
+        verify(domainService).precalentar(4);
+        verify(gestionPerfilService).precalentar(4);
+        verify(gestionPerfilServiceClient).precargarPerfil("ana");
+        verify(gestionPerfilServiceClient).precargarPerfil("luis");
+        verify(gestionPerfilServiceClient).precargarPerfil("borrado");
+        // La precarga no cuenta como consulta: la lista no se sostiene a sí misma
+        verify(gestionPerfilServiceClient, never()).obtenerPerfil(anyString());
+        verify(perfilesFrecuentes, never()).registrar(anyString());
+    }
+
+    @Test
+    @DisplayName("Sin caché de perfiles no precarga nada")
+    void testCalentar_SinCache() {
+        when(cachePerfiles.habilitada()).thenReturn(false);
+
+        StepVerifier.create(calentamiento(5000).calentar()).verifyComplete();
+
+        verifyNoInteractions(gestionPerfilServiceClient, perfilesFrecuentes);
+    }
+
+    @Test
+    @DisplayName("Si no termina a tiempo se da por terminado sin error")
+    void testCalentar_TiempoMaximo() {
+        when(cachePerfiles.habilitada()).thenReturn(true);
+        when(perfilesFrecuentes.leer()).thenReturn(List.of("ana"));
+        when(gestionPerfilServiceClient.precargarPerfil("ana")).thenReturn(Mono.never());
+
+        StepVerifier.create(calentamiento(100).calentar())
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,182 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para ConsultaLoteService")
+class ConsultaLoteServiceTest {
+
+    @Mock
+    private DomainServiceClient domainServiceClient;
+
+    @Mock
+    private GestionPerfilServiceClient gestionPerfilServiceClient;
+
+    private ConsultaLoteService consultaLoteService;
+
+    @BeforeEach
+    void setUp() {
+        consultaLoteService = new ConsultaLoteService(domainServiceClient, gestionPerfilServiceClient, 2, 100, 10_000, false, 50);
+    }
+
+    private static WebClientResponseException error(int status, String body) {
+        return WebClientResponseException.create(status, "error", new HttpHeaders(),
+                body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Combina seguridad y perfil, en orden y sin usuarios repetidos")
+    void testObtenerUsuarios_Success() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(anyString(), eq("token")))
+                .thenAnswer(inv -> Mono.just(Map.of("respuesta", Map.of("correo", inv.getArgument(0) + "@example.com"))));
+        when(gestionPerfilServiceClient.obtenerPerfil(anyString()))
+                .thenAnswer(inv -> Mono.just(Map.of("apodo", inv.getArgument(0))));
+
+        // When / Then
+        StepVerifier.create(consultaLoteService.obtenerUsuarios(List.of("ana", "luis", "ana"), "token"))
+                .assertNext(resultado -> {
+                    assertEquals("ana", resultado.get("usuario"));
+                    assertEquals(Map.of("correo", "ana@example.com"), resultado.get("datosSeguridad"));
+                    assertEquals(Map.of("apodo", "ana"), resultado.get("perfil"));
+                })
+                .assertNext(resultado -> assertEquals("luis", resultado.get("usuario")))
+                .verifyComplete();
+        verify(domainServiceClient, times(1)).obtenerUsuario("ana", "token");
+    }
+
+    @Test
+    @DisplayName("Un usuario inexistente se reporta en su elemento sin afectar al resto")
+    void testObtenerUsuarios_ErrorPorElemento() {
+        // Given
+        when(domainServiceClient.obtenerUsuario("ana", "token"))
+                .thenReturn(Mono.just(Map.of("usuario", "ana")));
+        when(domainServiceClient.obtenerUsuario("nadie", "token"))
+                .thenReturn(Mono.error(error(404, "{\"error\":true,\"respuesta\":\"Usuario no encontrado\"}")));
+        when(gestionPerfilServiceClient.obtenerPerfil(anyString())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(consultaLoteService.obtenerUsuarios(List.of("nadie", "ana"), "token"))
+                .assertNext(resultado -> {
+                    assertEquals("nadie", resultado.get("usuario"));
+                    assertEquals(true, resultado.get("error"));
+                    assertEquals(404, resultado.get("status"));
+                    assertEquals("Usuario no encontrado", resultado.get("respuesta"));
+                })
+                .assertNext(resultado -> assertNull(resultado.get("error")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Un token inválido corta todo el lote")
+    void testObtenerUsuarios_NoAutorizado() {
+        // Given
+        when(domainServiceClient.obtenerUsuario(anyString(), eq("token")))
+                .thenReturn(Mono.error(error(401, "{}")));
+        when(gestionPerfilServiceClient.obtenerPerfil(anyString())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(consultaLoteService.obtenerUsuarios(List.of("ana", "luis"), "token"))
+                .expectErrorMatches(e -> e instanceof WebClientResponseException w && w.getStatusCode().value() == 401)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Respeta el límite de concurrencia")
+    void testObtenerUsuarios_ConcurrenciaAcotada() {
+        // Given
+        AtomicInteger enVuelo = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        when(domainServiceClient.obtenerUsuario(anyString(), eq("token"))).thenAnswer(inv -> Mono
+                .fromRunnable(() -> maximo.accumulateAndGet(enVuelo.incrementAndGet(), Math::max))
+                .then(Mono.delay(Duration.ofMillis(10)))
+                .then(Mono.fromCallable(() -> {
+                    enVuelo.decrementAndGet();
+                    return Map.<String, Object>of("usuario", inv.getArgument(0));
+                })));
+        when(gestionPerfilServiceClient.obtenerPerfil(anyString())).thenReturn(Mono.just(Map.of()));
+
+        // When
+        List<Map<String, Object>> resultados = consultaLoteService
+                .obtenerUsuarios(List.of("a", "b", "c", "d", "e", "f"), "token")
+                .collectList()
+                .block();
+
+        // Then
+        assertEquals(6, resultados.size());
+        assertTrue(maximo.get() <= 2, "máximo en vuelo: " + maximo.get());
+    }
+
+    @Test
+    @DisplayName("Usa las consultas por lotes de los microservicios cuando están habilitadas")
+    void testObtenerUsuarios_LotesDownstream() {
+        // Given
+        consultaLoteService = new ConsultaLoteService(domainServiceClient, gestionPerfilServiceClient, 2, 100, 10_000, true, 50);
+        when(domainServiceClient.obtenerUsuarios(List.of("ana", "nadie"), "token"))
+                .thenReturn(Mono.just(Map.of("respuesta", List.of(Map.of("usuario", "ana", "correo", "ana@example.com")))));
+        when(gestionPerfilServiceClient.obtenerPerfiles(List.of("ana", "nadie")))
+                .thenReturn(Mono.just(Map.of("respuesta", List.of(Map.of("usuario", "ana", "apodo", "Ana")))));
+
+        // When / Then
+        StepVerifier.create(consultaLoteService.obtenerUsuarios(List.of("ana", "nadie"), "token"))
+                .assertNext(resultado -> assertEquals("Ana", ((Map<?, ?>) resultado.get("perfil")).get("apodo")))
+                .assertNext(resultado -> assertEquals(404, resultado.get("status")))
+                .verifyComplete();
+        verify(domainServiceClient, never()).obtenerUsuario(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Si la consulta por lotes no está disponible consulta usuario por usuario")
+    void testObtenerUsuarios_LotesDownstreamNoDisponible() {
+        // Given
+        consultaLoteService = new ConsultaLoteService(domainServiceClient, gestionPerfilServiceClient, 2, 100, 10_000, true, 50);
+        when(domainServiceClient.obtenerUsuarios(anyList(), eq("token")))
+                .thenReturn(Mono.error(error(404, "{}")));
+        when(gestionPerfilServiceClient.obtenerPerfiles(anyList()))
+                .thenReturn(Mono.error(error(404, "{}")));
+        when(domainServiceClient.obtenerUsuario("ana", "token"))
+                .thenReturn(Mono.just(Map.of("usuario", "ana")));
+        when(gestionPerfilServiceClient.obtenerPerfil("ana")).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(consultaLoteService.obtenerUsuarios(List.of("ana"), "token"))
+                .assertNext(resultado -> assertEquals(Map.of("usuario", "ana"), resultado.get("datosSeguridad")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("En streaming emite cada usuario en orden de finalización")
+    void testTransmitirUsuarios_OrdenDeFinalizacion() {
+        // Given
+        when(domainServiceClient.obtenerUsuario("lento", "token"))
+                .thenReturn(Mono.delay(Duration.ofMillis(100)).thenReturn(Map.of("usuario", "lento")));
+        when(domainServiceClient.obtenerUsuario("rapido", "token"))
+                .thenReturn(Mono.just(Map.of("usuario", "rapido")));
+        when(gestionPerfilServiceClient.obtenerPerfil(anyString())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(consultaLoteService.transmitirUsuarios(List.of("lento", "rapido"), "token"))
+                .assertNext(resultado -> assertEquals("rapido", resultado.get("usuario")))
+                .assertNext(resultado -> assertEquals("lento", resultado.get("usuario")))
+                .verifyComplete();
+    }
+}
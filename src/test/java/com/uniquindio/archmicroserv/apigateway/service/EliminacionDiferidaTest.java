@@ -0,0 +1,182 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.apigateway.messaging.EventoPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para EliminacionDiferida")
+class EliminacionDiferidaTest {
+
+    @Mock
+    private GestionPerfilServiceClient gestionPerfilServiceClient;
+
+    @Mock
+    private EventoPublisher eventoPublisher;
+
+    @TempDir
+    Path journal;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private EliminacionDiferida eliminacionDiferida;
+
+    @AfterEach
+    void tearDown() {
+        if (eliminacionDiferida != null) {
+            eliminacionDiferida.close();
+        }
+    }
+
+    private EliminacionDiferida crear(int capacidad, int workers) {
+        return crear(capacidad, workers, 0);
+    }
+
+    private EliminacionDiferida crear(int capacidad, int workers, long reescaneoMs) {
+        return new EliminacionDiferida(gestionPerfilServiceClient, eventoPublisher, objectMapper,
+                true, journal.toString(), capacidad, workers, 3, 1, reescaneoMs);
+    }
+
+    private long pendientesEnJournal() throws IOException {
+        try (Stream<Path> archivos = Files.list(journal)) {
+            return archivos.filter(archivo -> archivo.toString().endsWith(".json")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Elimina el perfil, publica el evento y borra la tarea del journal")
+    void testProgramar_CompletaLimpieza() throws IOException {
+        // Given
+        when(gestionPerfilServiceClient.eliminarPerfil("ana")).thenReturn(Mono.empty());
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(1);
+        eliminacionDiferida = crear(10, 2);
+
+        // When
+        StepVerifier.create(eliminacionDiferida.programar("ana", "ana@example.com"))
+                .expectNext(true)
+                .verifyComplete();
+
+        // Then
+        verify(eventoPublisher, timeout(2000)).publicarEventosEliminacion(List.of(Map.entry("ana", "ana@example.com")));
+        verify(gestionPerfilServiceClient).eliminarPerfil("ana");
+        long limite = System.currentTimeMillis() + 2000;
+        while (pendientesEnJournal() > 0 && System.currentTimeMillis() < limite) {
+            Thread.yield();
+        }
+        assertEquals(0, pendientesEnJournal());
+    }
+
+    @Test
+    @DisplayName("Reintenta los pasos fallidos y trata un perfil inexistente como eliminado")
+    void testProgramar_Reintentos() {
+        // Given
+        AtomicInteger intentos = new AtomicInteger();
+        when(gestionPerfilServiceClient.eliminarPerfil("ana")).thenReturn(Mono.defer(() ->
+                intentos.incrementAndGet() == 1
+                        ? Mono.error(new RuntimeException("Conexión rechazada"))
+                        : Mono.error(WebClientResponseException.create(404, "Not Found", new HttpHeaders(), new byte[0], null))));
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(0, 1);
+        eliminacionDiferida = crear(10, 2);
+
+        // When
+        eliminacionDiferida.programar("ana", "").block();
+
+        // Then
+        verify(eventoPublisher, timeout(2000).times(2)).publicarEventosEliminacion(anyList());
+        assertEquals(2, intentos.get());
+    }
+
+    @Test
+    @DisplayName("Retoma al iniciar las tareas que quedaron en el journal")
+    void testRecuperarPendientes() throws IOException {
+        // Given
+        Files.writeString(journal.resolve("pendiente.json"),
+                "{\"usuario\":\"luis\",\"correo\":\"luis@example.com\",\"perfilEliminado\":true}");
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(1);
+
+        // When
+        eliminacionDiferida = crear(10, 2);
+
+        // Then
+        verify(eventoPublisher, timeout(2000)).publicarEventosEliminacion(List.of(Map.entry("luis", "luis@example.com")));
+        verify(gestionPerfilServiceClient, never()).eliminarPerfil(anyString());
+    }
+
+    @Test
+    @DisplayName("Aparta los archivos ilegibles del journal sin impedir el arranque")
+    void testRecuperarPendientes_ArchivoIlegible() throws IOException {
+        // Given
+        Files.writeString(journal.resolve("roto.json"), "{no es json");
+        Files.writeString(journal.resolve("pendiente.json"),
+                "{\"usuario\":\"luis\",\"correo\":\"luis@example.com\",\"perfilEliminado\":true}");
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(1);
+
+        // When
+        eliminacionDiferida = assertDoesNotThrow(() -> crear(10, 2));
+
+        // Then
+        verify(eventoPublisher, timeout(2000)).publicarEventosEliminacion(List.of(Map.entry("luis", "luis@example.com")));
+        assertFalse(Files.exists(journal.resolve("roto.json")));
+        assertTrue(Files.exists(journal.resolve("roto.json.corrupto")));
+    }
+
+    @Test
+    @DisplayName("Vuelve a encolar en el reescaneo periódico las tareas que agotaron sus reintentos")
+    void testReescaneo_ReencolaTareasAgotadas() throws IOException {
+        // Given: el intento inicial y sus 3 reintentos fallan; el reescaneo la completa
+        when(gestionPerfilServiceClient.eliminarPerfil("ana")).thenReturn(Mono.empty());
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(0, 0, 0, 0, 1);
+        eliminacionDiferida = crear(10, 2, 50);
+
+        // When
+        assertTrue(eliminacionDiferida.programar("ana", "").block());
+
+        // Then
+        verify(eventoPublisher, timeout(5000).times(5)).publicarEventosEliminacion(anyList());
+        verify(gestionPerfilServiceClient, times(1)).eliminarPerfil("ana");
+        long limite = System.currentTimeMillis() + 2000;
+        while (pendientesEnJournal() > 0 && System.currentTimeMillis() < limite) {
+            Thread.yield();
+        }
+        assertEquals(0, pendientesEnJournal());
+    }
+
+    @Test
+    @DisplayName("Con la cola llena delega la limpieza al llamador y no deja la tarea en el journal")
+    void testProgramar_ColaLlena() throws IOException {
+        // Given: el único worker queda ocupado con la primera tarea
+        when(gestionPerfilServiceClient.eliminarPerfil(anyString())).thenReturn(Mono.never());
+        eliminacionDiferida = crear(1, 1);
+
+        // When
+        assertTrue(eliminacionDiferida.programar("a", "").block());
+        verify(gestionPerfilServiceClient, timeout(2000)).eliminarPerfil("a");
+        assertTrue(eliminacionDiferida.programar("b", "").block());
+        Boolean tercera = eliminacionDiferida.programar("c", "").block();
+
+        // Then
+        assertFalse(tercera);
+        assertEquals(2, pendientesEnJournal());
+    }
+}
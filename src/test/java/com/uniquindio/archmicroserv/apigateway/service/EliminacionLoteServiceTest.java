@@ -0,0 +1,145 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.messaging.EventoPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para EliminacionLoteService")
+class EliminacionLoteServiceTest {
+
+    @Mock
+    private DomainServiceClient domainServiceClient;
+
+    @Mock
+    private GestionPerfilServiceClient gestionPerfilServiceClient;
+
+    @Mock
+    private EventoPublisher eventoPublisher;
+
+    private EliminacionLoteService eliminacionLoteService;
+
+    @BeforeEach
+    void setUp() {
+        eliminacionLoteService = new EliminacionLoteService(
+                domainServiceClient, gestionPerfilServiceClient, eventoPublisher, 4, 1000, 10, 1000, 2, 1);
+    }
+
+    private static WebClientResponseException error(int status, String body) {
+        return WebClientResponseException.create(status, "error", new HttpHeaders(),
+                body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Elimina los usuarios y publica sus eventos en un solo lote")
+    @SuppressWarnings("unchecked")
+    void testEliminarUsuarios_Success() {
+        // Given
+        when(domainServiceClient.eliminarUsuario(anyString(), eq("token")))
+                .thenAnswer(inv -> Mono.just(Map.of("respuesta", Map.of("correo", inv.getArgument(0) + "@example.com"))));
+        when(gestionPerfilServiceClient.eliminarPerfil(anyString())).thenReturn(Mono.empty());
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // When / Then
+        StepVerifier.create(eliminacionLoteService.eliminarUsuarios(List.of("ana", "luis", "eva"), "token"))
+                .expectNextMatches(elemento -> Boolean.TRUE.equals(elemento.get("eliminado")))
+                .expectNextMatches(elemento -> Boolean.TRUE.equals(elemento.get("eliminado")))
+                .expectNextMatches(elemento -> Boolean.TRUE.equals(elemento.get("eliminado")))
+                .assertNext(resumen -> {
+                    assertEquals(3, resumen.get("total"));
+                    assertEquals(3, resumen.get("eliminados"));
+                    assertEquals(0, resumen.get("fallidos"));
+                    assertEquals(0, resumen.get("eventosFallidos"));
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<List<Map.Entry<String, String>>> eventos = ArgumentCaptor.forClass(List.class);
+        verify(eventoPublisher, times(1)).publicarEventosEliminacion(eventos.capture());
+        assertEquals(3, eventos.getValue().size());
+        assertTrue(eventos.getValue().contains(Map.entry("ana", "ana@example.com")));
+        verify(eventoPublisher, never()).publicarEventoEliminacion(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Un usuario que falla se reporta sin detener el lote ni publicar su evento")
+    @SuppressWarnings("unchecked")
+    void testEliminarUsuarios_FalloPorElemento() {
+        // Given
+        when(domainServiceClient.eliminarUsuario("ana", "token")).thenReturn(Mono.just(Map.of()));
+        when(domainServiceClient.eliminarUsuario("nadie", "token"))
+                .thenReturn(Mono.error(error(404, "{\"error\":true,\"respuesta\":\"Usuario no encontrado\"}")));
+        when(gestionPerfilServiceClient.eliminarPerfil("ana"))
+                .thenReturn(Mono.error(error(404, "{}")));
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(1);
+
+        // When
+        List<Map<String, Object>> avance = eliminacionLoteService
+                .eliminarUsuarios(List.of("ana", "nadie"), "token")
+                .collectList()
+                .block();
+
+        // Then
+        assertEquals(3, avance.size());
+        assertTrue(avance.contains(Map.of("usuario", "ana", "eliminado", true)));
+        assertTrue(avance.stream().anyMatch(e -> "nadie".equals(e.get("usuario")) && Integer.valueOf(404).equals(e.get("status"))));
+        assertEquals(1, avance.get(2).get("fallidos"));
+
+        ArgumentCaptor<List<Map.Entry<String, String>>> eventos = ArgumentCaptor.forClass(List.class);
+        verify(eventoPublisher).publicarEventosEliminacion(eventos.capture());
+        assertEquals(List.of(Map.entry("ana", "")), eventos.getValue());
+    }
+
+    @Test
+    @DisplayName("Reintenta la publicación de eventos y marca los usuarios cuyo evento no se publicó")
+    void testEliminarUsuarios_FalloPublicacionEventos() {
+        // Given: el broker rechaza el intento inicial y los 2 reintentos
+        when(domainServiceClient.eliminarUsuario(anyString(), eq("token"))).thenReturn(Mono.just(Map.of()));
+        when(gestionPerfilServiceClient.eliminarPerfil(anyString())).thenReturn(Mono.empty());
+        when(eventoPublisher.publicarEventosEliminacion(anyList())).thenReturn(0);
+
+        // When
+        List<Map<String, Object>> avance = eliminacionLoteService
+                .eliminarUsuarios(List.of("ana", "luis"), "token")
+                .collectList()
+                .block();
+
+        // Then
+        assertEquals(3, avance.size());
+        assertTrue(avance.contains(Map.of("usuario", "ana", "eliminado", true, "evento", false)));
+        assertTrue(avance.contains(Map.of("usuario", "luis", "eliminado", true, "evento", false)));
+        assertEquals(2, avance.get(2).get("eliminados"));
+        assertEquals(2, avance.get(2).get("eventosFallidos"));
+        verify(eventoPublisher, times(3)).publicarEventosEliminacion(anyList());
+    }
+
+    @Test
+    @DisplayName("Un token inválido corta el lote")
+    void testEliminarUsuarios_NoAutorizado() {
+        // Given
+        when(domainServiceClient.eliminarUsuario(anyString(), eq("token")))
+                .thenReturn(Mono.error(error(401, "{}")));
+
+        // When / Then
+        StepVerifier.create(eliminacionLoteService.eliminarUsuarios(List.of("ana"), "token"))
+                .expectError(WebClientResponseException.class)
+                .verify();
+        verifyNoInteractions(eventoPublisher);
+    }
+}
@@ -0,0 +1,99 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.dto.CamposUsuario;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para EtiquetasUsuario")
+class EtiquetasUsuarioTest {
+
+    private static final CamposUsuario TODOS = new CamposUsuario(true, true);
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    @DisplayName("La etiqueta es débil, no depende del orden de las claves y cambia con el contenido")
+    void testCalcular_Contenido() {
+        EtiquetasUsuario etiquetas = new EtiquetasUsuario(0, 100, List.of(), reloj::get);
+        Map<String, Object> vista = new LinkedHashMap<>();
+        vista.put("usuario", "ana");
+        vista.put("perfil", Map.of("apodo", "Ana", "edad", 30));
+        Map<String, Object> reordenada = new LinkedHashMap<>();
+        reordenada.put("perfil", Map.of("edad", 30, "apodo", "Ana"));
+        reordenada.put("usuario", "ana");
+
+        String etiqueta = etiquetas.calcular(vista);
+
+        assertTrue(etiqueta.matches("W/\"[0-9a-f]{16}\""));
+        assertEquals(etiqueta, etiquetas.calcular(reordenada));
+        assertNotEquals(etiqueta, etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("apodo", "Ana", "edad", "30"))));
+        assertNotEquals(etiqueta, etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("apodo", "Ana", "edad", 31))));
+    }
+
+    @Test
+    @DisplayName("Con campos de versión solo cuentan sus valores; si falta alguno se usa el contenido")
+    void testCalcular_CamposVersion() {
+        EtiquetasUsuario etiquetas = new EtiquetasUsuario(0, 100, List.of("version"), reloj::get);
+
+        assertEquals(
+                etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("version", 3, "apodo", "Ana"))),
+                etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("version", 3, "apodo", "Otra"))));
+        assertNotEquals(
+                etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("version", 3))),
+                etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("version", 4))));
+        assertNotEquals(
+                etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("version", 3), "datosSeguridad", Map.of("correo", "a@x.co"))),
+                etiquetas.calcular(Map.of("usuario", "ana", "perfil", Map.of("version", 3), "datosSeguridad", Map.of("correo", "b@x.co"))));
+    }
+
+    @Test
+    @DisplayName("If-None-Match usa comparación débil y acepta listas y comodín")
+    void testCoincide() {
+        assertTrue(EtiquetasUsuario.coincide("W/\"abc\"", "W/\"abc\""));
+        assertTrue(EtiquetasUsuario.coincide("\"abc\"", "W/\"abc\""));
+        assertTrue(EtiquetasUsuario.coincide("\"x\", W/\"abc\"", "W/\"abc\""));
+        assertTrue(EtiquetasUsuario.coincide("*", "W/\"abc\""));
+        assertFalse(EtiquetasUsuario.coincide("W/\"abd\"", "W/\"abc\""));
+        assertFalse(EtiquetasUsuario.coincide(null, "W/\"abc\""));
+        assertFalse(EtiquetasUsuario.coincide("*", null));
+    }
+
+    @Test
+    @DisplayName("La etiqueta registrada vale hasta que vence o se invalida el usuario")
+    void testVigente_HastaVencerOInvalidar() {
+        EtiquetasUsuario etiquetas = new EtiquetasUsuario(1000, 100, List.of(), reloj::get);
+        CamposUsuario perfil = new CamposUsuario(false, true);
+
+        etiquetas.registrar("ana", TODOS, "W/\"1\"");
+        etiquetas.registrar("ana", perfil, "W/\"2\"");
+
+        assertEquals("W/\"1\"", etiquetas.vigente("ana", TODOS));
+        assertEquals("W/\"2\"", etiquetas.vigente("ana", perfil));
+        assertNull(etiquetas.vigente("luis", TODOS));
+
+        etiquetas.invalidar("ana");
+        assertNull(etiquetas.vigente("ana", TODOS));
+        assertNull(etiquetas.vigente("ana", perfil));
+
+        etiquetas.registrar("ana", TODOS, "W/\"3\"");
+        reloj.addAndGet(1_000_000_000L);
+        assertNull(etiquetas.vigente("ana", TODOS));
+    }
+
+    @Test
+    @DisplayName("Con TTL cero no se recuerda ninguna etiqueta")
+    void testVigente_Deshabilitado() {
+        EtiquetasUsuario etiquetas = new EtiquetasUsuario(0, 100, List.of(), reloj::get);
+
+        etiquetas.registrar("ana", TODOS, "W/\"1\"");
+
+        assertNull(etiquetas.vigente("ana", TODOS));
+    }
+}
@@ -0,0 +1,92 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.uniquindio.archmicroserv.apigateway.service.NoEncontrados.Origen;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para NoEncontrados")
+class NoEncontradosTest {
+
+    private static final WebClientResponseException NO_ENCONTRADO = WebClientResponseException.create(404, "Not Found",
+            HttpHeaders.EMPTY, "{\"error\":true,\"respuesta\":\"Usuario no encontrado en el sistema\"}"
+                    .getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    @DisplayName("Un 404 se guarda desde el segundo y se responde con el mismo cuerpo hasta que vence")
+    void testBuscar_DesdeElSegundo() {
+        NoEncontrados noEncontrados = new NoEncontrados(1000, 100, 1000, reloj::get);
+
+        noEncontrados.registrar(Origen.PERFIL, "bot1", null, NO_ENCONTRADO);
+        assertNull(noEncontrados.buscar(Origen.PERFIL, "bot1", null));
+
+        noEncontrados.registrar(Origen.PERFIL, "bot1", null, NO_ENCONTRADO);
+        WebClientResponseException guardado = noEncontrados.buscar(Origen.PERFIL, "bot1", null);
+        assertNotNull(guardado);
+        assertEquals(HttpStatus.NOT_FOUND, guardado.getStatusCode());
+        assertEquals(NO_ENCONTRADO.getResponseBodyAsString(), guardado.getResponseBodyAsString());
+        assertNull(noEncontrados.buscar(Origen.SEGURIDAD, "bot1", "token"));
+
+        reloj.addAndGet(1_000_000_000L);
+        assertNull(noEncontrados.buscar(Origen.PERFIL, "bot1", null));
+    }
+
+    @Test
+    @DisplayName("Los 404 del Domain Service solo valen para el token que los recibió")
+    void testBuscar_PorToken() {
+        NoEncontrados noEncontrados = new NoEncontrados(1000, 100, 0, reloj::get);
+
+        noEncontrados.registrar(Origen.SEGURIDAD, "bot1", "token-a", NO_ENCONTRADO);
+
+        assertNotNull(noEncontrados.buscar(Origen.SEGURIDAD, "bot1", "token-a"));
+        assertNull(noEncontrados.buscar(Origen.SEGURIDAD, "bot1", "token-b"));
+    }
+
+    @Test
+    @DisplayName("Registrar el usuario invalida sus 404 en ambos microservicios")
+    void testInvalidar() {
+        NoEncontrados noEncontrados = new NoEncontrados(1000, 100, 0, reloj::get);
+        noEncontrados.registrar(Origen.SEGURIDAD, "ana", "token", NO_ENCONTRADO);
+        noEncontrados.registrar(Origen.PERFIL, "ana", null, NO_ENCONTRADO);
+
+        noEncontrados.invalidar("ana");
+
+        assertNull(noEncontrados.buscar(Origen.SEGURIDAD, "ana", "token"));
+        assertNull(noEncontrados.buscar(Origen.PERFIL, "ana", null));
+    }
+
+    @Test
+    @DisplayName("Llena y sin vencidas no admite nuevos 404; al vencer se barren")
+    void testRegistrar_Limite() {
+        NoEncontrados noEncontrados = new NoEncontrados(1000, 2, 0, reloj::get);
+        noEncontrados.registrar(Origen.PERFIL, "a", null, NO_ENCONTRADO);
+        noEncontrados.registrar(Origen.PERFIL, "b", null, NO_ENCONTRADO);
+
+        noEncontrados.registrar(Origen.PERFIL, "c", null, NO_ENCONTRADO);
+        assertNotNull(noEncontrados.buscar(Origen.PERFIL, "a", null));
+        assertNull(noEncontrados.buscar(Origen.PERFIL, "c", null));
+
+        reloj.addAndGet(1_000_000_000L);
+        noEncontrados.registrar(Origen.PERFIL, "c", null, NO_ENCONTRADO);
+        assertNotNull(noEncontrados.buscar(Origen.PERFIL, "c", null));
+    }
+
+    @Test
+    @DisplayName("Con TTL cero no se guarda nada")
+    void testDeshabilitado() {
+        NoEncontrados noEncontrados = new NoEncontrados(0, 100, 0, reloj::get);
+
+        noEncontrados.registrar(Origen.PERFIL, "bot1", null, NO_ENCONTRADO);
+
+        assertNull(noEncontrados.buscar(Origen.PERFIL, "bot1", null));
+    }
+}
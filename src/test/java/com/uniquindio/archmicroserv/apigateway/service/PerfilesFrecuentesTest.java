@@ -0,0 +1,72 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para PerfilesFrecuentes")
+class PerfilesFrecuentesTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Guarda los más consultados, el más frecuente primero, y otra instancia los lee")
+    void testPersistir_TopN() {
+        Path archivo = directorio.resolve("calentamiento/perfiles.txt");
+        PerfilesFrecuentes perfilesFrecuentes = new PerfilesFrecuentes(archivo.toString(), 2, 100, 60_000);
+        consultar(perfilesFrecuentes, "ana", 5);
+        consultar(perfilesFrecuentes, "luis", 9);
+        consultar(perfilesFrecuentes, "sofia", 1);
+
+        perfilesFrecuentes.persistir();
+
+        PerfilesFrecuentes trasReinicio = new PerfilesFrecuentes(archivo.toString(), 2, 100, 60_000);
+        assertEquals(List.of("luis", "ana"), trasReinicio.leer());
+    }
+
+    @Test
+    @DisplayName("Los contadores se reducen a la mitad y sin consultas no se reescribe la lista")
+    void testPersistir_Envejece() throws IOException {
+        Path archivo = directorio.resolve("perfiles.txt");
+        PerfilesFrecuentes perfilesFrecuentes = new PerfilesFrecuentes(archivo.toString(), 10, 100, 60_000);
+        consultar(perfilesFrecuentes, "ana", 1);
+        consultar(perfilesFrecuentes, "luis", 4);
+
+        perfilesFrecuentes.persistir();
+        assertEquals(List.of("luis", "ana"), perfilesFrecuentes.leer());
+
+        // ana tenía 1 consulta y se olvida; luis conserva 2
+        perfilesFrecuentes.persistir();
+        assertEquals(List.of("luis"), perfilesFrecuentes.leer());
+
+        perfilesFrecuentes.persistir();
+        perfilesFrecuentes.persistir();
+        assertEquals(List.of("luis"), Files.readAllLines(archivo));
+    }
+
+    @Test
+    @DisplayName("Sin archivo configurado no registra nada y la lista está vacía")
+    void testDeshabilitado() {
+        PerfilesFrecuentes perfilesFrecuentes = new PerfilesFrecuentes("", 10, 100, 60_000);
+
+        consultar(perfilesFrecuentes, "ana", 3);
+        perfilesFrecuentes.persistir();
+
+        assertFalse(perfilesFrecuentes.habilitado());
+        assertEquals(List.of(), perfilesFrecuentes.leer());
+    }
+
+    private static void consultar(PerfilesFrecuentes perfilesFrecuentes, String usuario, int veces) {
+        for (int i = 0; i < veces; i++) {
+            perfilesFrecuentes.registrar(usuario);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para RegistroLoteService")
+class RegistroLoteServiceTest {
+
+    @Mock
+    private DomainServiceClient domainServiceClient;
+
+    @Mock
+    private GestionPerfilServiceClient gestionPerfilServiceClient;
+
+    private RegistroLoteService registroLoteService;
+
+    @BeforeEach
+    void setUp() {
+        registroLoteService = new RegistroLoteService(
+                domainServiceClient, gestionPerfilServiceClient, new ObjectMapper(), 4, 3, true);
+    }
+
+    private static InputStream cuerpo(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String registro(String usuario) {
+        return "{\"usuario\":\"" + usuario + "\",\"correo\":\"" + usuario + "@example.com\",\"clave\":\"secreta\","
+                + "\"apodo\":\"" + usuario + "\"}";
+    }
+
+    @Test
+    @DisplayName("Registra cada línea NDJSON y crea su perfil")
+    void testRegistrarUsuarios_Ndjson() {
+        // Given
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.just(Map.of("error", false)));
+        when(gestionPerfilServiceClient.crearPerfil(anyString(), any())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(registroLoteService.registrarUsuarios(cuerpo(registro("ana") + "\n" + registro("luis") + "\n")))
+                .expectNextMatches(elemento -> Boolean.TRUE.equals(elemento.get("registrado"))
+                        && Boolean.TRUE.equals(elemento.get("perfil")))
+                .expectNextMatches(elemento -> Boolean.TRUE.equals(elemento.get("registrado")))
+                .assertNext(resumen -> {
+                    assertEquals(2, resumen.get("total"));
+                    assertEquals(2, resumen.get("registrados"));
+                    assertEquals(0, resumen.get("fallidos"));
+                    assertNull(resumen.get("error"));
+                })
+                .verifyComplete();
+
+        // Los datos de perfil no se envían a Domain Service
+        verify(domainServiceClient, times(2)).registrarUsuario(argThat(datos -> !((Map<?, ?>) datos).containsKey("apodo")));
+        verify(gestionPerfilServiceClient).crearPerfil(eq("ana"), eq(Map.of("apodo", "ana")));
+    }
+
+    @Test
+    @DisplayName("Acepta un arreglo JSON de registros")
+    void testRegistrarUsuarios_ArregloJson() {
+        // Given
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.just(Map.of("error", false)));
+        when(gestionPerfilServiceClient.crearPerfil(anyString(), any())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(registroLoteService.registrarUsuarios(cuerpo("[" + registro("ana") + "," + registro("luis") + "]")))
+                .expectNextCount(2)
+                .assertNext(resumen -> assertEquals(2, resumen.get("registrados")))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Un registro rechazado se reporta con su índice sin detener el lote")
+    void testRegistrarUsuarios_ErrorPorRegistro() {
+        // Given
+        when(domainServiceClient.registrarUsuario(any())).thenAnswer(inv -> {
+            Map<?, ?> datos = inv.getArgument(0);
+            if ("luis".equals(datos.get("usuario"))) {
+                return Mono.error(WebClientResponseException.create(409, "Conflict", new HttpHeaders(),
+                        "{\"respuesta\":\"El usuario ya existe\"}".getBytes(StandardCharsets.UTF_8),
+                        StandardCharsets.UTF_8));
+            }
+            return Mono.just(Map.of("error", false));
+        });
+        when(gestionPerfilServiceClient.crearPerfil(anyString(), any())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(registroLoteService.registrarUsuarios(cuerpo(registro("ana") + "\n" + registro("luis"))))
+                .recordWith(ArrayList::new)
+                .expectNextCount(2)
+                .consumeRecordedWith(elementos -> {
+                    Map<String, Object> fallo = elementos.stream()
+                            .filter(elemento -> "luis".equals(elemento.get("usuario")))
+                            .findFirst().orElseThrow();
+                    assertEquals(true, fallo.get("error"));
+                    assertEquals(409, fallo.get("status"));
+                    assertEquals(1, fallo.get("indice"));
+                    assertEquals("El usuario ya existe", fallo.get("respuesta"));
+                })
+                .assertNext(resumen -> {
+                    assertEquals(1, resumen.get("registrados"));
+                    assertEquals(1, resumen.get("fallidos"));
+                })
+                .verifyComplete();
+        verify(gestionPerfilServiceClient, never()).crearPerfil(eq("luis"), any());
+    }
+
+    @Test
+    @DisplayName("Un cuerpo mal formado detiene la lectura y se informa en el resumen")
+    void testRegistrarUsuarios_CuerpoMalFormado() {
+        // Given
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.just(Map.of("error", false)));
+        when(gestionPerfilServiceClient.crearPerfil(anyString(), any())).thenReturn(Mono.just(Map.of()));
+
+        // When / Then
+        StepVerifier.create(registroLoteService.registrarUsuarios(cuerpo(registro("ana") + "\n{\"usuario\": ")))
+                .expectNextMatches(elemento -> "ana".equals(elemento.get("usuario")))
+                .assertNext(resumen -> {
+                    assertEquals(1, resumen.get("total"));
+                    assertEquals(true, resumen.get("error"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Solo se procesan los primeros max-records registros")
+    void testRegistrarUsuarios_MaximoRegistros() {
+        // Given
+        when(domainServiceClient.registrarUsuario(any())).thenReturn(Mono.just(Map.of("error", false)));
+        when(gestionPerfilServiceClient.crearPerfil(anyString(), any())).thenReturn(Mono.just(Map.of()));
+        String contenido = String.join("\n", registro("a"), registro("b"), registro("c"), registro("d"), registro("e"));
+
+        // When / Then
+        StepVerifier.create(registroLoteService.registrarUsuarios(cuerpo(contenido)))
+                .expectNextCount(3)
+                .assertNext(resumen -> {
+                    assertEquals(3, resumen.get("total"));
+                    assertEquals(true, resumen.get("error"));
+                    assertEquals("Se procesaron solo los primeros 3 registros", resumen.get("respuesta"));
+                })
+                .verifyComplete();
+        verify(domainServiceClient, times(3)).registrarUsuario(any());
+    }
+}
@@ -4,12 +4,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,6 +35,7 @@ import static org.mockito.Mockito.*;
  *   <li>Manejo de errores en servicios downstream</li>
  *   <li>Validación de campos vacíos</li>
  *   <li>Validación de todos los campos de perfil y redes sociales</li>
+ *   <li>Escrituras en paralelo y reporte de éxito parcial</li>
  * </ul>
  * </p>
  * 
@@ -49,7 +53,6 @@ class UsuarioUnificadoServiceTest {
     @Mock
     private GestionPerfilServiceClient gestionPerfilServiceClient;
 
-    @InjectMocks
     private UsuarioUnificadoService usuarioUnificadoService;
 
     private String testUsuario;
@@ -58,6 +61,8 @@ class UsuarioUnificadoServiceTest {
 
     @BeforeEach
     void setUp() {
+        usuarioUnificadoService = new UsuarioUnificadoService(
+                domainServiceClient, gestionPerfilServiceClient, new AccesosVerificados(30000, 1000), false);
         testUsuario = "testuser";
         testToken = "valid-token-123";
 
@@ -360,4 +365,206 @@ class UsuarioUnificadoServiceTest {
                         map.containsKey("informacionContactoPublica")
                 ));
     }
+
+    // ===== TESTS DE ESCRITURAS EN PARALELO =====
+
+    private UsuarioUnificadoService servicioParalelo(AccesosVerificados accesos) {
+        return new UsuarioUnificadoService(domainServiceClient, gestionPerfilServiceClient, accesos, true);
+    }
+
+    private static Map<String, Object> actualizacionMixta() {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("correo", "new@example.com");
+        requestBody.put("apodo", "New Nickname");
+        return requestBody;
+    }
+
+    /**
+     * Valida que con el token ya autorizado ambas escrituras se lanzan a la vez, de modo
+     * que la latencia es la de la más lenta y no la suma.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Token ya autorizado, ambas escrituras simultáneas")
+    void testActualizarEnParalelo_Simultaneas() {
+        AccesosVerificados accesos = new AccesosVerificados(30000, 1000);
+        accesos.registrar(testToken, testUsuario);
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario)).thenReturn(Mono.just(perfilData));
+        when(domainServiceClient.actualizarUsuario(eq(testUsuario), anyMap(), eq(testToken)))
+                .thenReturn(Mono.delay(Duration.ofMillis(300)).thenReturn(Map.of("correo", "new@example.com")));
+        when(gestionPerfilServiceClient.actualizarPerfil(eq(testUsuario), anyMap()))
+                .thenReturn(Mono.delay(Duration.ofMillis(300)).thenReturn(perfilData));
+
+        Duration duracion = StepVerifier.create(servicioParalelo(accesos)
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .assertNext(response -> {
+                    assertEquals("Usuario actualizado exitosamente", response.get("mensaje"));
+                    assertEquals(perfilData, response.get("datosPerfil"));
+                })
+                .verifyComplete();
+
+        assertTrue(duracion.toMillis() < 550, "Duración: " + duracion.toMillis() + " ms");
+        verify(domainServiceClient, never()).obtenerUsuario(anyString(), anyString());
+    }
+
+    /**
+     * Valida que sin autorización previa el perfil no se escribe si el token es rechazado.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Token rechazado, no se escribe nada")
+    void testActualizarEnParalelo_SinPermisos() {
+        when(domainServiceClient.obtenerUsuario(testUsuario, testToken))
+                .thenReturn(Mono.error(WebClientResponseException.create(403, "Forbidden", new HttpHeaders(), new byte[0], null)));
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario)).thenReturn(Mono.just(perfilData));
+
+        StepVerifier.create(servicioParalelo(new AccesosVerificados(30000, 1000))
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .expectError(WebClientResponseException.class)
+                .verify();
+
+        verify(domainServiceClient, never()).actualizarUsuario(anyString(), any(), anyString());
+        verify(gestionPerfilServiceClient, never()).actualizarPerfil(anyString(), any());
+    }
+
+    /**
+     * Valida el reporte de éxito parcial cuando falla solo la escritura de seguridad.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Falla seguridad, se reporta éxito parcial del perfil")
+    void testActualizarEnParalelo_FallaSeguridad() {
+        when(domainServiceClient.obtenerUsuario(testUsuario, testToken))
+                .thenReturn(Mono.just(Map.of("usuario", testUsuario)));
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario)).thenReturn(Mono.just(perfilData));
+        when(domainServiceClient.actualizarUsuario(eq(testUsuario), anyMap(), eq(testToken)))
+                .thenReturn(Mono.error(WebClientResponseException.create(409, "Conflict", new HttpHeaders(),
+                        "{\"respuesta\":\"El correo ya está en uso\"}".getBytes(StandardCharsets.UTF_8),
+                        StandardCharsets.UTF_8)));
+        when(gestionPerfilServiceClient.actualizarPerfil(eq(testUsuario), anyMap()))
+                .thenReturn(Mono.just(perfilData));
+
+        StepVerifier.create(servicioParalelo(new AccesosVerificados(30000, 1000))
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .assertNext(response -> {
+                    assertEquals("Usuario actualizado parcialmente (solo perfil)", response.get("mensaje"));
+                    assertEquals(perfilData, response.get("datosPerfil"));
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> errorSeguridad = (Map<String, Object>) response.get("errorSeguridad");
+                    assertEquals(409, errorSeguridad.get("status"));
+                    assertEquals("El correo ya está en uso", errorSeguridad.get("respuesta"));
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Valida que si fallan ambas escrituras se propaga el error de seguridad.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Fallan ambas, se propaga el error de seguridad")
+    void testActualizarEnParalelo_FallanAmbas() {
+        AccesosVerificados accesos = new AccesosVerificados(30000, 1000);
+        accesos.registrar(testToken, testUsuario);
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario)).thenReturn(Mono.just(perfilData));
+        when(domainServiceClient.actualizarUsuario(eq(testUsuario), anyMap(), eq(testToken)))
+                .thenReturn(Mono.error(new RuntimeException("Error de seguridad")));
+        when(gestionPerfilServiceClient.actualizarPerfil(eq(testUsuario), anyMap()))
+                .thenReturn(Mono.error(new RuntimeException("Error de perfil")));
+
+        StepVerifier.create(servicioParalelo(accesos)
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .expectErrorMessage("Error de seguridad")
+                .verify();
+    }
+
+    /**
+     * Valida que si la escritura de seguridad rechaza el token se deshace la del perfil.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Seguridad responde 403, se restaura el perfil y se propaga el error")
+    void testActualizarEnParalelo_SeguridadRechazaEscritura() {
+        when(domainServiceClient.obtenerUsuario(testUsuario, testToken))
+                .thenReturn(Mono.just(Map.of("usuario", testUsuario)));
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario))
+                .thenReturn(Mono.just(perfilData), Mono.just(Map.of("apodo", "New Nickname", "biografia", "Test bio")));
+        when(domainServiceClient.actualizarUsuario(eq(testUsuario), anyMap(), eq(testToken)))
+                .thenReturn(Mono.error(WebClientResponseException.create(403, "Forbidden", new HttpHeaders(), new byte[0], null)));
+        when(gestionPerfilServiceClient.actualizarPerfil(eq(testUsuario), anyMap()))
+                .thenReturn(Mono.just(Map.of("apodo", "New Nickname")));
+
+        StepVerifier.create(servicioParalelo(new AccesosVerificados(30000, 1000))
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .expectErrorMatches(error -> error instanceof WebClientResponseException.Forbidden)
+                .verify();
+
+        verify(gestionPerfilServiceClient).actualizarPerfil(testUsuario, Map.of("apodo", "New Nickname"));
+        verify(gestionPerfilServiceClient).actualizarPerfil(testUsuario, Map.of("apodo", "Test User"));
+        // La imagen previa se lee del microservicio, no de la caché ni como consulta frecuente
+        verify(gestionPerfilServiceClient, never()).obtenerPerfil(anyString());
+    }
+
+    /**
+     * Valida que deshacer no pisa un valor que otra escritura puso entre medio.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Al deshacer se respetan los campos que cambió otra escritura")
+    void testActualizarEnParalelo_DeshacerRespetaEscrituraConcurrente() {
+        AccesosVerificados accesos = new AccesosVerificados(30000, 1000);
+        accesos.registrar(testToken, testUsuario);
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario))
+                .thenReturn(Mono.just(perfilData), Mono.just(Map.of("apodo", "Otro apodo", "biografia", "Test bio")));
+        when(domainServiceClient.actualizarUsuario(eq(testUsuario), anyMap(), eq(testToken)))
+                .thenReturn(Mono.error(WebClientResponseException.create(403, "Forbidden", new HttpHeaders(), new byte[0], null)));
+        when(gestionPerfilServiceClient.actualizarPerfil(eq(testUsuario), anyMap()))
+                .thenReturn(Mono.just(Map.of("apodo", "New Nickname")));
+
+        StepVerifier.create(servicioParalelo(accesos)
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .expectErrorMatches(error -> error instanceof WebClientResponseException.Forbidden)
+                .verify();
+
+        verify(gestionPerfilServiceClient, times(1)).actualizarPerfil(anyString(), anyMap());
+    }
+
+    /**
+     * Valida que si el usuario no tenía perfil, deshacer la escritura lo elimina.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Seguridad responde 401 sin perfil previo, se elimina el perfil creado")
+    void testActualizarEnParalelo_SeguridadRechazaSinPerfilPrevio() {
+        AccesosVerificados accesos = new AccesosVerificados(30000, 1000);
+        accesos.registrar(testToken, testUsuario);
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario))
+                .thenReturn(Mono.error(WebClientResponseException.create(404, "Not Found", new HttpHeaders(), new byte[0], null)),
+                        Mono.just(Map.of("apodo", "New Nickname")));
+        when(domainServiceClient.actualizarUsuario(eq(testUsuario), anyMap(), eq(testToken)))
+                .thenReturn(Mono.error(WebClientResponseException.create(401, "Unauthorized", new HttpHeaders(), new byte[0], null)));
+        when(gestionPerfilServiceClient.actualizarPerfil(eq(testUsuario), anyMap())).thenReturn(Mono.just(perfilData));
+        when(gestionPerfilServiceClient.eliminarPerfil(testUsuario)).thenReturn(Mono.empty());
+
+        StepVerifier.create(servicioParalelo(accesos)
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .expectErrorMatches(error -> error instanceof WebClientResponseException.Unauthorized)
+                .verify();
+
+        verify(gestionPerfilServiceClient).eliminarPerfil(testUsuario);
+    }
+
+    /**
+     * Valida que sin el perfil actual (no se podría deshacer) se usa el modo secuencial.
+     */
+    @Test
+    @DisplayName("Escrituras paralelas - Sin poder leer el perfil actual se actualiza en modo secuencial")
+    void testActualizarEnParalelo_SinPerfilAnteriorModoSecuencial() {
+        AccesosVerificados accesos = new AccesosVerificados(30000, 1000);
+        accesos.registrar(testToken, testUsuario);
+        when(gestionPerfilServiceClient.leerPerfilActual(testUsuario))
+                .thenReturn(Mono.error(WebClientResponseException.create(503, "Service Unavailable", new HttpHeaders(), new byte[0], null)));
+        when(domainServiceClient.actualizarUsuario(eq(testUsuario), anyMap(), eq(testToken)))
+                .thenReturn(Mono.error(WebClientResponseException.create(403, "Forbidden", new HttpHeaders(), new byte[0], null)));
+
+        StepVerifier.create(servicioParalelo(accesos)
+                        .actualizarUsuarioCompleto(testUsuario, actualizacionMixta(), testToken))
+                .expectError(WebClientResponseException.class)
+                .verify();
+
+        verify(gestionPerfilServiceClient, never()).actualizarPerfil(anyString(), any());
+    }
 }
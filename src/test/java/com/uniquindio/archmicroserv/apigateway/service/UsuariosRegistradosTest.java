@@ -0,0 +1,101 @@
+package com.uniquindio.archmicroserv.apigateway.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests unitarios para UsuariosRegistrados")
+class UsuariosRegistradosTest {
+
+    @Test
+    @DisplayName("Un usuario agregado es probable por nombre y por correo sin distinguir mayúsculas del correo")
+    void testAgregar() {
+        UsuariosRegistrados usuarios = new UsuariosRegistrados(true, 1000, 0.001);
+
+        usuarios.agregar("ana", "Ana@Example.com");
+
+        assertTrue(usuarios.usuarioProbable("ana"));
+        assertTrue(usuarios.correoProbable("ana@example.com "));
+        assertFalse(usuarios.usuarioProbable("Ana@Example.com"));
+        assertFalse(usuarios.correoProbable("ana"));
+    }
+
+    @Test
+    @DisplayName("Quitar un usuario lo deja de marcar sin afectar a los demás, aunque se haya agregado dos veces")
+    void testQuitar() {
+        UsuariosRegistrados usuarios = new UsuariosRegistrados(true, 1000, 0.001);
+        for (int i = 0; i < 500; i++) {
+            usuarios.agregar("usuario" + i, "usuario" + i + "@example.com");
+        }
+        usuarios.agregar("usuario7", null);
+
+        usuarios.quitar("usuario7", "usuario7@example.com");
+        usuarios.quitar("nunca-agregado", null);
+
+        assertFalse(usuarios.usuarioProbable("usuario7"));
+        assertFalse(usuarios.correoProbable("usuario7@example.com"));
+        for (int i = 0; i < 500; i++) {
+            if (i != 7) {
+                assertTrue(usuarios.usuarioProbable("usuario" + i), "usuario" + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Un falso positivo agregado se cuenta y quitarlo sin haberlo agregado no resta celdas ajenas")
+    void testFalsoPositivo() {
+        UsuariosRegistrados usuarios = new UsuariosRegistrados(true, 20, 0.2);
+        for (int i = 0; i < 30; i++) {
+            usuarios.agregar("usuario" + i, null);
+        }
+        String agregado = null;
+        String nuncaAgregado = null;
+        for (int i = 0; nuncaAgregado == null; i++) {
+            if (usuarios.usuarioProbable("libre" + i)) {
+                if (agregado == null) {
+                    agregado = "libre" + i;
+                } else {
+                    nuncaAgregado = "libre" + i;
+                }
+            }
+        }
+
+        usuarios.agregar(agregado, null);
+        usuarios.quitar(nuncaAgregado, null);
+        for (int i = 0; i < 30; i++) {
+            assertTrue(usuarios.usuarioProbable("usuario" + i), "usuario" + i);
+            usuarios.quitar("usuario" + i, null);
+        }
+
+        assertTrue(usuarios.usuarioProbable(agregado));
+    }
+
+    @Test
+    @DisplayName("La tasa de falsos positivos se mantiene cerca de la configurada")
+    void testFalsosPositivos() {
+        UsuariosRegistrados usuarios = new UsuariosRegistrados(true, 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            usuarios.agregar("usuario" + i, "usuario" + i + "@example.com");
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (usuarios.usuarioProbable("libre" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 200, "Falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    @DisplayName("Deshabilitado nunca indica un usuario probable")
+    void testDeshabilitado() {
+        UsuariosRegistrados usuarios = new UsuariosRegistrados(false, 1000, 0.001);
+
+        usuarios.agregar("ana", "ana@example.com");
+
+        assertFalse(usuarios.usuarioProbable("ana"));
+        assertFalse(usuarios.correoProbable("ana@example.com"));
+    }
+}